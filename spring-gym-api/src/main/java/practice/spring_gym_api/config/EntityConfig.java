@@ -23,6 +23,9 @@ public class EntityConfig {
     @Bean
     CommandLineRunner seedMembersAndCoaches(MemberRepository memberRepository, CoachRepository coachRepository){
         return args -> {
+            // The schema outlives restarts now that Flyway owns it, so only an empty database is seeded
+            if(coachRepository.count() > 0 || memberRepository.count() > 0) return;
+
             List<MemberEntity> listOfMembers = new ArrayList<>();
             List<CoachEntity> listOfCoaches = new ArrayList<>();
 
@@ -128,12 +131,15 @@ public class EntityConfig {
 
             coachRepository.saveAll(listOfCoaches);
             memberRepository.saveAll(listOfMembers);
+            coachRepository.recountAllClients();
         };
     }
     // ───── Seed Workers ─────
     @Bean
     CommandLineRunner seedWorkers(WorkerRepository workerRepository) {
         return args -> {
+            if(workerRepository.count() > 0) return;
+
             List<WorkerEntity> listOfWorkers = new ArrayList<>();
 
             WorkerEntity worker1 = new WorkerEntity(
@@ -0,0 +1,43 @@
+package practice.spring_gym_api.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import practice.spring_gym_api.dto.AccessTokenDTO;
+import practice.spring_gym_api.service.AuthService;
+
+/**
+ * REST controller that trades a coach or worker code for a short-lived bearer token.
+ */
+@RestController
+@RequestMapping(path = "api/v1/gym-api")
+public class AuthController {
+
+    private final AuthService authService;
+
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @Operation(summary = "Issues a bearer token for a coach or worker",
+            description = "Send either the coach or the worker headers. The token can then be sent as 'Authorization: Bearer <token>' " +
+                    "in place of those headers until it expires or the code is changed.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Token issued"),
+            @ApiResponse(responseCode = "401", description = "Invalid worker credentials"),
+            @ApiResponse(responseCode = "403", description = "Missing credential headers")
+    })
+    @Parameter(name = "x-coach-id", description = "ID of the coach requesting a token", in = ParameterIn.HEADER)
+    @Parameter(name = "x-coach-code", description = "Code of the coach requesting a token", in = ParameterIn.HEADER)
+    @Parameter(name = "x-worker-id", description = "ID of the worker requesting a token", in = ParameterIn.HEADER)
+    @Parameter(name = "x-worker-code", description = "Code of the worker requesting a token", in = ParameterIn.HEADER)
+    @PostMapping(path = "/auth/token")
+    public AccessTokenDTO issueAccessToken() {
+        return authService.issueAccessToken();
+    }
+}
@@ -5,29 +5,37 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.info.Info;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Qualifier;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
 import practice.spring_gym_api.dto.CoachDTO;
 import practice.spring_gym_api.dto.CoachMapper;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.dto.MemberDTO;
-import practice.spring_gym_api.dto.MemberMapper;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
-import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.ClientSort;
+import practice.spring_gym_api.entity.enums.CoachSort;
+import practice.spring_gym_api.entity.enums.CountMode;
+import practice.spring_gym_api.entity.enums.ExportFormat;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import practice.spring_gym_api.service.CoachService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
+import practice.spring_gym_api.service.cache.SerializedResponseCache.Kind;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * REST controller for managing coaches.
@@ -42,57 +50,71 @@ public class CoachController {
 
     private final CoachService coachService;
     private final CoachMapper coachMapper;
-    private final MemberMapper memberMapper;
+    private final SerializedResponseCache responseCache;
 
-    public CoachController(CoachService coachService, @Qualifier("coachMapperimpl") CoachMapper coachMapper, MemberMapper memberMapper) {
+    public CoachController(CoachService coachService, @Qualifier("coachMapperimpl") CoachMapper coachMapper, SerializedResponseCache responseCache) {
         this.coachService = coachService;
         this.coachMapper= coachMapper;
-        this.memberMapper = memberMapper;
+        this.responseCache = responseCache;
     }
 
     /**
      * Retrieves a coach by their ID.
+     * Sent with an ETag that changes with any coach write, a client sending it back gets a 304.
+     * The serialized body is cached until then, see {@link SerializedResponseCache}.
      *
      * @param id the ID of the coach
      * @return the coach as a DTO
      */
     @Operation(summary = "Retrieves the coach associated with the specified id")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Coach successfully retrieved"),
+            @ApiResponse(responseCode = "200", description = "Coach successfully retrieved",
+                    content = @Content(schema = @Schema(implementation = CoachDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Bad request due to invalid input")
     })
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
     @GetMapping(path = "/coaches/{coach_id}")
-    public ResponseEntity<CoachDTO> getCoachById(
+    public ResponseEntity<byte[]> getCoachById(
             @Parameter(name = "coach_id", description = "ID of the coach", required = true)
-            @PathVariable("coach_id") Long id) {
-        CoachEntity coachEntity = coachService.getCoachById(id);
-        CoachDTO coachDTO = coachMapper.convertToCoachDto(coachEntity);
-        return ResponseEntity.ok(coachDTO);
+            @PathVariable("coach_id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String version = coachService.getCoachesVersion();
+        return ConditionalGet.respondWithJson(ifNoneMatch, version, ConditionalGet.REVALIDATE, () -> coachService.existsById(id),
+                () -> responseCache.get(Kind.COACH, id, version, () -> coachMapper.convertToCoachDto(coachService.getCoachById(id))));
     }
 
     /**
-     * Retrieves a paginated list of all coaches.
+     * Retrieves all coaches, one page at a time.
      *
-     * @param page the page number (default = 0)
-     * @param size the page size (default = 5)
-     * @return list of CoachDTOs
+     * @param cursor cursor returned by the previous page, leave empty for the first page
+     * @param limit the number of coaches to return (default = 20, max = 100)
+     * @param sort order of the list: id or name (default = id)
+     * @param count exact or estimated to get the number of coaches in the X-Total-Count header,
+     *              X-Total-Count-Type says which one was sent. Left out, nothing is counted
+     * @return a {@link CursorPage} of CoachDTOs, with hasNext instead of a total
      */
-    @Operation(summary = "Retrieves a paginated list of all coaches")
+    @Operation(summary = "Retrieves all coaches, one page at a time")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved paginated list of coaches"),
-            @ApiResponse(responseCode = "400", description = "Bad request due to invalid pagination parameters")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of coaches"),
+            @ApiResponse(responseCode = "400", description = "Bad request due to an invalid cursor, limit, sort or count")
     })
     @GetMapping(path = "/coaches")
-    public List<CoachDTO> getAllCoaches(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "1") int size
+    public ResponseEntity<CursorPage<CoachDTO>> getAllCoaches(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String count
     ) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<CoachEntity> coachEntities = coachService.getAllCoachesPageable(pageable);
+        CountMode countMode = count == null ? null : CountMode.fromParam(count);
+        CursorPage<CoachDTO> page = coachService.getAllCoachesPageable(cursor, limit, CoachSort.fromParam(sort));
+        if(countMode == null) return ResponseEntity.ok(page);
 
-        return coachEntities.stream()
-                .map(coachMapper::convertToCoachDto)
-                .toList();
+        TotalCount totalCount = coachService.countCoaches(countMode == CountMode.EXACT);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(totalCount.value()))
+                .header("X-Total-Count-Type", totalCount.type())
+                .body(page);
     }
 
     /**
@@ -130,58 +152,75 @@ public class CoachController {
     }
 
     /**
-     * Returns all the clients of a coach.
+     * Returns one page of the clients of a coach.
+     * Sent with an ETag that changes with any member or coach write, a client sending it back gets a 304.
      *
      * @param id the id used to identify the coach
-     * @return the set of the coaches clients
+     * @param cursor nextCursor of the previous page, left out for the first page
+     * @param limit max number of clients on the page (1 - 100)
+     * @param sort id, name or total (highest first)
+     * @return one page of the coaches clients
      */
-    @Operation(summary = "Returns all clients assigned to a coach")
+    @Operation(summary = "Returns one page of the clients assigned to a coach")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved clients of the coach"),
-            @ApiResponse(responseCode = "400", description = "Invalid coach ID or no clients found")
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid coach ID, cursor, limit or sort, or no clients found")
     })
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
     @GetMapping (path = "/coaches/{coach_id}/clients")
-    public Set<MemberDTO> getAllClientsOfACoach(@PathVariable("coach_id") Long id) {
-        Set<MemberEntity> memberEntities = coachService.getAllClientsByCoachId(id);
-
-        return memberEntities.stream()
-                .map(memberMapper::convertToMemberDTO)
-                .collect(Collectors.toSet());
+    public ResponseEntity<CursorPage<MemberDTO>> getAllClientsOfACoach(
+            @PathVariable("coach_id") Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        ClientSort clientSort = ClientSort.fromParam(sort);
+        return ConditionalGet.respond(ifNoneMatch, coachService.getClientsVersion(), ConditionalGet.REVALIDATE, () -> coachService.existsById(id),
+                () -> coachService.getAllClientsByCoachId(id, cursor, limit, clientSort));
     }
 
     /**
      * Retrieves the workout plans associated with a coach, using their name.
+     * Sent with an ETag that changes with any coach write, the serialized body is cached until then.
      *
      * @param name the coach's name
      * @return list of workout plans
      */
     @Operation(summary = "Retrieves the workout plans associated with a coach by name")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Workout plans successfully retrieved"),
+            @ApiResponse(responseCode = "200", description = "Workout plans successfully retrieved",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = String.class)))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Invalid coach name or plans not found")
     })
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
     @GetMapping (path = "/coaches/{coach_name}/plans")
-    public ResponseEntity<List<String>> getWorkoutPlansByCoachName(@PathVariable(name = "coach_name") String name){
-        List<String> workoutPlans = coachService.getWorkoutPlansByCoachName(name);
-        return ResponseEntity.ok(workoutPlans);
+    public ResponseEntity<byte[]> getWorkoutPlansByCoachName(@PathVariable(name = "coach_name") String name, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String version = coachService.getCoachesVersion();
+        return ConditionalGet.respondWithJson(ifNoneMatch, version, ConditionalGet.REVALIDATE, () -> coachService.existsByName(name),
+                () -> responseCache.get(Kind.WORKOUT_PLANS, name, version, () -> coachService.getWorkoutPlansByCoachName(name)));
     }
 
     /**
-     * Retrieves all available coaches (coaches with no clients).
+     * Retrieves one page of available coaches (coaches with no clients).
      *
-     * @return List of available CoachDTOs
+     * @param cursor Cursor returned by the previous page, leave empty for the first page
+     * @param limit Number of coaches to return (default is 20, max is 100)
+     * @return CursorPage of available CoachDTOs
      */
-    @Operation(summary = "Retrieves all available coaches with no clients")
+    @Operation(summary = "Retrieves available coaches with no clients, one page at a time")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved available coaches")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved available coaches"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
     })
     @GetMapping (path = "/coaches/no-clients")
-    public List<CoachDTO> getAvaliableCoaches(){
-        List<CoachEntity> coachEntities = coachService.getAllCoachesThatAreAvaliable();
-
-        return coachEntities.stream()
-                .map(coachMapper::convertToCoachDto)
-                .toList();
+    public CursorPage<CoachDTO> getAvaliableCoaches(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ){
+        return coachService.getAllCoachesThatAreAvaliable(cursor, limit);
     }
 
     /**
@@ -205,6 +244,28 @@ public class CoachController {
         return ResponseEntity.ok(coachDTO);
     }
 
+    /**
+     * Streams every coach, coach codes are left out.
+     *
+     * @param format ndjson or csv
+     */
+    @Operation(summary = "Streams every coach as NDJSON or CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Coaches streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid format")
+    })
+    @Parameter(name = "format", description = "Either ndjson (default) or csv. CSV starts with a header row.")
+    @GetMapping(path = "/export/coaches", produces = {"application/x-ndjson", "text/csv"})
+    public void exportCoaches(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        coachService.exportCoaches(response.getOutputStream(), exportFormat);
+    }
+
     /**
      * Registers a new coach in the system.
      *
@@ -230,10 +291,11 @@ public class CoachController {
      * Registers multiple coaches in bulk.
      *
      * @param coachRequestDTOS object containing a list of coaches
+     * @return how many coaches were saved, and which rows were rejected and why
      */
     @Operation(summary = "Registers multiple coaches in a batch")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Batch registration successful"),
+            @ApiResponse(responseCode = "200", description = "Valid coaches registered, rejected rows listed in the response"),
             @ApiResponse(responseCode = "400", description = "Bad request due to invalid batch input")
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "coachCode must be 'Placeholder coach code' " +
@@ -241,8 +303,8 @@ public class CoachController {
     @Parameter(name = "x-worker-id", description = "ID of the worker making the request", in = ParameterIn.HEADER)
     @Parameter(name = "x-worker-code", description = "Code of the worker making the request", in = ParameterIn.HEADER)
     @PostMapping(path = "/coaches/batch")
-    public void registerNewCoaches(@Valid @RequestBody List<CoachRequestDTO> coachRequestDTOS) {
-        coachService.registerNewCoaches(coachRequestDTOS);
+    public BatchRegistrationResult registerNewCoaches(@Valid @RequestBody List<CoachRequestDTO> coachRequestDTOS) {
+        return coachService.registerNewCoaches(coachRequestDTOS);
     }
 
     /**
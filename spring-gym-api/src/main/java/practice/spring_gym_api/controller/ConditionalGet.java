@@ -0,0 +1,82 @@
+package practice.spring_gym_api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Answers a conditional GET from a version token, before anything is loaded or serialized.
+ * The token is sent as a strong ETag, a client that sends it back in If-None-Match gets a 304 with no body.
+ *
+ * A token covers a whole collection, so it matches for an id that doesn't exist as well. Reads of a single
+ * entity pass an existence check, which is only run once the tag matches. A missing entity then gets the same
+ * response it would get without If-None-Match, and "*" only matches when there is something to match.
+ */
+final class ConditionalGet {
+
+    /**
+     * Clients may keep a read, but have to check its ETag before using it again.
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    /**
+     * Leaderboards are polled, a copy may be shown for a few seconds without checking,
+     * and for a while longer while a check runs in the background.
+     */
+    static final CacheControl LEADERBOARD = CacheControl.maxAge(Duration.ofSeconds(5))
+            .staleWhileRevalidate(Duration.ofSeconds(30))
+            .cachePublic();
+
+    private ConditionalGet() {}
+
+    /**
+     * For a response that always exists, such as a leaderboard.
+     *
+     * @param ifNoneMatch the request's If-None-Match header, null if it has none
+     * @param version     token of the data behind the response, read before the body is built
+     * @param body        builds the body, only called when the client's copy is out of date
+     */
+    static <T> ResponseEntity<T> respond(String ifNoneMatch, String version, CacheControl cacheControl, Supplier<T> body) {
+        return respond(ifNoneMatch, version, cacheControl, () -> true, body);
+    }
+
+    /**
+     * @param exists whether the entity the response is about exists, only asked when the tag matches
+     */
+    static <T> ResponseEntity<T> respond(String ifNoneMatch, String version, CacheControl cacheControl,
+                                         BooleanSupplier exists, Supplier<T> body) {
+        String eTag = "\"" + version + "\"";
+        if(matches(ifNoneMatch, eTag) && exists.getAsBoolean()) return notModified(eTag, cacheControl);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(body.get());
+    }
+
+    /**
+     * Like {@link #respond}, for a body that's already serialized, which is written out as it is.
+     */
+    static ResponseEntity<byte[]> respondWithJson(String ifNoneMatch, String version, CacheControl cacheControl,
+                                                  BooleanSupplier exists, Supplier<byte[]> json) {
+        String eTag = "\"" + version + "\"";
+        if(matches(ifNoneMatch, eTag) && exists.getAsBoolean()) return notModified(eTag, cacheControl);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).contentType(MediaType.APPLICATION_JSON).body(json.get());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if(ifNoneMatch == null) return false;
+        for(String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match compares weakly, W/"x" matches "x"
+            if(tag.startsWith("W/")) tag = tag.substring(2);
+            if(tag.equals("*") || tag.equals(eTag)) return true;
+        }
+        return false;
+    }
+}
@@ -3,24 +3,39 @@ package practice.spring_gym_api.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.LeaderboardEntry;
+import practice.spring_gym_api.dto.LeaderboardStandingDTO;
 import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberImportResult;
 import practice.spring_gym_api.dto.MemberMapper;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.dto.request.UpdateMultipleMembersRequest;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
 import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+import practice.spring_gym_api.entity.enums.CountMode;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.entity.enums.MemberSort;
 import practice.spring_gym_api.service.MemberService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
+import practice.spring_gym_api.service.cache.SerializedResponseCache.Kind;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -33,51 +48,67 @@ public class MemberController {
 
     private final MemberService memberService;
     private final MemberMapper memberMapper;
+    private final SerializedResponseCache responseCache;
 
-    public MemberController(MemberService memberService, @Qualifier("memberMapperimpl")MemberMapper memberMapper) {
+    public MemberController(MemberService memberService, @Qualifier("memberMapperimpl")MemberMapper memberMapper, SerializedResponseCache responseCache) {
         this.memberService = memberService;
         this.memberMapper= memberMapper;
+        this.responseCache = responseCache;
     }
 
     /**
      * Retrieves a member by their ID.
+     * Sent with an ETag that changes with any member write, a client sending it back gets a 304
+     * as long as the member still exists.
+     * The serialized body is cached until then, see {@link SerializedResponseCache}.
      * @param id ID of the member
      * @return MemberDTO representation of the member
      */
     @Operation(summary = "Retrieves a member by their ID")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Member retrieved successfully"),
+            @ApiResponse(responseCode = "200", description = "Member retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = MemberDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Member not found")
     })
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
     @GetMapping(path = "/members/{member_id}")
-    public ResponseEntity<MemberDTO> getMemberById(@PathVariable("member_id") Long id){
-        MemberEntity memberEntity = memberService.getMemberById(id);
-        MemberDTO memberDTO = memberMapper.convertToMemberDTO(memberEntity);
-        return ResponseEntity.ok(memberDTO);
+    public ResponseEntity<byte[]> getMemberById(@PathVariable("member_id") Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String version = memberService.getMembersVersion();
+        return ConditionalGet.respondWithJson(ifNoneMatch, version, ConditionalGet.REVALIDATE, () -> memberService.existsById(id),
+                () -> responseCache.get(Kind.MEMBER, id, version, () -> memberMapper.convertToMemberDTO(memberService.getMemberById(id))));
     }
 
     /**
-     * Retrieves all members with pagination support.
-     * @param page Page number (default is 0)
-     * @param size Number of members per page (default is 5)
-     * @return List of paginated MemberDTOs
+     * Retrieves all members, one page at a time.
+     * @param cursor Cursor returned by the previous page, leave empty for the first page
+     * @param limit Number of members to return (default is 20, max is 100)
+     * @param sort Order of the list: id, name, membership_date, total or bench (default is id)
+     * @param count Set to exact or estimated to get the number of members in the X-Total-Count header,
+     *              X-Total-Count-Type says which one was sent. Left out, nothing is counted
+     * @return a {@link CursorPage} of MemberDTOs, with hasNext instead of a total
      */
-    @Operation(summary = "Retrieves all members with pagination")
+    @Operation(summary = "Retrieves all members, one page at a time")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Members retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Members retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit, sort or count")
     })
     @GetMapping(path = "/members")
-    public List<MemberDTO> getAllMembers(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size
+    public ResponseEntity<CursorPage<MemberDTO>> getAllMembers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String count
     ){
-        Pageable pageable = PageRequest.of(page, size);
-        Page<MemberEntity> memberEntities = memberService.getAllMembers(pageable);
+        CountMode countMode = count == null ? null : CountMode.fromParam(count);
+        CursorPage<MemberDTO> page = memberService.getAllMembers(cursor, limit, MemberSort.fromParam(sort));
+        if(countMode == null) return ResponseEntity.ok(page);
 
-        return memberEntities
-                .stream()
-                .map(memberMapper::convertToMemberDTO)
-                .toList();
+        TotalCount totalCount = memberService.countMembers(countMode == CountMode.EXACT);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(totalCount.value()))
+                .header("X-Total-Count-Type", totalCount.type())
+                .body(page);
     }
 
     /**
@@ -148,29 +179,118 @@ public class MemberController {
     })
     @GetMapping(path = "/members/above/total/{member_total}")
     public List<MemberDTO> getAllMembersWithAGreaterTotalThan(@PathVariable("member_total") int total){
-        List<MemberEntity> listOfEntities = memberService.getAllMembersAboveATotal(total);
-        return listOfEntities
-                .stream()
-                .map(memberMapper::convertToMemberDTO)
-                .toList();
+        return memberService.getAllMembersAboveATotal(total);
+    }
+
+    /**
+     * Gets one page of the ranked leaderboard for a lift.
+     * Like the other leaderboard reads it's sent with an ETag and may be reused for a few seconds,
+     * see {@link ConditionalGet#LEADERBOARD}.
+     * @param lift The lift to rank by (bench, squat, deadlift or total)
+     * @param limit Number of rows to return (default is 10, max is 100)
+     * @param offset Number of rows to skip (default is 0)
+     * @return List of LeaderboardEntry ordered from highest to lowest
+     */
+    @Operation(summary = "Retrieves the ranked leaderboard for a lift")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid lift, limit or offset")
+    })
+    @Parameter(name = "lift", description = "One of bench, squat, deadlift or total.")
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
+    @GetMapping(path = "/members/leaderboard/{lift}")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(
+            @PathVariable("lift") String lift,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ){
+        Lifts liftToRank = Lifts.fromPath(lift);
+        return ConditionalGet.respond(ifNoneMatch, memberService.getMembersVersion(), ConditionalGet.LEADERBOARD,
+                () -> memberService.getLeaderboard(liftToRank, limit, offset));
+    }
+
+    /**
+     * Gets where a member currently ranks for a lift.
+     * @param id ID of the member
+     * @param lift The lift to rank by (bench, squat, deadlift or total)
+     * @return LeaderboardStandingDTO with the member's rank and percentile
+     */
+    @Operation(summary = "Retrieves a member's rank and percentile for a lift")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Rank retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid lift or member not found")
+    })
+    @Parameter(name = "lift", description = "One of bench, squat, deadlift or total.")
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
+    @GetMapping(path = "/members/{member_id}/rank/{lift}")
+    public ResponseEntity<LeaderboardStandingDTO> getRankOfMember(@PathVariable("member_id") Long id, @PathVariable("lift") String lift,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        Lifts liftToRank = Lifts.fromPath(lift);
+        return ConditionalGet.respond(ifNoneMatch, memberService.getMembersVersion(), ConditionalGet.LEADERBOARD,
+                () -> memberService.getRankOfMember(id, liftToRank));
+    }
+
+    /**
+     * Gets where a score would rank for a lift, and the percentile it falls in.
+     * @param lift The lift to rank by (bench, squat, deadlift or total)
+     * @param score The score to place on the leaderboard
+     * @return LeaderboardStandingDTO with the score's rank and percentile
+     */
+    @Operation(summary = "Retrieves the rank and percentile of a score for a lift")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Percentile retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid lift or negative score")
+    })
+    @Parameter(name = "lift", description = "One of bench, squat, deadlift or total.")
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
+    @GetMapping(path = "/members/leaderboard/{lift}/percentile")
+    public ResponseEntity<LeaderboardStandingDTO> getStandingOfScore(@PathVariable("lift") String lift, @RequestParam int score,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        Lifts liftToRank = Lifts.fromPath(lift);
+        return ConditionalGet.respond(ifNoneMatch, memberService.getMembersVersion(), ConditionalGet.LEADERBOARD,
+                () -> memberService.getStandingOfScore(liftToRank, score));
     }
 
     /**
-     * Retrieves all available members who are not currently assigned to a coach.
+     * Retrieves one page of available members who are not currently assigned to a coach.
      *
-     * @return a list of {@link MemberDTO} objects representing avaliable members (members without coaches).
+     * @param cursor Cursor returned by the previous page, leave empty for the first page
+     * @param limit Number of members to return (default is 20, max is 100)
+     * @return a {@link CursorPage} of {@link MemberDTO} objects representing avaliable members (members without coaches).
      * @throws IllegalStateException if no available members are found (thrown from the service layer).
      */
-    @Operation(summary = "Retrieves all members not assigned to any coach")
+    @Operation(summary = "Retrieves members not assigned to any coach, one page at a time")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Members retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Members retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
     })
     @GetMapping(path = "/members/no-coach")
-    public List<MemberDTO> getAllAvaliableMembers(){
-        List<MemberEntity> memberEntities = memberService.getAllAvaliableMembers();
-        return memberEntities.stream()
-                .map(memberMapper::convertToMemberDTO)
-                .toList();
+    public CursorPage<MemberDTO> getAllAvaliableMembers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ){
+        return memberService.getAllAvaliableMembers(cursor, limit);
+    }
+
+    @Operation(summary = "Streams every member as NDJSON or CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Members streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid format")
+    })
+    @Parameter(name = "format", description = "Either ndjson (default) or csv. CSV starts with a header row.")
+    @GetMapping(path = "/export/members", produces = {"application/x-ndjson", "text/csv"})
+    public void exportMembers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        memberService.exportMembers(response.getOutputStream(), exportFormat);
     }
 
     @Operation(summary = "Registers a single new member")
@@ -189,7 +309,7 @@ public class MemberController {
 
     @Operation(summary = "Registers multiple new members at once")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Members successfully registered"),
+            @ApiResponse(responseCode = "200", description = "Valid members registered, rejected rows listed in the response"),
             @ApiResponse(responseCode = "400", description = "Invalid input or less than two members provided")
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -197,11 +317,28 @@ public class MemberController {
     @Parameter(name = "x-worker-id", description = "ID of the worker making the request", in = ParameterIn.HEADER)
     @Parameter(name = "x-worker-code", description = "Code of the worker making the request", in = ParameterIn.HEADER)
     @PostMapping(path = "/members/batch")
-    public void registerMultipleMembers(
+    public BatchRegistrationResult registerMultipleMembers(
             @Size(min = 2, message = "At least two members must be provided,  if you only need to register one member use the singular endpoint")
             @NotNull(message = "List of members must not be null")
             @RequestBody List<@Valid MemberRequestDTO> memberRequestDTOS) {
-        memberService.registerNewMembers(memberRequestDTOS);
+        return memberService.registerNewMembers(memberRequestDTOS);
+    }
+
+    @Operation(summary = "Imports members from an NDJSON or CSV file, streaming it instead of loading it into memory")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished, rejected rows listed in the response"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing a column"),
+            @ApiResponse(responseCode = "415", description = "Body is not application/x-ndjson or text/csv")
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "One member per line. CSV needs a header with name,dateOfBirth,membershipDate,email,role,bench,squat,deadlift. Role must be 'ROLE_MEMBER'")
+    @Parameter(name = "x-worker-id", description = "ID of the worker making the request", in = ParameterIn.HEADER)
+    @Parameter(name = "x-worker-code", description = "Code of the worker making the request", in = ParameterIn.HEADER)
+    @PostMapping(path = "/members/import", consumes = {"application/x-ndjson", "text/csv"})
+    public MemberImportResult importMembers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return memberService.importMembers(body, contentType);
     }
 
     @Operation(summary = "Replaces the current coach of a member")
@@ -333,13 +470,13 @@ public class MemberController {
 
     @Operation(summary = "Deletes all members whose total (bench+squat+deadlift) is below a threshold")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Members successfully deleted"),
+            @ApiResponse(responseCode = "200", description = "Members successfully deleted, returns how many were deleted"),
             @ApiResponse(responseCode = "400", description = "Invalid total value")
     })
     @Parameter(name = "x-worker-id", description = "ID of the worker making the request", in = ParameterIn.HEADER)
     @Parameter(name = "x-worker-code", description = "Code of the worker making the request", in = ParameterIn.HEADER)
     @DeleteMapping(path = "members/below/total/{total}")
-    public void deleteAllMembersBelowATotal(@PathVariable("total") int total) {
-        memberService.deleteMembersBelowATotal(total);
+    public int deleteAllMembersBelowATotal(@PathVariable("total") int total) {
+        return memberService.deleteMembersBelowATotal(total);
     }
 }
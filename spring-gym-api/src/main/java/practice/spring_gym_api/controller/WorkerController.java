@@ -4,16 +4,25 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import practice.spring_gym_api.dto.WorkerDTO;
 import practice.spring_gym_api.dto.WorkerMapper;
 import practice.spring_gym_api.dto.request.WorkerRequestDTO;
 import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
 import practice.spring_gym_api.service.WorkerService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
+import practice.spring_gym_api.service.cache.SerializedResponseCache.Kind;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping(path = "api/v1/gym-api")
@@ -21,21 +30,27 @@ public class WorkerController {
 
     private final WorkerService workerService;
     private final WorkerMapper workerMapper;
+    private final SerializedResponseCache responseCache;
 
-    public WorkerController(WorkerService workerService, WorkerMapper workerMapper) {
+    public WorkerController(WorkerService workerService, WorkerMapper workerMapper, SerializedResponseCache responseCache) {
         this.workerService = workerService;
         this.workerMapper= workerMapper;
+        this.responseCache = responseCache;
     }
 
     @Operation(summary = "Retrieves a worker by their ID")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Worker successfully retrieved"),
+            @ApiResponse(responseCode = "200", description = "Worker successfully retrieved",
+                    content = @Content(schema = @Schema(implementation = WorkerDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Worker not found")
     })
+    @Parameter(name = "If-None-Match", description = "ETag of the copy the client already has", in = ParameterIn.HEADER)
     @GetMapping(path = "workers/{worker_id}")
-    public WorkerDTO getWorkerByID(@PathVariable("worker_id") Long id) {
-        WorkerEntity workerEntity = workerService.getWorkerById(id);
-        return workerMapper.convertToWorkerDTO(workerEntity);
+    public ResponseEntity<byte[]> getWorkerByID(@PathVariable("worker_id") Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String version = workerService.getWorkersVersion();
+        return ConditionalGet.respondWithJson(ifNoneMatch, version, ConditionalGet.REVALIDATE, () -> workerService.existsById(id),
+                () -> responseCache.get(Kind.WORKER, id, version, () -> workerMapper.convertToWorkerDTO(workerService.getWorkerById(id))));
     }
 
     @Operation(summary = "Retrieves a worker by ID and code for verification")
@@ -55,6 +70,23 @@ public class WorkerController {
         return workerMapper.convertToWorkerDTO(workerEntity);
     }
 
+    @Operation(summary = "Streams every worker as NDJSON or CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Workers streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid format")
+    })
+    @Parameter(name = "format", description = "Either ndjson (default) or csv. CSV starts with a header row.")
+    @GetMapping(path = "/export/workers", produces = {"application/x-ndjson", "text/csv"})
+    public void exportWorkers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        workerService.exportWorkers(response.getOutputStream(), exportFormat);
+    }
+
     @Operation(summary = "Registers a new worker")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Worker successfully registered"),
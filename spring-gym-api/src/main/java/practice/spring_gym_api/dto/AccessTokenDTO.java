@@ -0,0 +1,43 @@
+package practice.spring_gym_api.dto;
+
+/**
+ * Bearer token handed out in exchange for a coach or worker code.
+ * Send it back as "Authorization: Bearer <token>" instead of the x-coach-* or x-worker-* headers.
+ */
+public class AccessTokenDTO {
+    private String token;
+    private String tokenType = "Bearer";
+    private long expiresIn;
+
+    public AccessTokenDTO(){}
+
+    public AccessTokenDTO(String token, long expiresIn){
+        this.token = token;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    // Seconds until the token expires
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
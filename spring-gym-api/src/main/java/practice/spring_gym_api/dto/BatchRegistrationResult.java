@@ -0,0 +1,80 @@
+package practice.spring_gym_api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch registration.
+ * Valid rows are saved even when other rows in the same batch are rejected,
+ * every rejected row is reported with its position in the request body.
+ */
+public class BatchRegistrationResult {
+    private int registered;
+    private List<RejectedRow> rejected = new ArrayList<>();
+
+    public BatchRegistrationResult(){}
+
+    public BatchRegistrationResult(int registered, List<RejectedRow> rejected){
+        this.registered = registered;
+        this.rejected = rejected;
+    }
+
+    public int getRegistered() {
+        return registered;
+    }
+
+    public void setRegistered(int registered) {
+        this.registered = registered;
+    }
+
+    public List<RejectedRow> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<RejectedRow> rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * A row that was not saved.
+     * Index is the row's zero based position in the request body,
+     * for file imports it is the row's line number in the file instead.
+     */
+    public static class RejectedRow {
+        private int index;
+        private String email;
+        private String reason;
+
+        public RejectedRow(){}
+
+        public RejectedRow(int index, String email, String reason){
+            this.index = index;
+            this.email = email;
+            this.reason = reason;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
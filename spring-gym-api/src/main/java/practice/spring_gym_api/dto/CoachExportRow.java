@@ -0,0 +1,17 @@
+package practice.spring_gym_api.dto;
+
+import practice.spring_gym_api.entity.enums.Roles;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of one coach in a directory export.
+ * Coach codes are never exported.
+ */
+public interface CoachExportRow {
+    Long getId();
+    String getName();
+    LocalDate getDateOfBirth();
+    Roles getRole();
+    int getClientCount();
+}
@@ -1,16 +1,39 @@
 package practice.spring_gym_api.dto;
 
+import org.mapstruct.Mapping;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import org.mapstruct.Mapper;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.WorkerEntity;
 
-
-@Mapper(componentModel = "spring")
+/**
+ * Implemented at compile time by MapStruct as dto.impl.CoachMapperimpl, plain getter/setter calls with no reflection.
+ */
+@Mapper(componentModel = "spring", implementationName = "<CLASS_NAME>impl", implementationPackage = "<PACKAGE_NAME>.impl")
 public interface CoachMapper {
     CoachDTO convertToCoachDto(CoachEntity coachEntity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "clients", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "coachCode", constant = "Placeholder coach code")
     CoachEntity convertToCoachEntity(CoachRequestDTO coachRequestDTO);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "coachedBy", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "role", constant = "ROLE_MEMBER")
+    @Mapping(target = "membershipDate", expression = "java(java.time.LocalDate.now().toString())")
+    @Mapping(target = "bench", ignore = true)
+    @Mapping(target = "squat", ignore = true)
+    @Mapping(target = "deadlift", ignore = true)
+    @Mapping(target = "total", ignore = true)
     MemberEntity covertCoachToMemberEntity(CoachEntity coachEntity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "role", constant = "ROLE_WORKER")
+    @Mapping(target = "workerCode", constant = "Placeholder worker code")
     WorkerEntity covertCoachToWorkerEntity(CoachEntity coachEntity);
 }
@@ -0,0 +1,16 @@
+package practice.spring_gym_api.dto;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * What the coach list endpoints need from a row, selected straight into this record by a JPQL constructor expression.
+ * No CoachEntity (or its clients and workout plans) is loaded and nothing is added to the persistence context.
+ * The ID is only kept to build cursors, it's not part of the CoachDTO.
+ */
+public record CoachSummary(Long id, String name, LocalDate dateOfBirth) {
+
+    public CoachDTO toDTO() {
+        return new CoachDTO(name, Period.between(dateOfBirth, LocalDate.now()).getYears(), dateOfBirth);
+    }
+}
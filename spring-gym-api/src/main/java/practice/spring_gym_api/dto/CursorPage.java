@@ -0,0 +1,134 @@
+package practice.spring_gym_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a cursor (keyset) paginated list.
+ * Pass {@code nextCursor} back as the {@code cursor} request param to get the next page,
+ * it is null once the last page has been reached.
+ * Cursors are opaque to clients, internally they hold the ID of the last row on the page,
+ * or for a sorted list the sort, the last row's sort value and its ID (see {@link Keyset}).
+ * No total is ever counted, {@code hasNext} is all a client gets, so a deep page costs the same as the first.
+ */
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public CursorPage(){}
+
+    public CursorPage(List<T> items, String nextCursor){
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code limit + 1}.
+     * The extra row only tells us whether there is another page and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idOf){
+        if(rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, encodeCursor(idOf.apply(items.get(limit - 1))));
+    }
+
+    /**
+     * Same as {@link #of(List, int, Function)} for a sorted list, {@code cursorOf} builds the cursor
+     * of a row with {@link #encodeCursor(String, Object, Long)}.
+     */
+    public static <T> CursorPage<T> ofKeyset(List<T> rows, int limit, Function<T, String> cursorOf){
+        if(rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Where a sorted page ends: the sort value of its last row and that row's ID, which breaks ties.
+     */
+    public record Keyset(String value, long id) {
+
+        public int intValue(){
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    public static String encodeCursor(String sort, Object value, Long id){
+        String key = sort + '|' + value + '|' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the keyset held by the cursor, or null when no cursor was given (start from the first row)
+     * @throws IllegalArgumentException if the cursor was not produced by this API or was issued for another sort
+     */
+    public static Keyset decodeCursor(String cursor, String sort){
+        if(cursor == null || cursor.isEmpty()) return null;
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        // The value sits between the first and last separator, so it may contain one itself
+        int sortEnd = key.indexOf('|');
+        int valueEnd = key.lastIndexOf('|');
+        if(sortEnd < 0 || valueEnd == sortEnd) throw new IllegalArgumentException("Invalid cursor");
+        if(!key.substring(0, sortEnd).equals(sort)) throw new IllegalArgumentException("Cursor was issued for a different sort");
+        try {
+            return new Keyset(key.substring(sortEnd + 1, valueEnd), Long.parseLong(key.substring(valueEnd + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static String encodeCursor(Long id){
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the ID held by the cursor, or 0 when no cursor was given (start from the first row)
+     * @throws IllegalArgumentException if the cursor was not produced by this API
+     */
+    public static long decodeCursor(String cursor){
+        if(cursor == null || cursor.isEmpty()) return 0L;
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper){
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    @JsonProperty("hasNext")
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,44 @@
+package practice.spring_gym_api.dto;
+
+/**
+ * A single leaderboard row.
+ * Rows are built from the in-memory LeaderboardEngine, so no MemberEntity is loaded to build them.
+ * Members that share the same score share the same (dense) rank.
+ */
+public class LeaderboardEntry {
+    private String name;
+    private int score;
+    private long rank;
+
+    public LeaderboardEntry(){}
+
+    public LeaderboardEntry(String name, int score, long rank){
+        this.name = name;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public long getRank() {
+        return rank;
+    }
+
+    public void setRank(long rank) {
+        this.rank = rank;
+    }
+}
@@ -0,0 +1,66 @@
+package practice.spring_gym_api.dto;
+
+import practice.spring_gym_api.entity.enums.Lifts;
+
+/**
+ * Where a score sits on a lift's leaderboard.
+ * Rank is dense (same as the leaderboard endpoint) and percentile is the
+ * percentage of members that scored strictly lower.
+ */
+public class LeaderboardStandingDTO {
+    private Lifts lift;
+    private int score;
+    private long rank;
+    private long totalMembers;
+    private double percentile;
+
+    public LeaderboardStandingDTO(){}
+
+    public LeaderboardStandingDTO(Lifts lift, int score, long rank, long totalMembers, double percentile){
+        this.lift = lift;
+        this.score = score;
+        this.rank = rank;
+        this.totalMembers = totalMembers;
+        this.percentile = percentile;
+    }
+
+    public Lifts getLift() {
+        return lift;
+    }
+
+    public void setLift(Lifts lift) {
+        this.lift = lift;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public long getRank() {
+        return rank;
+    }
+
+    public void setRank(long rank) {
+        this.rank = rank;
+    }
+
+    public long getTotalMembers() {
+        return totalMembers;
+    }
+
+    public void setTotalMembers(long totalMembers) {
+        this.totalMembers = totalMembers;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+}
@@ -0,0 +1,22 @@
+package practice.spring_gym_api.dto;
+
+import practice.spring_gym_api.entity.enums.Roles;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of one member in a directory export.
+ * Rows are streamed straight from the database and never enter the persistence context.
+ */
+public interface MemberExportRow {
+    Long getId();
+    String getName();
+    LocalDate getDateOfBirth();
+    Roles getRole();
+    String getMembershipDate();
+    int getBench();
+    int getSquat();
+    int getDeadlift();
+    int getTotal();
+    Long getCoachId();
+}
@@ -0,0 +1,11 @@
+package practice.spring_gym_api.dto;
+
+/**
+ * Read-only projection of an id/email pair from a batch request that doesn't point at a single member.
+ * Position is the pair's zero based index in the request.
+ */
+public interface MemberIdentityMismatch {
+    int getPosition();
+    boolean getIdExists();
+    boolean getEmailExists();
+}
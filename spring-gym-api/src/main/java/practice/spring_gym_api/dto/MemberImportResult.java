@@ -0,0 +1,47 @@
+package practice.spring_gym_api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a streaming member import.
+ * Only the first rejects are listed so the response stays small for very large files,
+ * rejectedCount is always the full number of rows that were skipped.
+ */
+public class MemberImportResult {
+    private long imported;
+    private long rejectedCount;
+    private List<BatchRegistrationResult.RejectedRow> rejected = new ArrayList<>();
+
+    public MemberImportResult(){}
+
+    public MemberImportResult(long imported, long rejectedCount, List<BatchRegistrationResult.RejectedRow> rejected){
+        this.imported = imported;
+        this.rejectedCount = rejectedCount;
+        this.rejected = rejected;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public List<BatchRegistrationResult.RejectedRow> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<BatchRegistrationResult.RejectedRow> rejected) {
+        this.rejected = rejected;
+    }
+}
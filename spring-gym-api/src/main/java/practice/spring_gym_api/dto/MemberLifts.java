@@ -0,0 +1,13 @@
+package practice.spring_gym_api.dto;
+
+/**
+ * Read-only projection of a member's name and lifts, used to rebuild the in-memory leaderboard
+ * without loading full MemberEntity rows (and their coaches).
+ */
+public interface MemberLifts {
+    Long getId();
+    String getName();
+    int getBench();
+    int getSquat();
+    int getDeadlift();
+}
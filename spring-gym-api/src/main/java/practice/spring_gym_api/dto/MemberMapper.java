@@ -1,13 +1,35 @@
 package practice.spring_gym_api.dto;
 
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.WorkerEntity;
 
+/**
+ * Implemented at compile time by MapStruct as dto.impl.MemberMapperimpl, plain getter/setter calls with no reflection.
+ */
+@Mapper(componentModel = "spring", implementationName = "<CLASS_NAME>impl", implementationPackage = "<PACKAGE_NAME>.impl")
 public interface MemberMapper {
     MemberDTO convertToMemberDTO(MemberEntity memberEntity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "coachedBy", ignore = true)
+    @Mapping(target = "age", ignore = true)
     MemberEntity convertToMemberEntity(MemberRequestDTO memberDTO);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "clients", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "role", constant = "ROLE_COACH")
+    @Mapping(target = "workoutPlans", expression = "java(java.util.List.of(\"Placeholder workouts\"))")
+    @Mapping(target = "coachCode", constant = "Placeholder coach code")
     CoachEntity convertMemberToCoachEntity(MemberEntity memberEntity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "role", constant = "ROLE_WORKER")
+    @Mapping(target = "workerCode", constant = "Placeholder worker code")
     WorkerEntity convertMemberToWorkerEntity(MemberEntity memberEntity);
 }
@@ -0,0 +1,16 @@
+package practice.spring_gym_api.dto;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * What the member list endpoints need from a row, selected straight into this record by a JPQL constructor expression.
+ * No MemberEntity (or its coach) is loaded and nothing is added to the persistence context.
+ * The ID, membership date and lifts are only kept to build cursors, they're not part of the MemberDTO.
+ */
+public record MemberSummary(Long id, String name, LocalDate dateOfBirth, String membershipDate, int bench, int total) {
+
+    public MemberDTO toDTO() {
+        return new MemberDTO(name, Period.between(dateOfBirth, LocalDate.now()).getYears(), dateOfBirth);
+    }
+}
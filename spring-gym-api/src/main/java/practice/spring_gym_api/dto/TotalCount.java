@@ -0,0 +1,15 @@
+package practice.spring_gym_api.dto;
+
+/**
+ * How many rows an unfiltered listing has, sent back in the X-Total-Count header.
+ * @param exact false when the value is PostgreSQL's planner estimate rather than a count
+ */
+public record TotalCount(long value, boolean exact) {
+
+    /**
+     * @return "exact" or "estimated", the value of the X-Total-Count-Type header
+     */
+    public String type() {
+        return exact ? "exact" : "estimated";
+    }
+}
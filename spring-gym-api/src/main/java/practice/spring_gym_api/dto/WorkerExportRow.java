@@ -0,0 +1,16 @@
+package practice.spring_gym_api.dto;
+
+import practice.spring_gym_api.entity.enums.Roles;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of one worker in a directory export.
+ * Worker codes are never exported.
+ */
+public interface WorkerExportRow {
+    Long getId();
+    String getName();
+    LocalDate getDateOfBirth();
+    Roles getRole();
+}
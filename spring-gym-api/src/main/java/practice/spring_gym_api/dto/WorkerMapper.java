@@ -1,13 +1,39 @@
 package practice.spring_gym_api.dto;
 
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import practice.spring_gym_api.dto.request.WorkerRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.WorkerEntity;
 
+/**
+ * Implemented at compile time by MapStruct as dto.impl.WorkerMapperimpl, plain getter/setter calls with no reflection.
+ */
+@Mapper(componentModel = "spring", implementationName = "<CLASS_NAME>impl", implementationPackage = "<PACKAGE_NAME>.impl")
 public interface WorkerMapper {
     WorkerDTO convertToWorkerDTO(WorkerEntity workerEntity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "age", ignore = true)
     WorkerEntity convertToWorkerEntity(WorkerRequestDTO workerRequestDTO);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "clients", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "role", constant = "ROLE_COACH")
+    @Mapping(target = "workoutPlans", expression = "java(java.util.List.of(\"Placeholder workouts\"))")
+    @Mapping(target = "coachCode", constant = "Placeholder coach code")
     CoachEntity covertWorkerToCoachEntity(WorkerEntity workerEntity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "coachedBy", ignore = true)
+    @Mapping(target = "age", ignore = true)
+    @Mapping(target = "role", constant = "ROLE_MEMBER")
+    @Mapping(target = "membershipDate", expression = "java(java.time.LocalDate.now().toString())")
+    @Mapping(target = "bench", ignore = true)
+    @Mapping(target = "squat", ignore = true)
+    @Mapping(target = "deadlift", ignore = true)
+    @Mapping(target = "total", ignore = true)
     MemberEntity covertWorkerToMemberEntity(WorkerEntity workerEntity);
 }
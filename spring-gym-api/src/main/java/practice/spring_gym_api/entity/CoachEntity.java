@@ -2,6 +2,13 @@ package practice.spring_gym_api.entity;
 
 import practice.spring_gym_api.entity.enums.Roles;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import jakarta.validation.constraints.*;
 
 import java.time.LocalDate;
@@ -12,15 +19,21 @@ import java.util.*;
  * Represents a Coach in the gym system.
  * A coach can have multiple clients (members) and multiple workout plans.
  * This entity is mapped to the "coaches" table in the database.
+ * Clients are loaded with the coach only through the "CoachEntity.clients" graph.
+ * Coaches, their workout plans and the email to id lookups are kept in the second-level cache,
+ * the client set isn't since it changes whenever a member is moved.
  */
 @Entity
-@Table(name = "coaches")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "coaches")
+@NaturalIdCache(region = "coach-emails")
+@NamedEntityGraph(name = "CoachEntity.clients", attributeNodes = @NamedAttributeNode("clients"))
+@Table(name = "coaches", indexes = @Index(name = "idx_coaches_client_count", columnList = "client_count, id"))
 public class CoachEntity {
     @Id
     @SequenceGenerator(
             name = "coach_sequence",
             sequenceName = "coach_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -31,6 +44,8 @@ public class CoachEntity {
     @NotBlank(message = "Name is Required")
     private String name;
 
+    // Resolved through the natural id cache by CoachRepository.findByEmail. Mutable, a coach can change their email
+    @NaturalId(mutable = true)
     @NotBlank(message = "Email is Required")
     @Email(message = "Invalid email format")
     private String email;
@@ -38,6 +53,11 @@ public class CoachEntity {
     @NotBlank(message = "Coach code is Required")
     private String coachCode;
 
+    // Version of the coach's access tokens, bumped with the code so tokens issued before it are revoked
+    @ColumnDefault("0")
+    @Column(name = "key_version", nullable = false)
+    private int keyVersion;
+
     @NotNull
     @Past
     private LocalDate dateOfBirth;
@@ -51,7 +71,9 @@ public class CoachEntity {
      * This is the inverse side of the relationship.
      * The actual foreign key (coach_id) resides in MemberEntity.
      * Every coach will start off with an empty set of clients.
+     * When several coaches are loaded, the client sets of up to 50 of them are filled by one select.
      */
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "coachedBy", cascade = {
             CascadeType.PERSIST,
             CascadeType.DETACH,
@@ -60,7 +82,19 @@ public class CoachEntity {
     })
     private Set<MemberEntity> clients = new HashSet<>();
 
+    /**
+     * Number of members coached by this coach, kept so the most/least/no client lookups
+     * can use an index instead of loading every client set.
+     * Only ever written by CoachRepository.recountClients, never by saving the entity.
+     */
+    @ColumnDefault("0")
+    @Column(name = "client_count", nullable = false, insertable = false, updatable = false)
+    private int clientCount;
+
+    // Like clients, filled for up to 50 coaches at a time instead of one select per coach
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "coach-workout-plans")
+    @BatchSize(size = 50)
     @NotNull(message = "Workout plans list must not be null")
     @Size(min = 1, message = "At least one workout plan must be provided")
     private List<@NotBlank(message = "Workout plans are required") String> workoutPlans;
@@ -147,6 +181,10 @@ public class CoachEntity {
         this.clients = clients;
     }
 
+    public int getClientCount() {
+        return clientCount;
+    }
+
     public List<String> getWorkoutPlans() {
         return workoutPlans;
     }
@@ -175,24 +213,36 @@ public class CoachEntity {
         this.coachCode = coachCode;
     }
 
+    public int getKeyVersion() {
+        return keyVersion;
+    }
+
+    /**
+     * Revokes every access token issued to this coach so far, saved in the same update as the rest of the entity.
+     */
+    public void revokeAccessTokens() {
+        keyVersion++;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        // A member's coach can be a lazy proxy, so the class is compared unproxied and fields are read through getters
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
 
         CoachEntity that = (CoachEntity) o;
 
         // If both have non-null IDs, compare IDs (standard persistence logic)
-        if (id != null && that.id != null) {
-            return Objects.equals(id, that.id);
+        if (getId() != null && that.getId() != null) {
+            return Objects.equals(getId(), that.getId());
         }
 
         // Otherwise, fallback to email
-        return Objects.equals(email, that.email);
+        return Objects.equals(getEmail(), that.getEmail());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(id);
+        return Objects.hashCode(getId());
     }
 }
@@ -11,24 +11,34 @@ import java.util.Objects;
  * Represents a Member (client) in the gym system.
  * Each member may optionally be associated with one coach.
  * This entity is mapped to the "members" table in the database.
+ * The lift columns (and the stored total) are indexed so leaderboards can be read in rank order.
+ * Email is indexed for the duplicate checks done on every registration and import.
+ * The coach is only loaded when asked for, through the "MemberEntity.coachedBy" graph.
  */
 @Entity
-@Table(name = "members")
+@NamedEntityGraph(name = "MemberEntity.coachedBy", attributeNodes = @NamedAttributeNode("coachedBy"))
+@Table(name = "members", indexes = {
+        @Index(name = "idx_members_bench", columnList = "bench DESC, id"),
+        @Index(name = "idx_members_squat", columnList = "squat DESC, id"),
+        @Index(name = "idx_members_deadlift", columnList = "deadlift DESC, id"),
+        @Index(name = "idx_members_total", columnList = "total DESC, id"),
+        @Index(name = "idx_members_email", columnList = "email")
+})
 public class MemberEntity {
 
     /**
      * Primary key for the Member table.
-     * Uses a sequence generator to assign unique IDs.
+     * Uses its own pooled sequence, IDs are handed out in blocks of 50 so inserts don't need a nextval each.
      */
     @Id
     @SequenceGenerator(
-            name = "coach_sequence",
-            sequenceName = "coach_sequence",
-            allocationSize = 1
+            name = "member_sequence",
+            sequenceName = "member_sequence",
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
-            generator = "coach_sequence"
+            generator = "member_sequence"
     )
     private Long id;
 
@@ -46,8 +56,9 @@ public class MemberEntity {
     /**
      * Many-to-one relationship to CoachEntity.
      * This is the owning side of the relationship — the foreign key `coach_id` is stored here.
+     * Lazy, a member read on its own never selects its coach. getCoachedBy().getId() doesn't load it either.
      */
-   @ManyToOne
+   @ManyToOne(fetch = FetchType.LAZY)
    @JoinColumn(name = "coach_id")
    private CoachEntity coachedBy;
 
@@ -71,6 +82,10 @@ public class MemberEntity {
    private int squat;
     @Min(value = 0, message = "Deadlift cannot be negative")
    private int deadlift;
+    /**
+     * Stored (rather than derived) so it can be indexed and ranked in the database.
+     * Kept in sync with the three lifts before every insert and update.
+     */
     @Min(value = 0, message = "Total cannot be negative")
    private int total;
 
@@ -191,6 +206,12 @@ public class MemberEntity {
         this.total = total;
     }
 
+    @PrePersist
+    @PreUpdate
+    private void syncTotal() {
+        this.total = this.bench + this.squat + this.deadlift;
+    }
+
     public String getEmail() {return email;}
 
     public void setEmail(String email) {this.email = email;}
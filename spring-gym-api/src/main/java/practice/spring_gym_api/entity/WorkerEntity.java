@@ -6,6 +6,11 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import practice.spring_gym_api.entity.enums.Roles;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 import java.time.Period;
@@ -14,24 +19,27 @@ import java.util.Objects;
 /**
  * Represents a non-coaching worker in the gym system, such as administrative or support staff.
  * This entity is mapped to the "workers" table in the database.
+ * Workers and their email to id lookups are kept in the second-level cache.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "workers")
+@NaturalIdCache(region = "worker-emails")
 @Table(name = "workers")
 public class WorkerEntity {
 
     /**
      * Primary key for the Worker table.
-     * Uses a sequence generator to assign unique IDs.
+     * Uses its own pooled sequence, IDs are handed out in blocks of 50 so inserts don't need a nextval each.
      */
     @Id
     @SequenceGenerator(
-            name = "coach_sequence",
-            sequenceName = "coach_sequence",
-            allocationSize = 1
+            name = "worker_sequence",
+            sequenceName = "worker_sequence",
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
-            generator = "coach_sequence"
+            generator = "worker_sequence"
     )
     private Long id;
 
@@ -46,6 +54,8 @@ public class WorkerEntity {
     @Enumerated(EnumType.STRING)
     private Roles role;
 
+    // Resolved through the natural id cache by WorkerRepository.findByEmail
+    @NaturalId(mutable = true)
     @NotBlank(message = "Email is Required")
     @Email(message = "Invalid email format")
     private String email;
@@ -53,6 +63,11 @@ public class WorkerEntity {
     @NotBlank(message = "Worker Code is Required")
     private String workerCode;
 
+    // Version of the worker's access tokens, bumped with the code so tokens issued before it are revoked
+    @ColumnDefault("0")
+    @Column(name = "key_version", nullable = false)
+    private int keyVersion;
+
     @Transient
     private int age;
 
@@ -126,6 +141,17 @@ public class WorkerEntity {
         this.workerCode = workerCode;
     }
 
+    public int getKeyVersion() {
+        return keyVersion;
+    }
+
+    /**
+     * Revokes every access token issued to this worker so far, saved in the same update as the rest of the entity.
+     */
+    public void revokeAccessTokens() {
+        keyVersion++;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
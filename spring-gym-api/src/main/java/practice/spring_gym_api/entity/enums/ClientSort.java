@@ -0,0 +1,24 @@
+package practice.spring_gym_api.entity.enums;
+
+/**
+ * The orders GET /coaches/{id}/clients can be listed in. Ties are always broken by ID so every order is stable,
+ * and each one is backed by an index on (coach_id, key, id).
+ */
+public enum ClientSort {
+    ID,
+    NAME,
+    // Strongest clients first, like the leaderboards
+    TOTAL;
+
+    /**
+     * Resolves a sort from its request param (e.g. "total"), ignoring case.
+     *
+     * @throws IllegalArgumentException if the value is not a known sort
+     */
+    public static ClientSort fromParam(String value) {
+        for(ClientSort sort : values()){
+            if(sort.name().equalsIgnoreCase(value)) return sort;
+        }
+        throw new IllegalArgumentException("Sort must be either id, name, or total");
+    }
+}
@@ -0,0 +1,22 @@
+package practice.spring_gym_api.entity.enums;
+
+/**
+ * The orders GET /coaches can be listed in. Ties are always broken by ID so every order is stable,
+ * and each one is backed by an index on (key, id).
+ */
+public enum CoachSort {
+    ID,
+    NAME;
+
+    /**
+     * Resolves a sort from its request param (e.g. "name"), ignoring case.
+     *
+     * @throws IllegalArgumentException if the value is not a known sort
+     */
+    public static CoachSort fromParam(String value) {
+        for(CoachSort sort : values()){
+            if(sort.name().equalsIgnoreCase(value)) return sort;
+        }
+        throw new IllegalArgumentException("Sort must be either id or name");
+    }
+}
@@ -0,0 +1,22 @@
+package practice.spring_gym_api.entity.enums;
+
+/**
+ * How a listing's X-Total-Count is worked out when a client asks for it.
+ * ESTIMATED accepts PostgreSQL's planner estimate when no exact count is held, EXACT never does.
+ */
+public enum CountMode {
+    EXACT,
+    ESTIMATED;
+
+    /**
+     * Resolves a mode from its request param (e.g. "exact"), ignoring case.
+     *
+     * @throws IllegalArgumentException if the value is not a known mode
+     */
+    public static CountMode fromParam(String value) {
+        for(CountMode mode : values()){
+            if(mode.name().equalsIgnoreCase(value)) return mode;
+        }
+        throw new IllegalArgumentException("Count must be either exact or estimated");
+    }
+}
@@ -0,0 +1,28 @@
+package practice.spring_gym_api.entity.enums;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Resolves a format from its query parameter (e.g. "csv"), ignoring case.
+     *
+     * @throws IllegalArgumentException if the value is not a known format
+     */
+    public static ExportFormat fromParam(String value) {
+        for(ExportFormat format : values()){
+            if(format.name().equalsIgnoreCase(value)) return format;
+        }
+        throw new IllegalArgumentException("Format must be either ndjson or csv");
+    }
+}
@@ -0,0 +1,20 @@
+package practice.spring_gym_api.entity.enums;
+
+public enum Lifts {
+    BENCH,
+    SQUAT,
+    DEADLIFT,
+    TOTAL;
+
+    /**
+     * Resolves a lift from its path segment (e.g. "bench"), ignoring case.
+     *
+     * @throws IllegalArgumentException if the value is not a known lift
+     */
+    public static Lifts fromPath(String value) {
+        for(Lifts lift : values()){
+            if(lift.name().equalsIgnoreCase(value)) return lift;
+        }
+        throw new IllegalArgumentException("Lift must be either bench, squat, deadlift, or total");
+    }
+}
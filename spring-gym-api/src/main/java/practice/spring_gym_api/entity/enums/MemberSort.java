@@ -0,0 +1,26 @@
+package practice.spring_gym_api.entity.enums;
+
+/**
+ * The orders GET /members can be listed in. Ties are always broken by ID so every order is stable,
+ * and each one is backed by an index on (key, id).
+ */
+public enum MemberSort {
+    ID,
+    NAME,
+    MEMBERSHIP_DATE,
+    // Lift sorts list the strongest members first, like the leaderboards
+    TOTAL,
+    BENCH;
+
+    /**
+     * Resolves a sort from its request param (e.g. "membership_date"), ignoring case.
+     *
+     * @throws IllegalArgumentException if the value is not a known sort
+     */
+    public static MemberSort fromParam(String value) {
+        for(MemberSort sort : values()){
+            if(sort.name().equalsIgnoreCase(value)) return sort;
+        }
+        throw new IllegalArgumentException("Sort must be either id, name, membership_date, total, or bench");
+    }
+}
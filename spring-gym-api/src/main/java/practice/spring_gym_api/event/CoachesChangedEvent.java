@@ -0,0 +1,7 @@
+package practice.spring_gym_api.event;
+
+/**
+ * Published by the services after a write that adds or removes coaches, changes a coach's details or workout plans,
+ * or changes which members a coach has as clients.
+ */
+public record CoachesChangedEvent() {}
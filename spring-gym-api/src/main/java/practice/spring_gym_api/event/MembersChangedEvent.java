@@ -0,0 +1,7 @@
+package practice.spring_gym_api.event;
+
+/**
+ * Published by the services after a write that adds or removes members, or changes a member's name, lifts
+ * or anything else a member query returns.
+ */
+public record MembersChangedEvent() {}
@@ -0,0 +1,6 @@
+package practice.spring_gym_api.event;
+
+/**
+ * Published by the services after a write that adds or removes workers, or changes a worker's details.
+ */
+public record WorkersChangedEvent() {}
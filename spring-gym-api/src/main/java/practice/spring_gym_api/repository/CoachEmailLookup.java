@@ -0,0 +1,14 @@
+package practice.spring_gym_api.repository;
+
+import practice.spring_gym_api.entity.CoachEntity;
+
+/**
+ * Fragment of CoachRepository that finds a coach by email, its natural id.
+ */
+public interface CoachEmailLookup {
+
+    /**
+     * @return the coach with the given email, or null if there's none
+     */
+    CoachEntity findByEmail(String email);
+}
@@ -0,0 +1,25 @@
+package practice.spring_gym_api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import practice.spring_gym_api.entity.CoachEntity;
+
+/**
+ * Loads coachs by email through Hibernate's natural id API instead of a query, so a repeated lookup
+ * is answered by the natural id and entity caches without a select.
+ */
+public class CoachEmailLookupImpl implements CoachEmailLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Read-only transaction so the lookup has a session to run in even when the caller has none
+    @Override
+    @Transactional(readOnly = true)
+    public CoachEntity findByEmail(String email) {
+        if(email == null) return null;
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(CoachEntity.class).load(email);
+    }
+}
@@ -1,21 +1,110 @@
 package practice.spring_gym_api.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import practice.spring_gym_api.dto.CoachExportRow;
+import practice.spring_gym_api.dto.CoachSummary;
 import practice.spring_gym_api.entity.CoachEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CoachRepository extends JpaRepository<CoachEntity, Long> {
+public interface CoachRepository extends JpaRepository<CoachEntity, Long>, CoachEmailLookup {
 
-    /*
-    @Query("SELECT c FROM CoachEntity c ORDER BY SIZE(c.client.orEs) DESC")
-    CoachEntity findCoachWithMostClients(Pageable pageable);
-    */
+    // Given to every new coach until a real code is assigned, so it never identifies a coach
+    String PLACEHOLDER_CODE = "Placeholder coach code";
 
     Optional<CoachEntity> findCoachByName(String name);
+    boolean existsByName(String name);
     boolean existsByEmail(String email);
-    CoachEntity findByEmail(String email);
-    CoachEntity findByCoachCode(String coachCode);
+
+    // A coach joined to its clients in one select, for the writes that change or clear the client list
+    @EntityGraph("CoachEntity.clients")
+    Optional<CoachEntity> findWithClientsById(Long id);
+
+    // Which of the given emails are already taken, one query for a whole batch
+    @Query("SELECT c.email FROM CoachEntity c WHERE c.email IN :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    // The code to id answer is kept in the query cache, which drops it on any write to the coaches table
+    @Query("SELECT c FROM CoachEntity c WHERE c.coachCode = :coachCode AND c.coachCode <> '" + PLACEHOLDER_CODE + "'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    CoachEntity findByCoachCode(@Param("coachCode") String coachCode);
+
+    // Every coach in id order for the directory export. Must be consumed inside a transaction so the fetch size applies
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT c.id AS id, c.name AS name, c.dateOfBirth AS dateOfBirth, c.role AS role, c.clientCount AS clientCount
+            FROM CoachEntity c
+            ORDER BY c.id
+            """)
+    Stream<CoachExportRow> streamAllForExport();
+
+    // --- Client count lookups, answered by the (client_count, id) index ---
+    Optional<CoachEntity> findFirstByOrderByClientCountDescIdAsc();
+    Optional<CoachEntity> findFirstByOrderByClientCountAscIdAsc();
+
+    // --- Summaries for the list endpoints, selected straight into records so no entity is loaded or managed ---
+    // Keyset pages of GET /coaches, one per sort. Each seeks past the last row of the previous page
+    // through its (key, id) index, so no OFFSET rows are skipped and no COUNT is run
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.CoachSummary(c.id, c.name, c.dateOfBirth)
+            FROM CoachEntity c
+            WHERE c.id > :afterId
+            ORDER BY c.id
+            """)
+    List<CoachSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.CoachSummary(c.id, c.name, c.dateOfBirth)
+            FROM CoachEntity c
+            WHERE c.name >= :name AND (c.name > :name OR c.id > :afterId)
+            ORDER BY c.name, c.id
+            """)
+    List<CoachSummary> findSummariesByNameAfter(@Param("name") String name, @Param("afterId") Long afterId, Limit limit);
+
+    // Coaches without clients after the given id. The literal 0 lets Postgres use idx_coaches_no_clients
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.CoachSummary(c.id, c.name, c.dateOfBirth)
+            FROM CoachEntity c
+            WHERE c.clientCount = 0 AND c.id > :afterId
+            ORDER BY c.id
+            """)
+    List<CoachSummary> findSummariesWithoutClientsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Recomputes client_count for the given coaches from the members table.
+     * Must be called after any change to which coach a member belongs to.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE CoachEntity c
+            SET c.clientCount = CAST((SELECT COUNT(m) FROM MemberEntity m WHERE m.coachedBy = c) AS Integer)
+            WHERE c.id IN :ids
+            """)
+    int recountClients(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE CoachEntity c
+            SET c.clientCount = CAST((SELECT COUNT(m) FROM MemberEntity m WHERE m.coachedBy = c) AS Integer)
+            """)
+    int recountAllClients();
 }
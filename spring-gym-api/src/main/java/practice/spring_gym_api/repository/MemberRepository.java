@@ -1,17 +1,201 @@
 package practice.spring_gym_api.repository;
 
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import practice.spring_gym_api.dto.MemberIdentityMismatch;
+import practice.spring_gym_api.dto.MemberExportRow;
+import practice.spring_gym_api.dto.MemberLifts;
+import practice.spring_gym_api.dto.MemberSummary;
 import practice.spring_gym_api.entity.MemberEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.lang.reflect.Member;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MemberRepository extends JpaRepository<MemberEntity, Long> {
 
-    boolean existsByEmail(String email);
+    // Emails are unique in any casing, these two are answered by ux_members_email_lower
+    @Query("SELECT COUNT(m) > 0 FROM MemberEntity m WHERE lower(m.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query("SELECT m FROM MemberEntity m WHERE lower(m.email) = lower(:email)")
+    MemberEntity findByEmailInAnyCase(@Param("email") String email);
+
     MemberEntity findMemberByEmail(String email);
 
+    // A member joined to its coach in one select, for the writes that move a member between coaches
+    @EntityGraph("MemberEntity.coachedBy")
+    Optional<MemberEntity> findWithCoachById(Long id);
+
+    // Which of the given lowercased emails are already taken in any casing, one query for a whole batch
+    @Query("SELECT lower(m.email) FROM MemberEntity m WHERE lower(m.email) IN :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Checks a whole batch of id/email pairs in one query, each pair is joined to members on its id and on its email.
+     *
+     * @return the pairs whose id or email doesn't exist or that belong to different members, in request order
+     */
+    @Query(value = """
+            SELECT CAST(r.position - 1 AS INT) AS position, by_id.id IS NOT NULL AS idExists, by_email.id IS NOT NULL AS emailExists
+            FROM unnest(CAST(:ids AS BIGINT[]), CAST(:emails AS TEXT[])) WITH ORDINALITY AS r(id, email, position)
+            LEFT JOIN members by_id ON by_id.id = r.id
+            LEFT JOIN members by_email ON by_email.email = r.email
+            WHERE by_id.id IS NULL OR by_email.id IS NULL OR by_id.id <> by_email.id
+            ORDER BY r.position
+            """, nativeQuery = true)
+    List<MemberIdentityMismatch> findIdentityMismatches(@Param("ids") Long[] ids, @Param("emails") String[] emails);
+
+    /**
+     * Renames every given member in one statement, ids[i] gets names[i].
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE members m SET name = r.name
+            FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS TEXT[])) AS r(id, name)
+            WHERE m.id = r.id
+            """, nativeQuery = true)
+    int updateNames(@Param("ids") Long[] ids, @Param("names") String[] names);
+
+    // --- Top-1 lookups, each answered by the matching (lift DESC, id) index ---
+    Optional<MemberEntity> findFirstByOrderByBenchDescIdAsc();
+    Optional<MemberEntity> findFirstByOrderBySquatDescIdAsc();
+    Optional<MemberEntity> findFirstByOrderByDeadliftDescIdAsc();
+    Optional<MemberEntity> findFirstByOrderByTotalDescIdAsc();
+
+    // --- Summaries for the list endpoints, selected straight into records so no entity is loaded or managed ---
+    // Keyset pages of GET /members, one per sort. Each seeks past the last row of the previous page
+    // through its (key, id) index, so no OFFSET rows are skipped and no COUNT is run
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.id > :afterId
+            ORDER BY m.id
+            """)
+    List<MemberSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.name >= :name AND (m.name > :name OR m.id > :afterId)
+            ORDER BY m.name, m.id
+            """)
+    List<MemberSummary> findSummariesByNameAfter(@Param("name") String name, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.membershipDate >= :membershipDate AND (m.membershipDate > :membershipDate OR m.id > :afterId)
+            ORDER BY m.membershipDate, m.id
+            """)
+    List<MemberSummary> findSummariesByMembershipDateAfter(@Param("membershipDate") String membershipDate, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.total <= :total AND (m.total < :total OR m.id > :afterId)
+            ORDER BY m.total DESC, m.id
+            """)
+    List<MemberSummary> findSummariesByTotalAfter(@Param("total") int total, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.bench <= :bench AND (m.bench < :bench OR m.id > :afterId)
+            ORDER BY m.bench DESC, m.id
+            """)
+    List<MemberSummary> findSummariesByBenchAfter(@Param("bench") int bench, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.total > :total
+            ORDER BY m.total DESC, m.id
+            """)
+    List<MemberSummary> findSummariesWithTotalAbove(@Param("total") int total);
+
+    // Members without a coach after the given id, answered by idx_members_no_coach
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.coachedBy IS NULL AND m.id > :afterId
+            ORDER BY m.id
+            """)
+    List<MemberSummary> findSummariesWithoutCoachAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Keyset pages of a coach's clients, one per sort, each answered by a (coach_id, key, id) index
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.coachedBy.id = :coachId AND m.id > :afterId
+            ORDER BY m.id
+            """)
+    List<MemberSummary> findClientSummariesAfter(@Param("coachId") Long coachId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.coachedBy.id = :coachId AND m.name >= :name AND (m.name > :name OR m.id > :afterId)
+            ORDER BY m.name, m.id
+            """)
+    List<MemberSummary> findClientSummariesByNameAfter(@Param("coachId") Long coachId, @Param("name") String name, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new practice.spring_gym_api.dto.MemberSummary(m.id, m.name, m.dateOfBirth, m.membershipDate, m.bench, m.total)
+            FROM MemberEntity m
+            WHERE m.coachedBy.id = :coachId AND m.total <= :total AND (m.total < :total OR m.id > :afterId)
+            ORDER BY m.total DESC, m.id
+            """)
+    List<MemberSummary> findClientSummariesByTotalAfter(@Param("coachId") Long coachId, @Param("total") int total, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Deletes up to {@code chunkSize} members whose total is at or below the given value,
+     * found through the (total DESC, id) index.
+     * Their coaches' client_count is lowered in the same statement so counts never drift.
+     *
+     * @return IDs of the deleted members, fewer than chunkSize once nothing is left to delete
+     */
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM members
+                WHERE id IN (SELECT id FROM members WHERE total <= :total LIMIT :chunkSize)
+                RETURNING id, coach_id
+            ), recounted AS (
+                UPDATE coaches c
+                SET client_count = c.client_count - d.removed
+                FROM (SELECT coach_id, COUNT(*) AS removed FROM deleted WHERE coach_id IS NOT NULL GROUP BY coach_id) d
+                WHERE c.id = d.coach_id
+            )
+            SELECT id FROM deleted
+            """, nativeQuery = true)
+    List<Long> deleteChunkWithTotalAtMost(@Param("total") int total, @Param("chunkSize") int chunkSize);
+
+    // Names and lifts only, used to rebuild the LeaderboardEngine at startup
+    List<MemberLifts> findAllProjectedBy();
+
+    // Every member in id order for the directory export. Must be consumed inside a transaction so the fetch size applies
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT m.id AS id, m.name AS name, m.dateOfBirth AS dateOfBirth, m.role AS role, m.membershipDate AS membershipDate,
+                   m.bench AS bench, m.squat AS squat, m.deadlift AS deadlift, m.total AS total, c.id AS coachId
+            FROM MemberEntity m LEFT JOIN m.coachedBy c
+            ORDER BY m.id
+            """)
+    Stream<MemberExportRow> streamAllForExport();
 }
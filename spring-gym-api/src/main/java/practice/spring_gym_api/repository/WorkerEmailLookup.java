@@ -0,0 +1,14 @@
+package practice.spring_gym_api.repository;
+
+import practice.spring_gym_api.entity.WorkerEntity;
+
+/**
+ * Fragment of WorkerRepository that finds a worker by email, its natural id.
+ */
+public interface WorkerEmailLookup {
+
+    /**
+     * @return the worker with the given email, or null if there's none
+     */
+    WorkerEntity findByEmail(String email);
+}
@@ -1,13 +1,39 @@
 package practice.spring_gym_api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import practice.spring_gym_api.dto.WorkerExportRow;
 import practice.spring_gym_api.entity.WorkerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
-public interface WorkerRepository extends JpaRepository<WorkerEntity, Long>{
+public interface WorkerRepository extends JpaRepository<WorkerEntity, Long>, WorkerEmailLookup {
+
+    // Given to every new worker until a real code is assigned, so it never identifies a worker
+    String PLACEHOLDER_CODE = "Placeholder worker code";
 
     boolean existsByEmail(String email);
-    WorkerEntity findByEmail(String email);
-    WorkerEntity findByWorkerCode(String workerCode);
+
+    // The code to id answer is kept in the query cache, which drops it on any write to the workers table
+    @Query("SELECT w FROM WorkerEntity w WHERE w.workerCode = :workerCode AND w.workerCode <> '" + PLACEHOLDER_CODE + "'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    WorkerEntity findByWorkerCode(@Param("workerCode") String workerCode);
+
+    // Every worker in id order for the directory export. Must be consumed inside a transaction so the fetch size applies
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT w.id AS id, w.name AS name, w.dateOfBirth AS dateOfBirth, w.role AS role
+            FROM WorkerEntity w
+            ORDER BY w.id
+            """)
+    Stream<WorkerExportRow> streamAllForExport();
 }
@@ -9,22 +9,16 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.intercept.AuthorizationFilter;
-import practice.spring_gym_api.security.filter.CoachAuthFilter;
-import practice.spring_gym_api.security.filter.ValidRequestFilter;
-import practice.spring_gym_api.security.filter.WorkerAuthFilter;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private final ValidRequestFilter validRequestFilter;
-    private final WorkerAuthFilter workerAuthFilter;
-    private final CoachAuthFilter coachAuthFilter;
+    private final RequestAuthFilter requestAuthFilter;
 
-    public SecurityConfig(ValidRequestFilter validRequestFilter, WorkerAuthFilter workerAuthFilter, CoachAuthFilter coachAuthFilter) {
-        this.validRequestFilter = validRequestFilter;
-        this.workerAuthFilter = workerAuthFilter;
-        this.coachAuthFilter = coachAuthFilter;
+    public SecurityConfig(RequestAuthFilter requestAuthFilter) {
+        this.requestAuthFilter = requestAuthFilter;
     }
 
     @Bean
@@ -40,9 +34,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/**").permitAll()
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(validRequestFilter, AuthorizationFilter.class)
-                .addFilterBefore(workerAuthFilter, AuthorizationFilter.class)
-                .addFilterBefore(coachAuthFilter, AuthorizationFilter.class)
+                .addFilterBefore(requestAuthFilter, AuthorizationFilter.class)
                 .build();
     }
 }
@@ -0,0 +1,102 @@
+package practice.spring_gym_api.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of checking an (id, code) pair from the x-coach-* or x-worker-* headers,
+ * so repeated requests with the same headers don't go back to the database.
+ *
+ * Failed checks are cached too, for a shorter time, so a client retrying bad headers can't keep hitting Postgres.
+ * The cache is bounded and every entry expires, and services invalidate the entries a credential change could
+ * affect: any entry with the changed id, or with the old or new code. Invalidation runs straight away and again
+ * once the surrounding transaction completes, so a check made before the change commits can't linger.
+ * Hit and miss counts are published as the "credentials" cache metrics.
+ */
+@Component
+public class CredentialCache {
+
+    public enum CredentialType { COACH, WORKER }
+
+    private record Key(CredentialType type, Long id, String code) {}
+
+    /**
+     * Outcome of a check, failure is null when the id and code belong to the same account.
+     */
+    private record Verdict(String failure) {}
+
+    static final long MAXIMUM_SIZE = 10_000;
+    static final Duration VALID_TTL = Duration.ofMinutes(5);
+    static final Duration INVALID_TTL = Duration.ofSeconds(30);
+
+    private final Cache<Key, Verdict> verdicts = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfter(Expiry.<Key, Verdict>creating((key, verdict) -> verdict.failure() == null ? VALID_TTL : INVALID_TTL))
+            .recordStats()
+            .build();
+
+    public CredentialCache(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, verdicts, "credentials");
+    }
+
+    /**
+     * Returns the cached outcome for this pair, running the check only on a miss.
+     *
+     * @param check looks the pair up and returns why it's invalid, or null if it's valid
+     * @return why the pair is invalid, or null if it's valid
+     */
+    public String verify(CredentialType type, Long id, String code, Supplier<String> check) {
+        return verdicts.get(new Key(type, id, code), key -> new Verdict(check.get())).failure();
+    }
+
+    public void invalidateCoach(Long id, String... codes) {
+        invalidate(CredentialType.COACH, Collections.singletonList(id), Arrays.asList(codes));
+    }
+
+    public void invalidateCoaches(Collection<Long> ids, Collection<String> codes) {
+        invalidate(CredentialType.COACH, ids, codes);
+    }
+
+    public void invalidateWorker(Long id, String... codes) {
+        invalidate(CredentialType.WORKER, Collections.singletonList(id), Arrays.asList(codes));
+    }
+
+    /**
+     * Drops every cached coach check, used when all coaches are deleted at once.
+     */
+    public void invalidateAllCoaches() {
+        afterCompletionToo(() -> verdicts.asMap().keySet().removeIf(key -> key.type() == CredentialType.COACH));
+    }
+
+    private void invalidate(CredentialType type, Collection<Long> ids, Collection<String> codes) {
+        Set<Long> idSet = new HashSet<>(ids);
+        Set<String> codeSet = new HashSet<>(codes);
+        afterCompletionToo(() -> verdicts.asMap().keySet().removeIf(key ->
+                key.type() == type && (idSet.contains(key.id()) || codeSet.contains(key.code()))));
+    }
+
+    private static void afterCompletionToo(Runnable invalidation) {
+        invalidation.run();
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidation.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package practice.spring_gym_api.security.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import practice.spring_gym_api.entity.CoachEntity;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+import practice.spring_gym_api.security.token.AccessTokenService;
+import practice.spring_gym_api.security.token.CoachAuthToken;
+import practice.spring_gym_api.security.token.WorkerAuthToken;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * The one security filter in front of every request.
+ *
+ * 1. A request with an x-valid header other than "yes" is turned away.
+ * 2. GET requests go straight through.
+ * 3. PATCH and PUT need a coach: an x-coach-id/x-coach-code pair or a coach bearer token.
+ * 4. POST and DELETE need a worker: an x-worker-id/x-worker-code pair (checked by the WorkerAuthProvider)
+ *    or a worker bearer token. A POST to the token endpoint with coach headers is handled as a coach request.
+ * Any other method is left to the authorization rules in SecurityConfig.
+ *
+ * Headers are read with getHeader instead of copying the header names, the method is matched once,
+ * and the AuthenticationManager is looked up on first use and kept.
+ */
+@Component
+public class RequestAuthFilter extends OncePerRequestFilter {
+
+    private final CoachRepository coachRepository;
+    private final CredentialCache credentialCache;
+    private final AccessTokenService accessTokenService;
+    private final AuthenticationConfiguration configuration;
+
+    private volatile AuthenticationManager authenticationManager;
+
+    public RequestAuthFilter(CoachRepository coachRepository, CredentialCache credentialCache,
+                             AccessTokenService accessTokenService, AuthenticationConfiguration configuration) {
+        this.coachRepository = coachRepository;
+        this.credentialCache = credentialCache;
+        this.accessTokenService = accessTokenService;
+        this.configuration = configuration;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // 1. Only requests that send x-valid have it checked
+        String valid = request.getHeader("x-valid");
+        if(valid != null && !valid.equals("yes")) {
+            reject(response, HttpStatus.FORBIDDEN, "Invalid request");
+            return;
+        }
+
+        // 2. Decide which credentials the method needs
+        boolean authenticated = switch (request.getMethod()) {
+            case "GET" -> true;
+            case "PATCH", "PUT" -> authenticateCoach(request, response, false);
+            case "POST" -> AccessTokenService.isTokenRequest(request) && request.getHeader("x-coach-id") != null && request.getHeader("x-worker-id") == null
+                    ? authenticateCoach(request, response, true)
+                    : authenticateWorker(request, response, AccessTokenService.isTokenRequest(request));
+            case "DELETE" -> authenticateWorker(request, response, false);
+            default -> true;
+        };
+
+        // 3. Call next filter
+        if(authenticated) filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return true if a coach was authenticated, otherwise the response has already been written
+     */
+    private boolean authenticateCoach(HttpServletRequest request, HttpServletResponse response, boolean tokenRequest) throws IOException {
+        // A bearer token stands in for the coach headers and is checked without the database
+        String bearerToken = tokenRequest ? null : AccessTokenService.bearerToken(request);
+        if(bearerToken != null) {
+            try {
+                AccessTokenService.VerifiedToken verifiedToken = accessTokenService.verify(bearerToken);
+                if(verifiedToken.type() != CredentialType.COACH) throw new IllegalStateException("Access token doesnt belong to a coach");
+                setAuthentication(new CoachAuthToken(CoachAuthToken.AUTHORITIES, verifiedToken.id(), null));
+                return true;
+            } catch (IllegalStateException e) {
+                reject(response, HttpStatus.UNAUTHORIZED, "Authentication failed: " + e.getMessage());
+                return false;
+            }
+        }
+
+        String coachCode = request.getHeader("x-coach-code");
+        if(coachCode == null) {
+            reject(response, HttpStatus.FORBIDDEN, "Must include header 'x-coach-code'");
+            return false;
+        }
+        String coachIdHeader = request.getHeader("x-coach-id");
+        if(coachIdHeader == null) {
+            reject(response, HttpStatus.FORBIDDEN, "Must include header 'x-coach-id'");
+            return false;
+        }
+
+        Long coachId = Long.valueOf(coachIdHeader);
+        String failure = credentialCache.verify(CredentialType.COACH, coachId, coachCode, () -> checkCoachCredentials(coachId, coachCode));
+        if(failure != null) throw new IllegalStateException(failure);
+
+        setAuthentication(new CoachAuthToken(CoachAuthToken.AUTHORITIES, coachId, coachCode));
+        return true;
+    }
+
+    /**
+     * @return true if a worker was authenticated, otherwise the response has already been written
+     */
+    private boolean authenticateWorker(HttpServletRequest request, HttpServletResponse response, boolean tokenRequest) throws IOException {
+        // A bearer token stands in for the worker headers and is checked without the database
+        String bearerToken = tokenRequest ? null : AccessTokenService.bearerToken(request);
+        if(bearerToken != null) {
+            try {
+                AccessTokenService.VerifiedToken verifiedToken = accessTokenService.verify(bearerToken);
+                if(verifiedToken.type() != CredentialType.WORKER) throw new IllegalStateException("Access token doesnt belong to a worker");
+                setAuthentication(new WorkerAuthToken(verifiedToken.id(), null, WorkerAuthToken.AUTHORITIES));
+                return true;
+            } catch (IllegalStateException e) {
+                reject(response, HttpStatus.UNAUTHORIZED, "Authentication failed: " + e.getMessage());
+                return false;
+            }
+        }
+
+        String workerIdHeader = request.getHeader("x-worker-id");
+        if(workerIdHeader == null) {
+            reject(response, HttpStatus.FORBIDDEN, "Must include header 'x-worker-id'");
+            return false;
+        }
+        String workerCode = request.getHeader("x-worker-code");
+        if(workerCode == null) {
+            reject(response, HttpStatus.FORBIDDEN, "Must include header 'x-worker-code'");
+            return false;
+        }
+
+        try {
+            var unauthenticatedToken = new WorkerAuthToken(Long.valueOf(workerIdHeader), workerCode);
+            setAuthentication(authenticationManager().authenticate(unauthenticatedToken));
+            return true;
+        } catch (Exception e) {
+            reject(response, HttpStatus.UNAUTHORIZED, "Authentication failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Only runs on a cache miss
+    private String checkCoachCredentials(Long coachId, String coachCode) {
+        Optional<CoachEntity> coachEntity = coachRepository.findById(coachId);
+        if(coachEntity.isEmpty()) return "Coach with an id of: " + coachId + " doesnt exist";
+        CoachEntity coachEntityByCode = coachRepository.findByCoachCode(coachCode);
+        if(coachEntityByCode == null) return "Coach with a code of: " + coachCode + " doesnt exist";
+        if(!coachEntity.get().equals(coachEntityByCode)) {
+            return "Coach with an id of: " + coachId + " isnt the same coach with a coach code of: " + coachCode;
+        }
+        return null;
+    }
+
+    // The AuthenticationManager is built after the filters, so it's resolved on first use instead of in the constructor
+    private AuthenticationManager authenticationManager() throws Exception {
+        AuthenticationManager manager = authenticationManager;
+        if(manager == null) {
+            manager = configuration.getAuthenticationManager();
+            authenticationManager = manager;
+        }
+        return manager;
+    }
+
+    private static void setAuthentication(Authentication authentication) {
+        var newSecurityContext = SecurityContextHolder.createEmptyContext();
+        newSecurityContext.setAuthentication(authentication);
+        SecurityContextHolder.setContext(newSecurityContext);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Type", "text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
@@ -3,21 +3,24 @@ package practice.spring_gym_api.security.provider;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import practice.spring_gym_api.entity.WorkerEntity;
 import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
 import practice.spring_gym_api.security.token.WorkerAuthToken;
 
-import java.util.List;
+import java.util.Optional;
 
 @Component
 public class WorkerAuthProvider implements AuthenticationProvider {
 
     private final WorkerRepository workerRepository;
+    private final CredentialCache credentialCache;
 
-    public WorkerAuthProvider(WorkerRepository workerRepository) {
+    public WorkerAuthProvider(WorkerRepository workerRepository, CredentialCache credentialCache) {
         this.workerRepository = workerRepository;
+        this.credentialCache = credentialCache;
     }
 
 
@@ -28,14 +31,21 @@ public class WorkerAuthProvider implements AuthenticationProvider {
         Long workerId = workerAuthToken.getWorkerId();
         String workerCode = workerAuthToken.getWorkerCode();
 
-        WorkerEntity workerEntity = workerRepository.findById(workerId)
-                .orElseThrow(() -> new IllegalStateException("Worker with an id of: " + authentication.getPrincipal() + " doesnt exist"));
+        String failure = credentialCache.verify(CredentialType.WORKER, workerId, workerCode, () -> checkCredentials(workerId, workerCode));
+        if(failure != null) throw new IllegalStateException(failure);
 
-        WorkerEntity workerEntity1 = workerRepository.findByWorkerCode(workerEntity.getWorkerCode());
-        if(workerEntity1 == null) throw new IllegalStateException("Worker with a worker code of: " + workerCode + " doesnt exist");
-        if(!workerEntity.equals(workerEntity1)) throw new IllegalStateException("Worker with an id of: " + workerEntity.getId() + " is not the same worker with a worker code of: " + workerCode);
+        return new WorkerAuthToken(workerId, workerCode, WorkerAuthToken.AUTHORITIES);
+    }
+
+    // Only runs on a cache miss
+    private String checkCredentials(Long workerId, String workerCode) {
+        Optional<WorkerEntity> workerEntity = workerRepository.findById(workerId);
+        if(workerEntity.isEmpty()) return "Worker with an id of: " + workerId + " doesnt exist";
 
-        return new WorkerAuthToken(workerId, workerCode, List.of(new SimpleGrantedAuthority("ROLE_WORKER")));
+        WorkerEntity workerEntityByCode = workerRepository.findByWorkerCode(workerCode);
+        if(workerEntityByCode == null) return "Worker with a worker code of: " + workerCode + " doesnt exist";
+        if(!workerEntity.get().equals(workerEntityByCode)) return "Worker with an id of: " + workerId + " is not the same worker with a worker code of: " + workerCode;
+        return null;
     }
 
     @Override
@@ -0,0 +1,157 @@
+package practice.spring_gym_api.security.token;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Issues and checks short-lived bearer tokens for coaches and workers.
+ *
+ * A token is "type:id:keyVersion:expiresAt" signed with HMAC-SHA256.
+ * Every coach and worker has a key version stored with them, their code change bumps it in the same update
+ * and revokes every token issued before, deleting them revokes the rest. Checking a token reads the key version
+ * through the second-level cache, so it holds across instances and restarts without a query per request.
+ * The secret comes from gym.auth.token-secret, when it's blank a random one is generated at startup,
+ * so it has to be set for tokens to work on more than one instance.
+ */
+@Component
+public class AccessTokenService {
+
+    public record VerifiedToken(CredentialType type, Long id) {}
+
+    private record Credentials(String code, int keyVersion) {}
+
+    public static final String TOKEN_PATH = "/api/v1/gym-api/auth/token";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final CoachRepository coachRepository;
+    private final WorkerRepository workerRepository;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> macs;
+
+    public AccessTokenService(CoachRepository coachRepository, WorkerRepository workerRepository,
+                              @Value("${gym.auth.token-secret:}") String secret,
+                              @Value("${gym.auth.token-ttl:15m}") Duration ttl) {
+        SecureRandom random = new SecureRandom();
+        byte[] secretBytes;
+        if(secret == null || secret.isBlank()) {
+            secretBytes = new byte[MIN_SECRET_BYTES];
+            random.nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if(secretBytes.length < MIN_SECRET_BYTES) throw new IllegalStateException("gym.auth.token-secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.coachRepository = coachRepository;
+        this.workerRepository = workerRepository;
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Issues a token for a coach or worker whose code has already been checked.
+     * The code and key version are read together, so a code changed since the check can't get a token
+     * at the key version that came with the new code.
+     *
+     * @throws IllegalStateException if the coach or worker is gone or their code has changed since it was checked
+     */
+    public String issue(CredentialType type, Long id, String code) {
+        Credentials credentials = credentials(type, id)
+                .orElseThrow(() -> new IllegalStateException("Access token can't be issued, " + type.name().toLowerCase() + " with an id of: " + id + " doesnt exist"));
+        if(!Objects.equals(credentials.code(), code)) throw new IllegalStateException("Access token can't be issued, the code has changed since it was checked");
+
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String payload = type + ":" + id + ":" + credentials.keyVersion() + ":" + expiresAt;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(macs.get().doFinal(payloadBytes));
+    }
+
+    /**
+     * Checks the signature, expiry and key version of a token.
+     *
+     * @throws IllegalStateException if the token is malformed, tampered with, expired or revoked
+     */
+    public VerifiedToken verify(String token) {
+        int dot = token.indexOf('.');
+        if(dot < 0) throw new IllegalStateException("Malformed access token");
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Malformed access token");
+        }
+        if(!MessageDigest.isEqual(signature, macs.get().doFinal(payloadBytes))) throw new IllegalStateException("Access token signature is invalid");
+
+        String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split(":");
+        if(parts.length != 4) throw new IllegalStateException("Malformed access token");
+        CredentialType type = CredentialType.valueOf(parts[0]);
+        Long id = Long.valueOf(parts[1]);
+
+        if(Instant.now().getEpochSecond() >= Long.parseLong(parts[3])) throw new IllegalStateException("Access token has expired");
+        // A deleted coach or worker has no key version left, every token issued to them is revoked
+        Optional<Credentials> credentials = credentials(type, id);
+        if(credentials.isEmpty() || Integer.parseInt(parts[2]) != credentials.get().keyVersion()) throw new IllegalStateException("Access token has been revoked");
+        return new VerifiedToken(type, id);
+    }
+
+    /**
+     * Whether this is a request for a new token, those always authenticate with codes.
+     */
+    public static boolean isTokenRequest(HttpServletRequest request) {
+        return request.getMethod().equalsIgnoreCase("POST") && request.getRequestURI().endsWith(TOKEN_PATH);
+    }
+
+    /**
+     * @return the token from an "Authorization: Bearer" header, or null if there isn't one
+     */
+    public static String bearerToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if(authorization == null || !authorization.startsWith(BEARER_PREFIX)) return null;
+        return authorization.substring(BEARER_PREFIX.length());
+    }
+
+    // Found by id, so it's answered by the second-level cache once the coach or worker has been loaded
+    private Optional<Credentials> credentials(CredentialType type, Long id) {
+        return switch (type) {
+            case COACH -> coachRepository.findById(id).map(coach -> new Credentials(coach.getCoachCode(), coach.getKeyVersion()));
+            case WORKER -> workerRepository.findById(id).map(worker -> new Credentials(worker.getWorkerCode(), worker.getKeyVersion()));
+        };
+    }
+}
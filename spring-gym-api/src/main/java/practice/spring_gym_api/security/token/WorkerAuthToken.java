@@ -2,11 +2,16 @@ package practice.spring_gym_api.security.token;
 
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.Collection;
+import java.util.List;
 
 public class WorkerAuthToken extends AbstractAuthenticationToken {
 
+    // Shared by every authenticated token, the list is immutable
+    public static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_WORKER"));
+
     private final Long workerId;
     private final String workerCode;
 
@@ -0,0 +1,8 @@
+package practice.spring_gym_api.service;
+
+import practice.spring_gym_api.dto.AccessTokenDTO;
+
+public interface AuthService {
+    // --- POST methods ---
+    AccessTokenDTO issueAccessToken();
+}
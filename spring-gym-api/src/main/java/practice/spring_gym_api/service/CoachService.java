@@ -1,31 +1,44 @@
 package practice.spring_gym_api.service;
 
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.CoachDTO;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import practice.spring_gym_api.entity.enums.ClientSort;
+import practice.spring_gym_api.entity.enums.CoachSort;
+import practice.spring_gym_api.entity.enums.ExportFormat;
 import practice.spring_gym_api.entity.WorkerEntity;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
 
 public interface CoachService {
     // --- GET methods ---
     CoachEntity getCoachById(Long id);
-    Page<CoachEntity> getAllCoachesPageable(Pageable pageable);
+    CursorPage<CoachDTO> getAllCoachesPageable(String cursor, int limit, CoachSort sort);
+    TotalCount countCoaches(boolean exact);
+    String getCoachesVersion();
+    String getClientsVersion();
+    boolean existsById(Long id);
+    boolean existsByName(String name);
     List<CoachEntity> getAllCoaches();
     CoachEntity getCoachWithHighestClients();
     CoachEntity getCoachWithLowestClients();
     List<String> getWorkoutPlansByCoachName(String name);
-    Set<MemberEntity> getAllClientsByCoachId(Long id);
-    List<CoachEntity> getAllCoachesThatAreAvaliable();
+    CursorPage<MemberDTO> getAllClientsByCoachId(Long id, String cursor, int limit, ClientSort sort);
+    CursorPage<CoachDTO> getAllCoachesThatAreAvaliable(String cursor, int limit);
     CoachEntity getCoachByCoachCode(Long id, String coachCode);
+    void exportCoaches(OutputStream out, ExportFormat format);
 
 
     // --- POST methods ---
     void registerNewCoach(CoachRequestDTO coachRequestDTO);
-    void registerNewCoaches(List<CoachRequestDTO> coachRequestDTOS);
+    BatchRegistrationResult registerNewCoaches(List<CoachRequestDTO> coachRequestDTOS);
 
     // --- PUT/PATCH methods ---
     void updateNameByIdAndEmail(Long id, String name, String email);
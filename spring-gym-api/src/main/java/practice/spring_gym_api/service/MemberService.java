@@ -2,28 +2,46 @@ package practice.spring_gym_api.service;
 
 
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.LeaderboardEntry;
+import practice.spring_gym_api.dto.LeaderboardStandingDTO;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberImportResult;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
 import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.entity.enums.MemberSort;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
 
 public interface MemberService {
     // --- GET methods ---
     MemberEntity getMemberById(Long id);
-    Page<MemberEntity> getAllMembers(Pageable pageable);
+    CursorPage<MemberDTO> getAllMembers(String cursor, int limit, MemberSort sort);
+    TotalCount countMembers(boolean exact);
+    String getMembersVersion();
+    boolean existsById(Long id);
     MemberEntity getMemberByHighestBench();
     MemberEntity getMemberByHighestSquat();
     MemberEntity getMemberByHighestDeadlift();
     MemberEntity getMemberByHighestTotal();
-    List<MemberEntity> getAllMembersAboveATotal(int total);
-    List<MemberEntity> getAllAvaliableMembers();
+    List<MemberDTO> getAllMembersAboveATotal(int total);
+    List<LeaderboardEntry> getLeaderboard(Lifts lift, int limit, int offset);
+    LeaderboardStandingDTO getRankOfMember(Long id, Lifts lift);
+    LeaderboardStandingDTO getStandingOfScore(Lifts lift, int score);
+    CursorPage<MemberDTO> getAllAvaliableMembers(String cursor, int limit);
+    void exportMembers(OutputStream out, ExportFormat format);
 
     // --- POST methods ---
     void registerNewMember(MemberRequestDTO memberEntity);
-    void registerNewMembers(List<MemberRequestDTO> memberRequestDTOS);
+    BatchRegistrationResult registerNewMembers(List<MemberRequestDTO> memberRequestDTOS);
+    MemberImportResult importMembers(InputStream body, String contentType);
 
     // --- PUT/PATCH methods ---
     void replaceCoach(Long id, Long oldCoachesID, Long newCoachesID);
@@ -36,5 +54,5 @@ public interface MemberService {
 
     // --- DELETE methods --- *All Delete methods need to have authentication implemented, we are lookign for a heading that has a ROLE-WORKER*
     void deleteMemberById(Long id);
-    void deleteMembersBelowATotal(int total);
+    int deleteMembersBelowATotal(int total);
 }
@@ -3,11 +3,17 @@ package practice.spring_gym_api.service;
 
 import practice.spring_gym_api.dto.request.WorkerRequestDTO;
 import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+
+import java.io.OutputStream;
 
 public interface WorkerService {
     // --- GET methods ---
     WorkerEntity getWorkerById(Long id);
     WorkerEntity getWorkerByWorkerCode(Long id, String code);
+    String getWorkersVersion();
+    boolean existsById(Long id);
+    void exportWorkers(OutputStream out, ExportFormat format);
 
     // --- POST methods ---
     void registerNewWorker(WorkerRequestDTO workerRequestDTO);
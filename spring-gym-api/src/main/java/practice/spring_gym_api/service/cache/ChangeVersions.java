@@ -0,0 +1,58 @@
+package practice.spring_gym_api.service.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.event.WorkersChangedEvent;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A change counter per kind of resource, used to build the version tokens the GET endpoints send as ETags.
+ *
+ * A counter moves on once a write to its resource commits, so a token read before the response is built
+ * can only be older than the data in it, never newer, and the next request after a write always gets a new token.
+ * Tokens also carry an id picked at startup, counters start again from zero on every run,
+ * and today's date, since the ages in the DTOs change at midnight without any write.
+ */
+@Component
+public class ChangeVersions {
+
+    public enum Resource { MEMBERS, COACHES, WORKERS }
+
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Map<Resource, AtomicLong> counters = new EnumMap<>(Resource.class);
+
+    public ChangeVersions() {
+        for(Resource resource : Resource.values()) counters.put(resource, new AtomicLong());
+    }
+
+    /**
+     * @return a token that changes whenever one of the resources changes
+     */
+    public String token(Resource... resources) {
+        StringBuilder token = new StringBuilder(instance).append('-').append(LocalDate.now().toEpochDay());
+        for(Resource resource : resources) token.append('-').append(counters.get(resource).get());
+        return token.toString();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembersChanged(MembersChangedEvent event) {
+        counters.get(Resource.MEMBERS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoachesChanged(CoachesChangedEvent event) {
+        counters.get(Resource.COACHES).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkersChanged(WorkersChangedEvent event) {
+        counters.get(Resource.WORKERS).incrementAndGet();
+    }
+}
@@ -0,0 +1,113 @@
+package practice.spring_gym_api.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of the read-mostly queries (highest lifts, members above a total, most and least clients),
+ * kept until a write changes what they could return rather than for a fixed time.
+ *
+ * Each query belongs to a group, and a {@link MembersChangedEvent} or {@link CoachesChangedEvent} drops every
+ * result of its group once the publishing transaction commits, or straight away when there is none.
+ * Every group has a generation that each invalidation moves on, a result is only served if it was loaded
+ * in the current generation, so a load that raced a write can never be served after that write has committed.
+ * Loads made inside a read-write transaction bypass the cache, they could see writes that are later rolled back.
+ *
+ * Values are shared between callers and must be treated as read-only.
+ * Hit and miss counts are published as the "results" cache metrics.
+ */
+@Component
+public class ResultCache {
+
+    public enum Group { MEMBERS, COACHES }
+
+    public enum Query {
+        HIGHEST_BENCH(Group.MEMBERS),
+        HIGHEST_SQUAT(Group.MEMBERS),
+        HIGHEST_DEADLIFT(Group.MEMBERS),
+        HIGHEST_TOTAL(Group.MEMBERS),
+        MEMBERS_ABOVE_TOTAL(Group.MEMBERS),
+        MOST_CLIENTS(Group.COACHES),
+        LEAST_CLIENTS(Group.COACHES);
+
+        private final Group group;
+
+        Query(Group group) {
+            this.group = group;
+        }
+    }
+
+    private record Key(Query query, Object argument) {}
+
+    private record Entry(long generation, Object value) {}
+
+    static final long MAXIMUM_SIZE = 1_000;
+
+    private final Cache<Key, Entry> entries = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .recordStats()
+            .build();
+    private final Map<Group, AtomicLong> generations = new EnumMap<>(Group.class);
+
+    public ResultCache(MeterRegistry meterRegistry) {
+        for(Group group : Group.values()) generations.put(group, new AtomicLong());
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "results");
+    }
+
+    /**
+     * Returns the cached result of a query that takes no argument, running it only on a miss.
+     */
+    public <T> T get(Query query, Supplier<T> loader) {
+        return get(query, null, loader);
+    }
+
+    /**
+     * Returns the cached result of a query for this argument, running it only on a miss.
+     * Exceptions thrown by the loader are passed on and nothing is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Query query, Object argument, Supplier<T> loader) {
+        if(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return loader.get();
+
+        Key key = new Key(query, argument);
+        // Read before loading, if a write commits while the query runs the entry is already out of date
+        long generation = generations.get(query.group).get();
+        Entry entry = entries.getIfPresent(key);
+        if(entry != null && entry.generation() == generation) return (T) entry.value();
+
+        T value = loader.get();
+        entries.put(key, new Entry(generation, value));
+        return value;
+    }
+
+    /**
+     * Drops every result of the group, results already being loaded won't be served either.
+     */
+    public void invalidate(Group group) {
+        generations.get(group).incrementAndGet();
+        entries.asMap().keySet().removeIf(key -> key.query().group == group);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembersChanged(MembersChangedEvent event) {
+        invalidate(Group.MEMBERS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoachesChanged(CoachesChangedEvent event) {
+        invalidate(Group.COACHES);
+    }
+}
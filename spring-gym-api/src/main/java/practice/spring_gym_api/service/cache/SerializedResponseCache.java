@@ -0,0 +1,108 @@
+package practice.spring_gym_api.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.event.WorkersChangedEvent;
+import practice.spring_gym_api.service.cache.ChangeVersions.Resource;
+
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * The JSON bodies of the single-entity reads, kept as bytes so a hit skips the DTO mapping and Jackson
+ * and is copied straight to the response.
+ *
+ * Every body is stored with the {@link ChangeVersions} token it was built under, which the caller reads before
+ * loading, and is only served while that token is current. A write therefore stops a body being served as soon
+ * as it commits, and a load that raced the write can't be served at all. The write's event then drops the
+ * resource's bodies to free the space.
+ * The cache is bounded by the total size of the bodies rather than their number.
+ * Hit and miss counts are published as the "responses" cache metrics.
+ */
+@Component
+public class SerializedResponseCache {
+
+    public enum Kind {
+        MEMBER(Resource.MEMBERS),
+        COACH(Resource.COACHES),
+        WORKER(Resource.WORKERS),
+        WORKOUT_PLANS(Resource.COACHES);
+
+        private final Resource resource;
+
+        Kind(Resource resource) {
+            this.resource = resource;
+        }
+    }
+
+    private record Key(Kind kind, Object id) {}
+
+    private record Entry(String version, byte[] body) {}
+
+    static final long MAXIMUM_BYTES = 16 * 1024 * 1024;
+    // Rough cost of the key, entry and map node around each body
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Entry> bodies = Caffeine.newBuilder()
+            .maximumWeight(MAXIMUM_BYTES)
+            .weigher((Key key, Entry entry) -> entry.body().length + ENTRY_OVERHEAD)
+            .recordStats()
+            .build();
+
+    public SerializedResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "responses");
+    }
+
+    /**
+     * Returns the cached body, building and serializing it only on a miss.
+     * Exceptions thrown by the loader are passed on and nothing is cached.
+     *
+     * @param version the resource's token, read before anything is loaded
+     */
+    public byte[] get(Kind kind, Object id, String version, Supplier<?> loader) {
+        Key key = new Key(kind, id);
+        Entry entry = bodies.getIfPresent(key);
+        if(entry != null && entry.version().equals(version)) return entry.body();
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        bodies.put(key, new Entry(version, body));
+        return body;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembersChanged(MembersChangedEvent event) {
+        invalidate(Resource.MEMBERS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoachesChanged(CoachesChangedEvent event) {
+        invalidate(Resource.COACHES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkersChanged(WorkersChangedEvent event) {
+        invalidate(Resource.WORKERS);
+    }
+
+    /**
+     * Drops every body built from the resource.
+     */
+    public void invalidate(Resource resource) {
+        bodies.asMap().keySet().removeIf(key -> key.kind().resource == resource);
+    }
+}
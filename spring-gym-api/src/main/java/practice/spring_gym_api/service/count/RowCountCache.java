@@ -0,0 +1,121 @@
+package practice.spring_gym_api.service.count;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import practice.spring_gym_api.dto.TotalCount;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Row counts of the members and coaches tables, so a listing that asks for its total doesn't run a COUNT(*) every time.
+ *
+ * A table is counted once, then the count is moved by the services as they insert and delete rows.
+ * Changes made inside a transaction are only applied after it commits, like the LeaderboardEngine,
+ * so rolled back rows are never counted. A count is trusted for {@link #MAX_AGE}, after that the next
+ * exact request counts the table again, so a row written around the services can't skew it for long.
+ *
+ * When no trusted count is held and an estimate is good enough, PostgreSQL's planner estimate
+ * (pg_class.reltuples, kept up to date by autovacuum) is returned instead of counting.
+ */
+@Component
+public class RowCountCache {
+
+    public enum Table {
+        MEMBERS("members"),
+        COACHES("coaches");
+
+        private final String tableName;
+
+        Table(String tableName) {
+            this.tableName = tableName;
+        }
+    }
+
+    static final Duration MAX_AGE = Duration.ofMinutes(10);
+    private static final long UNKNOWN = -1;
+
+    /**
+     * One table's count. {@code writes} goes up with every applied change, a recount is only kept
+     * if no change was applied while it ran, otherwise the change could be counted twice or not at all.
+     */
+    private static final class Counter {
+        final AtomicLong rows = new AtomicLong(UNKNOWN);
+        final AtomicLong writes = new AtomicLong();
+        volatile long countedAt;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Table, LongSupplier> exactCounts = new EnumMap<>(Table.class);
+    private final Map<Table, Counter> counters = new EnumMap<>(Table.class);
+
+    public RowCountCache(MemberRepository memberRepository, CoachRepository coachRepository, JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        exactCounts.put(Table.MEMBERS, memberRepository::count);
+        exactCounts.put(Table.COACHES, coachRepository::count);
+        for(Table table : Table.values()) counters.put(table, new Counter());
+    }
+
+    /**
+     * @param exact whether the caller needs an exact count, or can take the planner's estimate
+     *              when no count is held
+     * @return the held count if there is one, otherwise a fresh count or estimate
+     */
+    public TotalCount count(Table table, boolean exact) {
+        Counter counter = counters.get(table);
+        long rows = counter.rows.get();
+        if(rows != UNKNOWN && System.nanoTime() - counter.countedAt < MAX_AGE.toNanos()) return new TotalCount(rows, true);
+
+        if(!exact) {
+            // reltuples is -1 until the table has been vacuumed or analyzed for the first time
+            Long estimate = jdbcTemplate.queryForObject("SELECT reltuples::bigint FROM pg_class WHERE oid = ?::regclass",
+                    Long.class, table.tableName);
+            if(estimate != null && estimate >= 0) return new TotalCount(estimate, false);
+        }
+
+        long writesBefore = counter.writes.get();
+        long counted = exactCounts.get(table).getAsLong();
+        if(counter.writes.get() == writesBefore && counter.rows.compareAndSet(rows, counted)) counter.countedAt = System.nanoTime();
+        return new TotalCount(counted, true);
+    }
+
+    /**
+     * Counts rows inserted into a table, once the current transaction commits.
+     */
+    public void added(Table table, long rows) {
+        if(rows != 0) afterCommit(() -> apply(table, rows));
+    }
+
+    /**
+     * Counts rows deleted from a table, once the current transaction commits.
+     */
+    public void removed(Table table, long rows) {
+        if(rows != 0) afterCommit(() -> apply(table, -rows));
+    }
+
+    private void apply(Table table, long delta) {
+        Counter counter = counters.get(table);
+        counter.writes.incrementAndGet();
+        counter.rows.updateAndGet(rows -> rows == UNKNOWN ? UNKNOWN : Math.max(0, rows + delta));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
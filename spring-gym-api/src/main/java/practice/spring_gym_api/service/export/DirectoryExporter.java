@@ -0,0 +1,149 @@
+package practice.spring_gym_api.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import practice.spring_gym_api.dto.CoachExportRow;
+import practice.spring_gym_api.dto.MemberExportRow;
+import practice.spring_gym_api.dto.WorkerExportRow;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.MemberRepository;
+import practice.spring_gym_api.repository.WorkerRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams the member, coach and worker directories as NDJSON or CSV.
+ *
+ * Rows come from read-only projection queries with a JDBC fetch size, inside a read-only transaction
+ * (PostgreSQL only honours the fetch size with autocommit off). Each row is written to the output
+ * as soon as it's read, so memory use doesn't depend on the size of the table.
+ */
+@Component
+public class DirectoryExporter {
+
+    /**
+     * One exported field, in the order it's written.
+     */
+    private record Column<T>(String name, Function<T, Object> value) {}
+
+    private static final List<Column<MemberExportRow>> MEMBER_COLUMNS = List.of(
+            new Column<>("id", MemberExportRow::getId),
+            new Column<>("name", MemberExportRow::getName),
+            new Column<>("dateOfBirth", MemberExportRow::getDateOfBirth),
+            new Column<>("role", MemberExportRow::getRole),
+            new Column<>("membershipDate", MemberExportRow::getMembershipDate),
+            new Column<>("bench", MemberExportRow::getBench),
+            new Column<>("squat", MemberExportRow::getSquat),
+            new Column<>("deadlift", MemberExportRow::getDeadlift),
+            new Column<>("total", MemberExportRow::getTotal),
+            new Column<>("coachId", MemberExportRow::getCoachId)
+    );
+
+    private static final List<Column<CoachExportRow>> COACH_COLUMNS = List.of(
+            new Column<>("id", CoachExportRow::getId),
+            new Column<>("name", CoachExportRow::getName),
+            new Column<>("dateOfBirth", CoachExportRow::getDateOfBirth),
+            new Column<>("role", CoachExportRow::getRole),
+            new Column<>("clientCount", CoachExportRow::getClientCount)
+    );
+
+    private static final List<Column<WorkerExportRow>> WORKER_COLUMNS = List.of(
+            new Column<>("id", WorkerExportRow::getId),
+            new Column<>("name", WorkerExportRow::getName),
+            new Column<>("dateOfBirth", WorkerExportRow::getDateOfBirth),
+            new Column<>("role", WorkerExportRow::getRole)
+    );
+
+    private final MemberRepository memberRepository;
+    private final CoachRepository coachRepository;
+    private final WorkerRepository workerRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public DirectoryExporter(MemberRepository memberRepository, CoachRepository coachRepository, WorkerRepository workerRepository,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.coachRepository = coachRepository;
+        this.workerRepository = workerRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportMembers(OutputStream out, ExportFormat format) {
+        export(memberRepository::streamAllForExport, MEMBER_COLUMNS, out, format);
+    }
+
+    public void exportCoaches(OutputStream out, ExportFormat format) {
+        export(coachRepository::streamAllForExport, COACH_COLUMNS, out, format);
+    }
+
+    public void exportWorkers(OutputStream out, ExportFormat format) {
+        export(workerRepository::streamAllForExport, WORKER_COLUMNS, out, format);
+    }
+
+    private <T> void export(Supplier<Stream<T>> query, List<Column<T>> columns, OutputStream out, ExportFormat format) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                if(format == ExportFormat.CSV) writeCsv(rows.iterator(), columns, out);
+                else writeNdjson(rows.iterator(), columns, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private <T> void writeNdjson(Iterator<T> rows, List<Column<T>> columns, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+            while(rows.hasNext()) {
+                T row = rows.next();
+                generator.writeStartObject();
+                for(Column<T> column : columns) generator.writeObjectField(column.name(), column.value().apply(row));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private <T> void writeCsv(Iterator<T> rows, List<Column<T>> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, columns.stream().map(Column::name).toList());
+        while(rows.hasNext()) {
+            T row = rows.next();
+            writeCsvLine(writer, columns.stream().map(column -> column.value().apply(row)).toList());
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for(int i = 0; i < values.size(); i++) {
+            if(i > 0) writer.write(',');
+            Object value = values.get(i);
+            if(value != null) writer.write(csvField(value.toString()));
+        }
+        writer.write('\n');
+    }
+
+    // Quotes a field only when it holds a comma, quote or line break, doubling any quotes inside it
+    private static String csvField(String value) {
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
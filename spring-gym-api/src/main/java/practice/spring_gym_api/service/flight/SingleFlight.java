@@ -0,0 +1,124 @@
+package practice.spring_gym_api.service.flight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ChangeVersions.Resource;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical calls of an expensive read share one computation, the first caller runs it and
+ * every caller arriving while it runs waits for its result, or its exception, instead of running it again.
+ *
+ * Calls are identical when they're of the same {@link Flight}, the flight's key function gives the same key
+ * for their arguments, and the {@link ChangeVersions} token of the flight's resource hasn't moved in between.
+ * A caller arriving after a write has committed therefore starts a new computation rather than joining one
+ * that may have read the data from before it.
+ * Calls made inside a read-write transaction are never shared, they could see writes that are later rolled back.
+ *
+ * Results are shared between callers and must be treated as read-only.
+ * Every call is counted in "singleflight.calls", tagged with the flight and whether it ran the computation
+ * ("led") or waited for another caller's ("coalesced").
+ */
+@Component
+public class SingleFlight {
+
+    public enum Flight {
+        HIGHEST_BENCH(Resource.MEMBERS),
+        HIGHEST_SQUAT(Resource.MEMBERS),
+        HIGHEST_DEADLIFT(Resource.MEMBERS),
+        HIGHEST_TOTAL(Resource.MEMBERS),
+        MEMBERS_ABOVE_TOTAL(Resource.MEMBERS, arguments -> arguments[0]),
+        MOST_CLIENTS(Resource.COACHES),
+        LEAST_CLIENTS(Resource.COACHES);
+
+        private final Resource resource;
+        private final Function<Object[], Object> key;
+
+        // Every call of a method without arguments is the same call
+        Flight(Resource resource) {
+            this(resource, arguments -> null);
+        }
+
+        Flight(Resource resource, Function<Object[], Object> key) {
+            this.resource = resource;
+            this.key = key;
+        }
+    }
+
+    private record Key(Flight flight, Object argument, String version) {}
+
+    private final ChangeVersions changeVersions;
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Flight, Counter> led = new EnumMap<>(Flight.class);
+    private final Map<Flight, Counter> coalesced = new EnumMap<>(Flight.class);
+
+    public SingleFlight(ChangeVersions changeVersions, MeterRegistry meterRegistry) {
+        this.changeVersions = changeVersions;
+        for(Flight flight : Flight.values()) {
+            led.put(flight, counter(meterRegistry, flight, "led"));
+            coalesced.put(flight, counter(meterRegistry, flight, "coalesced"));
+        }
+    }
+
+    /**
+     * Runs the call, or waits for an identical call that's already running and returns its result.
+     * Exceptions thrown by the call are passed on to every caller that shared it.
+     *
+     * @param arguments the arguments of the method being called, given to the flight's key function
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T run(Flight flight, Supplier<T> call, Object... arguments) {
+        if(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return call.get();
+
+        Key key = new Key(flight, flight.key.apply(arguments), changeVersions.token(flight.resource));
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if(running != null) {
+            coalesced.get(flight).increment();
+            return (T) await(running);
+        }
+
+        led.get(flight).increment();
+        try {
+            T value = call.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Only unchecked exceptions reach the future, they're thrown as they are
+            if(e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if(e.getCause() instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Flight flight, String result) {
+        return Counter.builder("singleflight.calls")
+                .description("Calls of an expensive read, by whether they ran it or shared another caller's run")
+                .tag("flight", flight.name().toLowerCase())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
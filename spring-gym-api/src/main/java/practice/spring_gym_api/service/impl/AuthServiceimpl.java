@@ -0,0 +1,37 @@
+package practice.spring_gym_api.service.impl;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import practice.spring_gym_api.dto.AccessTokenDTO;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+import practice.spring_gym_api.security.token.AccessTokenService;
+import practice.spring_gym_api.security.token.CoachAuthToken;
+import practice.spring_gym_api.security.token.WorkerAuthToken;
+import practice.spring_gym_api.service.AuthService;
+
+@Service
+public class AuthServiceimpl implements AuthService {
+
+    private final AccessTokenService accessTokenService;
+
+    public AuthServiceimpl(AccessTokenService accessTokenService) {
+        this.accessTokenService = accessTokenService;
+    }
+
+    /**
+     * Issues a token for whoever the auth filters just authenticated with their id and code.
+     *
+     * @return the token and how many seconds it is valid for
+     * @throws IllegalStateException if the request wasn't authenticated as a coach or worker, or their code changed since
+     */
+    @Override
+    public AccessTokenDTO issueAccessToken() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String token;
+        if(authentication instanceof CoachAuthToken coachAuthToken) token = accessTokenService.issue(CredentialType.COACH, coachAuthToken.getCoachId(), coachAuthToken.getCoachCode());
+        else if(authentication instanceof WorkerAuthToken workerAuthToken) token = accessTokenService.issue(CredentialType.WORKER, workerAuthToken.getWorkerId(), workerAuthToken.getWorkerCode());
+        else throw new IllegalStateException("Tokens can only be issued to coaches and workers");
+        return new AccessTokenDTO(token, accessTokenService.getTtl().toSeconds());
+    }
+}
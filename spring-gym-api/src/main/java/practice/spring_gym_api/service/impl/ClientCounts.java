@@ -0,0 +1,28 @@
+package practice.spring_gym_api.service.impl;
+
+import practice.spring_gym_api.entity.MemberEntity;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Shared by the member and coach services, which both move members between coaches
+ * and have to recount the clients of the coaches involved.
+ */
+final class ClientCounts {
+
+    private ClientCounts() {}
+
+    /**
+     * Collects the IDs of the coaches currently assigned to the given members, the IDs to pass to
+     * CoachRepository.recountClients once those members change coach.
+     */
+    static Set<Long> coachIdsOf(Collection<MemberEntity> memberEntities) {
+        Set<Long> coachIds = new HashSet<>();
+        for(MemberEntity memberEntity : memberEntities){
+            if(memberEntity.getCoachedBy() != null) coachIds.add(memberEntity.getCoachedBy().getId());
+        }
+        return coachIds;
+    }
+}
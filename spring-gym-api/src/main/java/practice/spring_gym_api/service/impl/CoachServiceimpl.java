@@ -1,21 +1,48 @@
 package practice.spring_gym_api.service.impl;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.data.domain.Limit;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.CoachDTO;
 import practice.spring_gym_api.dto.CoachMapper;
+import practice.spring_gym_api.dto.CoachSummary;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberSummary;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import practice.spring_gym_api.entity.enums.ClientSort;
+import practice.spring_gym_api.entity.enums.CoachSort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.event.WorkersChangedEvent;
 import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
 import practice.spring_gym_api.service.CoachService;
-
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ChangeVersions.Resource;
+import practice.spring_gym_api.service.cache.ResultCache;
+import practice.spring_gym_api.service.cache.ResultCache.Query;
+import practice.spring_gym_api.service.count.RowCountCache;
+import practice.spring_gym_api.service.count.RowCountCache.Table;
+import practice.spring_gym_api.service.export.DirectoryExporter;
+import practice.spring_gym_api.service.flight.SingleFlight;
+import practice.spring_gym_api.service.flight.SingleFlight.Flight;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
+
+import java.io.OutputStream;
 import java.util.*;
 
 /**
@@ -25,16 +52,34 @@ import java.util.*;
 @Service
 public class CoachServiceimpl implements CoachService {
 
+    private static final int EMAIL_LOOKUP_CHUNK_SIZE = 1000;
+
     private final CoachRepository coachRepository;
     private final MemberRepository memberRepository;
     private final WorkerRepository workerRepository;
     private final CoachMapper coachMapper;
-
-    public CoachServiceimpl(CoachRepository coachRepository, MemberRepository memberRepository, WorkerRepository workerRepository, @Qualifier("coachMapperimpl") CoachMapper coachMapper) {
+    private final LeaderboardEngine leaderboardEngine;
+    private final DirectoryExporter directoryExporter;
+    private final CredentialCache credentialCache;
+    private final RowCountCache rowCountCache;
+    private final ResultCache resultCache;
+    private final ChangeVersions changeVersions;
+    private final SingleFlight singleFlight;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CoachServiceimpl(CoachRepository coachRepository, MemberRepository memberRepository, WorkerRepository workerRepository, @Qualifier("coachMapperimpl") CoachMapper coachMapper, LeaderboardEngine leaderboardEngine, DirectoryExporter directoryExporter, CredentialCache credentialCache, RowCountCache rowCountCache, ResultCache resultCache, ChangeVersions changeVersions, SingleFlight singleFlight, ApplicationEventPublisher eventPublisher) {
         this.coachRepository = coachRepository;
         this.memberRepository = memberRepository;
         this.workerRepository = workerRepository;
         this.coachMapper = coachMapper;
+        this.leaderboardEngine = leaderboardEngine;
+        this.directoryExporter = directoryExporter;
+        this.credentialCache = credentialCache;
+        this.rowCountCache = rowCountCache;
+        this.resultCache = resultCache;
+        this.changeVersions = changeVersions;
+        this.singleFlight = singleFlight;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -51,14 +96,29 @@ public class CoachServiceimpl implements CoachService {
     }
 
     /**
-     * Retrieves all coaches in a pageable format.
+     * Retrieves one page of all coaches in the given order, read straight into DTOs without loading any entity.
+     * The page is found by seeking past the cursor's (sort value, ID) rather than by an offset,
+     * and nothing is counted, so every page costs the same.
      *
-     * @param pageable Pageable object with pagination info
-     * @return Page of CoachEntity objects
+     * @param cursor Cursor returned by the previous page, null for the first page
+     * @param limit Max number of coaches to return, between 1 and 100
+     * @param sort Order of the list, ties are broken by ID
+     * @return one {@link CursorPage} of CoachDTO objects, empty if no coaches are registered
+     * @throws IllegalArgumentException if the limit is out of range or the cursor is invalid or belongs to another sort
      */
     @Override
-    public Page<CoachEntity> getAllCoachesPageable(Pageable pageable) {
-        return coachRepository.findAll(pageable);
+    public CursorPage<CoachDTO> getAllCoachesPageable(String cursor, int limit, CoachSort sort) {
+        if(limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
+        CursorPage.Keyset after = CursorPage.decodeCursor(cursor, sort.name());
+        long afterId = after == null ? 0L : after.id();
+
+        List<CoachSummary> summaries = switch (sort) {
+            case ID -> coachRepository.findSummariesAfter(afterId, Limit.of(limit + 1));
+            // The first page starts from the empty name, which every name sorts after
+            case NAME -> coachRepository.findSummariesByNameAfter(after == null ? "" : after.value(), afterId, Limit.of(limit + 1));
+        };
+        return CursorPage.ofKeyset(summaries, limit, summary -> CursorPage.encodeCursor(sort.name(),
+                sort == CoachSort.NAME ? summary.name() : summary.id(), summary.id())).map(CoachSummary::toDTO);
     }
 
     /**
@@ -74,38 +134,30 @@ public class CoachServiceimpl implements CoachService {
         return list;
     }
 
+    /**
+     * Retrieves the coach with the most clients, ties go to the lowest ID.
+     * Cached until a coach write commits, see {@link ResultCache}, and concurrent misses share one query, see {@link SingleFlight}.
+     *
+     * @return CoachEntity with the highest client count
+     * @throws NoSuchElementException if no coaches are registered
+     */
     @Override
     public CoachEntity getCoachWithHighestClients(){
-        List<CoachEntity> list = coachRepository.findAll();
-        if(list.isEmpty()) throw new NoSuchElementException("No coaches currently registered");
-
-        int max = list.get(0).getClients().size();
-        CoachEntity coachEntityToReturn = list.get(0);
-
-        for(CoachEntity coachEntity : list){
-            if(coachEntity.getClients().size() > max){
-                max = coachEntity.getClients().size();
-                coachEntityToReturn = coachEntity;
-            }
-        }
-        return coachEntityToReturn;
+        return resultCache.get(Query.MOST_CLIENTS, () -> singleFlight.run(Flight.MOST_CLIENTS, () -> coachRepository.findFirstByOrderByClientCountDescIdAsc()
+                .orElseThrow(() -> new NoSuchElementException("No coaches currently registered"))));
     }
 
+    /**
+     * Retrieves the coach with the fewest clients, ties go to the lowest ID.
+     * Cached until a coach write commits, see {@link ResultCache}.
+     *
+     * @return CoachEntity with the lowest client count
+     * @throws NoSuchElementException if no coaches are registered
+     */
     @Override
     public CoachEntity getCoachWithLowestClients() {
-       List<CoachEntity> coachEntityList = coachRepository.findAll();
-        if(coachEntityList.isEmpty()) throw new NoSuchElementException("No coaches currently registered");
-
-       int min = coachEntityList.get(0).getClients().size();
-       CoachEntity entityToReturn = coachEntityList.get(0);
-
-       for(CoachEntity coach : coachEntityList){
-           if(coach.getClients().size() < min) {
-               min = coach.getClients().size();
-               entityToReturn = coach;
-           }
-       }
-       return entityToReturn;
+        return resultCache.get(Query.LEAST_CLIENTS, () -> singleFlight.run(Flight.LEAST_CLIENTS, () -> coachRepository.findFirstByOrderByClientCountAscIdAsc()
+                .orElseThrow(() -> new NoSuchElementException("No coaches currently registered"))));
     }
 
     /**
@@ -116,44 +168,112 @@ public class CoachServiceimpl implements CoachService {
      * @throws IllegalStateException if the coach does not exist
      */
     @Override
+    @Transactional(readOnly = true)
     public List<String> getWorkoutPlansByCoachName(String name) {
         CoachEntity coachEntity = coachRepository.findCoachByName(name)
                 .orElseThrow(() -> new NoSuchElementException("Coach with a name of: " + name + " doesn't exist"));
-        return coachEntity.getWorkoutPlans();
+        // Copied while the session is open, the lazy collection can't be read once it closes
+        return new ArrayList<>(coachEntity.getWorkoutPlans());
     }
 
     /**
-     * Returns all clients (members) assigned to a coach by their ID.
+     * Counts every coach for the X-Total-Count header, without a COUNT(*) when a count is already held.
      *
-     * @param id Coach ID
-     * @return Set of MemberEntity clients; empty set if none exist
-     * @throws IllegalStateException if coach is not found
+     * @param exact whether an estimate from the query planner is acceptable
      */
     @Override
-    public Set<MemberEntity> getAllClientsByCoachId(Long id) {
-       CoachEntity coachEntityToUpdate = coachRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Coach with an id of: " + id + " doesnt exist"));
+    public TotalCount countCoaches(boolean exact) {
+        return rowCountCache.count(Table.COACHES, exact);
+    }
+
+    /**
+     * Version token of the coaches, it changes once any coach write commits.
+     * Sent as the ETag of coach reads, so an unchanged coach can be answered with a 304.
+     */
+    @Override
+    public String getCoachesVersion() {
+        return changeVersions.token(Resource.COACHES);
+    }
+
+    /**
+     * Version token of the coaches' client lists, it changes once a member or coach write commits,
+     * since both a client's details and who a coach's clients are end up in the list.
+     */
+    @Override
+    public String getClientsVersion() {
+        return changeVersions.token(Resource.MEMBERS, Resource.COACHES);
+    }
 
-       if(coachEntityToUpdate.getClients().size() > 0) return coachEntityToUpdate.getClients();
-       else throw new NoSuchElementException("Coach does not have any clients to access");
+    /**
+     * Checks a coach exists without loading them, for a conditional read that is about to answer 304.
+     */
+    @Override
+    public boolean existsById(Long id) {
+        return coachRepository.existsById(id);
+    }
+
+    /**
+     * Same as existsById, for reads that look a coach up by name.
+     */
+    @Override
+    public boolean existsByName(String name) {
+        return coachRepository.existsByName(name);
     }
 
     /**
-     * Retrieves all coaches with no assigned clients.
+     * Returns one page of the clients (members) assigned to a coach.
+     * Members are queried by coach_id directly, so neither the coach nor its client set is loaded,
+     * and a page costs the same however many clients the coach has.
      *
-     * @return List of available coaches
+     * @param id     Coach ID
+     * @param cursor Cursor returned by the previous page, null for the first page
+     * @param limit  Max number of clients to return, between 1 and 100
+     * @param sort   Order of the list, ties are broken by ID
+     * @return one {@link CursorPage} of MemberDTO clients
+     * @throws NoSuchElementException if coach is not found or has no clients
+     * @throws IllegalArgumentException if the limit is out of range or the cursor is invalid or belongs to another sort
      */
     @Override
-    public List<CoachEntity> getAllCoachesThatAreAvaliable() {
-        List<CoachEntity> coachEntities = coachRepository.findAll();
-        if(coachEntities.isEmpty()) throw new NoSuchElementException("No coaches currently registered");
+    public CursorPage<MemberDTO> getAllClientsByCoachId(Long id, String cursor, int limit, ClientSort sort) {
+        if(limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
+        CursorPage.Keyset after = CursorPage.decodeCursor(cursor, sort.name());
+        long afterId = after == null ? 0L : after.id();
+        Limit rows = Limit.of(limit + 1);
+
+        if(!coachRepository.existsById(id)) throw new NoSuchElementException("Coach with an id of: " + id + " doesnt exist");
+
+        // The first page starts from a value every row sorts after
+        List<MemberSummary> clients = switch (sort) {
+            case ID -> memberRepository.findClientSummariesAfter(id, afterId, rows);
+            case NAME -> memberRepository.findClientSummariesByNameAfter(id, after == null ? "" : after.value(), afterId, rows);
+            case TOTAL -> memberRepository.findClientSummariesByTotalAfter(id, after == null ? Integer.MAX_VALUE : after.intValue(), afterId, rows);
+        };
+        if(clients.isEmpty() && after == null) throw new NoSuchElementException("Coach does not have any clients to access");
+
+        return CursorPage.ofKeyset(clients, limit, client -> CursorPage.encodeCursor(sort.name(), switch (sort) {
+            case ID -> client.id();
+            case NAME -> client.name();
+            case TOTAL -> client.total();
+        }, client.id())).map(MemberSummary::toDTO);
+    }
 
-        List<CoachEntity> coachEntitiesToReturn = new ArrayList<>();
+    /**
+     * Retrieves one page of coaches with no assigned clients, ordered by ID.
+     *
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit  Number of coaches to return (1 - 100)
+     * @return CursorPage of available coaches
+     * @throws IllegalArgumentException if the limit or cursor are invalid
+     * @throws NoSuchElementException if no coaches are registered
+     */
+    @Override
+    public CursorPage<CoachDTO> getAllCoachesThatAreAvaliable(String cursor, int limit) {
+        if(limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
+        long afterId = CursorPage.decodeCursor(cursor);
 
-        for(CoachEntity coachEntity : coachEntities){
-            if(coachEntity.getClients().size() == 0) coachEntitiesToReturn.add(coachEntity);
-        }
-        return coachEntitiesToReturn;
+        List<CoachSummary> summaries = coachRepository.findSummariesWithoutClientsAfter(afterId, Limit.of(limit + 1));
+        if(summaries.isEmpty() && afterId == 0 && coachRepository.count() == 0) throw new NoSuchElementException("No coaches currently registered");
+        return CursorPage.of(summaries, limit, CoachSummary::id).map(CoachSummary::toDTO);
     }
 
     @Override
@@ -169,6 +289,17 @@ public class CoachServiceimpl implements CoachService {
         return coachEntity;
     }
 
+    /**
+     * Streams every coach to the output, one row per line.
+     *
+     * @param out    Where the rows are written, it is not closed
+     * @param format NDJSON or CSV (with a header row)
+     */
+    @Override
+    public void exportCoaches(OutputStream out, ExportFormat format) {
+        directoryExporter.exportCoaches(out, format);
+    }
+
     /**
      * Registers a new coach, ensuring email uniqueness.
      *
@@ -179,29 +310,51 @@ public class CoachServiceimpl implements CoachService {
     public void registerNewCoach(CoachRequestDTO coachRequestDTO) {
         Optional<CoachEntity> coachEntity1 = Optional.ofNullable(coachRepository.findByEmail(coachRequestDTO.getEmail()));
         if(coachEntity1.isPresent()) throw new IllegalArgumentException("Coach with an email of: " + coachRequestDTO.getEmail() + " already exists");
-        if(!Objects.equals(coachRequestDTO.getRole(), "ROLE_COACH")) throw new IllegalArgumentException("Role must be 'ROLE_COACH'");
+        if(coachRequestDTO.getRole() != Roles.ROLE_COACH) throw new IllegalArgumentException("Role must be 'ROLE_COACH'");
 
         if(!Objects.equals(coachRequestDTO.getCoachCode(), "Placeholder coach code")) throw new IllegalArgumentException("Initial coach code must be: 'Placeholder coach code'");
         CoachEntity coachEntity = coachMapper.convertToCoachEntity(coachRequestDTO);
         coachRepository.save(coachEntity);
+        credentialCache.invalidateCoach(coachEntity.getId(), coachEntity.getCoachCode());
+        rowCountCache.added(Table.COACHES, 1);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
-     * Registers multiple coaches after checking for email duplicates.
+     * Registers multiple coaches at once.
+     * Emails are checked against the database in one query per chunk, and against the rest of the batch in memory.
+     * Rows that fail a check are reported back instead of failing the whole batch, every other row is saved.
      *
      * @param coachRequestDTOS List of coaches to be saved
-     * @throws IllegalStateException if any email already exists
+     * @return how many coaches were saved, and which rows were rejected and why
      */
     @Override
-    public void registerNewCoaches(List<CoachRequestDTO> coachRequestDTOS) {
+    public BatchRegistrationResult registerNewCoaches(List<CoachRequestDTO> coachRequestDTOS) {
+        Set<String> takenEmails = new HashSet<>();
+        List<String> emails = coachRequestDTOS.stream().map(CoachRequestDTO::getEmail).distinct().toList();
+        for(int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK_SIZE) {
+            takenEmails.addAll(coachRepository.findEmailsIn(emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK_SIZE, emails.size()))));
+        }
+
         List<CoachEntity> coachEntities = new ArrayList<>();
-        for(CoachRequestDTO coachRequestDTO : coachRequestDTOS){
-            if(coachRepository.existsByEmail(coachRequestDTO.getEmail())) throw new IllegalArgumentException("Coach with an email of: " + coachRequestDTO.getEmail() + " already exists");
-            if(!Objects.equals(coachRequestDTO.getCoachCode(), "Placeholder coach code")) throw new IllegalArgumentException("Initial coach code must be: 'Placeholder coach code'");
-            if(!Objects.equals(coachRequestDTO.getRole(), "ROLE_COACH")) throw new IllegalArgumentException("Role must be 'ROLE_COACH'");
-            coachEntities.add(coachMapper.convertToCoachEntity(coachRequestDTO));
+        List<BatchRegistrationResult.RejectedRow> rejectedRows = new ArrayList<>();
+        Set<String> emailsInBatch = new HashSet<>();
+        for(int i = 0; i < coachRequestDTOS.size(); i++){
+            CoachRequestDTO coachRequestDTO = coachRequestDTOS.get(i);
+            String email = coachRequestDTO.getEmail();
+            if(takenEmails.contains(email)) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Coach with an email of: " + email + " already exists"));
+            else if(!emailsInBatch.add(email)) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Email appears more than once in this batch"));
+            else if(!Objects.equals(coachRequestDTO.getCoachCode(), "Placeholder coach code")) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Initial coach code must be: 'Placeholder coach code'"));
+            else if(coachRequestDTO.getRole() != Roles.ROLE_COACH) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Role must be 'ROLE_COACH'"));
+            else coachEntities.add(coachMapper.convertToCoachEntity(coachRequestDTO));
         }
         coachRepository.saveAll(coachEntities);
+        credentialCache.invalidateCoaches(
+                coachEntities.stream().map(CoachEntity::getId).toList(),
+                coachEntities.stream().map(CoachEntity::getCoachCode).toList());
+        rowCountCache.added(Table.COACHES, coachEntities.size());
+        if(!coachEntities.isEmpty()) eventPublisher.publishEvent(new CoachesChangedEvent());
+        return new BatchRegistrationResult(coachEntities.size(), rejectedRows);
     }
 
     /**
@@ -225,6 +378,7 @@ public class CoachServiceimpl implements CoachService {
 
         coachEntityToUpdateNameFromId.setName(name);
         coachRepository.save(coachEntityToUpdateNameFromId);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
@@ -236,11 +390,12 @@ public class CoachServiceimpl implements CoachService {
      * @throws IllegalStateException if coach is not found
      */
     @Override
+    @Transactional
     public void addClientsByIdAndEmail(Long id, String email, List<String> clientEmails) {
         if(email == null || email.isEmpty()) throw new IllegalArgumentException("Email cannot be null or an empty string");
         if(clientEmails.isEmpty()) throw new IllegalArgumentException("Client emails cannot be null or an empty string");
 
-        CoachEntity coachEntityToUpdateClientsID = coachRepository.findById(id)
+        CoachEntity coachEntityToUpdateClientsID = coachRepository.findWithClientsById(id)
                 .orElseThrow(() -> new NoSuchElementException("Coach with an id of: " + id + " doesnt exist"));
 
         CoachEntity coachEntityToUpdateClientsEmail = coachRepository.findByEmail(email);
@@ -254,10 +409,16 @@ public class CoachServiceimpl implements CoachService {
             memberEntities.add(memberEntity);
             }
 
+        // clients may be moving over from another coach, whose count changes too
+        Set<Long> coachIdsToRecount = ClientCounts.coachIdsOf(memberEntities);
+        coachIdsToRecount.add(id);
+
         for(MemberEntity memberEntity : memberEntities) memberEntity.setCoachedBy(coachEntityToUpdateClientsID);
 
         coachEntityToUpdateClientsID.getClients().addAll(memberEntities);
         coachRepository.save(coachEntityToUpdateClientsID);
+        coachRepository.recountClients(coachIdsToRecount);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
@@ -270,12 +431,13 @@ public class CoachServiceimpl implements CoachService {
      * @throws IllegalStateException if the coach is not found or ID and email don't match
      */
     @Override
+    @Transactional
     public void replaceClientListByIdAndEmail(Long id, String email, List<Long> listOfIds) {
         if(email == null || email.isEmpty()) throw new IllegalArgumentException("Email cannot be null or an empty string");
         if(listOfIds.isEmpty()) throw new IllegalArgumentException("Id list cannot be empty");
 
         // find and verify coach
-        CoachEntity coachEntityById = coachRepository.findById(id)
+        CoachEntity coachEntityById = coachRepository.findWithClientsById(id)
                 .orElseThrow(() -> new NoSuchElementException("Coach with an id of: " + id + " doesnt exist"));
         CoachEntity coachEntityByEmail = coachRepository.findByEmail(email);
         if(coachEntityByEmail == null) throw new NoSuchElementException("Coach with an email of: " + email + " doesnt exist");
@@ -291,9 +453,14 @@ public class CoachServiceimpl implements CoachService {
             updatedClients.add(memberEntity);
         }
 
+        Set<Long> coachIdsToRecount = ClientCounts.coachIdsOf(updatedClients);
+        coachIdsToRecount.add(id);
+
         for(MemberEntity memberEntity : oldClients) memberEntity.setCoachedBy(null);
         for(MemberEntity memberEntity : updatedClients) memberEntity.setCoachedBy(coachEntityById);
         memberRepository.saveAll(updatedClients);
+        coachRepository.recountClients(coachIdsToRecount);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
@@ -318,6 +485,7 @@ public class CoachServiceimpl implements CoachService {
 
         coachEntityById.setWorkoutPlans(workoutPlans);
         coachRepository.save(coachEntityById);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
@@ -352,6 +520,7 @@ public class CoachServiceimpl implements CoachService {
         coachEntityToUpdate.setDateOfBirth(coachRequestDTO.getDateOfBirth());
         coachEntityToUpdate.setEmail(coachRequestDTO.getEmail());
         coachRepository.save(coachEntityToUpdate);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
@@ -364,10 +533,11 @@ public class CoachServiceimpl implements CoachService {
      * @throws IllegalStateException if credentials are invalid or role is unchanged
      */
     @Override
+    @Transactional
     public void updateRoleOfACoach(Long id, String email, String role) {
         if(email == null || email.isEmpty()) throw new IllegalArgumentException("Email cannot be null or an empty string");
 
-        CoachEntity coachEntityById = coachRepository.findById(id)
+        CoachEntity coachEntityById = coachRepository.findWithClientsById(id)
                 .orElseThrow(() -> new NoSuchElementException("Coach with an id of: " + id + " doesnt exist"));
         CoachEntity coachEntityByEmail = coachRepository.findByEmail(email);
 
@@ -380,11 +550,16 @@ public class CoachServiceimpl implements CoachService {
 
             deleteCoachById(id);
             memberRepository.save(memberEntity);
+            leaderboardEngine.upsert(memberEntity);
+            rowCountCache.added(Table.MEMBERS, 1);
+            eventPublisher.publishEvent(new MembersChangedEvent());
         } else if (role.equalsIgnoreCase("ROLE_WORKER")) {
             WorkerEntity workerEntity = coachMapper.covertCoachToWorkerEntity(coachEntityById);
 
             deleteCoachById(id);
             workerRepository.save(workerEntity);
+            credentialCache.invalidateWorker(workerEntity.getId(), workerEntity.getWorkerCode());
+            eventPublisher.publishEvent(new WorkersChangedEvent());
         }  else throw new IllegalStateException("Role must be either ROLE_COACH, ROLE_WORKER, or ROLE_MEMBER");
     }
 
@@ -408,8 +583,11 @@ public class CoachServiceimpl implements CoachService {
 
         CoachEntity coachEntity = coachRepository.findByCoachCode(coachCode);
         if(coachEntity != null) throw new IllegalArgumentException("Coach with a code of: " +  coachCode + " already exists");
+        String oldCoachCode = coachEntityById.getCoachCode();
         coachEntityById.setCoachCode(coachCode);
+        coachEntityById.revokeAccessTokens();
         coachRepository.save(coachEntityById);
+        credentialCache.invalidateCoach(id, oldCoachCode, coachCode);
     }
 
     /**
@@ -419,8 +597,9 @@ public class CoachServiceimpl implements CoachService {
      * @throws IllegalStateException if no coach exists with the given ID
      */
     @Override
+    @Transactional
     public void deleteCoachById(Long id) {
-        CoachEntity coachEntity = coachRepository.findById(id)
+        CoachEntity coachEntity = coachRepository.findWithClientsById(id)
                 .orElseThrow(() -> new NoSuchElementException("Coach with an id of: " + id + " doesnt exist"));
 
         if(coachEntity.getClients().size() > 0) {
@@ -433,12 +612,16 @@ public class CoachServiceimpl implements CoachService {
         }
 
         coachRepository.deleteById(id);
+        credentialCache.invalidateCoach(id, coachEntity.getCoachCode());
+        rowCountCache.removed(Table.COACHES, 1);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
      * Deletes all coaches from the repository.
      */
     @Override
+    @Transactional
     public void deleteAllCoaches() {
         List<MemberEntity> memberEntities = memberRepository.findAll();
         List<CoachEntity> coachEntities = coachRepository.findAll();
@@ -451,6 +634,9 @@ public class CoachServiceimpl implements CoachService {
         }
         if(coachEntities.size() > 0) {
             coachRepository.deleteAll();
+            credentialCache.invalidateAllCoaches();
+            rowCountCache.removed(Table.COACHES, coachEntities.size());
+            eventPublisher.publishEvent(new CoachesChangedEvent());
         } else throw new IllegalStateException("No coaches left to delete");
     }
 }
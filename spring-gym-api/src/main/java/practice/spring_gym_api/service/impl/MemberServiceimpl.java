@@ -1,20 +1,56 @@
 package practice.spring_gym_api.service.impl;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.context.SecurityContextHolder;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.LeaderboardEntry;
+import practice.spring_gym_api.dto.LeaderboardStandingDTO;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberIdentityMismatch;
+import practice.spring_gym_api.dto.MemberImportResult;
 import practice.spring_gym_api.dto.MemberMapper;
+import practice.spring_gym_api.dto.MemberSummary;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.entity.enums.MemberSort;
 import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.event.WorkersChangedEvent;
 import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
 import practice.spring_gym_api.service.MemberService;
-
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ChangeVersions.Resource;
+import practice.spring_gym_api.service.cache.ResultCache;
+import practice.spring_gym_api.service.cache.ResultCache.Query;
+import practice.spring_gym_api.service.count.RowCountCache;
+import practice.spring_gym_api.service.count.RowCountCache.Table;
+import practice.spring_gym_api.service.export.DirectoryExporter;
+import practice.spring_gym_api.service.flight.SingleFlight;
+import practice.spring_gym_api.service.flight.SingleFlight.Flight;
+import practice.spring_gym_api.service.importer.MemberImporter;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -24,16 +60,67 @@ import java.util.*;
 @Service
 public class MemberServiceimpl implements MemberService {
 
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final int EMAIL_LOOKUP_CHUNK_SIZE = 1000;
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
     private final MemberRepository memberRepository;
     private final CoachRepository coachRepository;
     private final WorkerRepository workerRepository;
     private final MemberMapper memberMapper;
-
-    public MemberServiceimpl(MemberRepository memberRepository, CoachRepository coachRepository, WorkerRepository workerRepository, MemberMapper memberMapper) {
+    private final LeaderboardEngine leaderboardEngine;
+    private final MemberImporter memberImporter;
+    private final DirectoryExporter directoryExporter;
+    private final CredentialCache credentialCache;
+    private final RowCountCache rowCountCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ResultCache resultCache;
+    private final ChangeVersions changeVersions;
+    private final SingleFlight singleFlight;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MemberServiceimpl(MemberRepository memberRepository, CoachRepository coachRepository, WorkerRepository workerRepository, MemberMapper memberMapper, LeaderboardEngine leaderboardEngine, MemberImporter memberImporter, DirectoryExporter directoryExporter, CredentialCache credentialCache, RowCountCache rowCountCache, EntityManagerFactory entityManagerFactory, ResultCache resultCache, ChangeVersions changeVersions, SingleFlight singleFlight, ApplicationEventPublisher eventPublisher) {
         this.memberRepository = memberRepository;
         this.coachRepository = coachRepository;
         this.workerRepository = workerRepository;
         this.memberMapper = memberMapper;
+        this.leaderboardEngine = leaderboardEngine;
+        this.memberImporter = memberImporter;
+        this.directoryExporter = directoryExporter;
+        this.credentialCache = credentialCache;
+        this.rowCountCache = rowCountCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.resultCache = resultCache;
+        this.changeVersions = changeVersions;
+        this.singleFlight = singleFlight;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Counts every member for the X-Total-Count header, without a COUNT(*) when a count is already held.
+     *
+     * @param exact whether an estimate from the query planner is acceptable
+     */
+    @Override
+    public TotalCount countMembers(boolean exact) {
+        return rowCountCache.count(Table.MEMBERS, exact);
+    }
+
+    /**
+     * Version token of the members and the leaderboards, it changes once any member write commits.
+     * Sent as the ETag of member reads, so an unchanged member can be answered with a 304.
+     */
+    @Override
+    public String getMembersVersion() {
+        return changeVersions.token(Resource.MEMBERS);
+    }
+
+    /**
+     * Checks a member exists without loading them, for a conditional read that is about to answer 304.
+     */
+    @Override
+    public boolean existsById(Long id) {
+        return memberRepository.existsById(id);
     }
 
     /**
@@ -50,36 +137,51 @@ public class MemberServiceimpl implements MemberService {
     }
 
     /**
-     * Retrieves a paginated list of all members.
+     * Retrieves one page of all members in the given order, read straight into DTOs without loading any entity.
+     * The page is found by seeking past the cursor's (sort value, ID) rather than by an offset,
+     * and nothing is counted, so every page costs the same.
      *
-     * @param pageable Pagination settings
-     * @return Page of MemberEntity
+     * @param cursor Cursor returned by the previous page, null for the first page
+     * @param limit Max number of members to return, between 1 and 100
+     * @param sort Order of the list, ties are broken by ID
+     * @return one {@link CursorPage} of MemberDTO, empty if no members are registered
+     * @throws IllegalArgumentException if the limit is out of range or the cursor is invalid or belongs to another sort
      */
     @Override
-    public Page<MemberEntity> getAllMembers(Pageable pageable) {
-        return memberRepository.findAll(pageable);
+    public CursorPage<MemberDTO> getAllMembers(String cursor, int limit, MemberSort sort) {
+        if(limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
+        CursorPage.Keyset after = CursorPage.decodeCursor(cursor, sort.name());
+        long afterId = after == null ? 0L : after.id();
+        Limit rows = Limit.of(limit + 1);
+
+        // The first page starts from a value every row sorts after
+        List<MemberSummary> summaries = switch (sort) {
+            case ID -> memberRepository.findSummariesAfter(afterId, rows);
+            case NAME -> memberRepository.findSummariesByNameAfter(after == null ? "" : after.value(), afterId, rows);
+            case MEMBERSHIP_DATE -> memberRepository.findSummariesByMembershipDateAfter(after == null ? "" : after.value(), afterId, rows);
+            case TOTAL -> memberRepository.findSummariesByTotalAfter(after == null ? Integer.MAX_VALUE : after.intValue(), afterId, rows);
+            case BENCH -> memberRepository.findSummariesByBenchAfter(after == null ? Integer.MAX_VALUE : after.intValue(), afterId, rows);
+        };
+        return CursorPage.ofKeyset(summaries, limit, summary -> CursorPage.encodeCursor(sort.name(), switch (sort) {
+            case ID -> summary.id();
+            case NAME -> summary.name();
+            case MEMBERSHIP_DATE -> summary.membershipDate();
+            case TOTAL -> summary.total();
+            case BENCH -> summary.bench();
+        }, summary.id())).map(MemberSummary::toDTO);
     }
 
     /**
      * Retrieves the member with the highest bench press.
+     * The highest lifts and members above a total are cached until a member write commits, see {@link ResultCache},
+     * and concurrent misses share one query, see {@link SingleFlight}.
      *
      * @return MemberEntity with highest bench
      */
     @Override
     public MemberEntity getMemberByHighestBench() {
-        List<MemberEntity> listOfAllEntities = memberRepository.findAll();
-        if(listOfAllEntities.isEmpty()) throw new NoSuchElementException("There are currently no members registered");
-
-        double maxBench = 0;
-        MemberEntity entityWithMax = listOfAllEntities.getFirst();
-
-        for(MemberEntity memberEntity : listOfAllEntities){
-            if(memberEntity.getBench() > maxBench) {
-                maxBench = memberEntity.getBench();
-                entityWithMax = memberEntity;
-            }
-        }
-        return entityWithMax;
+        return resultCache.get(Query.HIGHEST_BENCH, () -> singleFlight.run(Flight.HIGHEST_BENCH, () -> memberRepository.findFirstByOrderByBenchDescIdAsc()
+                .orElseThrow(() -> new NoSuchElementException("There are currently no members registered"))));
     }
 
     /**
@@ -89,19 +191,8 @@ public class MemberServiceimpl implements MemberService {
      */
     @Override
     public MemberEntity getMemberByHighestSquat() {
-        List<MemberEntity> listOfAllEntities = memberRepository.findAll();
-        if(listOfAllEntities.isEmpty()) throw new NoSuchElementException("There are currently no members registered");
-
-        double maxSquat = 0;
-        MemberEntity entityWithMax = listOfAllEntities.getFirst();
-
-        for(MemberEntity memberEntity : listOfAllEntities){
-            if(memberEntity.getSquat() > maxSquat) {
-                maxSquat = memberEntity.getSquat();
-                entityWithMax = memberEntity;
-            }
-        }
-        return entityWithMax;
+        return resultCache.get(Query.HIGHEST_SQUAT, () -> singleFlight.run(Flight.HIGHEST_SQUAT, () -> memberRepository.findFirstByOrderBySquatDescIdAsc()
+                .orElseThrow(() -> new NoSuchElementException("There are currently no members registered"))));
     }
 
     /**
@@ -111,19 +202,8 @@ public class MemberServiceimpl implements MemberService {
      */
     @Override
     public MemberEntity getMemberByHighestDeadlift() {
-        List<MemberEntity> listOfAllEntities = memberRepository.findAll();
-        if(listOfAllEntities.isEmpty()) throw new NoSuchElementException("There are currently no members registered");
-
-        double maxDeadlift = 0;
-        MemberEntity entityWithMax = listOfAllEntities.getFirst();
-
-        for(MemberEntity memberEntity : listOfAllEntities){
-            if(memberEntity.getDeadlift() > maxDeadlift) {
-                maxDeadlift = memberEntity.getDeadlift();
-                entityWithMax = memberEntity;
-            }
-        }
-        return entityWithMax;
+        return resultCache.get(Query.HIGHEST_DEADLIFT, () -> singleFlight.run(Flight.HIGHEST_DEADLIFT, () -> memberRepository.findFirstByOrderByDeadliftDescIdAsc()
+                .orElseThrow(() -> new NoSuchElementException("There are currently no members registered"))));
     }
 
     /**
@@ -133,57 +213,110 @@ public class MemberServiceimpl implements MemberService {
      */
     @Override
     public MemberEntity getMemberByHighestTotal() {
-        List<MemberEntity> listOfAllEntities = memberRepository.findAll();
-        if(listOfAllEntities.isEmpty()) throw new NoSuchElementException("There are currently no members registered");
-
-        double maxTotal = 0;
-        MemberEntity entityWithMax = listOfAllEntities.getFirst();
-
-        for(MemberEntity memberEntity : listOfAllEntities){
-            if(memberEntity.getTotal() > maxTotal) {
-                maxTotal = memberEntity.getTotal();
-                entityWithMax = memberEntity;
-            }
-        }
-        return entityWithMax;
+        return resultCache.get(Query.HIGHEST_TOTAL, () -> singleFlight.run(Flight.HIGHEST_TOTAL, () -> memberRepository.findFirstByOrderByTotalDescIdAsc()
+                .orElseThrow(() -> new NoSuchElementException("There are currently no members registered"))));
     }
 
     /**
-     * Retrieves all members whose total is greater than the specified value.
+     * Retrieves all members whose total is greater than the specified value, highest total first.
      *
      * @param total The threshold total
-     * @return List of MemberEntity with totals greater than specified
+     * @return List of MemberDTO with totals greater than specified
      */
     @Override
-    public List<MemberEntity> getAllMembersAboveATotal(int total) {
-        List<MemberEntity> listOfAllEntities = memberRepository.findAll();
-        if(listOfAllEntities.isEmpty()) throw new NoSuchElementException("There are currently no members registered");
-        List<MemberEntity> listOfEntitiesToReturn = new ArrayList<>();
+    public List<MemberDTO> getAllMembersAboveATotal(int total) {
+        List<MemberSummary> summaries = resultCache.get(Query.MEMBERS_ABOVE_TOTAL, total, () -> singleFlight.run(Flight.MEMBERS_ABOVE_TOTAL, () -> {
+            List<MemberSummary> found = memberRepository.findSummariesWithTotalAbove(total);
+            if(found.isEmpty() && memberRepository.count() == 0) throw new NoSuchElementException("There are currently no members registered");
+            return found;
+        }, total));
+        // Mapped on every call, ages are worked out from today's date
+        return summaries.stream().map(MemberSummary::toDTO).toList();
+    }
 
-        for(MemberEntity memberEntity : listOfAllEntities){
-            if(memberEntity.getTotal() > total) listOfEntitiesToReturn.add(memberEntity);
-        }
-        return listOfEntitiesToReturn;
+    /**
+     * Retrieves one page of the ranked leaderboard for a lift.
+     * Answered from the in-memory LeaderboardEngine, so the database is not queried.
+     * Members with equal scores share a rank.
+     *
+     * @param lift   The lift to rank by
+     * @param limit  Number of rows to return (1 - 100)
+     * @param offset Number of rows to skip
+     * @return List of LeaderboardEntry ordered from highest to lowest score
+     * @throws IllegalArgumentException if limit or offset are out of range
+     */
+    @Override
+    public List<LeaderboardEntry> getLeaderboard(Lifts lift, int limit, int offset) {
+        if(limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
+        if(offset < 0) throw new IllegalArgumentException("Offset cannot be negative");
+
+        return leaderboardEngine.top(lift, limit, offset).stream()
+                .map(member -> new LeaderboardEntry(member.name(), member.score(), member.rank()))
+                .toList();
     }
 
     /**
-     * Finds and returns all members who are not currently coached by anyone.
+     * Retrieves where a member currently ranks for a lift.
+     * Answered from the in-memory LeaderboardEngine, so the database is not queried.
      *
-     * This method filters the entire list of members and includes only those
-     * whose {@code coachedBy} property is {@code null}.
+     * @param id   Member ID
+     * @param lift The lift to rank by
+     * @return LeaderboardStandingDTO with the member's dense rank and percentile
+     * @throws NoSuchElementException if no member exists with the given ID
+     */
+    @Override
+    public LeaderboardStandingDTO getRankOfMember(Long id, Lifts lift) {
+        LeaderboardEngine.Standing standing = leaderboardEngine.standingOf(id, lift)
+                .orElseThrow(() -> new NoSuchElementException("Member with an id of: " + id + " doesnt exist"));
+        return toStandingDTO(lift, standing);
+    }
+
+    /**
+     * Retrieves where a score would rank for a lift, and what percentile it falls in.
      *
-     * @return a list of {@link MemberEntity} objects who are available (not assigned to any coach).
+     * @param lift  The lift to rank by
+     * @param score The score to place
+     * @return LeaderboardStandingDTO with the score's dense rank and percentile
+     * @throws IllegalArgumentException if the score is negative
      */
     @Override
-    public List<MemberEntity> getAllAvaliableMembers() {
-        List<MemberEntity> memberEntities = memberRepository.findAll();
-        if(memberEntities.isEmpty()) throw new NoSuchElementException("There are currently no members registered");
-        List<MemberEntity> memberEntitiesToReturn = new ArrayList<>();
+    public LeaderboardStandingDTO getStandingOfScore(Lifts lift, int score) {
+        if(score < 0) throw new IllegalArgumentException("Score cannot be negative");
+        return toStandingDTO(lift, leaderboardEngine.standingFor(lift, score));
+    }
 
-        for(MemberEntity memberEntity : memberEntities){
-            if(memberEntity.getCoachedBy() == null) memberEntitiesToReturn.add(memberEntity);
-        }
-        return memberEntitiesToReturn;
+    private LeaderboardStandingDTO toStandingDTO(Lifts lift, LeaderboardEngine.Standing standing) {
+        return new LeaderboardStandingDTO(lift, standing.score(), standing.rank(), standing.totalMembers(), standing.percentile());
+    }
+
+    /**
+     * Retrieves one page of members who are not currently coached by anyone, ordered by ID.
+     *
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit  Number of members to return (1 - 100)
+     * @return a {@link CursorPage} of members whose {@code coachedBy} is {@code null}
+     * @throws IllegalArgumentException if the limit or cursor are invalid
+     * @throws NoSuchElementException if no members are registered
+     */
+    @Override
+    public CursorPage<MemberDTO> getAllAvaliableMembers(String cursor, int limit) {
+        if(limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
+        long afterId = CursorPage.decodeCursor(cursor);
+
+        List<MemberSummary> summaries = memberRepository.findSummariesWithoutCoachAfter(afterId, Limit.of(limit + 1));
+        if(summaries.isEmpty() && afterId == 0 && memberRepository.count() == 0) throw new NoSuchElementException("There are currently no members registered");
+        return CursorPage.of(summaries, limit, MemberSummary::id).map(MemberSummary::toDTO);
+    }
+
+    /**
+     * Streams every member to the output, one row per line.
+     *
+     * @param out    Where the rows are written, it is not closed
+     * @param format NDJSON or CSV (with a header row)
+     */
+    @Override
+    public void exportMembers(OutputStream out, ExportFormat format) {
+        directoryExporter.exportMembers(out, format);
     }
 
     /**
@@ -198,23 +331,69 @@ public class MemberServiceimpl implements MemberService {
         if(!Objects.equals(memberRequestDTO.getRole(), "ROLE_MEMBER")) throw new IllegalArgumentException("Role must be 'ROLE_MEMBER'");
         MemberEntity memberEntity = memberMapper.convertToMemberEntity(memberRequestDTO);
         memberRepository.save(memberEntity);
+        leaderboardEngine.upsert(memberEntity);
+        rowCountCache.added(Table.MEMBERS, 1);
+        eventPublisher.publishEvent(new MembersChangedEvent());
     }
 
     /**
-     * Registers multiple members at once. All emails must be unique.
+     * Registers multiple members at once.
+     * Emails are checked against the database in one query per chunk, and against the rest of the batch in memory,
+     * in any casing like the unique index on members.
+     * Rows that fail a check are reported back instead of failing the whole batch, every other row is saved.
      *
      * @param memberRequestDTOS List of members to register
-     * @throws IllegalStateException if any email already exists
+     * @return how many members were saved, and which rows were rejected and why
      */
     @Override
-    public void registerNewMembers(List<MemberRequestDTO> memberRequestDTOS) {
+    public BatchRegistrationResult registerNewMembers(List<MemberRequestDTO> memberRequestDTOS) {
+        Set<String> takenEmails = new HashSet<>();
+        List<String> emails = memberRequestDTOS.stream().map(dto -> lowercase(dto.getEmail())).distinct().toList();
+        for(int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK_SIZE) {
+            takenEmails.addAll(memberRepository.findEmailsIn(emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK_SIZE, emails.size()))));
+        }
+
         List<MemberEntity> memberEntities = new ArrayList<>();
-        for(MemberRequestDTO memberRequestDTO : memberRequestDTOS){
-            if(memberRepository.existsByEmail(memberRequestDTO.getEmail())) throw new IllegalStateException("Member with an email of: " + memberRequestDTO.getEmail() + " already exists");
-            if(!Objects.equals(memberRequestDTO.getRole(), "ROLE_COACH")) throw new IllegalArgumentException("Role must be 'ROLE_MEMBER'");
-            memberEntities.add(memberMapper.convertToMemberEntity(memberRequestDTO));
+        List<BatchRegistrationResult.RejectedRow> rejectedRows = new ArrayList<>();
+        Set<String> emailsInBatch = new HashSet<>();
+        for(int i = 0; i < memberRequestDTOS.size(); i++){
+            MemberRequestDTO memberRequestDTO = memberRequestDTOS.get(i);
+            String email = memberRequestDTO.getEmail();
+            if(takenEmails.contains(lowercase(email))) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Member with an email of: " + email + " already exists"));
+            else if(!emailsInBatch.add(lowercase(email))) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Email appears more than once in this batch"));
+            else if(memberRequestDTO.getRole() != Roles.ROLE_MEMBER) rejectedRows.add(new BatchRegistrationResult.RejectedRow(i, email, "Role must be 'ROLE_MEMBER'"));
+            else memberEntities.add(memberMapper.convertToMemberEntity(memberRequestDTO));
         }
         memberRepository.saveAll(memberEntities);
+        memberEntities.forEach(leaderboardEngine::upsert);
+        rowCountCache.added(Table.MEMBERS, memberEntities.size());
+        if(!memberEntities.isEmpty()) eventPublisher.publishEvent(new MembersChangedEvent());
+        return new BatchRegistrationResult(memberEntities.size(), rejectedRows);
+    }
+
+    /**
+     * Imports members from an NDJSON or CSV request body without reading it all into memory.
+     *
+     * @param body        The raw request body
+     * @param contentType Either application/x-ndjson or text/csv, the charset defaults to UTF-8
+     * @return how many members were imported, and which lines were rejected and why
+     * @throws IllegalArgumentException if the content type isn't supported or the CSV header is missing a column
+     */
+    @Override
+    public MemberImportResult importMembers(InputStream body, String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Charset charset = mediaType.getCharset() == null ? StandardCharsets.UTF_8 : mediaType.getCharset();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+
+        boolean ndjson = mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        if(!ndjson && !mediaType.isCompatibleWith(TEXT_CSV)) throw new IllegalArgumentException("Content type must be 'application/x-ndjson' or 'text/csv'");
+
+        try {
+            return ndjson ? memberImporter.importNdjson(reader) : memberImporter.importCsv(reader);
+        } finally {
+            // Every chunk commits on its own, so an import that fails part way has still changed members
+            eventPublisher.publishEvent(new MembersChangedEvent());
+        }
     }
 
     /**
@@ -226,8 +405,10 @@ public class MemberServiceimpl implements MemberService {
      * @throws IllegalStateException if the member, old coach, or new coach does not exist.
      */
     @Override
+    @Transactional
     public void replaceCoach(Long id, Long oldCoachesID, Long newCoachesID) {
-        MemberEntity memberEntityToUpdate = memberRepository.findById(id)
+        // The member's current coach comes back in the same select, so looking up the old coach doesn't query again
+        MemberEntity memberEntityToUpdate = memberRepository.findWithCoachById(id)
                 .orElseThrow(() -> new NoSuchElementException("Member with an id of: " + id + " doesnt exist"));
 
         CoachEntity oldCoachEntity = coachRepository.findById(oldCoachesID)
@@ -236,8 +417,13 @@ public class MemberServiceimpl implements MemberService {
         CoachEntity newCoachEntity = coachRepository.findById(newCoachesID)
                 .orElseThrow(() -> new NoSuchElementException("Coach with an id of: " + newCoachesID + " doesnt exist"));
 
+        Set<Long> coachIdsToRecount = ClientCounts.coachIdsOf(List.of(memberEntityToUpdate));
+        coachIdsToRecount.add(newCoachesID);
+
         memberEntityToUpdate.setCoachedBy(newCoachEntity);
         memberRepository.save(memberEntityToUpdate);
+        coachRepository.recountClients(coachIdsToRecount);
+        eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
@@ -247,11 +433,18 @@ public class MemberServiceimpl implements MemberService {
      * @throws IllegalStateException if member is not found
      */
     @Override
+    @Transactional
     public void removeCoachedBy(Long id) {
         MemberEntity memberEntityToUpdate = memberRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Member with an id of: " + id + " doesnt exist"));
+        Set<Long> coachIdsToRecount = ClientCounts.coachIdsOf(List.of(memberEntityToUpdate));
+
         memberEntityToUpdate.setCoachedBy(null);
         memberRepository.save(memberEntityToUpdate);
+        if(!coachIdsToRecount.isEmpty()) {
+            coachRepository.recountClients(coachIdsToRecount);
+            eventPublisher.publishEvent(new CoachesChangedEvent());
+        }
     }
 
     /**
@@ -276,49 +469,45 @@ public class MemberServiceimpl implements MemberService {
 
             memberEntityToUpdateById.setName(name);
             memberRepository.save(memberEntityToUpdateById);
+            leaderboardEngine.renameAll(List.of(id), List.of(name));
+            eventPublisher.publishEvent(new MembersChangedEvent());
     }
 
     /**
      * Updates multiple members' names by their IDs and associated emails.
+     * Every id/email pair is checked with a single query and all names are written with a single update,
+     * so the cost doesn't grow with the number of round trips.
      *
      * @param ids    List of member IDs
      * @param names  List of names to update
      * @param emails List of emails for identity verification
-     * @throws IllegalArgumentException if input sizes mismatch
+     * @throws IllegalStateException if input sizes mismatch or a list has duplicates
+     * @throws IllegalArgumentException if a name is empty or an id and email belong to different members
+     * @throws NoSuchElementException if an id or email doesn't exist
      */
     @Override
     public void updateMultipleMembersNameByIdAndEmail(List<Long> ids, List<String> names, List<String> emails) {
         if(ids.size() != names.size() || ids.size() != emails.size() || names.size() != emails.size()) {
             throw new IllegalStateException("Size of names, id's, and emails lists must be equal");
         }
-
-        Set<Long> idsCopy = new HashSet<>();
-        for(Long id : ids){
-            idsCopy.add(id);
-            memberRepository.findById(id)
-                    .orElseThrow(() -> new NoSuchElementException("Member with an id of: " + id + " doesnt exist"));
+        if(new HashSet<>(ids).size() != ids.size()) throw new IllegalStateException("Duplicates detected inside of id list, each id must be unique");
+        if(new HashSet<>(emails).size() != emails.size()) throw new IllegalStateException("Duplicates detected inside of email list, each email must be unique");
+        for(String name : names) {
+            if(name == null || name.isEmpty()) throw new IllegalArgumentException("Name provided must be not-null and must not be an empty string");
         }
-        Set<String> emailsCopy = new HashSet<>();
-        for(String email : emails){
-            emailsCopy.add(email);
-            if(!memberRepository.existsByEmail(email)) throw new NoSuchElementException("Member with an email of: " + email + " doesnt exist");
-        }
-
-        if(idsCopy.size() != ids.size()) throw new IllegalStateException("Duplicates detected inside of id list, each id must be unique");
-        if(emailsCopy.size() != emails.size()) throw new IllegalStateException("Duplicates detected inside of email list, each email must be unique");
-
-        List<MemberEntity> memberEntitiesToUpdate = memberRepository.findAllById(ids);
 
-        for(int i =0; i < memberEntitiesToUpdate.size(); i++){
-            if(names.get(i) == null || names.get(i).isEmpty() || names.get(i).length() == 0) {
-                throw new IllegalArgumentException("Name provided must be not-null and must not be an empty string");
-            }
-            if (!memberEntitiesToUpdate.get(i).equals(memberRepository.findMemberByEmail(emails.get(i)))) {
-                throw new IllegalArgumentException("Provided ID and email do not belong to the same member");
-            }
-            memberEntitiesToUpdate.get(i).setName(names.get(i));
+        Long[] idArray = ids.toArray(new Long[0]);
+        List<MemberIdentityMismatch> mismatches = memberRepository.findIdentityMismatches(idArray, emails.toArray(new String[0]));
+        if(!mismatches.isEmpty()) {
+            MemberIdentityMismatch mismatch = mismatches.getFirst();
+            if(!mismatch.getIdExists()) throw new NoSuchElementException("Member with an id of: " + ids.get(mismatch.getPosition()) + " doesnt exist");
+            if(!mismatch.getEmailExists()) throw new NoSuchElementException("Member with an email of: " + emails.get(mismatch.getPosition()) + " doesnt exist");
+            throw new IllegalArgumentException("Provided ID and email do not belong to the same member");
         }
-        memberRepository.saveAll(memberEntitiesToUpdate);
+
+        memberRepository.updateNames(idArray, names.toArray(new String[0]));
+        leaderboardEngine.renameAll(ids, names);
+        eventPublisher.publishEvent(new MembersChangedEvent());
     }
 
     /**
@@ -350,6 +539,8 @@ public class MemberServiceimpl implements MemberService {
             entityToUpdateID.setDeadlift(deadlift);
             entityToUpdateID.setTotal(total);
             memberRepository.save(entityToUpdateID);
+            leaderboardEngine.upsert(entityToUpdateID);
+            eventPublisher.publishEvent(new MembersChangedEvent());
         }
     }
 
@@ -375,8 +566,9 @@ public class MemberServiceimpl implements MemberService {
 
         // if trying to update email
         if(!Objects.equals(entityToUpdateEmail.getEmail(), memberRequestDTO.getEmail())) {
-            MemberEntity memberEntity1 = memberRepository.findMemberByEmail(memberRequestDTO.getEmail());
-            if(memberEntity1 != null) throw new IllegalStateException("The updated email that you are trying to give to " + memberRequestDTO.getName() + " is already registered under another member");
+            MemberEntity memberEntity1 = memberRepository.findByEmailInAnyCase(memberRequestDTO.getEmail());
+            // Only changing the casing of their own email finds the member themselves
+            if(memberEntity1 != null && !memberEntity1.equals(entityToUpdate)) throw new IllegalStateException("The updated email that you are trying to give to " + memberRequestDTO.getName() + " is already registered under another member");
         }
 
         int total = memberRequestDTO.getBench() + memberRequestDTO.getSquat() + memberRequestDTO.getDeadlift();
@@ -391,6 +583,8 @@ public class MemberServiceimpl implements MemberService {
         entityToUpdate.setTotal(total);
 
         memberRepository.save(entityToUpdate);
+        leaderboardEngine.upsert(entityToUpdate);
+        eventPublisher.publishEvent(new MembersChangedEvent());
     }
 
     /**
@@ -402,6 +596,7 @@ public class MemberServiceimpl implements MemberService {
      * @throws IllegalStateException if user tries to assign member a role that they already have
      */
     @Override
+    @Transactional
     public void updatedRoleOfAMemberByIdAndEmail(Long id, String email, String role) {
         MemberEntity memberEntityById = memberRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Member with an id of: " + id + " doesnt exist"));
@@ -420,12 +615,17 @@ public class MemberServiceimpl implements MemberService {
 
             deleteMemberById(id);
             coachRepository.save(coachEntityFromMember);
+            rowCountCache.added(Table.COACHES, 1);
+            credentialCache.invalidateCoach(coachEntityFromMember.getId(), coachEntityFromMember.getCoachCode());
+            eventPublisher.publishEvent(new CoachesChangedEvent());
         }
         else if (role.equalsIgnoreCase(String.valueOf(Roles.ROLE_WORKER))) {
             WorkerEntity workerEntityFromMember = memberMapper.convertMemberToWorkerEntity(memberEntityById);
 
             deleteMemberById(id);
             workerRepository.save(workerEntityFromMember);
+            credentialCache.invalidateWorker(workerEntityFromMember.getId(), workerEntityFromMember.getWorkerCode());
+            eventPublisher.publishEvent(new WorkersChangedEvent());
         }
         else throw new IllegalArgumentException("Role must be either ROLE_COACH, ROLE_WORKER, or ROLE_MEMBER");
     }
@@ -437,36 +637,56 @@ public class MemberServiceimpl implements MemberService {
      * @throws IllegalStateException if the member does not exist
      */
     @Override
+    @Transactional
     public void deleteMemberById(Long id) {
        MemberEntity memberEntity = memberRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Member with an id of: " + id + " doesnt exist"));
 
+       Set<Long> coachIdsToRecount = ClientCounts.coachIdsOf(List.of(memberEntity));
        memberEntity.setCoachedBy(null);
 
        memberRepository.save(memberEntity);
        memberRepository.deleteById(id);
+       if(!coachIdsToRecount.isEmpty()) coachRepository.recountClients(coachIdsToRecount);
+       leaderboardEngine.remove(id);
+       rowCountCache.removed(Table.MEMBERS, 1);
+       eventPublisher.publishEvent(new MembersChangedEvent());
+       if(!coachIdsToRecount.isEmpty()) eventPublisher.publishEvent(new CoachesChangedEvent());
     }
 
     /**
-     * Deletes all members whose total is below the specified value.
+     * Deletes all members whose total is at or below the specified value.
+     * Rows are deleted in chunks of {@value #DELETE_CHUNK_SIZE}, each chunk is a single statement
+     * in its own transaction so locks are only held briefly.
+     * The statement lowers client_count behind Hibernate's back, so cached coaches are evicted after every chunk,
+     * along with the cached member and coach results.
      *
      * @param total Threshold for deletion
+     * @return Number of members deleted
      */
     @Override
-    public void deleteMembersBelowATotal(int total) {
+    public int deleteMembersBelowATotal(int total) {
         if(total < 0) throw new IllegalArgumentException("Total cannot be negative");
 
-        List<MemberEntity> memberEntities = memberRepository.findAll();
-        List<MemberEntity> memberEntitiesToDelete = new ArrayList<>();
-
-        for(MemberEntity memberEntity : memberEntities){
-            if(memberEntity.getTotal() <= total) {
-                memberEntitiesToDelete.add(memberEntity);
-                memberEntity.setCoachedBy(null);
+        int deleted = 0;
+        List<Long> deletedIds;
+        do {
+            deletedIds = memberRepository.deleteChunkWithTotalAtMost(total, DELETE_CHUNK_SIZE);
+            if(!deletedIds.isEmpty()) {
+                entityManagerFactory.getCache().evict(CoachEntity.class);
+                eventPublisher.publishEvent(new MembersChangedEvent());
+                eventPublisher.publishEvent(new CoachesChangedEvent());
             }
-        }
+            leaderboardEngine.removeAll(deletedIds);
+            rowCountCache.removed(Table.MEMBERS, deletedIds.size());
+            deleted += deletedIds.size();
+        } while(deletedIds.size() == DELETE_CHUNK_SIZE);
+
+        return deleted;
+    }
 
-        memberRepository.saveAll(memberEntitiesToDelete);
-        memberRepository.deleteAll(memberEntitiesToDelete);
+    // Postgres lower() and Locale.ROOT agree on the characters an email can contain
+    private static String lowercase(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
     }
 }
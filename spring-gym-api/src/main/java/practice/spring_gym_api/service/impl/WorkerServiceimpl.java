@@ -1,16 +1,30 @@
 package practice.spring_gym_api.service.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
 import practice.spring_gym_api.dto.WorkerMapper;
 import practice.spring_gym_api.dto.request.WorkerRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.ExportFormat;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.event.WorkersChangedEvent;
 import org.springframework.stereotype.Service;
 import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
 import practice.spring_gym_api.service.WorkerService;
-
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ChangeVersions.Resource;
+import practice.spring_gym_api.service.count.RowCountCache;
+import practice.spring_gym_api.service.count.RowCountCache.Table;
+import practice.spring_gym_api.service.export.DirectoryExporter;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
+
+import java.io.OutputStream;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 
@@ -21,13 +35,25 @@ public class WorkerServiceimpl implements WorkerService {
     private final MemberRepository memberRepository;
     private final CoachRepository coachRepository;
     private final WorkerMapper workerMapper;
+    private final LeaderboardEngine leaderboardEngine;
+    private final DirectoryExporter directoryExporter;
+    private final CredentialCache credentialCache;
+    private final RowCountCache rowCountCache;
+    private final ChangeVersions changeVersions;
+    private final ApplicationEventPublisher eventPublisher;
 
 
-    public WorkerServiceimpl(WorkerRepository workerRepository, MemberRepository memberRepository, CoachRepository coachRepository, WorkerMapper workerMapper) {
+    public WorkerServiceimpl(WorkerRepository workerRepository, MemberRepository memberRepository, CoachRepository coachRepository, WorkerMapper workerMapper, LeaderboardEngine leaderboardEngine, DirectoryExporter directoryExporter, CredentialCache credentialCache, RowCountCache rowCountCache, ChangeVersions changeVersions, ApplicationEventPublisher eventPublisher) {
         this.workerRepository = workerRepository;
         this.memberRepository = memberRepository;
         this.coachRepository = coachRepository;
         this.workerMapper = workerMapper;
+        this.leaderboardEngine = leaderboardEngine;
+        this.directoryExporter = directoryExporter;
+        this.credentialCache = credentialCache;
+        this.rowCountCache = rowCountCache;
+        this.changeVersions = changeVersions;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -67,6 +93,34 @@ public class WorkerServiceimpl implements WorkerService {
         return workerEntity1;
     }
 
+    /**
+     * Version token of the workers, it changes once any worker write commits.
+     * Sent as the ETag of worker reads, so an unchanged worker can be answered with a 304.
+     */
+    @Override
+    public String getWorkersVersion() {
+        return changeVersions.token(Resource.WORKERS);
+    }
+
+    /**
+     * Checks a worker exists without loading them, for a conditional read that is about to answer 304.
+     */
+    @Override
+    public boolean existsById(Long id) {
+        return workerRepository.existsById(id);
+    }
+
+    /**
+     * Streams every worker to the output, one row per line.
+     *
+     * @param out    Where the rows are written, it is not closed
+     * @param format NDJSON or CSV (with a header row)
+     */
+    @Override
+    public void exportWorkers(OutputStream out, ExportFormat format) {
+        directoryExporter.exportWorkers(out, format);
+    }
+
     /**
      * Adds a new worker to the system.
      *
@@ -76,11 +130,13 @@ public class WorkerServiceimpl implements WorkerService {
     public void registerNewWorker(WorkerRequestDTO workerRequestDTO) {
         WorkerEntity workerEntity1 = workerRepository.findByEmail(workerRequestDTO.getEmail());
         if(workerEntity1 != null) throw new IllegalStateException("Worker with an email of: " + workerRequestDTO.getEmail() + " already exists");
-        if(!Objects.equals(workerRequestDTO.getRole(), "ROLE_WORKER")) throw new IllegalArgumentException("Role must be 'ROLE_WORKER'");
+        if(workerRequestDTO.getRole() != Roles.ROLE_WORKER) throw new IllegalArgumentException("Role must be 'ROLE_WORKER'");
 
         if(!Objects.equals(workerRequestDTO.getWorkerCode(), "Placeholder worker code")) throw new IllegalArgumentException("Initial worker code must be: 'Placeholder worker code'");
         WorkerEntity workerEntity = workerMapper.convertToWorkerEntity(workerRequestDTO);
         workerRepository.save(workerEntity);
+        credentialCache.invalidateWorker(workerEntity.getId(), workerEntity.getWorkerCode());
+        eventPublisher.publishEvent(new WorkersChangedEvent());
     }
 
     /**
@@ -111,11 +167,17 @@ public class WorkerServiceimpl implements WorkerService {
 
             deleteWorkerbyId(id);
             memberRepository.save(memberEntity);
+            leaderboardEngine.upsert(memberEntity);
+            rowCountCache.added(Table.MEMBERS, 1);
+            eventPublisher.publishEvent(new MembersChangedEvent());
         } else if (role.equalsIgnoreCase("ROLE_COACH")) {
             CoachEntity coachEntity = workerMapper.covertWorkerToCoachEntity(workerEntityById);
 
             deleteWorkerbyId(id);
             coachRepository.save(coachEntity);
+            credentialCache.invalidateCoach(coachEntity.getId(), coachEntity.getCoachCode());
+            rowCountCache.added(Table.COACHES, 1);
+            eventPublisher.publishEvent(new CoachesChangedEvent());
         }  else throw new IllegalArgumentException("Role must be either ROLE_COACH, ROLE_WORKER, or ROLE_MEMBER");
     }
 
@@ -151,11 +213,15 @@ public class WorkerServiceimpl implements WorkerService {
            throw new IllegalStateException("The updated worker code that you are trying to give to " + workerEntity.getName() + " is already registered under another worker");
        }
 
+        String oldWorkerCode = workerEntity.getWorkerCode();
         workerEntity.setDateOfBirth(workerRequestDTO.getDateOfBirth());
         workerEntity.setEmail(workerRequestDTO.getEmail());
         workerEntity.setName(workerRequestDTO.getName());
         workerEntity.setWorkerCode(workerRequestDTO.getWorkerCode());
+        if(!Objects.equals(oldWorkerCode, workerRequestDTO.getWorkerCode())) workerEntity.revokeAccessTokens();
         workerRepository.save(workerEntity);
+        credentialCache.invalidateWorker(id, oldWorkerCode, workerRequestDTO.getWorkerCode());
+        eventPublisher.publishEvent(new WorkersChangedEvent());
     }
 
     /**
@@ -181,8 +247,11 @@ public class WorkerServiceimpl implements WorkerService {
             throw new IllegalStateException("The updated worker code that you are trying to give to: " + workerEntity.getName() + " is already registered under another worker");
         }
 
+        String oldWorkerCode = workerEntity.getWorkerCode();
         workerEntity.setWorkerCode(newCode);
+        workerEntity.revokeAccessTokens();
         workerRepository.save(workerEntity);
+        credentialCache.invalidateWorker(id, oldWorkerCode, newCode);
     }
 
     /**
@@ -196,5 +265,7 @@ public class WorkerServiceimpl implements WorkerService {
         WorkerEntity workerEntity = workerRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Worker with an id of: " + id + " doesnt exist"));
         workerRepository.delete(workerEntity);
+        credentialCache.invalidateWorker(id, workerEntity.getWorkerCode());
+        eventPublisher.publishEvent(new WorkersChangedEvent());
     }
 }
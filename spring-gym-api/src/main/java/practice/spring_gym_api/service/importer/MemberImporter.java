@@ -0,0 +1,254 @@
+package practice.spring_gym_api.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.MemberImportResult;
+import practice.spring_gym_api.dto.request.MemberRequestDTO;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.service.count.RowCountCache;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads members from an import file with the PostgreSQL COPY protocol.
+ *
+ * Rows are read, validated and copied into a session-local staging table one at a time,
+ * so memory use doesn't grow with the size of the file. Every CHUNK_SIZE rows the staging table
+ * is merged into members and the chunk's transaction commits, so a failure part way through
+ * keeps the chunks that were already imported. When called inside an existing transaction
+ * every chunk joins it instead.
+ */
+@Component
+public class MemberImporter {
+
+    static final int CHUNK_SIZE = 10_000;
+    static final int MAX_REPORTED_REJECTS = 1000;
+
+    // Must match the allocationSize of member_sequence, every nextval reserves this many IDs (pooled-lo)
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE IF NOT EXISTS member_import_staging (
+                line_number BIGINT PRIMARY KEY,
+                name TEXT NOT NULL,
+                date_of_birth DATE NOT NULL,
+                membership_date TEXT NOT NULL,
+                email TEXT NOT NULL,
+                role TEXT NOT NULL,
+                bench INT NOT NULL,
+                squat INT NOT NULL,
+                deadlift INT NOT NULL
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_INTO_STAGING = """
+            COPY member_import_staging (line_number, name, date_of_birth, membership_date, email, role, bench, squat, deadlift)
+            FROM STDIN (FORMAT csv)
+            """;
+
+    // Takes rows that can't be merged out of staging: the email is already a member, or an earlier line in the file has it.
+    // Emails are compared in lower case like ux_members_email_lower, so a merge can never trip the unique index.
+    // The LIMIT keeps the members lookup a per-row probe of that index instead of a scan of the whole table
+    private static final String REMOVE_STAGED_DUPLICATES = """
+            WITH rejected AS (
+                DELETE FROM member_import_staging s
+                USING (
+                    SELECT line_number,
+                           (SELECT TRUE FROM members m WHERE lower(m.email) = lower(st.email) LIMIT 1) IS NOT NULL AS registered,
+                           ROW_NUMBER() OVER (PARTITION BY lower(st.email) ORDER BY st.line_number) > 1 AS repeated
+                    FROM member_import_staging st
+                ) checked
+                WHERE s.line_number = checked.line_number AND (checked.registered OR checked.repeated)
+                RETURNING s.line_number, s.email, checked.registered
+            )
+            SELECT line_number, email, registered FROM rejected ORDER BY line_number
+            """;
+
+    // Takes one nextval per ID_BLOCK_SIZE rows, the same way Hibernate's pooled-lo optimizer hands out IDs
+    private static final String MERGE_STAGED_MEMBERS = """
+            WITH accepted AS (
+                SELECT s.*, ROW_NUMBER() OVER (ORDER BY s.line_number) - 1 AS n
+                FROM member_import_staging s
+            ), blocks AS (
+                SELECT b, nextval('member_sequence') AS first_id
+                FROM generate_series(0, CEIL((SELECT COUNT(*) FROM accepted) / ?::numeric)::int - 1) AS b
+            )
+            INSERT INTO members (id, name, date_of_birth, membership_date, email, role, bench, squat, deadlift, total)
+            SELECT blocks.first_id + a.n % ?, a.name, a.date_of_birth, a.membership_date, a.email, a.role,
+                   a.bench, a.squat, a.deadlift, a.bench + a.squat + a.deadlift
+            FROM accepted a
+            JOIN blocks ON blocks.b = a.n / ?
+            RETURNING id, name, bench, squat, deadlift
+            """;
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final LeaderboardEngine leaderboardEngine;
+    private final RowCountCache rowCountCache;
+
+    public MemberImporter(DataSource dataSource, PlatformTransactionManager transactionManager, Validator validator,
+                          ObjectMapper objectMapper, LeaderboardEngine leaderboardEngine, RowCountCache rowCountCache) {
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.leaderboardEngine = leaderboardEngine;
+        this.rowCountCache = rowCountCache;
+    }
+
+    /**
+     * Imports a file with one MemberRequestDTO JSON object per line.
+     */
+    public MemberImportResult importNdjson(BufferedReader reader) {
+        return importRows(MemberRowReader.ndjson(reader, objectMapper));
+    }
+
+    /**
+     * Imports a CSV file. The first line must be a header naming at least the MemberRowReader.CSV_COLUMNS,
+     * total is always worked out from the three lifts.
+     */
+    public MemberImportResult importCsv(BufferedReader reader) {
+        return importRows(MemberRowReader.csv(reader));
+    }
+
+    private MemberImportResult importRows(MemberRowReader rows) {
+        ImportProgress progress = new ImportProgress();
+        while(!progress.finished) {
+            transactionTemplate.executeWithoutResult(status -> importChunk(rows, progress));
+        }
+        return new MemberImportResult(progress.imported, progress.rejectedCount, progress.rejected);
+    }
+
+    private void importChunk(MemberRowReader rows, ImportProgress progress) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+                statement.execute("TRUNCATE member_import_staging");
+            }
+
+            int staged = copyChunk(connection, rows, progress);
+            if(staged == 0) return;
+
+            // Temp tables are never analyzed by autovacuum, without this the planner guesses the chunk's size
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE member_import_staging");
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet duplicates = statement.executeQuery(REMOVE_STAGED_DUPLICATES)) {
+                while(duplicates.next()) {
+                    String email = duplicates.getString("email");
+                    progress.reject(duplicates.getLong("line_number"), email, duplicates.getBoolean("registered")
+                            ? "Member with an email of: " + email + " already exists"
+                            : "Email appears more than once in this import");
+                }
+            }
+
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_STAGED_MEMBERS)) {
+                merge.setInt(1, ID_BLOCK_SIZE);
+                merge.setInt(2, ID_BLOCK_SIZE);
+                merge.setInt(3, ID_BLOCK_SIZE);
+                try (ResultSet inserted = merge.executeQuery()) {
+                    int merged = 0;
+                    while(inserted.next()) {
+                        leaderboardEngine.upsert(inserted.getLong("id"), inserted.getString("name"), inserted.getInt("bench"),
+                                inserted.getInt("squat"), inserted.getInt("deadlift"));
+                        merged++;
+                    }
+                    progress.imported += merged;
+                    rowCountCache.added(RowCountCache.Table.MEMBERS, merged);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Import failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Streams rows into the staging table until CHUNK_SIZE valid rows are staged or the file runs out.
+     * Rows that fail to parse or validate are rejected straight away and never reach the database.
+     *
+     * @return number of rows staged
+     */
+    private int copyChunk(Connection connection, MemberRowReader rows, ImportProgress progress) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_STAGING);
+        int staged = 0;
+        try {
+            while(staged < CHUNK_SIZE) {
+                MemberRowReader.Row row = rows.next();
+                if(row == null) {
+                    progress.finished = true;
+                    break;
+                }
+                String error = row.error() != null ? row.error() : validate(row.member());
+                if(error != null) {
+                    progress.reject(row.lineNumber(), row.email(), error);
+                    continue;
+                }
+                byte[] line = toCopyLine(row.lineNumber(), row.member()).getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(line, 0, line.length);
+                staged++;
+            }
+            copyIn.endCopy();
+            return staged;
+        } finally {
+            if(copyIn.isActive()) copyIn.cancelCopy();
+        }
+    }
+
+    private String validate(MemberRequestDTO member) {
+        String violations = validator.validate(member).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if(!violations.isEmpty()) return violations;
+        if(member.getRole() != Roles.ROLE_MEMBER) return "Role must be 'ROLE_MEMBER'";
+        return null;
+    }
+
+    private static String toCopyLine(long lineNumber, MemberRequestDTO member) {
+        return lineNumber + "," + quote(member.getName()) + "," + member.getDateOfBirth() + "," + quote(member.getMembershipDate()) + ","
+                + quote(member.getEmail()) + "," + member.getRole().name() + ","
+                + member.getBench() + "," + member.getSquat() + "," + member.getDeadlift() + "\n";
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class ImportProgress {
+        long imported;
+        long rejectedCount;
+        final List<BatchRegistrationResult.RejectedRow> rejected = new ArrayList<>();
+        boolean finished;
+
+        void reject(long lineNumber, String email, String reason) {
+            rejectedCount++;
+            if(rejected.size() < MAX_REPORTED_REJECTS) rejected.add(new BatchRegistrationResult.RejectedRow((int) lineNumber, email, reason));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package practice.spring_gym_api.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import practice.spring_gym_api.dto.request.MemberRequestDTO;
+import practice.spring_gym_api.entity.enums.Roles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads members from an import file one line at a time, so only the current line is ever held in memory.
+ * Supports NDJSON (one MemberRequestDTO object per line) and CSV with a header row.
+ * Lines that can't be parsed are returned with an error instead of a member.
+ * Not thread safe.
+ */
+class MemberRowReader {
+
+    /**
+     * One line of the file. Exactly one of member and error is set.
+     */
+    record Row(long lineNumber, String email, MemberRequestDTO member, String error) {}
+
+    private static final List<String> LIFTS = List.of("bench", "squat", "deadlift");
+
+    static final List<String> CSV_COLUMNS = List.of("name", "dateOfBirth", "membershipDate", "email", "role", "bench", "squat", "deadlift");
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final boolean csv;
+    private Map<String, Integer> csvColumns;
+    private long lineNumber;
+
+    private MemberRowReader(BufferedReader reader, ObjectMapper objectMapper, boolean csv) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.csv = csv;
+    }
+
+    static MemberRowReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new MemberRowReader(reader, objectMapper, false);
+    }
+
+    static MemberRowReader csv(BufferedReader reader) {
+        return new MemberRowReader(reader, null, true);
+    }
+
+    /**
+     * @return the next non blank line, or null once the file is exhausted
+     * @throws IllegalArgumentException if a CSV file is missing a required column
+     */
+    Row next() {
+        String line;
+        do {
+            line = readLine();
+            if(line == null) return null;
+        } while(line.isBlank());
+
+        if(csv && csvColumns == null) {
+            csvColumns = readHeader(line);
+            return next();
+        }
+        return csv ? parseCsv(line) : parseJson(line);
+    }
+
+    private Row parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            // A lift left out would otherwise be read as 0, a real value, rather than rejected
+            for(String lift : LIFTS) {
+                if(!node.hasNonNull(lift)) {
+                    String email = node.hasNonNull("email") ? node.get("email").asText() : null;
+                    return new Row(lineNumber, email, null, "Malformed row: " + lift + " is required");
+                }
+            }
+            MemberRequestDTO member = objectMapper.treeToValue(node, MemberRequestDTO.class);
+            return new Row(lineNumber, member.getEmail(), member, null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, null, "Malformed row: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        String email = field(fields, "email");
+        try {
+            String dateOfBirth = field(fields, "dateOfBirth");
+            Roles role = parseRole(fields);
+            int bench = parseLift(fields, "bench");
+            int squat = parseLift(fields, "squat");
+            int deadlift = parseLift(fields, "deadlift");
+            MemberRequestDTO member = new MemberRequestDTO(
+                    field(fields, "name"), dateOfBirth == null ? null : LocalDate.parse(dateOfBirth),
+                    field(fields, "membershipDate"), email, role,
+                    bench, squat, deadlift, bench + squat + deadlift
+            );
+            return new Row(lineNumber, email, member, null);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new Row(lineNumber, email, null, "Malformed row: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Integer> readHeader(String line) {
+        List<String> header = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for(int i = 0; i < header.size(); i++) columns.put(header.get(i).trim(), i);
+        for(String column : CSV_COLUMNS) {
+            if(!columns.containsKey(column)) throw new IllegalArgumentException("CSV header must contain the columns: " + String.join(",", CSV_COLUMNS));
+        }
+        return columns;
+    }
+
+    private String field(List<String> fields, String column) {
+        int index = csvColumns.get(column);
+        if(index >= fields.size() || fields.get(index).isEmpty()) return null;
+        return fields.get(index);
+    }
+
+    private int parseLift(List<String> fields, String column) {
+        String value = field(fields, column);
+        if(value == null || value.isBlank()) throw new IllegalArgumentException(column + " is required");
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a whole number");
+        }
+    }
+
+    private Roles parseRole(List<String> fields) {
+        String value = field(fields, "role");
+        if(value == null) return null;
+        try {
+            return Roles.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown role: " + value);
+        }
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if(line != null) lineNumber++;
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Splits one CSV line. Fields may be wrapped in double quotes, a doubled quote inside them is a literal quote.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for(int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted) {
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if(c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,274 @@
+package practice.spring_gym_api.service.leaderboard;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import practice.spring_gym_api.dto.MemberLifts;
+import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory leaderboard kept in step with the members table.
+ * Holds one ScoreTree per lift so rank of a member and percentile of a score are answered in O(log n),
+ * and a page of the top K in O(log n + K), without going to the database.
+ * Members' names are kept alongside their scores so leaderboard pages can be shown as they are.
+ *
+ * Reads share a read lock, writes take the write lock, so a member's four lifts always change together.
+ * When a write happens inside a transaction it is only applied after that transaction commits,
+ * so rolled back changes never show up on the leaderboard.
+ * A rebuild loads a new Board without holding the lock, so writes applied while it loads are recorded
+ * and replayed onto the new Board before it replaces the current one.
+ */
+@Component
+public class LeaderboardEngine {
+
+    /**
+     * Where a score sits on a leaderboard.
+     * @param rank dense rank the score has (or would have)
+     * @param percentile percentage of members that scored strictly lower
+     */
+    public record Standing(int score, long rank, long totalMembers, double percentile) {}
+
+    /**
+     * One leaderboard row, ranks are dense.
+     */
+    public record RankedMember(long memberId, String name, int score, long rank) {}
+
+    /**
+     * Every member's name and scores, and one ScoreTree per lift. Scores are indexed by Lifts.ordinal().
+     */
+    private static final class Board {
+        final ScoreTree[] trees = new ScoreTree[Lifts.values().length];
+        final Map<Long, int[]> scoresByMemberId;
+        final Map<Long, String> namesByMemberId;
+
+        Board(int expectedMembers) {
+            for(int i = 0; i < trees.length; i++) trees[i] = new ScoreTree();
+            scoresByMemberId = new HashMap<>(expectedMembers * 2);
+            namesByMemberId = new HashMap<>(expectedMembers * 2);
+        }
+
+        void put(long id, String name, int[] scores) {
+            int[] previous = scoresByMemberId.put(id, scores);
+            if(previous != null) removeScores(trees, id, previous);
+            addScores(trees, id, scores);
+            namesByMemberId.put(id, name);
+        }
+
+        // Only members already on the board are renamed, a rename never adds one
+        void rename(Long id, String name) {
+            namesByMemberId.computeIfPresent(id, (memberId, previous) -> name);
+        }
+
+        void remove(Long id) {
+            int[] previous = scoresByMemberId.remove(id);
+            if(previous != null) removeScores(trees, id, previous);
+            namesByMemberId.remove(id);
+        }
+    }
+
+    private final MemberRepository memberRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. changesDuringRebuild is only set while a rebuild is loading
+    private Board board = new Board(0);
+    private List<Consumer<Board>> changesDuringRebuild;
+
+    public LeaderboardEngine(MemberRepository memberRepository) {
+        this.memberRepository = memberRepository;
+    }
+
+    /**
+     * Reloads every member's lifts from the repository into a new Board and swaps it in.
+     * Writes applied while it loads are replayed onto the new Board first, the load may have read
+     * the members from before them.
+     * Runs once the application is ready, after the seed data has been saved.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        recordChangesInto(new ArrayList<>());
+
+        Board rebuilt;
+        try {
+            List<MemberLifts> members = memberRepository.findAllProjectedBy();
+            rebuilt = new Board(members.size());
+            for(MemberLifts member : members) {
+                rebuilt.put(member.getId(), member.getName(), scoresOf(member.getBench(), member.getSquat(), member.getDeadlift()));
+            }
+        } catch (RuntimeException | Error e) {
+            recordChangesInto(null);
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for(Consumer<Board> change : changesDuringRebuild) change.accept(rebuilt);
+            board = rebuilt;
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recordChangesInto(List<Consumer<Board>> changes) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a member to the leaderboard, or moves them if their lifts changed.
+     */
+    public void upsert(MemberEntity memberEntity) {
+        if(memberEntity.getId() == null) return;
+        upsert(memberEntity.getId(), memberEntity.getName(), memberEntity.getBench(), memberEntity.getSquat(), memberEntity.getDeadlift());
+    }
+
+    /**
+     * Same as upsert(MemberEntity), for callers that write members without going through JPA.
+     */
+    public void upsert(long id, String name, int bench, int squat, int deadlift) {
+        int[] scores = scoresOf(bench, squat, deadlift);
+        afterCommit(() -> apply(board -> board.put(id, name, scores)));
+    }
+
+    /**
+     * Changes the names shown for members, their scores stay as they are.
+     * Members that aren't on the leaderboard are ignored.
+     */
+    public void renameAll(List<Long> ids, List<String> names) {
+        if(ids.isEmpty()) return;
+        afterCommit(() -> apply(board -> {
+            for(int i = 0; i < ids.size(); i++) board.rename(ids.get(i), names.get(i));
+        }));
+    }
+
+    /**
+     * Removes a member from the leaderboard. Does nothing if they are not on it.
+     */
+    public void remove(Long id) {
+        afterCommit(() -> apply(board -> board.remove(id)));
+    }
+
+    /**
+     * Removes several members at once, taking the write lock a single time.
+     */
+    public void removeAll(Collection<Long> ids) {
+        if(ids.isEmpty()) return;
+        afterCommit(() -> apply(board -> {
+            for(Long id : ids) board.remove(id);
+        }));
+    }
+
+    /**
+     * @return up to {@code limit} members from the highest score down after skipping {@code offset},
+     *         ties ordered by id
+     */
+    public List<RankedMember> top(Lifts lift, int limit, int offset) {
+        lock.readLock().lock();
+        try {
+            return board.trees[lift.ordinal()].top(offset, limit, board.namesByMemberId::get);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the member's standing for a lift, or empty if the member is not on the leaderboard
+     */
+    public Optional<Standing> standingOf(Long memberId, Lifts lift) {
+        lock.readLock().lock();
+        try {
+            int[] scores = board.scoresByMemberId.get(memberId);
+            if(scores == null) return Optional.empty();
+            return Optional.of(standing(board.trees[lift.ordinal()], scores[lift.ordinal()]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return where the given score would place on a lift's leaderboard
+     */
+    public Standing standingFor(Lifts lift, int score) {
+        lock.readLock().lock();
+        try {
+            return standing(board.trees[lift.ordinal()], score);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return board.scoresByMemberId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a write to the current Board, and records it for the new one while a rebuild is loading.
+     */
+    private void apply(Consumer<Board> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(board);
+            if(changesDuringRebuild != null) changesDuringRebuild.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Standing standing(ScoreTree tree, int score) {
+        long totalMembers = tree.size();
+        double percentile = totalMembers == 0 ? 0 : tree.countBelow(score) * 100.0 / totalMembers;
+        return new Standing(score, tree.countDistinctAbove(score) + 1, totalMembers, percentile);
+    }
+
+    private static void addScores(ScoreTree[] trees, long id, int[] scores) {
+        for(int i = 0; i < trees.length; i++) trees[i].add(scores[i], id);
+    }
+
+    private static void removeScores(ScoreTree[] trees, long id, int[] scores) {
+        for(int i = 0; i < trees.length; i++) trees[i].remove(scores[i], id);
+    }
+
+    private static int[] scoresOf(int bench, int squat, int deadlift) {
+        int[] scores = new int[Lifts.values().length];
+        scores[Lifts.BENCH.ordinal()] = bench;
+        scores[Lifts.SQUAT.ordinal()] = squat;
+        scores[Lifts.DEADLIFT.ordinal()] = deadlift;
+        scores[Lifts.TOTAL.ordinal()] = bench + squat + deadlift;
+        return scores;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
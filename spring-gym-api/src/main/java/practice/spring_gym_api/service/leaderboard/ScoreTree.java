@@ -0,0 +1,209 @@
+package practice.spring_gym_api.service.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Order-statistic tree (a treap) keyed by score.
+ * Each node holds every member id that currently has that score, and every subtree
+ * keeps the number of members and the number of distinct scores underneath it.
+ * This makes rank, dense rank and "how many scored below X" logarithmic, and a page of the top K
+ * costs O(log n + K).
+ * Not thread safe, callers are expected to guard it (see LeaderboardEngine).
+ */
+class ScoreTree {
+
+    private static final class Node {
+        final int score;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        final TreeSet<Long> memberIds = new TreeSet<>();
+        Node left;
+        Node right;
+        long size;
+        long distinct;
+
+        Node(int score) {
+            this.score = score;
+        }
+    }
+
+    private Node root;
+
+    long size() {
+        return size(root);
+    }
+
+    void add(int score, long memberId) {
+        root = add(root, score, memberId);
+    }
+
+    void remove(int score, long memberId) {
+        root = remove(root, score, memberId);
+    }
+
+    /**
+     * @return number of members with a score strictly greater than the given score
+     */
+    long countAbove(int score) {
+        long count = 0;
+        Node node = root;
+        while(node != null) {
+            if(score < node.score) {
+                count += size(node.right) + node.memberIds.size();
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of distinct scores strictly greater than the given score
+     */
+    long countDistinctAbove(int score) {
+        long count = 0;
+        Node node = root;
+        while(node != null) {
+            if(score < node.score) {
+                count += distinct(node.right) + 1;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of members with a score strictly lower than the given score
+     */
+    long countBelow(int score) {
+        long count = 0;
+        Node node = root;
+        while(node != null) {
+            if(score > node.score) {
+                count += size(node.left) + node.memberIds.size();
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Collects up to {@code limit} members from the highest score down, after skipping the first {@code offset}.
+     * Ties are broken by member id, ranks are dense.
+     * Subtrees that end before the page starts are skipped whole using their counts, so a page costs
+     * O(log n + limit) however deep it is.
+     *
+     * @param nameOf gives the name to show for a member id
+     */
+    List<LeaderboardEngine.RankedMember> top(long offset, int limit, LongFunction<String> nameOf) {
+        List<LeaderboardEngine.RankedMember> result = new ArrayList<>((int) Math.min(limit, size()));
+        if(limit > 0) collectTop(root, new long[]{offset}, limit, new long[]{0}, result, nameOf);
+        return result;
+    }
+
+    // skip is what's left of the offset, rank the number of distinct scores passed so far
+    private boolean collectTop(Node node, long[] skip, int limit, long[] rank,
+                               List<LeaderboardEngine.RankedMember> result, LongFunction<String> nameOf) {
+        if(node == null) return result.size() < limit;
+
+        if(size(node.right) <= skip[0]) {
+            skip[0] -= size(node.right);
+            rank[0] += distinct(node.right);
+        } else if(!collectTop(node.right, skip, limit, rank, result, nameOf)) {
+            return false;
+        }
+
+        rank[0]++;
+        if(node.memberIds.size() <= skip[0]) {
+            skip[0] -= node.memberIds.size();
+        } else {
+            Iterator<Long> memberIds = node.memberIds.iterator();
+            for(; skip[0] > 0; skip[0]--) memberIds.next();
+            while(memberIds.hasNext()) {
+                if(result.size() == limit) return false;
+                long memberId = memberIds.next();
+                result.add(new LeaderboardEngine.RankedMember(memberId, nameOf.apply(memberId), node.score, rank[0]));
+            }
+        }
+        return collectTop(node.left, skip, limit, rank, result, nameOf);
+    }
+
+    private Node add(Node node, int score, long memberId) {
+        if(node == null) {
+            Node created = new Node(score);
+            created.memberIds.add(memberId);
+            return update(created);
+        }
+        if(score == node.score) {
+            node.memberIds.add(memberId);
+        } else if(score < node.score) {
+            node.left = add(node.left, score, memberId);
+            if(node.left.priority > node.priority) node = rotateRight(node);
+        } else {
+            node.right = add(node.right, score, memberId);
+            if(node.right.priority > node.priority) node = rotateLeft(node);
+        }
+        return update(node);
+    }
+
+    private Node remove(Node node, int score, long memberId) {
+        if(node == null) return null;
+        if(score < node.score) {
+            node.left = remove(node.left, score, memberId);
+        } else if(score > node.score) {
+            node.right = remove(node.right, score, memberId);
+        } else {
+            node.memberIds.remove(memberId);
+            if(node.memberIds.isEmpty()) return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private Node merge(Node left, Node right) {
+        if(left == null) return right;
+        if(right == null) return left;
+        if(left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = update(node);
+        return update(pivot);
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = update(node);
+        return update(pivot);
+    }
+
+    private Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + node.memberIds.size();
+        node.distinct = distinct(node.left) + distinct(node.right) + 1;
+        return node;
+    }
+
+    private static long size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static long distinct(Node node) {
+        return node == null ? 0 : node.distinct;
+    }
+}
@@ -0,0 +1,54 @@
+-- The schema Hibernate used to generate with ddl-auto=create-drop, plus the partial indexes that lived in import.sql.
+-- Sequences step by 50 to match allocationSize = 50 on the entities (pooled-lo hands out [value, value + 49]).
+
+CREATE SEQUENCE coach_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE member_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE worker_sequence START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE coaches (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    coach_code    VARCHAR(255) NOT NULL,
+    date_of_birth DATE         NOT NULL,
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('ROLE_MEMBER', 'ROLE_COACH', 'ROLE_WORKER')),
+    client_count  INTEGER      NOT NULL DEFAULT 0
+);
+
+CREATE TABLE coach_entity_workout_plans (
+    coach_entity_id BIGINT NOT NULL REFERENCES coaches (id),
+    workout_plans   VARCHAR(255)
+);
+
+CREATE TABLE members (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    date_of_birth   DATE         NOT NULL,
+    membership_date VARCHAR(255) NOT NULL,
+    role            VARCHAR(255) NOT NULL CHECK (role IN ('ROLE_MEMBER', 'ROLE_COACH', 'ROLE_WORKER')),
+    coach_id        BIGINT REFERENCES coaches (id),
+    bench           INTEGER      NOT NULL CHECK (bench >= 0),
+    squat           INTEGER      NOT NULL CHECK (squat >= 0),
+    deadlift        INTEGER      NOT NULL CHECK (deadlift >= 0),
+    total           INTEGER      NOT NULL CHECK (total >= 0)
+);
+
+CREATE TABLE workers (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    worker_code   VARCHAR(255) NOT NULL,
+    date_of_birth DATE         NOT NULL,
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('ROLE_MEMBER', 'ROLE_COACH', 'ROLE_WORKER'))
+);
+
+CREATE INDEX idx_coaches_client_count ON coaches (client_count, id);
+CREATE INDEX idx_coaches_no_clients ON coaches (id) WHERE client_count = 0;
+
+CREATE INDEX idx_members_bench ON members (bench DESC, id);
+CREATE INDEX idx_members_squat ON members (squat DESC, id);
+CREATE INDEX idx_members_deadlift ON members (deadlift DESC, id);
+CREATE INDEX idx_members_total ON members (total DESC, id);
+CREATE INDEX idx_members_email ON members (email);
+CREATE INDEX idx_members_no_coach ON members (id) WHERE coach_id IS NULL;
@@ -0,0 +1,21 @@
+-- Indexes for the lookups done on every authenticated request, registration and coach assignment.
+
+-- Codes identify a coach or worker in the auth headers, so they must be unique
+CREATE UNIQUE INDEX ux_coaches_coach_code ON coaches (coach_code);
+CREATE UNIQUE INDEX ux_workers_worker_code ON workers (worker_code);
+
+-- existsByEmail / findByEmail on coaches and workers
+CREATE UNIQUE INDEX ux_coaches_email ON coaches (email);
+CREATE UNIQUE INDEX ux_workers_email ON workers (email);
+
+-- Two members can't share an email in any casing. idx_members_email still answers the exact-match lookups
+CREATE UNIQUE INDEX ux_members_email_lower ON members (lower(email));
+
+-- findCoachByName
+CREATE INDEX idx_coaches_name ON coaches (name);
+
+-- Loading a coach's clients and recounting client_count
+CREATE INDEX idx_members_coach_id ON members (coach_id);
+
+-- Loading a coach's workout plans
+CREATE INDEX idx_coach_workout_plans_coach ON coach_entity_workout_plans (coach_entity_id);
@@ -0,0 +1,9 @@
+-- One (key, id) index per sort offered by GET /members and GET /coaches, so every keyset page
+-- is a single index range scan. The lift sorts reuse idx_members_total and idx_members_bench.
+
+CREATE INDEX idx_members_name ON members (name, id);
+CREATE INDEX idx_members_membership_date ON members (membership_date, id);
+
+-- Widened from (name), findCoachByName still uses it
+DROP INDEX idx_coaches_name;
+CREATE INDEX idx_coaches_name ON coaches (name, id);
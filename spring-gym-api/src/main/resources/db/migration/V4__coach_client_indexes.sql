@@ -0,0 +1,8 @@
+-- One (coach_id, key, id) index per sort offered by GET /coaches/{id}/clients, so a page of a coach's
+-- clients is a single index range scan however many clients the coach has.
+
+-- Widened from (coach_id), loading a coach's clients and recounting client_count still use it
+DROP INDEX idx_members_coach_id;
+CREATE INDEX idx_members_coach_id ON members (coach_id, id);
+CREATE INDEX idx_members_coach_name ON members (coach_id, name, id);
+CREATE INDEX idx_members_coach_total ON members (coach_id, total DESC, id);
@@ -0,0 +1,9 @@
+-- Every new coach and worker starts out with the same placeholder code until a real one is assigned,
+-- so only real codes have to be unique. findByCoachCode and findByWorkerCode never match a placeholder,
+-- which also lets them use these partial indexes.
+
+DROP INDEX ux_coaches_coach_code;
+CREATE UNIQUE INDEX ux_coaches_coach_code ON coaches (coach_code) WHERE coach_code <> 'Placeholder coach code';
+
+DROP INDEX ux_workers_worker_code;
+CREATE UNIQUE INDEX ux_workers_worker_code ON workers (worker_code) WHERE worker_code <> 'Placeholder worker code';
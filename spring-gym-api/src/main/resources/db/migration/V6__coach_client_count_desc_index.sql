@@ -0,0 +1,5 @@
+-- findFirstByOrderByClientCountDescIdAsc sorts client_count and id in opposite directions, which
+-- idx_coaches_client_count can't give in either scan direction. It keeps serving the least clients
+-- lookup, this one serves the most clients lookup.
+
+CREATE INDEX idx_coaches_client_count_desc ON coaches (client_count DESC, id);
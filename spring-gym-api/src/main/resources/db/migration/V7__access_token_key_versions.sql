@@ -0,0 +1,6 @@
+-- Access tokens carry the key version of the coach or worker they were issued to. It used to live in the memory
+-- of each instance, so tokens failed on every other instance and after a restart. A code change bumps it in the
+-- same update as the code, and every token issued before is revoked everywhere.
+
+ALTER TABLE coaches ADD COLUMN key_version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE workers ADD COLUMN key_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,104 @@
+package practice.spring_gym_api.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import practice.spring_gym_api.dto.CoachDTO;
+import practice.spring_gym_api.dto.CoachMapper;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberMapper;
+import practice.spring_gym_api.dto.WorkerDTO;
+import practice.spring_gym_api.dto.WorkerMapper;
+import practice.spring_gym_api.dto.impl.CoachMapperimpl;
+import practice.spring_gym_api.dto.impl.MemberMapperimpl;
+import practice.spring_gym_api.dto.impl.WorkerMapperimpl;
+import practice.spring_gym_api.entity.CoachEntity;
+import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.Roles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated MapStruct mappers with the ModelMapper calls they replaced, for the three entity to DTO
+ * conversions done on every GET response.
+ * Skipped in normal builds, run it with: mvn test -Dbenchmark=true -Dtest=MapperBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private MemberMapper memberMapper;
+    private CoachMapper coachMapper;
+    private WorkerMapper workerMapper;
+
+    private MemberEntity memberEntity;
+    private CoachEntity coachEntity;
+    private WorkerEntity workerEntity;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        memberMapper = new MemberMapperimpl();
+        coachMapper = new CoachMapperimpl();
+        workerMapper = new WorkerMapperimpl();
+
+        memberEntity = new MemberEntity("John Doe", LocalDate.of(1995, 3, 15), "2024-01-10", "johnDoe@gmail.com",
+                Roles.ROLE_MEMBER, 225, 275, 315, 815);
+        memberEntity.setId(1L);
+        coachEntity = new CoachEntity(1L, "Alex Smith", LocalDate.of(1980, 4, 12), Roles.ROLE_COACH,
+                "alexSmith@gmail.com", List.of("FBEOD", "Upper/Lower"), "EMP-990X-YTR8");
+        workerEntity = new WorkerEntity(1L, "Rachel Thomas", LocalDate.of(1985, 2, 14), Roles.ROLE_WORKER,
+                "rachelThomas@gmail.com", "WKR-8372-LKJD");
+    }
+
+    @Benchmark
+    public MemberDTO memberModelMapper() {
+        return modelMapper.map(memberEntity, MemberDTO.class);
+    }
+
+    @Benchmark
+    public MemberDTO memberMapStruct() {
+        return memberMapper.convertToMemberDTO(memberEntity);
+    }
+
+    @Benchmark
+    public CoachDTO coachModelMapper() {
+        return modelMapper.map(coachEntity, CoachDTO.class);
+    }
+
+    @Benchmark
+    public CoachDTO coachMapStruct() {
+        return coachMapper.convertToCoachDto(coachEntity);
+    }
+
+    @Benchmark
+    public WorkerDTO workerModelMapper() {
+        return modelMapper.map(workerEntity, WorkerDTO.class);
+    }
+
+    @Benchmark
+    public WorkerDTO workerMapStruct() {
+        return workerMapper.convertToWorkerDTO(workerEntity);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
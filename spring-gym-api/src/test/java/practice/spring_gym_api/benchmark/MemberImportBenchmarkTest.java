@@ -0,0 +1,79 @@
+package practice.spring_gym_api.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import practice.spring_gym_api.dto.MemberImportResult;
+import practice.spring_gym_api.service.MemberService;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures a 1M row NDJSON import. The file is generated on the fly, so the only place rows
+ * could pile up in memory is the importer itself.
+ * Skipped in normal builds, run it with: mvn test -Dbenchmark=true -Dtest=MemberImportBenchmarkTest
+ * The import joins the test's transaction and is rolled back, so the seeded data is left untouched.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MemberImportBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Test
+    @Transactional
+    void importOneMillionMembers() {
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        MemberImportResult result = memberService.importMembers(new GeneratedNdjson(ROWS), "application/x-ndjson");
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        System.out.printf("%n[benchmark] %,d rows imported in %.1f s, %.0f rows/s, peak heap %,d MB%n%n",
+                result.getImported(), seconds, result.getImported() / seconds, peakHeap / (1024 * 1024));
+        assertEquals(ROWS, result.getImported());
+    }
+
+    /**
+     * Produces one member per line without ever holding more than a single line.
+     */
+    private static final class GeneratedNdjson extends InputStream {
+        private final int rows;
+        private int row;
+        private byte[] line = new byte[0];
+        private int position;
+
+        GeneratedNdjson(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if(position == line.length) {
+                if(row == rows) return -1;
+                line = ("{\"name\":\"Imported Member " + row + "\",\"dateOfBirth\":\"1990-01-01\",\"membershipDate\":\"2024-01-01\","
+                        + "\"email\":\"import" + row + "@gmail.com\",\"role\":\"ROLE_MEMBER\","
+                        + "\"bench\":" + (100 + row % 200) + ",\"squat\":" + (150 + row % 250) + ",\"deadlift\":" + (200 + row % 300) + "}\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                row++;
+            }
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package practice.spring_gym_api.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.repository.MemberRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long it takes to insert a 10k member batch registration.
+ * Skipped in normal builds, run it with: mvn test -Dbenchmark=true -Dtest=MemberRegistrationBenchmarkTest
+ * Each round is rolled back, so the seeded data is left untouched.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MemberRegistrationBenchmarkTest {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void registerTenThousandMembers() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for(int round = 0; round < WARMUP_ROUNDS; round++) insertBatch(round);
+
+        statistics.clear();
+        long totalNanos = 0;
+        for(int round = WARMUP_ROUNDS; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            totalNanos += insertBatch(round);
+        }
+
+        double averageMillis = totalNanos / 1_000_000.0 / MEASURED_ROUNDS;
+        System.out.printf("%n[benchmark] %,d members per batch, average %.1f ms, %.0f rows/s, %,d statements prepared per batch%n%n",
+                BATCH_SIZE,
+                averageMillis,
+                BATCH_SIZE / (averageMillis / 1000),
+                statistics.getPrepareStatementCount() / MEASURED_ROUNDS);
+    }
+
+    private long insertBatch(int round) {
+        List<MemberEntity> memberEntities = new ArrayList<>(BATCH_SIZE);
+        for(int i = 0; i < BATCH_SIZE; i++) {
+            memberEntities.add(new MemberEntity(
+                    "Benchmark Member " + i,
+                    LocalDate.of(1990, 1, 1),
+                    "2024-01-01",
+                    "benchmark" + round + "_" + i + "@gmail.com",
+                    Roles.ROLE_MEMBER,
+                    100 + i % 200,
+                    150 + i % 250,
+                    200 + i % 300,
+                    0
+            ));
+        }
+
+        long start = System.nanoTime();
+        memberRepository.saveAll(memberEntities);
+        entityManager.flush();
+        long elapsed = System.nanoTime() - start;
+
+        entityManager.clear();
+        return elapsed;
+    }
+}
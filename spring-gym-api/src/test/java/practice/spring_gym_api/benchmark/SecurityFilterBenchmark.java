@@ -0,0 +1,136 @@
+package practice.spring_gym_api.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.context.SecurityContextHolder;
+import practice.spring_gym_api.entity.CoachEntity;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
+import practice.spring_gym_api.security.provider.WorkerAuthProvider;
+import practice.spring_gym_api.security.token.AccessTokenService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures the time and allocation of the security filter for GET, PATCH and POST requests, with the credential
+ * cache already warm so the only repository call is the stubbed key version lookup of the bearer token. Requests are built once and reused, so what's measured
+ * is the filter itself.
+ * Skipped in normal builds, run it with: mvn test -Dbenchmark=true -Dtest=SecurityFilterBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private static final FilterChain END_OF_CHAIN = (request, response) -> {};
+
+    private FilterChain chain;
+    private MockHttpServletRequest getRequest;
+    private MockHttpServletRequest patchRequest;
+    private MockHttpServletRequest patchWithTokenRequest;
+    private MockHttpServletRequest postRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        CredentialCache credentialCache = new CredentialCache(new SimpleMeterRegistry());
+        credentialCache.verify(CredentialType.COACH, 1L, "COACH-CODE", () -> null);
+        credentialCache.verify(CredentialType.WORKER, 1L, "WORKER-CODE", () -> null);
+        CoachRepository coachRepository = mock(CoachRepository.class, withSettings().stubOnly());
+        WorkerRepository workerRepository = mock(WorkerRepository.class, withSettings().stubOnly());
+        // Stands in for the second-level cache hit that checking a token's key version is in the app
+        when(coachRepository.findById(1L)).thenReturn(Optional.of(new CoachEntity(1L, "Coach", LocalDate.of(1990, 1, 1), Roles.ROLE_COACH, "coach@gmail.com", List.of("Plan"), "COACH-CODE")));
+        AccessTokenService accessTokenService = new AccessTokenService(coachRepository, workerRepository, "", Duration.ofMinutes(15));
+        AuthenticationManager authenticationManager = new ProviderManager(new WorkerAuthProvider(workerRepository, credentialCache));
+        AuthenticationConfiguration authenticationConfiguration = new AuthenticationConfiguration() {
+            @Override
+            public AuthenticationManager getAuthenticationManager() {
+                return authenticationManager;
+            }
+        };
+
+        Filter filter = new RequestAuthFilter(coachRepository, credentialCache, accessTokenService, authenticationConfiguration);
+        chain = (request, response) -> filter.doFilter(request, response, END_OF_CHAIN);
+
+        getRequest = request("GET", "/api/v1/gym-api/members/1");
+        patchRequest = request("PATCH", "/api/v1/gym-api/members/1/name");
+        patchRequest.addHeader("x-coach-id", "1");
+        patchRequest.addHeader("x-coach-code", "COACH-CODE");
+        patchWithTokenRequest = request("PATCH", "/api/v1/gym-api/members/1/name");
+        patchWithTokenRequest.addHeader("Authorization", "Bearer " + accessTokenService.issue(CredentialType.COACH, 1L, "COACH-CODE"));
+        postRequest = request("POST", "/api/v1/gym-api/members");
+        postRequest.addHeader("x-worker-id", "1");
+        postRequest.addHeader("x-worker-code", "WORKER-CODE");
+        response = new MockHttpServletResponse();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("Content-Type", "application/json");
+        request.addHeader("Accept", "application/json");
+        request.addHeader("User-Agent", "benchmark");
+        return request;
+    }
+
+    @Benchmark
+    public int get() throws Exception {
+        return run(getRequest);
+    }
+
+    @Benchmark
+    public int patchWithCoachHeaders() throws Exception {
+        return run(patchRequest);
+    }
+
+    @Benchmark
+    public int patchWithBearerToken() throws Exception {
+        return run(patchWithTokenRequest);
+    }
+
+    @Benchmark
+    public int postWithWorkerHeaders() throws Exception {
+        return run(postRequest);
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        chain.doFilter(request, response);
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SecurityFilterBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
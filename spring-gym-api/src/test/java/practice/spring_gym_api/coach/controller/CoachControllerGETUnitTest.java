@@ -1,5 +1,6 @@
 package practice.spring_gym_api.coach.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,44 +8,42 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import practice.spring_gym_api.controller.CoachController;
 import practice.spring_gym_api.dto.CoachDTO;
 import practice.spring_gym_api.dto.CoachMapper;
+import practice.spring_gym_api.dto.CursorPage;
 import practice.spring_gym_api.dto.MemberDTO;
-import practice.spring_gym_api.dto.MemberMapper;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.entity.CoachEntity;
-import practice.spring_gym_api.entity.MemberEntity;
-import practice.spring_gym_api.security.filter.CoachAuthFilter;
-import practice.spring_gym_api.security.filter.ValidRequestFilter;
-import practice.spring_gym_api.security.filter.WorkerAuthFilter;
+import practice.spring_gym_api.entity.enums.ClientSort;
+import practice.spring_gym_api.entity.enums.CoachSort;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
 import practice.spring_gym_api.service.CoachService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
 import practice.spring_gym_api.testdata.dto.CoachDTOTestData;
 import practice.spring_gym_api.testdata.dto.MemberDTOTestData;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import org.junit.jupiter.api.Test;
-import practice.spring_gym_api.testdata.entity.MemberTestData;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @WebMvcTest(controllers = CoachController.class, excludeFilters = {
         @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
-                CoachAuthFilter.class,
-                ValidRequestFilter.class,
-                WorkerAuthFilter.class
+                RequestAuthFilter.class
         })
 })
 @AutoConfigureMockMvc
@@ -60,7 +59,10 @@ public class CoachControllerGETUnitTest {
     private CoachMapper coachMapper;
 
     @MockitoBean
-    private MemberMapper memberMapper;
+    private SerializedResponseCache responseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
 
     private CoachEntity coachEntity1;
@@ -70,6 +72,9 @@ public class CoachControllerGETUnitTest {
 
     @BeforeEach
     void setup(){
+        // Every body is built afresh, as if the cache always missed
+        when(responseCache.get(any(), any(), any(), any())).thenAnswer(invocation ->
+                objectMapper.writeValueAsBytes(invocation.<Supplier<?>>getArgument(3).get()));
         coachEntity1 = CoachTestData.createSeedCoach1();
         coachEntity2 = CoachTestData.createSeedCoach2();
         coachDTO1 = CoachDTOTestData.createSeedDTOCoach1();
@@ -97,6 +102,7 @@ public class CoachControllerGETUnitTest {
 
         // Assert
         verify(coachService, times(1)).getCoachById(1L);
+        verify(coachService, times(1)).getCoachesVersion();
         verifyNoMoreInteractions(coachService);
     }
 
@@ -116,10 +122,41 @@ public class CoachControllerGETUnitTest {
 
         // Assert
         verify(coachService, times(1)).getCoachById(fakeID);
+        verify(coachService, times(1)).getCoachesVersion();
         verifyNoMoreInteractions(coachService);
         verify(coachMapper, never()).convertToCoachDto(any());
     }
 
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getCoachById_ReturnsNotFoundInsteadOfNotModified_WhenCoachDoesNotExist() throws Exception {
+        // Arrange
+        Long fakeID = 999L;
+        when(coachService.getCoachesVersion()).thenReturn("run-20000-6");
+        when(coachService.getClientsVersion()).thenReturn("run-20000-6");
+        when(coachService.existsById(fakeID)).thenReturn(false);
+        when(coachService.getCoachById(fakeID))
+                .thenThrow(new NoSuchElementException("Coach with an id of: " + fakeID + " doesnt exist"));
+        when(coachService.getAllClientsByCoachId(fakeID, null, 20, ClientSort.ID))
+                .thenThrow(new NoSuchElementException("Coach with an id of: " + fakeID + " doesnt exist"));
+
+        // Act
+        mvc.perform(get("/api/v1/gym-api/coaches/" + fakeID).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Coach with an id of: " + fakeID + " doesnt exist"));
+        mvc.perform(get("/api/v1/gym-api/coaches/" + fakeID + "/clients").header(HttpHeaders.IF_NONE_MATCH, "\"run-20000-6\""))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Coach with an id of: " + fakeID + " doesnt exist"));
+
+        // Assert
+        verify(coachService, times(2)).existsById(fakeID);
+        verify(coachService, times(1)).getCoachById(fakeID);
+        verify(coachService, times(1)).getAllClientsByCoachId(fakeID, null, 20, ClientSort.ID);
+        verify(coachMapper, never()).convertToCoachDto(any());
+    }
+
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getWorkoutPlansByCoachName_ReturnsList_WhenCoachExists() throws Exception{
@@ -136,6 +173,7 @@ public class CoachControllerGETUnitTest {
 
         // Assert
         verify(coachService, times(1)).getWorkoutPlansByCoachName("Alex Smith");
+        verify(coachService, times(1)).getCoachesVersion();
         verifyNoMoreInteractions(coachService);
     }
 
@@ -143,28 +181,24 @@ public class CoachControllerGETUnitTest {
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getAllAvailableCoaches_ReturnsCoachDTOList_WhenCoachesAvailable() throws Exception {
         // Arrange
-        when(coachService.getAllCoachesThatAreAvaliable())
-                .thenReturn(List.of(coachEntity1, coachEntity2));
-        when(coachMapper.convertToCoachDto(coachEntity1))
-                .thenReturn(coachDTO1);
-        when(coachMapper.convertToCoachDto(coachEntity2))
-                .thenReturn(coachDTO2);
+        when(coachService.getAllCoachesThatAreAvaliable(null, 20))
+                .thenReturn(new CursorPage<>(List.of(coachDTO1, coachDTO2), null));
 
         // Act
         mvc.perform(get("/api/v1/gym-api/coaches/no-clients"))
                 .andDo(print())
-                .andExpect(jsonPath("$[0]").isNotEmpty())
-                .andExpect(jsonPath("$[1]").isNotEmpty())
-                .andExpect(jsonPath("$[0].name").value("Alex Smith"))
-                .andExpect(jsonPath("$[1].name").value("Maria Gonzalez"))
+                .andExpect(jsonPath("$.items[0]").isNotEmpty())
+                .andExpect(jsonPath("$.items[1]").isNotEmpty())
+                .andExpect(jsonPath("$.items[0].name").value("Alex Smith"))
+                .andExpect(jsonPath("$.items[1].name").value("Maria Gonzalez"))
 
-                .andExpect(jsonPath("$[0].id").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[0].role").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[1].id").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[1].role").doesNotHaveJsonPath());
+                .andExpect(jsonPath("$.items[0].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[0].role").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[1].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[1].role").doesNotHaveJsonPath());
 
         // Aseert
-        verify(coachService, times(1)).getAllCoachesThatAreAvaliable();
+        verify(coachService, times(1)).getAllCoachesThatAreAvaliable(null, 20);
         verifyNoMoreInteractions(coachService);
     }
 
@@ -214,68 +248,123 @@ public class CoachControllerGETUnitTest {
 
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
-    void getAllCoachesPageable_ReturnsPagedCoachDTOList_WhenPageRequested() throws Exception {
+    void getAllCoaches_ReturnsCursorPageOfCoachDTOs_WhenPageRequested() throws Exception {
         // Arrange
-        PageRequest pageRequest = PageRequest.of(0, 1);
-        Page<CoachEntity> page = new PageImpl<>(List.of(coachEntity1), pageRequest, 2);
-
-        when(coachService.getAllCoachesPageable(pageRequest)).thenReturn(page);
-        when(coachMapper.convertToCoachDto(coachEntity1)).thenReturn(coachDTO1);
+        String cursor = CursorPage.encodeCursor("NAME", "Alex Smith", 1L);
+        when(coachService.getAllCoachesPageable(null, 1, CoachSort.NAME)).thenReturn(new CursorPage<>(List.of(coachDTO1), cursor));
 
         // Act
-        mvc.perform(get("/api/v1/gym-api/coaches?page=0&size=1"))
+        mvc.perform(get("/api/v1/gym-api/coaches?limit=1&sort=name"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name").value("Alex Smith"))
-                .andExpect(jsonPath("$[0].id").doesNotHaveJsonPath());
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name").value("Alex Smith"))
+                .andExpect(jsonPath("$.items[0].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.nextCursor").value(cursor))
+                .andExpect(jsonPath("$.hasNext").value(true));
 
         // Assert
-        verify(coachService, times(1)).getAllCoachesPageable(pageRequest);
+        verify(coachService, times(1)).getAllCoachesPageable(null, 1, CoachSort.NAME);
         verifyNoMoreInteractions(coachService);
     }
 
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
-    void getAllClientsByCoachId_ReturnsMemberDTOList_WhenCoachHasClients() throws Exception {
+    void getAllCoaches_SendsEstimatedTotalCount_WhenEstimateIsRequested() throws Exception {
         // Arrange
-        MemberEntity memberEntity1 = MemberTestData.createSeedMember1();
-        MemberEntity memberEntity3 = MemberTestData.createSeedMember3();
-        MemberEntity memberEntity5 = MemberTestData.createSeedMember5();
+        when(coachService.getAllCoachesPageable(null, 20, CoachSort.ID)).thenReturn(new CursorPage<>(List.of(coachDTO1), null));
+        when(coachService.countCoaches(false)).thenReturn(new TotalCount(1800, false));
+
+        // Act
+        mvc.perform(get("/api/v1/gym-api/coaches?count=estimated"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1800"))
+                .andExpect(header().string("X-Total-Count-Type", "estimated"));
+
+        // Assert
+        verify(coachService, times(1)).countCoaches(false);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllCoaches_ReturnsBadRequest_WhenCountIsUnknown() throws Exception {
+        // Act
+        mvc.perform(get("/api/v1/gym-api/coaches?count=all"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
 
+        // Assert
+        verifyNoInteractions(coachService);
+    }
 
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllClientsByCoachId_ReturnsMemberDTOList_WhenCoachHasClients() throws Exception {
+        // Arrange
         MemberDTO memberDTO1 = MemberDTOTestData.createdSeedMemberDTO1();
         MemberDTO memberDTO3 = MemberDTOTestData.createdSeedMemberDTO3();
         MemberDTO memberDTO5 = MemberDTOTestData.createdSeedMemberDTO5();
 
-        when(coachService.getAllClientsByCoachId(1L))
-                .thenReturn(coachEntity1.getClients());
-        when(memberMapper.convertToMemberDTO(memberEntity1))
-                .thenReturn(memberDTO1);
-        when(memberMapper.convertToMemberDTO(memberEntity3))
-                .thenReturn(memberDTO3);
-        when(memberMapper.convertToMemberDTO(memberEntity5))
-                .thenReturn(memberDTO5);
+        when(coachService.getAllClientsByCoachId(1L, null, 20, ClientSort.ID))
+                .thenReturn(new CursorPage<>(List.of(memberDTO1, memberDTO3, memberDTO5), null));
 
         // Act
         mvc.perform(get("/api/v1/gym-api/coaches/1/clients"))
                 .andDo(print())
-                .andExpect(jsonPath("$", hasSize(3)))
-                .andExpect(jsonPath("$[*]name", containsInAnyOrder(
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[*]name", contains(
                         memberDTO1.getName(), memberDTO3.getName(), memberDTO5.getName())))
 
 
-                .andExpect(jsonPath("$[0].id").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[1].id").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[2].id").doesNotHaveJsonPath());
+                .andExpect(jsonPath("$.items[0].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[1].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[2].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.hasNext").value(false));
 
 
         // Assert
-        verify(coachService, times(1)).getAllClientsByCoachId(1L);
+        verify(coachService, times(1)).getAllClientsByCoachId(1L, null, 20, ClientSort.ID);
+        verify(coachService, times(1)).getClientsVersion();
         verifyNoMoreInteractions(coachService);
 
     }
 
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllClientsByCoachId_PassesCursorLimitAndSort_WhenGiven() throws Exception {
+        // Arrange
+        MemberDTO memberDTO3 = MemberDTOTestData.createdSeedMemberDTO3();
+        String cursor = CursorPage.encodeCursor("TOTAL", 945, 3L);
+        when(coachService.getAllClientsByCoachId(1L, cursor, 1, ClientSort.TOTAL))
+                .thenReturn(new CursorPage<>(List.of(memberDTO3), cursor));
+
+        // Act
+        mvc.perform(get("/api/v1/gym-api/coaches/1/clients")
+                        .param("cursor", cursor)
+                        .param("limit", "1")
+                        .param("sort", "total"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value(memberDTO3.getName()))
+                .andExpect(jsonPath("$.nextCursor").value(cursor));
+
+        // Assert
+        verify(coachService, times(1)).getAllClientsByCoachId(1L, cursor, 1, ClientSort.TOTAL);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllClientsByCoachId_ReturnsBadRequest_WhenSortIsUnknown() throws Exception {
+        // Act
+        mvc.perform(get("/api/v1/gym-api/coaches/1/clients").param("sort", "bench"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        // Assert
+        verifyNoInteractions(coachService);
+    }
+
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getCoachByCoachCode_ReturnsCoachDTO_WhenCoachCodeMatches() throws Exception {
@@ -13,14 +13,12 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import practice.spring_gym_api.controller.CoachController;
 import practice.spring_gym_api.dto.CoachMapper;
-import practice.spring_gym_api.dto.MemberMapper;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.enums.Roles;
-import practice.spring_gym_api.security.filter.CoachAuthFilter;
-import practice.spring_gym_api.security.filter.ValidRequestFilter;
-import practice.spring_gym_api.security.filter.WorkerAuthFilter;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
 import practice.spring_gym_api.service.CoachService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import org.junit.jupiter.api.Test;
 
@@ -36,9 +34,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = CoachController.class, excludeFilters = {
         @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
-                CoachAuthFilter.class,
-                ValidRequestFilter.class,
-                WorkerAuthFilter.class
+                RequestAuthFilter.class
         })
 })
 @AutoConfigureMockMvc
@@ -57,7 +53,7 @@ public class CoachControllerPOSTUnitTest {
     CoachMapper coachMapper;
 
     @MockitoBean
-    MemberMapper memberMapper;
+    SerializedResponseCache responseCache;
 
     private CoachEntity coachEntity1;
     private CoachEntity coachEntity2;
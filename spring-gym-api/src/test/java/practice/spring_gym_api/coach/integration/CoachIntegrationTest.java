@@ -153,6 +153,29 @@ public class CoachIntegrationTest {
         }
     }
 
+    @Transactional
+    @Test
+    void replaceClientsByIdAndEmail_KeepsClientCountsInSync_WhenClientsMoveBetweenCoaches() throws Exception {
+        // Moves Maria's two clients over to Alex, which leaves Maria with none
+        List<Long> idsOfUpdatedClients = coachEntity2.getClients().stream().map(MemberEntity::getId).toList();
+
+        mvc.perform(patch("/api/v1/gym-api/coaches/" + seedCoachId + "/clients/replace")
+                        .with(csrf())
+                        .queryParam("email", seedCoachEmail)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(idsOfUpdatedClients))
+                        .header("x-coach-code", "EMP-990X-YTR8")
+                        .header("x-coach-id", seedCoachId))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/v1/gym-api/coaches/most-clients"))
+                .andExpect(jsonPath("$.name").value(coachEntity.getName()));
+        mvc.perform(get("/api/v1/gym-api/coaches/least-clients"))
+                .andExpect(jsonPath("$.name").value(coachEntity2.getName()));
+        mvc.perform(get("/api/v1/gym-api/coaches/no-clients"))
+                .andExpect(jsonPath("$.items[0].name").value(coachEntity2.getName()));
+    }
+
     @Transactional
     @Test
     void replaceClientsByIdAndEmail_ThrowsException_WhenCoachIdDoesntExist() throws Exception {
@@ -253,6 +276,41 @@ public class CoachIntegrationTest {
         assertTrue(fakeCoach1.getRole().equals(Roles.ROLE_COACH));
     }
 
+    @Transactional
+    @Test
+    void registerNewCoach_RegistersSeveralCoaches_WhileTheyStillHaveThePlaceholderCode() throws Exception {
+        CoachRequestDTO secondCoach = new CoachRequestDTO("Henry Hill", "henryHill@gmail.com", LocalDate.of(1975, 2, 3),
+                Roles.ROLE_COACH, List.of("PPL"), "Placeholder coach code");
+        for(CoachRequestDTO coach : List.of(fakeCoach1RequestDTO, secondCoach)) {
+            mvc.perform(post("/api/v1/gym-api/coaches")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(coach))
+                    .header("x-worker-id", workerId)
+                    .header("x-worker-code", workerCode))
+                    .andExpect(status().isOk());
+        }
+
+        CoachRequestDTO thirdCoach = new CoachRequestDTO("Ivy Irwin", "ivyIrwin@gmail.com", LocalDate.of(1982, 7, 9),
+                Roles.ROLE_COACH, List.of("FBEOD"), "Placeholder coach code");
+        CoachRequestDTO fourthCoach = new CoachRequestDTO("Jack Jones", "jackJones@gmail.com", LocalDate.of(1984, 8, 10),
+                Roles.ROLE_COACH, List.of("Arnold"), "Placeholder coach code");
+        mvc.perform(post("/api/v1/gym-api/coaches/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(thirdCoach, fourthCoach)))
+                .header("x-worker-id", workerId)
+                .header("x-worker-code", workerCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.registered").value(2));
+
+        for(String email : List.of("gingerGreen@gmail.com", "henryHill@gmail.com", "ivyIrwin@gmail.com", "jackJones@gmail.com")) {
+            assertTrue(coachRepository.existsByEmail(email), email + " wasnt registered");
+        }
+        // A placeholder is shared, so it never identifies a coach
+        assertNull(coachRepository.findByCoachCode("Placeholder coach code"));
+    }
+
     @Transactional
     @Test
     void registerNewCoach_ThrowsException_WhenEmailIsInvalid() throws Exception {
@@ -304,5 +362,63 @@ public class CoachIntegrationTest {
             assertTrue(member.getCoachedBy().equals(coachEntity));
         }
     }
-}
 
+    @Test
+    void exportCoaches_WritesClientCountsAndLeavesOutCoachCodes_WhenFormatIsCsv() throws Exception {
+        String body = mvc.perform(get("/api/v1/gym-api/export/coaches").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = List.of(body.split("\\n"));
+        assertEquals("id,name,dateOfBirth,role,clientCount", lines.get(0));
+        assertEquals(coachRepository.count() + 1, lines.size());
+        assertTrue(lines.contains(seedCoachId + "," + coachEntity.getName() + "," + coachEntity.getDateOfBirth() + ","
+                + coachEntity.getRole() + "," + coachEntity.getClientCount()));
+        assertFalse(body.contains(coachEntity.getCoachCode()));
+    }
+
+    @Transactional
+    @Test
+    void issueAccessToken_TokenStandsInForCoachHeaders_UntilCodeIsChanged() throws Exception {
+        String responseBody = mvc.perform(post("/api/v1/gym-api/auth/token")
+                        .header("x-coach-id", seedCoachId)
+                        .header("x-coach-code", "EMP-990X-YTR8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(responseBody).get("token").asText();
+
+        mvc.perform(patch("/api/v1/gym-api/coaches/" + seedCoachId + "/code")
+                        .param("email", seedCoachEmail)
+                        .param("coachCode", "NEW-COACH-CODE")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        CoachEntity updatedCoach = coachRepository.findById(seedCoachId).orElseThrow();
+        assertEquals("NEW-COACH-CODE", updatedCoach.getCoachCode());
+        assertEquals(1, updatedCoach.getKeyVersion());
+
+        var revoked = mvc.perform(patch("/api/v1/gym-api/coaches/" + seedCoachId + "/name")
+                        .param("name", "Renamed Coach")
+                        .param("email", seedCoachEmail)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized())
+                .andReturn();
+        assertTrue(revoked.getResponse().getContentAsString().contains("Access token has been revoked"));
+    }
+
+    @Test
+    void issueAccessToken_WorkerTokenIsRejected_WhenUsedForACoachEndpoint() throws Exception {
+        String responseBody = mvc.perform(post("/api/v1/gym-api/auth/token")
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(responseBody).get("token").asText();
+
+        mvc.perform(patch("/api/v1/gym-api/coaches/" + seedCoachId + "/name")
+                        .param("name", "Renamed Coach")
+                        .param("email", seedCoachEmail)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+}
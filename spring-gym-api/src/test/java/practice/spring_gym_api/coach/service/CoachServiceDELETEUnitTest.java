@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.enums.Roles;
@@ -14,6 +15,8 @@ import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.service.impl.CoachServiceimpl;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.service.count.RowCountCache;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -29,9 +32,18 @@ public class CoachServiceDELETEUnitTest {
     @Mock
     CoachRepository coachRepository;
 
+    @Mock
+    CredentialCache credentialCache;
+
     @Mock
     MemberRepository memberRepository;
 
+    @Mock
+    RowCountCache rowCountCache;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     private CoachEntity coachEntity1;
     private CoachEntity coachEntity2;
     private CoachEntity fakeCoachEntity;
@@ -78,31 +90,32 @@ public class CoachServiceDELETEUnitTest {
     void deleteCoachById_SuccessfullyDeletesCoach_WhenIdIsValid() {
         // Arrange
         Set<MemberEntity> memberEntities = coachEntity1.getClients();
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
 
         // Act
         coachService.deleteCoachById(1L);
 
         // Assert
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(memberRepository, times(1)).saveAll(memberEntities);
         verify(coachRepository, times(1)).deleteById(1L);
+        verify(rowCountCache, times(1)).removed(RowCountCache.Table.COACHES, 1);
     }
 
     @Test
     void deleteCoachById_SuccessfullyDeletesCoach_WhenCoachHasNoClients() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(fakeCoachEntity));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(fakeCoachEntity));
 
         coachService.deleteCoachById(1L);
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(coachRepository, times(1)).deleteById(1L);
         verify(memberRepository, never()).saveAll(any());
     }
 
     @Test
     void deleteCoachById_ThrowsException_WhenIdDoesntExist() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.empty());
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> coachService.deleteCoachById(1L));
         assertEquals(idMessage, exception.getMessage());
@@ -1,15 +1,29 @@
 package practice.spring_gym_api.coach.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import practice.spring_gym_api.dto.CoachDTO;
+import practice.spring_gym_api.dto.CoachSummary;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberSummary;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.ClientSort;
+import practice.spring_gym_api.entity.enums.CoachSort;
 import practice.spring_gym_api.entity.enums.Roles;
 import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.MemberRepository;
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ResultCache;
+import practice.spring_gym_api.service.flight.SingleFlight;
 import practice.spring_gym_api.service.impl.CoachServiceimpl;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.invalidTestData.InvalidCoachEntity;
@@ -30,6 +44,15 @@ public class CoachServiceGETUnitTest {
     @Mock
     CoachRepository coachRepository;
 
+    @Mock
+    MemberRepository memberRepository;
+
+    @Spy
+    ResultCache resultCache = new ResultCache(new SimpleMeterRegistry());
+
+    @Spy
+    SingleFlight singleFlight = new SingleFlight(new ChangeVersions(), new SimpleMeterRegistry());
+
     private CoachEntity coachEntity1;
     private CoachEntity coachEntity2;
     private List<CoachEntity> coachEntities;
@@ -129,7 +152,7 @@ public class CoachServiceGETUnitTest {
     @Test
     void getCoachWithHighestClients_ReturnsCoachWithMostClients_WhenCoachesExist() {
         // Arrange
-        when(coachRepository.findAll()).thenReturn(coachEntities);
+        when(coachRepository.findFirstByOrderByClientCountDescIdAsc()).thenReturn(Optional.of(coachEntity1));
 
         System.out.println("Coach 1 stats: " + "\n" + "name: " + coachEntity1.getName() + "\n" +
                 "clients : " + coachEntity1.getClients().size());
@@ -141,7 +164,7 @@ public class CoachServiceGETUnitTest {
         assertEquals(coachEntity1, maxCoach);
 
         // Assert
-        verify(coachRepository, times(1)).findAll();
+        verify(coachRepository, times(1)).findFirstByOrderByClientCountDescIdAsc();
         verifyNoMoreInteractions(coachRepository);
     }
 
@@ -164,7 +187,7 @@ public class CoachServiceGETUnitTest {
     @Test
     void getCoachWithLowestClients_ReturnsCoachWithLeastClients_WhenCoachesExist() {
         // Arrange
-        when(coachRepository.findAll()).thenReturn(coachEntities);
+        when(coachRepository.findFirstByOrderByClientCountAscIdAsc()).thenReturn(Optional.of(coachEntity2));
 
         System.out.println("Coach 1 stats: " + "\n" + "name: " + coachEntity1.getName() + "\n" +
                 "clients : " + coachEntity1.getClients().size());
@@ -176,7 +199,7 @@ public class CoachServiceGETUnitTest {
         assertEquals(coachEntity2, worstCoach);
 
         // Assert
-        verify(coachRepository, times(1)).findAll();
+        verify(coachRepository, times(1)).findFirstByOrderByClientCountAscIdAsc();
         verifyNoMoreInteractions(coachRepository);
     }
 
@@ -230,69 +253,145 @@ public class CoachServiceGETUnitTest {
     @Test
     void getAllClientsByCoachId_ReturnsAllClientsOfACoach_WhenCoachExists() {
         // Arrange
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
-        System.out.println("Coach returned from repo: " + coachEntity1.getName());
-        System.out.println("Coach client list size: " + coachEntity1.getClients().size());
+        List<MemberSummary> clients = coachEntity1.getClients().stream()
+                .map(member -> new MemberSummary(member.getId(), member.getName(), member.getDateOfBirth(),
+                        member.getMembershipDate(), member.getBench(), member.getTotal()))
+                .toList();
+        when(coachRepository.existsById(1L)).thenReturn(true);
+        when(memberRepository.findClientSummariesAfter(1L, 0L, Limit.of(21))).thenReturn(clients);
 
         // Act
-        Set<MemberEntity> entitySet = coachService.getAllClientsByCoachId(1L);
-        assertEquals(coachEntity1.getClients(), entitySet);
+        CursorPage<MemberDTO> clientsReturned = coachService.getAllClientsByCoachId(1L, null, 20, ClientSort.ID);
+        assertThat(clientsReturned.getItems()).extracting(MemberDTO::getName)
+                .containsExactlyElementsOf(clients.stream().map(MemberSummary::name).toList());
+        assertNull(clientsReturned.getNextCursor());
 
         // Assert
-        verify(coachRepository, times(1)).findById(1L);
-        verifyNoMoreInteractions(coachRepository);
+        verify(coachRepository, times(1)).existsById(1L);
+        verify(memberRepository, times(1)).findClientSummariesAfter(1L, 0L, Limit.of(21));
+        verifyNoMoreInteractions(coachRepository, memberRepository);
+    }
+
+    @Test
+    void getAllClientsByCoachId_SeeksPastTheLastClientOfThePage_WhenSortedByTotal() {
+        // Arrange
+        MemberSummary strongest = new MemberSummary(3L, "David Lee", LocalDate.of(1988, 6, 10), "2023-05-20", 225, 945);
+        MemberSummary weakest = new MemberSummary(5L, "Carlos Rivera", LocalDate.of(1992, 12, 5), "2023-08-15", 200, 725);
+        when(coachRepository.existsById(1L)).thenReturn(true);
+        when(memberRepository.findClientSummariesByTotalAfter(1L, Integer.MAX_VALUE, 0L, Limit.of(2))).thenReturn(List.of(strongest, weakest));
+        when(memberRepository.findClientSummariesByTotalAfter(1L, 945, 3L, Limit.of(2))).thenReturn(List.of(weakest));
+
+        // Act
+        CursorPage<MemberDTO> firstPage = coachService.getAllClientsByCoachId(1L, null, 1, ClientSort.TOTAL);
+        assertThat(firstPage.getItems()).extracting(MemberDTO::getName).containsExactly("David Lee");
+        assertEquals(CursorPage.encodeCursor("TOTAL", 945, 3L), firstPage.getNextCursor());
+
+        CursorPage<MemberDTO> lastPage = coachService.getAllClientsByCoachId(1L, firstPage.getNextCursor(), 1, ClientSort.TOTAL);
+        assertThat(lastPage.getItems()).extracting(MemberDTO::getName).containsExactly("Carlos Rivera");
+        assertNull(lastPage.getNextCursor());
+
+        // Assert
+        verify(memberRepository, times(1)).findClientSummariesByTotalAfter(1L, Integer.MAX_VALUE, 0L, Limit.of(2));
+        verify(memberRepository, times(1)).findClientSummariesByTotalAfter(1L, 945, 3L, Limit.of(2));
+    }
+
+    @Test
+    void getAllClientsByCoachId_ThrowsException_WhenCursorBelongsToAnotherSort() {
+        // Act
+        String nameCursor = CursorPage.encodeCursor("NAME", "David Lee", 3L);
+        var exception = assertThrows(IllegalArgumentException.class,
+                () -> coachService.getAllClientsByCoachId(1L, nameCursor, 20, ClientSort.TOTAL));
+        assertEquals("Cursor was issued for a different sort", exception.getMessage());
+
+        // Assert
+        verifyNoInteractions(coachRepository, memberRepository);
     }
 
     @Test
     void getAllClientsByCoachId_ThrowsException_WhenCoachDoesntExists() {
         // Arrange
-        when(coachRepository.findById(4L)).thenReturn(Optional.empty());
+        when(coachRepository.existsById(4L)).thenReturn(false);
 
         // Act
-        var exception = assertThrows(NoSuchElementException.class, () -> coachService.getAllClientsByCoachId(4L));
+        var exception = assertThrows(NoSuchElementException.class, () -> coachService.getAllClientsByCoachId(4L, null, 20, ClientSort.ID));
         assertEquals("Coach with an id of: " + 4L + " doesnt exist", exception.getMessage());
 
         // Assert
-        verify(coachRepository, times(1)).findById(4L);
+        verify(coachRepository, times(1)).existsById(4L);
         verifyNoMoreInteractions(coachRepository);
+        verifyNoInteractions(memberRepository);
     }
 
     @Test
     void getAllClientsByCoachId_ThrowsException_WhenCoachDoesntHaveClients() {
         // Arrange
-        when(coachRepository.findById(3L)).thenReturn(Optional.ofNullable(fakeCoachEntity));
+        when(coachRepository.existsById(3L)).thenReturn(true);
+        when(memberRepository.findClientSummariesAfter(3L, 0L, Limit.of(21))).thenReturn(List.of());
 
         // Act
-        var exception = assertThrows(NoSuchElementException.class, () -> coachService.getAllClientsByCoachId(3L));
+        var exception = assertThrows(NoSuchElementException.class, () -> coachService.getAllClientsByCoachId(3L, null, 20, ClientSort.ID));
         assertEquals("Coach does not have any clients to access", exception.getMessage());
 
         // Assert
-        verify(coachRepository, times(1)).findById(3L);
-        verifyNoMoreInteractions(coachRepository);
+        verify(coachRepository, times(1)).existsById(3L);
+        verify(memberRepository, times(1)).findClientSummariesAfter(3L, 0L, Limit.of(21));
+        verifyNoMoreInteractions(coachRepository, memberRepository);
     }
 
     @Test
     void getAllCoachesThatAreAvaliable_ReturnsAllCoachesWithoutClients_WhenCoachExists() {
-        when(coachRepository.findAll()).thenReturn(coachEntities);
+        CoachSummary coachSummary = new CoachSummary(3L, fakeCoachEntity.getName(), fakeCoachEntity.getDateOfBirth());
+        when(coachRepository.findSummariesWithoutClientsAfter(0L, Limit.of(21))).thenReturn(List.of(coachSummary));
 
-        List<CoachEntity> listToReturn = coachService.getAllCoachesThatAreAvaliable();
-        assertEquals(emptyList, listToReturn);
+        CursorPage<CoachDTO> pageToReturn = coachService.getAllCoachesThatAreAvaliable(null, 20);
+        assertThat(pageToReturn.getItems()).extracting(CoachDTO::getName).containsExactly(fakeCoachEntity.getName());
+        assertNull(pageToReturn.getNextCursor());
 
-        verify(coachRepository, times(1)).findAll();
+        verify(coachRepository, times(1)).findSummariesWithoutClientsAfter(0L, Limit.of(21));
         verifyNoMoreInteractions(coachRepository);
     }
 
     @Test
     void getAllCoachesThatAreAvaliable_ThrowsException_WhenNoCoachExist() {
-        when(coachRepository.findAll()).thenReturn(emptyList);
+        when(coachRepository.findSummariesWithoutClientsAfter(0L, Limit.of(21))).thenReturn(List.of());
+        when(coachRepository.count()).thenReturn(0L);
 
-        var exception = assertThrows(NoSuchElementException.class, () -> coachService.getAllCoachesThatAreAvaliable());
+        var exception = assertThrows(NoSuchElementException.class, () -> coachService.getAllCoachesThatAreAvaliable(null, 20));
         assertEquals(noCoachesMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findAll();
+        verify(coachRepository, times(1)).findSummariesWithoutClientsAfter(0L, Limit.of(21));
+        verify(coachRepository, times(1)).count();
+        verifyNoMoreInteractions(coachRepository);
+    }
+
+    @Test
+    void getAllCoachesPageable_SeeksPastTheLastRowOfThePage_WhenSortedByName() {
+        CoachSummary coachSummary1 = new CoachSummary(1L, coachEntity1.getName(), coachEntity1.getDateOfBirth());
+        CoachSummary coachSummary2 = new CoachSummary(2L, coachEntity2.getName(), coachEntity2.getDateOfBirth());
+        when(coachRepository.findSummariesByNameAfter("", 0L, Limit.of(2))).thenReturn(List.of(coachSummary1, coachSummary2));
+        when(coachRepository.findSummariesByNameAfter(coachEntity1.getName(), 1L, Limit.of(2))).thenReturn(List.of(coachSummary2));
+
+        CursorPage<CoachDTO> firstPage = coachService.getAllCoachesPageable(null, 1, CoachSort.NAME);
+        assertThat(firstPage.getItems()).extracting(CoachDTO::getName).containsExactly(coachEntity1.getName());
+        assertEquals(CursorPage.encodeCursor("NAME", coachEntity1.getName(), 1L), firstPage.getNextCursor());
+
+        CursorPage<CoachDTO> lastPage = coachService.getAllCoachesPageable(firstPage.getNextCursor(), 1, CoachSort.NAME);
+        assertThat(lastPage.getItems()).extracting(CoachDTO::getName).containsExactly(coachEntity2.getName());
+        assertNull(lastPage.getNextCursor());
+
+        verify(coachRepository, times(1)).findSummariesByNameAfter("", 0L, Limit.of(2));
+        verify(coachRepository, times(1)).findSummariesByNameAfter(coachEntity1.getName(), 1L, Limit.of(2));
         verifyNoMoreInteractions(coachRepository);
     }
 
+    @Test
+    void getAllCoachesPageable_ThrowsException_WhenLimitIsOutOfRange() {
+        var exception = assertThrows(IllegalArgumentException.class, () -> coachService.getAllCoachesPageable(null, 0, CoachSort.ID));
+        assertEquals("Limit must be between 1 and 100", exception.getMessage());
+
+        verifyNoInteractions(coachRepository);
+    }
+
     @Test
     void getCoachByCoachCode_ReturnsCoach_WhenCoachCodeExists() {
         when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
@@ -6,17 +6,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import practice.spring_gym_api.dto.impl.CoachMapperimpl;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
 import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.repository.WorkerRepository;
 import practice.spring_gym_api.service.impl.CoachServiceimpl;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.service.count.RowCountCache;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -33,15 +37,27 @@ public class CoachServicePATCHUnitTest {
     @Mock
     CoachRepository coachRepository;
 
+    @Mock
+    CredentialCache credentialCache;
+
     @Mock
     MemberRepository memberRepository;
 
+    @Mock
+    LeaderboardEngine leaderboardEngine;
+
     @Mock
     WorkerRepository workerRepository;
 
+    @Mock
+    RowCountCache rowCountCache;
+
     @Mock(name = "coachMapperimpl")
     CoachMapperimpl coachMapperimpl;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     private CoachEntity coachEntity1;
     private CoachEntity coachEntity2;
     private CoachEntity fakeCoachEntity;
@@ -177,7 +193,7 @@ public class CoachServicePATCHUnitTest {
     void addClientsByIdAndEmail_SuccessfullyAddsClient_WhenIdAndEmailAreValid() {
         // Arrange
         Set<MemberEntity> oldClientList = new HashSet<>(coachEntity1.getClients());
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(coachEntity1);
         when(memberRepository.findMemberByEmail("janeSmith@gmail.com")).thenReturn(memberEntity2);
         when(memberRepository.findMemberByEmail("emelyChen@gmail.com")).thenReturn(memberEntity4);
@@ -189,19 +205,20 @@ public class CoachServicePATCHUnitTest {
         assertTrue(oldClientList != coachEntity1.getClients());
         assertTrue(coachEntity1.getClients().size() > oldClientList.size());
 
-        verify(coachRepository, times(1)).findById(1l);
+        verify(coachRepository, times(1)).findWithClientsById(1l);
         verify(coachRepository, times(1)).findByEmail(email);
         verify(coachRepository, times(1)).save(any());
+        verify(coachRepository, times(1)).recountClients(anyCollection());
     }
 
     @Test
     void addClientsByIdAndEmail_ThrowsException_WhenIdDoesntExist() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.empty());
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> coachService.addClientsByIdAndEmail(1L, email, client1Emails));
         assertEquals(idMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verifyNoMoreInteractions(coachRepository);
     }
 
@@ -215,13 +232,13 @@ public class CoachServicePATCHUnitTest {
 
     @Test
     void addClientsByIdAndEmail_ThrowsException_WhenEmailDoesntExist() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(null);
 
         var exception = assertThrows(NoSuchElementException.class, () -> coachService.addClientsByIdAndEmail(1L, email, client1Emails));
         assertEquals(emailMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1l);
+        verify(coachRepository, times(1)).findWithClientsById(1l);
         verify(coachRepository, times(1)).findByEmail(email);
         verifyNoMoreInteractions(coachRepository);
     }
@@ -255,12 +272,12 @@ public class CoachServicePATCHUnitTest {
         List<Long> idsOfClients = new ArrayList<>();
         for(MemberEntity member : clients) idsOfClients.add(member.getId());
 
-        when(coachRepository.findById(1L)).thenReturn(Optional.empty());
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.empty());
         var exception = assertThrows(NoSuchElementException.class, () ->
                 coachService.replaceClientListByIdAndEmail(1L, email, idsOfClients));
         assertEquals(idMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verifyNoMoreInteractions(coachRepository);
     }
 
@@ -269,14 +286,14 @@ public class CoachServicePATCHUnitTest {
         List<Long> idsOfClients = new ArrayList<>();
         for(MemberEntity member : clients) idsOfClients.add(member.getId());
 
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(null);
 
         var exception = assertThrows(NoSuchElementException.class, () ->
                 coachService.replaceClientListByIdAndEmail(1L, email, idsOfClients));
         assertEquals(emailMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(coachRepository, times(1)).findByEmail(email);
         verifyNoMoreInteractions(coachRepository);
     }
@@ -286,27 +303,27 @@ public class CoachServicePATCHUnitTest {
         List<Long> idsOfClients = new ArrayList<>();
         for(MemberEntity member : clients) idsOfClients.add(member.getId());
 
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(coachEntity2);
 
         var exception = assertThrows(IllegalStateException.class, () -> coachService.replaceClientListByIdAndEmail(1L, email, idsOfClients));
         assertEquals(notSameCoachMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1l);
+        verify(coachRepository, times(1)).findWithClientsById(1l);
         verify(coachRepository, times(1)).findByEmail(email);
         verify(memberRepository, never()).saveAll(any());
     }
 
     @Test
     void replaceClientListByIdAndEmail_ThrowsException_WhenUpdatedClientsDontExist() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(coachEntity1);
         when(memberRepository.findById(15L)).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> coachService.replaceClientListByIdAndEmail(1L, email, List.of(15L)));
         assertEquals("Member with an id of: " + 15L + " doesnt exist", exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1l);
+        verify(coachRepository, times(1)).findWithClientsById(1l);
         verify(coachRepository, times(1)).findByEmail(email);
         verify(memberRepository, times(1)).findById(15L);
         verify(memberRepository, never()).saveAll(any());
@@ -468,27 +485,27 @@ public class CoachServicePATCHUnitTest {
 
     @Test
     void updateRoleOfACoach_ThrowsException_WhenIdDoesntExist() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.empty());
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class,
                 () -> coachService.updateRoleOfACoach(1L, email, "ROLE_WORKER"));
         assertEquals(idMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verifyNoMoreInteractions(coachRepository);
         verifyNoInteractions(memberRepository, workerRepository, coachMapperimpl);
     }
 
     @Test
     void updateRoleOfACoach_ThrowsException_WhenEmailDoesntExist() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(null);
 
         var exception = assertThrows(NoSuchElementException.class,
                 () -> coachService.updateRoleOfACoach(1L, email, "ROLE_WORKER"));
         assertEquals(emailMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(coachRepository, times(1)).findByEmail(email);
         verifyNoMoreInteractions(coachRepository);
         verifyNoInteractions(memberRepository, workerRepository, coachMapperimpl);
@@ -496,14 +513,14 @@ public class CoachServicePATCHUnitTest {
 
     @Test
     void updateRoleOfACoach_ThrowsException_WhenNameAndEmailDontBelongToSameCoach() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(coachEntity2);
 
         var exception = assertThrows(IllegalStateException.class,
                 () -> coachService.updateRoleOfACoach(1L, email, "ROLE_WORKER"));
         assertEquals(notSameCoachMessage, exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(coachRepository, times(1)).findByEmail(email);
         verifyNoMoreInteractions(coachRepository);
         verifyNoInteractions(memberRepository, workerRepository, coachMapperimpl);
@@ -511,14 +528,14 @@ public class CoachServicePATCHUnitTest {
 
     @Test
     void updateRoleOfACoach_ThrowsException_WhenNewRoleEqualToCoach() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(coachEntity1);
 
         var exception = assertThrows(IllegalArgumentException.class,
                 () -> coachService.updateRoleOfACoach(1L, email, "ROLE_COACH"));
         assertEquals("Coach: " + name + " already has a role of ROLE_COACH", exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(coachRepository, times(1)).findByEmail(email);
         verifyNoMoreInteractions(coachRepository);
         verifyNoInteractions(memberRepository, workerRepository, coachMapperimpl);
@@ -526,14 +543,14 @@ public class CoachServicePATCHUnitTest {
 
     @Test
     void updateRoleOfACoach_ThrowsException_WhenNewRoleIsInvalid() {
-        when(coachRepository.findById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
+        when(coachRepository.findWithClientsById(1L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findByEmail(email)).thenReturn(coachEntity1);
 
         var exception = assertThrows(IllegalStateException.class,
                 () -> coachService.updateRoleOfACoach(1L, email, "ROLE_FAKE"));
         assertEquals("Role must be either ROLE_COACH, ROLE_WORKER, or ROLE_MEMBER", exception.getMessage());
 
-        verify(coachRepository, times(1)).findById(1L);
+        verify(coachRepository, times(1)).findWithClientsById(1L);
         verify(coachRepository, times(1)).findByEmail(email);
         verifyNoMoreInteractions(coachRepository);
         verifyNoInteractions(memberRepository, workerRepository, coachMapperimpl);
@@ -553,6 +570,8 @@ public class CoachServicePATCHUnitTest {
         verify(coachRepository, times(1)).findByEmail(email);
         verify(coachRepository, times(1)).findByCoachCode(coachEntity1.getCoachCode());
         verify(coachRepository, times(1)).save(any());
+        verify(credentialCache, times(1)).invalidateCoach(1L, oldCode, coachEntity2.getCoachCode());
+        assertEquals(1, coachEntity1.getKeyVersion());
     }
 
     @Test
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
 import practice.spring_gym_api.dto.CoachMapper;
 import practice.spring_gym_api.dto.request.CoachRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
@@ -16,12 +18,15 @@ import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.service.impl.CoachServiceimpl;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.invalidTestData.InvalidCoachEntity;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.service.count.RowCountCache;
 
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,9 +38,18 @@ public class CoachServicePOSTUnitTest {
     @Mock
     CoachRepository coachRepository;
 
+    @Mock
+    CredentialCache credentialCache;
+
     @Mock
     CoachMapper coachMapper;
 
+    @Mock
+    RowCountCache rowCountCache;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     private CoachEntity coachEntity1;
     private CoachEntity coachEntity2;
     private CoachRequestDTO coachRequestDTO1;
@@ -98,6 +112,7 @@ public class CoachServicePOSTUnitTest {
 
         // Assert
         verify(coachRepository, times(1)).save(fakeCoachEntity);
+        verify(rowCountCache, times(1)).added(RowCountCache.Table.COACHES, 1);
     }
 
     @Test
@@ -117,31 +132,56 @@ public class CoachServicePOSTUnitTest {
     @Test
     void registerNewCoaches_SavesCoaches_WhenEmailDoesntAlreadyExist() {
         // Arrange
-        when(coachRepository.existsByEmail(coachRequestDTO1.getEmail())).thenReturn(false);
-        when(coachRepository.existsByEmail(coachRequestDTO2.getEmail())).thenReturn(false);
+        when(coachRepository.findEmailsIn(List.of(coachRequestDTO1.getEmail(), coachRequestDTO2.getEmail()))).thenReturn(List.of());
         when(coachMapper.convertToCoachEntity(coachRequestDTO1)).thenReturn(coachEntity1);
         when(coachMapper.convertToCoachEntity(coachRequestDTO2)).thenReturn(coachEntity2);
 
         // Act
-        coachService.registerNewCoaches(coachRequestDTOList);
+        BatchRegistrationResult result = coachService.registerNewCoaches(coachRequestDTOList);
 
         // Assert
-        verify(coachRepository, times(1)).existsByEmail(coachRequestDTO1.getEmail());
-        verify(coachRepository, times(1)).existsByEmail(coachRequestDTO2.getEmail());
+        assertEquals(2, result.getRegistered());
+        assertTrue(result.getRejected().isEmpty());
+        verify(coachRepository, times(1)).findEmailsIn(List.of(coachRequestDTO1.getEmail(), coachRequestDTO2.getEmail()));
         verify(coachRepository, times(1)).saveAll(coachEntityList);
+        verifyNoMoreInteractions(coachRepository);
     }
 
     @Test
-    void registerNewCoaches_ThrowsException_WhenAnEmailAlreadyExist() {
+    void registerNewCoaches_ReportsRejectedRow_WhenAnEmailAlreadyExist() {
         // Arrange
-        when(coachRepository.existsByEmail(coachRequestDTO1.getEmail())).thenReturn(true);
+        when(coachRepository.findEmailsIn(List.of(coachRequestDTO1.getEmail(), coachRequestDTO2.getEmail()))).thenReturn(List.of(coachRequestDTO1.getEmail()));
+        when(coachMapper.convertToCoachEntity(coachRequestDTO2)).thenReturn(coachEntity2);
 
         // Act
-        var exception = assertThrows(IllegalArgumentException.class, () -> coachService.registerNewCoaches(coachRequestDTOList));
-        assertEquals("Coach with an email of: " + coachRequestDTO1.getEmail() + " already exists", exception.getMessage());
+        BatchRegistrationResult result = coachService.registerNewCoaches(coachRequestDTOList);
 
         // Assert
-        verify(coachRepository, times(1)).existsByEmail(coachRequestDTO1.getEmail());
-        verify(coachRepository, never()).save(any());
+        assertEquals(1, result.getRegistered());
+        assertEquals(1, result.getRejected().size());
+        assertEquals(0, result.getRejected().get(0).getIndex());
+        assertEquals("Coach with an email of: " + coachRequestDTO1.getEmail() + " already exists", result.getRejected().get(0).getReason());
+        verify(coachRepository, times(1)).saveAll(List.of(coachEntity2));
+        verify(coachRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void registerNewCoaches_ReportsRejectedRow_WhenCoachCodeIsntThePlaceholder() {
+        // Arrange
+        CoachRequestDTO coachWithCode = new CoachRequestDTO(
+                fakeCoachRequestDTO.getName(), fakeCoachRequestDTO.getEmail(), fakeCoachRequestDTO.getDateOfBirth(),
+                Roles.ROLE_COACH, fakeCoachRequestDTO.getWorkoutPlans(), "PEM-990X-YTR8"
+        );
+        when(coachRepository.findEmailsIn(List.of(coachRequestDTO1.getEmail(), coachWithCode.getEmail()))).thenReturn(List.of());
+        when(coachMapper.convertToCoachEntity(coachRequestDTO1)).thenReturn(coachEntity1);
+
+        // Act
+        BatchRegistrationResult result = coachService.registerNewCoaches(List.of(coachRequestDTO1, coachWithCode));
+
+        // Assert
+        assertEquals(1, result.getRegistered());
+        assertEquals(1, result.getRejected().get(0).getIndex());
+        assertEquals("Initial coach code must be: 'Placeholder coach code'", result.getRejected().get(0).getReason());
+        verify(coachRepository, times(1)).saveAll(List.of(coachEntity1));
     }
 }
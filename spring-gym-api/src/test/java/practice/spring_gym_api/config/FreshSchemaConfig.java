@@ -0,0 +1,27 @@
+package practice.spring_gym_api.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Every test application context starts from an empty, freshly migrated schema,
+ * the way it did when Hibernate recreated the schema with create-drop.
+ * Picked up by component scanning, so it only applies to tests that load the full context.
+ */
+@Configuration
+public class FreshSchemaConfig {
+
+    @Bean
+    FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .cleanDisabled(false)
+                    .load()
+                    .clean();
+            flyway.migrate();
+        };
+    }
+}
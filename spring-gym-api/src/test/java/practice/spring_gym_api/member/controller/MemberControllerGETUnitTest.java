@@ -1,23 +1,30 @@
 package practice.spring_gym_api.member.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import practice.spring_gym_api.controller.MemberController;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.LeaderboardEntry;
+import practice.spring_gym_api.dto.LeaderboardStandingDTO;
 import practice.spring_gym_api.dto.MemberDTO;
 import practice.spring_gym_api.dto.MemberMapper;
+import practice.spring_gym_api.dto.TotalCount;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
-import practice.spring_gym_api.security.filter.CoachAuthFilter;
-import practice.spring_gym_api.security.filter.ValidRequestFilter;
-import practice.spring_gym_api.security.filter.WorkerAuthFilter;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.entity.enums.MemberSort;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
 import practice.spring_gym_api.service.MemberService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
 import practice.spring_gym_api.testdata.dto.MemberDTOTestData;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import org.junit.jupiter.api.Test;
@@ -25,17 +32,19 @@ import org.junit.jupiter.api.TestInstance;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
 
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @WebMvcTest(controllers = MemberController.class, excludeFilters = {
         @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
-                CoachAuthFilter.class,
-                ValidRequestFilter.class,
-                WorkerAuthFilter.class
+                RequestAuthFilter.class
         })
 })
 @AutoConfigureMockMvc
@@ -51,6 +60,12 @@ public class MemberControllerGETUnitTest {
     @MockitoBean("memberMapperimpl")
     private MemberMapper memberMapper;
 
+    @MockitoBean
+    private SerializedResponseCache responseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private MemberEntity memberEntity1;
     private MemberEntity memberEntity2;
     private MemberDTO memberDTO1;
@@ -63,6 +78,9 @@ public class MemberControllerGETUnitTest {
 
     @BeforeEach
     void setup() {
+        // Every body is built afresh, as if the cache always missed
+        when(responseCache.get(any(), any(), any(), any())).thenAnswer(invocation ->
+                objectMapper.writeValueAsBytes(invocation.<Supplier<?>>getArgument(3).get()));
         memberEntity1 = MemberTestData.createSeedMember1();
         memberEntity2 = MemberTestData.createSeedMember2();
         memberDTO1 = MemberDTOTestData.createdSeedMemberDTO1();
@@ -94,6 +112,67 @@ public class MemberControllerGETUnitTest {
         verify(memberMapper, times(1)).convertToMemberDTO(memberEntity1);
     }
 
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getMemberById_SendsTheMembersVersionAsETag_WhenClientHasAnOlderCopy() throws Exception {
+        when(memberService.getMembersVersion()).thenReturn("run-20000-6");
+        when(memberService.getMemberById(1L)).thenReturn(memberEntity1);
+        when(memberMapper.convertToMemberDTO(memberEntity1)).thenReturn(memberDTO1);
+
+        mvc.perform(get("/api/v1/gym-api/members/" + 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"run-20000-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"run-20000-6\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.name").value(memberEntity1.getName()));
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getMemberById_ReturnsNotModifiedWithoutLoadingTheMember_WhenETagMatches() throws Exception {
+        when(memberService.getMembersVersion()).thenReturn("run-20000-6");
+        when(memberService.existsById(1L)).thenReturn(true);
+
+        mvc.perform(get("/api/v1/gym-api/members/" + 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"run-20000-5\", W/\"run-20000-6\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"run-20000-6\""))
+                .andExpect(content().string(""));
+
+        verify(memberService, never()).getMemberById(any());
+        verifyNoInteractions(memberMapper);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getMemberById_ReturnsNotModified_WhenAnyTagIsAskedForAndTheMemberExists() throws Exception {
+        when(memberService.getMembersVersion()).thenReturn("run-20000-6");
+        when(memberService.existsById(1L)).thenReturn(true);
+
+        mvc.perform(get("/api/v1/gym-api/members/" + 1L).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+
+        verify(memberService, never()).getMemberById(any());
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getMemberById_ReturnsNotFoundInsteadOfNotModified_WhenMemberDoesntExist() throws Exception {
+        when(memberService.getMembersVersion()).thenReturn("run-20000-6");
+        when(memberService.existsById(999999L)).thenReturn(false);
+        when(memberService.getMemberById(999999L)).thenThrow(new NoSuchElementException("Member with an id of: 999999 doesnt exist"));
+
+        // The collection's current tag, or one taken from another member, matches every id
+        for(String ifNoneMatch : List.of("*", "\"run-20000-6\"")) {
+            mvc.perform(get("/api/v1/gym-api/members/" + 999999L).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Member with an id of: 999999 doesnt exist"));
+        }
+
+        verify(memberService, times(2)).existsById(999999L);
+        verifyNoInteractions(memberMapper);
+    }
+
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getMemberWithHighestBench_ReturnsMemberWithHighestBench_WhenMembersAreAvaliable() throws Exception {
@@ -173,17 +252,15 @@ public class MemberControllerGETUnitTest {
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getAllMembersWithAGreaterTotalThan_ReturnsMembersWithAGreaterTotalThanX_WhenMembersAreAvaliable() throws Exception {
-        when(memberService.getAllMembersAboveATotal(1000)).thenReturn(List.of(memberEntity1, memberEntity2));
-        when(memberMapper.convertToMemberDTO(memberEntity1)).thenReturn(memberDTO1);
-        when(memberMapper.convertToMemberDTO(memberEntity2)).thenReturn(memberDTO2);
+        when(memberService.getAllMembersAboveATotal(1000)).thenReturn(List.of(memberDTO1, memberDTO2));
 
         mvc.perform(get("/api/v1/gym-api/members/above/total/" + 1000))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value(memberEntity1.getName()))
-                .andExpect(jsonPath("[0].age").value(memberEntity1.getAge()))
+                .andExpect(jsonPath("[0].age").value(memberDTO1.getAge()))
                 .andExpect(jsonPath("$[1].name").value(memberEntity2.getName()))
-                .andExpect(jsonPath("[1].age").value(memberEntity2.getAge()))
+                .andExpect(jsonPath("[1].age").value(memberDTO2.getAge()))
 
                 .andExpect(jsonPath("$[0].id").doesNotHaveJsonPath())
                 .andExpect(jsonPath("$[0].email").doesNotHaveJsonPath())
@@ -191,32 +268,162 @@ public class MemberControllerGETUnitTest {
                 .andExpect(jsonPath("$[1].email").doesNotHaveJsonPath());
 
         verify(memberService, times(1)).getAllMembersAboveATotal(1000);
-        verify(memberMapper, times(1)).convertToMemberDTO(memberEntity1);
-        verify(memberMapper, times(1)).convertToMemberDTO(memberEntity2);
+        verifyNoInteractions(memberMapper);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllMembers_ReturnsCursorPageOfMembers_WhenSortIsValid() throws Exception {
+        String cursor = CursorPage.encodeCursor("MEMBERSHIP_DATE", memberEntity2.getMembershipDate(), 2L);
+        when(memberService.getAllMembers(null, 2, MemberSort.MEMBERSHIP_DATE)).thenReturn(new CursorPage<>(List.of(memberDTO1, memberDTO2), cursor));
+
+        mvc.perform(get("/api/v1/gym-api/members")
+                        .param("limit", "2")
+                        .param("sort", "membership_date"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value(memberDTO1.getName()))
+                .andExpect(jsonPath("$.items[1].name").value(memberDTO2.getName()))
+                .andExpect(jsonPath("$.items[0].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.nextCursor").value(cursor))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(memberService, times(1)).getAllMembers(null, 2, MemberSort.MEMBERSHIP_DATE);
+        verifyNoInteractions(memberMapper);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllMembers_ReturnsBadRequest_WhenSortIsUnknown() throws Exception {
+        mvc.perform(get("/api/v1/gym-api/members")
+                        .param("sort", "squat"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(memberService);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllMembers_SendsTotalCountHeaders_WhenCountIsRequested() throws Exception {
+        when(memberService.getAllMembers(null, 20, MemberSort.ID)).thenReturn(new CursorPage<>(List.of(memberDTO1, memberDTO2), null));
+        when(memberService.countMembers(true)).thenReturn(new TotalCount(2, true));
+
+        mvc.perform(get("/api/v1/gym-api/members")
+                        .param("count", "exact"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(header().string("X-Total-Count-Type", "exact"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(memberService, times(1)).countMembers(true);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllMembers_DoesntCount_WhenCountIsLeftOut() throws Exception {
+        when(memberService.getAllMembers(null, 20, MemberSort.ID)).thenReturn(new CursorPage<>(List.of(memberDTO1), null));
+
+        mvc.perform(get("/api/v1/gym-api/members"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"));
+
+        verify(memberService, never()).countMembers(anyBoolean());
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getAllMembers_ReturnsBadRequest_WhenCountIsUnknown() throws Exception {
+        mvc.perform(get("/api/v1/gym-api/members")
+                        .param("count", "roughly"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(memberService);
     }
 
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getAllAvaliableMembers_ReturnsAllMembersWithoutACoach_WhenThereAreAvaliableMembers() throws Exception {
-        when(memberService.getAllAvaliableMembers()).thenReturn(List.of(memberEntity1, memberEntity2));
-        when(memberMapper.convertToMemberDTO(memberEntity1)).thenReturn(memberDTO1);
-        when(memberMapper.convertToMemberDTO(memberEntity2)).thenReturn(memberDTO2);
+        when(memberService.getAllAvaliableMembers(null, 20)).thenReturn(new CursorPage<>(List.of(memberDTO1, memberDTO2), "Mg"));
 
         mvc.perform(get("/api/v1/gym-api/members/no-coach"))
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value(memberEntity1.getName()))
+                .andExpect(jsonPath("$.items[0].age").value(memberDTO1.getAge()))
+                .andExpect(jsonPath("$.items[1].name").value(memberEntity2.getName()))
+                .andExpect(jsonPath("$.items[1].age").value(memberDTO2.getAge()))
+
+                .andExpect(jsonPath("$.items[0].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[0].email").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[1].id").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.items[1].email").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$.nextCursor").value("Mg"));
+
+        verify(memberService, times(1)).getAllAvaliableMembers(null, 20);
+        verifyNoInteractions(memberMapper);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getLeaderboard_ReturnsRankedEntries_WhenLiftIsValid() throws Exception {
+        LeaderboardEntry entry = new LeaderboardEntry(memberEntity1.getName(), memberEntity1.getBench(), 1L);
+        when(memberService.getLeaderboard(Lifts.BENCH, 10, 0)).thenReturn(List.of(entry));
+
+        mvc.perform(get("/api/v1/gym-api/members/leaderboard/bench"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, public, stale-while-revalidate=30"))
                 .andExpect(jsonPath("$[0].name").value(memberEntity1.getName()))
-                .andExpect(jsonPath("[0].age").value(memberEntity1.getAge()))
-                .andExpect(jsonPath("$[1].name").value(memberEntity2.getName()))
-                .andExpect(jsonPath("[1].age").value(memberEntity2.getAge()))
+                .andExpect(jsonPath("$[0].score").value(memberEntity1.getBench()))
+                .andExpect(jsonPath("$[0].rank").value(1));
 
-                .andExpect(jsonPath("$[0].id").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[0].email").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[1].id").doesNotHaveJsonPath())
-                .andExpect(jsonPath("$[1].email").doesNotHaveJsonPath());
+        verify(memberService, times(1)).getLeaderboard(Lifts.BENCH, 10, 0);
+    }
 
-        verify(memberService, times(1)).getAllAvaliableMembers();
-        verify(memberMapper, times(1)).convertToMemberDTO(memberEntity1);
-        verify(memberMapper, times(1)).convertToMemberDTO(memberEntity2);
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getLeaderboard_ReturnsBadRequest_WhenLiftIsNotValid() throws Exception {
+        mvc.perform(get("/api/v1/gym-api/members/leaderboard/curl"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Lift must be either bench, squat, deadlift, or total"));
+
+        verifyNoInteractions(memberService);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getRankOfMember_ReturnsStanding_WhenLiftIsValid() throws Exception {
+        when(memberService.getRankOfMember(1L, Lifts.TOTAL)).thenReturn(new LeaderboardStandingDTO(Lifts.TOTAL, 945, 1, 5, 80.0));
+
+        mvc.perform(get("/api/v1/gym-api/members/1/rank/total"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lift").value("TOTAL"))
+                .andExpect(jsonPath("$.score").value(945))
+                .andExpect(jsonPath("$.rank").value(1))
+                .andExpect(jsonPath("$.totalMembers").value(5))
+                .andExpect(jsonPath("$.percentile").value(80.0));
+
+        verify(memberService, times(1)).getRankOfMember(1L, Lifts.TOTAL);
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getStandingOfScore_ReturnsStanding_WhenLiftIsValid() throws Exception {
+        when(memberService.getStandingOfScore(Lifts.BENCH, 210)).thenReturn(new LeaderboardStandingDTO(Lifts.BENCH, 210, 3, 5, 40.0));
+
+        mvc.perform(get("/api/v1/gym-api/members/leaderboard/bench/percentile")
+                        .param("score", "210"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(3))
+                .andExpect(jsonPath("$.percentile").value(40.0));
+
+        verify(memberService, times(1)).getStandingOfScore(Lifts.BENCH, 210);
     }
 }
@@ -1,14 +1,19 @@
 package practice.spring_gym_api.member.integration;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
+import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberImportResult;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
@@ -24,6 +29,9 @@ import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -132,6 +140,192 @@ public class MemberIntegrationTest {
        ));
     }
 
+    @Test
+    @Transactional
+    void registerNewMembers_SavesValidRowsAndReportsTheRest_WhenBatchHasDuplicates() throws Exception {
+        MemberRequestDTO newMember = new MemberRequestDTO(
+                fakeMember.getName(), fakeMember.getDateOfBirth(), fakeMember.getMembershipDate(), fakeMember.getEmail(),
+                Roles.ROLE_MEMBER, fakeMember.getBench(), fakeMember.getSquat(), fakeMember.getDeadlift(), fakeMember.getTotal()
+        );
+
+        String responseBody = mvc.perform(post("/api/v1/gym-api/members/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(fakeMemberRequestDTO, newMember, newMember)))
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andReturn().getResponse().getContentAsString();
+
+        BatchRegistrationResult result = objectMapper.readValue(responseBody, BatchRegistrationResult.class);
+        assertEquals(1, result.getRegistered());
+        assertEquals(List.of(0, 2), result.getRejected().stream().map(BatchRegistrationResult.RejectedRow::getIndex).toList());
+        assertTrue(memberRepository.existsByEmail(fakeMember.getEmail()));
+    }
+
+    @Test
+    @Transactional
+    void registerNewMembers_RejectsOnlyTheRowsWhoseEmailDiffersInCasing() throws Exception {
+        MemberRequestDTO seededInOtherCasing = new MemberRequestDTO(
+                fakeMember.getName(), fakeMember.getDateOfBirth(), fakeMember.getMembershipDate(), "JOHNDOE@gmail.com",
+                Roles.ROLE_MEMBER, fakeMember.getBench(), fakeMember.getSquat(), fakeMember.getDeadlift(), fakeMember.getTotal()
+        );
+        MemberRequestDTO newMember = new MemberRequestDTO(
+                fakeMember.getName(), fakeMember.getDateOfBirth(), fakeMember.getMembershipDate(), "casing@gmail.com",
+                Roles.ROLE_MEMBER, fakeMember.getBench(), fakeMember.getSquat(), fakeMember.getDeadlift(), fakeMember.getTotal()
+        );
+        MemberRequestDTO newMemberInOtherCasing = new MemberRequestDTO(
+                fakeMember.getName(), fakeMember.getDateOfBirth(), fakeMember.getMembershipDate(), "Casing@gmail.com",
+                Roles.ROLE_MEMBER, fakeMember.getBench(), fakeMember.getSquat(), fakeMember.getDeadlift(), fakeMember.getTotal()
+        );
+
+        String responseBody = mvc.perform(post("/api/v1/gym-api/members/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(seededInOtherCasing, newMember, newMemberInOtherCasing)))
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        BatchRegistrationResult result = objectMapper.readValue(responseBody, BatchRegistrationResult.class);
+        assertEquals(1, result.getRegistered());
+        assertEquals(List.of(0, 2), result.getRejected().stream().map(BatchRegistrationResult.RejectedRow::getIndex).toList());
+        assertNotNull(memberRepository.findMemberByEmail("casing@gmail.com"));
+    }
+
+    @Test
+    @Transactional
+    void importMembers_ImportsValidLinesAndReportsTheRest_WhenBodyIsNdjson() throws Exception {
+        String body = String.join("\n",
+                "{\"name\":\"Merab\",\"dateOfBirth\":\"2000-05-05\",\"membershipDate\":\"2023-10-25\",\"email\":\"example@gmail.com\",\"role\":\"ROLE_MEMBER\",\"bench\":100,\"squat\":200,\"deadlift\":300}",
+                objectMapper.writeValueAsString(fakeMemberRequestDTO),
+                "{\"name\":\"Merab\",\"dateOfBirth\":\"2000-05-05\",\"membershipDate\":\"2023-10-25\",\"email\":\"example@gmail.com\",\"role\":\"ROLE_MEMBER\",\"bench\":1,\"squat\":2,\"deadlift\":3}",
+                "{\"name\":\"Sean\",\"dateOfBirth\":\"2001-01-01\",\"membershipDate\":\"2024-01-01\",\"email\":\"sean@gmail.com\",\"role\":\"ROLE_MEMBER\",\"bench\":-5,\"squat\":200,\"deadlift\":300}",
+                "{not json",
+                "");
+
+        String responseBody = mvc.perform(post("/api/v1/gym-api/members/import")
+                        .with(csrf())
+                        .contentType("application/x-ndjson")
+                        .content(body)
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andReturn().getResponse().getContentAsString();
+
+        MemberImportResult result = objectMapper.readValue(responseBody, MemberImportResult.class);
+        assertEquals(1, result.getImported());
+        assertEquals(4, result.getRejectedCount());
+        Map<Integer, String> reasonsByLine = new HashMap<>();
+        result.getRejected().forEach(row -> reasonsByLine.put(row.getIndex(), row.getReason()));
+        assertEquals("Member with an email of: " + seedMemberEmail + " already exists", reasonsByLine.get(2));
+        assertEquals("Email appears more than once in this import", reasonsByLine.get(3));
+        assertEquals("Bench cannot be negative", reasonsByLine.get(4));
+        assertTrue(reasonsByLine.get(5).startsWith("Malformed row"));
+
+        MemberEntity imported = memberRepository.findMemberByEmail("example@gmail.com");
+        assertEquals(600, imported.getTotal());
+        assertEquals(Roles.ROLE_MEMBER, imported.getRole());
+    }
+
+    @Test
+    @Transactional
+    void importMembers_ImportsEveryRow_WhenBodyIsCsv() throws Exception {
+        String body = String.join("\n",
+                "email,name,dateOfBirth,membershipDate,role,bench,squat,deadlift",
+                "example@gmail.com,\"Merab \"\"The Machine\"\" Dvalishvili\",2000-05-05,2023-10-25,ROLE_MEMBER,100,200,300",
+                "sean@gmail.com,Sean,2001-01-01,2024-01-01,ROLE_MEMBER,150,250,350");
+
+        String responseBody = mvc.perform(post("/api/v1/gym-api/members/import")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content(body)
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andReturn().getResponse().getContentAsString();
+
+        MemberImportResult result = objectMapper.readValue(responseBody, MemberImportResult.class);
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getRejectedCount());
+        assertEquals("Merab \"The Machine\" Dvalishvili", memberRepository.findMemberByEmail("example@gmail.com").getName());
+        assertEquals(750, memberRepository.findMemberByEmail("sean@gmail.com").getTotal());
+    }
+
+    @Test
+    @Transactional
+    void importMembers_RejectsRowsWithAMissingLift() throws Exception {
+        String csv = String.join("\n",
+                "email,name,dateOfBirth,membershipDate,role,bench,squat,deadlift",
+                "example@gmail.com,Merab,2000-05-05,2023-10-25,ROLE_MEMBER,,200,300",
+                "sean@gmail.com,Sean,2001-01-01,2024-01-01,ROLE_MEMBER,150,250,350");
+        String ndjson = "{\"name\":\"Alex\",\"dateOfBirth\":\"2000-05-05\",\"membershipDate\":\"2023-10-25\",\"email\":\"alex@gmail.com\",\"role\":\"ROLE_MEMBER\",\"bench\":100,\"deadlift\":300}";
+
+        MemberImportResult csvResult = importMembers("text/csv", csv);
+        MemberImportResult ndjsonResult = importMembers("application/x-ndjson", ndjson);
+
+        assertEquals(1, csvResult.getImported());
+        assertEquals(1, csvResult.getRejectedCount());
+        assertEquals(2, csvResult.getRejected().get(0).getIndex());
+        assertEquals("Malformed row: bench is required", csvResult.getRejected().get(0).getReason());
+        assertEquals(0, ndjsonResult.getImported());
+        assertEquals("Malformed row: squat is required", ndjsonResult.getRejected().get(0).getReason());
+        assertNull(memberRepository.findMemberByEmail("example@gmail.com"));
+        assertNull(memberRepository.findMemberByEmail("alex@gmail.com"));
+    }
+
+    private MemberImportResult importMembers(String contentType, String body) throws Exception {
+        String responseBody = mvc.perform(post("/api/v1/gym-api/members/import")
+                        .with(csrf())
+                        .contentType(contentType)
+                        .content(body)
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(responseBody, MemberImportResult.class);
+    }
+
+    @Test
+    @Transactional
+    void exportMembers_StreamsOneJsonObjectPerMember_WhenFormatIsNdjson() throws Exception {
+        memberEntity1.setCoachedBy(coachEntity1);
+        memberRepository.saveAndFlush(memberEntity1);
+
+        String body = mvc.perform(get("/api/v1/gym-api/export/members"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(memberRepository.count(), lines.length);
+        Map<Long, Map<String, Object>> exportedById = new HashMap<>();
+        for(String line : lines) {
+            Map<String, Object> exported = objectMapper.readValue(line, new TypeReference<>() {});
+            exportedById.put(((Number) exported.get("id")).longValue(), exported);
+        }
+        Map<String, Object> exported = exportedById.get(seedMemberId);
+        assertEquals(memberEntity1.getName(), exported.get("name"));
+        assertEquals(memberEntity1.getTotal(), exported.get("total"));
+        assertEquals(coachId, ((Number) exported.get("coachId")).longValue());
+        assertFalse(exported.containsKey("email"));
+    }
+
+    @Test
+    void exportMembers_StartsWithAHeaderRow_WhenFormatIsCsv() throws Exception {
+        String body = mvc.perform(get("/api/v1/gym-api/export/members").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals("id,name,dateOfBirth,role,membershipDate,bench,squat,deadlift,total,coachId", lines[0]);
+        assertEquals(memberRepository.count() + 1, lines.length);
+    }
+
+    @Test
+    void exportMembers_ThrowsException_WhenFormatIsUnknown() throws Exception {
+        mvc.perform(get("/api/v1/gym-api/export/members").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void replaceCoach_SucessfullyReplacesCoach_WhenCredentialsAreValid() throws Exception {
@@ -163,6 +357,47 @@ public class MemberIntegrationTest {
         assertTrue(responseBody.contains("Coach with an id of: " + 20L + " doesnt exist"));
     }
 
+    @Test
+    @Transactional
+    void updateMultipleMembersName_SuccessfullyRenamesEveryMember_WhenPairsMatch() throws Exception {
+        Map<String, Object> request = Map.of(
+                "ids", List.of(memberEntity2.getId(), memberEntity1.getId()),
+                "names", List.of("Jane Renamed", "John Renamed"),
+                "emails", List.of(memberEntity2.getEmail(), memberEntity1.getEmail()));
+
+        mvc.perform(patch("/api/v1/gym-api/members/name")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("x-coach-id", coachId)
+                        .header("x-coach-code", coachCode))
+                .andExpect(status().isOk());
+
+        assertEquals("John Renamed", memberRepository.findById(memberEntity1.getId()).orElseThrow().getName());
+        assertEquals("Jane Renamed", memberRepository.findById(memberEntity2.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @Transactional
+    void updateMultipleMembersName_RenamesNobody_WhenAnIdAndEmailBelongToDifferentMembers() throws Exception {
+        Map<String, Object> request = Map.of(
+                "ids", List.of(memberEntity1.getId(), memberEntity2.getId()),
+                "names", List.of("John Renamed", "Jane Renamed"),
+                "emails", List.of(memberEntity1.getEmail(), memberEntity3.getEmail()));
+
+        String responseBody = mvc.perform(patch("/api/v1/gym-api/members/name")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("x-coach-id", coachId)
+                        .header("x-coach-code", coachCode))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(responseBody.contains("Provided ID and email do not belong to the same member"));
+        assertEquals(memberEntity1.getName(), memberRepository.findById(memberEntity1.getId()).orElseThrow().getName());
+    }
+
     @Test
     @Transactional
     void updateRole_SuccessfullyUpdatesMemberToCoach_WhenCredentialsAreValid() throws Exception {
@@ -220,11 +455,13 @@ public class MemberIntegrationTest {
     @Test
     @Transactional
     void deleteMembersBelowATotal_SuccessfullyDeletesMembers_WhenTotalIsntNegative() throws Exception {
-        mvc.perform(delete("/api/v1/gym-api/members/below/total/10000")
+        String responseBody = mvc.perform(delete("/api/v1/gym-api/members/below/total/10000")
                 .with(csrf())
                 .header("x-worker-id", workerId)
-                .header("x-worker-code", workerCode));
+                .header("x-worker-code", workerCode))
+                .andReturn().getResponse().getContentAsString();
 
+        assertEquals("5", responseBody);
         assertFalse(memberRepository.existsByEmail(memberEntity1.getEmail()));
         assertFalse(memberRepository.existsByEmail(memberEntity2.getEmail()));
     }
@@ -243,4 +480,188 @@ public class MemberIntegrationTest {
         assertTrue(memberRepository.existsByEmail(memberEntity1.getEmail()));
         assertTrue(memberRepository.existsByEmail(memberEntity2.getEmail()));
     }
+
+    @Test
+    void getLeaderboard_ReturnsDenseRanks_WhenMembersShareAScore() throws Exception {
+        String responseBody = mvc.perform(get("/api/v1/gym-api/members/leaderboard/bench")
+                        .param("limit", "3"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<Map<String, Object>> entries = objectMapper.readValue(responseBody, new TypeReference<>() {});
+        assertEquals(3, entries.size());
+
+        // John Doe and David Lee both bench 225, so they share first place
+        assertEquals(memberEntity1.getName(), entries.get(0).get("name"));
+        assertEquals(1, entries.get(0).get("rank"));
+        assertEquals(memberEntity3.getName(), entries.get(1).get("name"));
+        assertEquals(1, entries.get(1).get("rank"));
+        assertEquals(memberEntity5.getName(), entries.get(2).get("name"));
+        assertEquals(2, entries.get(2).get("rank"));
+        assertEquals(memberEntity5.getBench(), entries.get(2).get("score"));
+    }
+
+    @Test
+    void getMemberWithHighestBench_IsNeverStale_AfterAnSBDUpdateReturns() throws Exception {
+        String before = mvc.perform(get("/api/v1/gym-api/members/highest/bench"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(memberEntity1.getName(), objectMapper.readValue(before, MemberDTO.class).getName());
+
+        try {
+            updateSBD(memberEntity2, 1000, memberEntity2.getSquat(), memberEntity2.getDeadlift());
+
+            String after = mvc.perform(get("/api/v1/gym-api/members/highest/bench"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals(memberEntity2.getName(), objectMapper.readValue(after, MemberDTO.class).getName());
+        } finally {
+            updateSBD(memberEntity2, memberEntity2.getBench(), memberEntity2.getSquat(), memberEntity2.getDeadlift());
+        }
+
+        String restored = mvc.perform(get("/api/v1/gym-api/members/highest/bench"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(memberEntity1.getName(), objectMapper.readValue(restored, MemberDTO.class).getName());
+    }
+
+    @Test
+    void getMemberById_AnswersWithNotModified_UntilAMemberWriteCommits() throws Exception {
+        String memberUri = "/api/v1/gym-api/members/" + memberEntity1.getId();
+        String eTag = mvc.perform(get(memberUri))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mvc.perform(get(memberUri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/v1/gym-api/members/leaderboard/bench").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5, public, stale-while-revalidate=30"));
+
+        try {
+            updateSBD(memberEntity2, memberEntity2.getBench() + 5, memberEntity2.getSquat(), memberEntity2.getDeadlift());
+
+            String newETag = mvc.perform(get(memberUri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotEquals(eTag, newETag);
+        } finally {
+            updateSBD(memberEntity2, memberEntity2.getBench(), memberEntity2.getSquat(), memberEntity2.getDeadlift());
+        }
+    }
+
+    @Test
+    void getRankOfMember_ReturnsRankFromLeaderboardEngine() throws Exception {
+        String responseBody = mvc.perform(get("/api/v1/gym-api/members/" + memberEntity5.getId() + "/rank/bench"))
+                .andReturn().getResponse().getContentAsString();
+
+        Map<String, Object> standing = objectMapper.readValue(responseBody, new TypeReference<>() {});
+
+        // Only the two 225 benches are ahead of Carlos' 200
+        assertEquals(memberEntity5.getBench(), standing.get("score"));
+        assertEquals(2, standing.get("rank"));
+        assertEquals(40.0, standing.get("percentile"));
+    }
+
+    @Test
+    @Transactional
+    void getAllAvaliableMembers_PagesThroughMembersWithoutACoach() throws Exception {
+        for(MemberEntity memberEntity : List.of(memberEntity1, memberEntity2, memberEntity3)) {
+            memberEntity.setCoachedBy(null);
+            memberRepository.save(memberEntity);
+        }
+
+        String firstPageBody = mvc.perform(get("/api/v1/gym-api/members/no-coach")
+                        .param("limit", "2"))
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Object> firstPage = objectMapper.readValue(firstPageBody, new TypeReference<>() {});
+        assertEquals(2, ((List<?>) firstPage.get("items")).size());
+        assertNotNull(firstPage.get("nextCursor"));
+
+        String lastPageBody = mvc.perform(get("/api/v1/gym-api/members/no-coach")
+                        .param("limit", "2")
+                        .param("cursor", (String) firstPage.get("nextCursor")))
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Object> lastPage = objectMapper.readValue(lastPageBody, new TypeReference<>() {});
+        assertEquals(1, ((List<?>) lastPage.get("items")).size());
+        assertNull(lastPage.get("nextCursor"));
+    }
+
+    @Test
+    void getAllMembers_PagesThroughEveryMemberInSortOrder_WhenSortedByTotal() throws Exception {
+        List<String> expectedNames = memberRepository.findAll().stream()
+                .sorted(Comparator.comparingInt(MemberEntity::getTotal).reversed().thenComparing(MemberEntity::getId))
+                .map(MemberEntity::getName)
+                .toList();
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/v1/gym-api/members").param("limit", "2").param("sort", "total");
+            if(cursor != null) request.param("cursor", cursor);
+            String body = mvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            Map<String, Object> page = objectMapper.readValue(body, new TypeReference<>() {});
+
+            for(Object item : (List<?>) page.get("items")) names.add((String) ((Map<?, ?>) item).get("name"));
+            cursor = (String) page.get("nextCursor");
+            assertEquals(cursor != null, page.get("hasNext"));
+        } while (cursor != null);
+
+        assertEquals(expectedNames, names);
+    }
+
+    @Test
+    void getAllMembers_SendsTheExactTotalCount_AsMembersAreAddedAndDeleted() throws Exception {
+        long members = memberRepository.count();
+        assertEquals(String.valueOf(members), totalCount());
+
+        MemberRequestDTO firstMember = new MemberRequestDTO(
+                fakeMember.getName(), fakeMember.getDateOfBirth(), fakeMember.getMembershipDate(), "countedOne@gmail.com",
+                Roles.ROLE_MEMBER, fakeMember.getBench(), fakeMember.getSquat(), fakeMember.getDeadlift(), fakeMember.getTotal()
+        );
+        MemberRequestDTO secondMember = new MemberRequestDTO(
+                fakeMember.getName(), fakeMember.getDateOfBirth(), fakeMember.getMembershipDate(), "countedTwo@gmail.com",
+                Roles.ROLE_MEMBER, fakeMember.getBench(), fakeMember.getSquat(), fakeMember.getDeadlift(), fakeMember.getTotal()
+        );
+        mvc.perform(post("/api/v1/gym-api/members/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(firstMember, secondMember)))
+                        .header("x-worker-id", workerId)
+                        .header("x-worker-code", workerCode))
+                .andExpect(status().isOk());
+        assertEquals(String.valueOf(members + 2), totalCount());
+
+        for(String email : List.of("countedOne@gmail.com", "countedTwo@gmail.com")) {
+            mvc.perform(delete("/api/v1/gym-api/members/" + memberRepository.findMemberByEmail(email).getId())
+                            .with(csrf())
+                            .header("x-worker-id", workerId)
+                            .header("x-worker-code", workerCode))
+                    .andExpect(status().isOk());
+        }
+        assertEquals(String.valueOf(members), totalCount());
+    }
+
+    private void updateSBD(MemberEntity memberEntity, int bench, int squat, int deadlift) throws Exception {
+        mvc.perform(patch("/api/v1/gym-api/members/" + memberEntity.getId() + "/sbd")
+                        .with(csrf())
+                        .param("email", memberEntity.getEmail())
+                        .param("bench", String.valueOf(bench))
+                        .param("squat", String.valueOf(squat))
+                        .param("deadlift", String.valueOf(deadlift))
+                        .header("x-coach-id", coachId)
+                        .header("x-coach-code", coachCode))
+                .andExpect(status().isOk());
+    }
+
+    private String totalCount() throws Exception {
+        var response = mvc.perform(get("/api/v1/gym-api/members").param("limit", "1").param("count", "exact"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("exact", response.getHeader("X-Total-Count-Type"));
+        return response.getHeader("X-Total-Count");
+    }
 }
@@ -0,0 +1,249 @@
+package practice.spring_gym_api.member.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import practice.spring_gym_api.dto.MemberLifts;
+import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.repository.MemberRepository;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LeaderboardEngineUnitTest {
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    private LeaderboardEngine leaderboardEngine;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardEngine = new LeaderboardEngine(memberRepository);
+        // Same lifts as the seeded members: John and David share a bench of 225
+        when(memberRepository.findAllProjectedBy()).thenReturn(List.of(
+                lifts(1L, 225, 315, 405),
+                lifts(2L, 135, 185, 225),
+                lifts(3L, 225, 275, 365),
+                lifts(4L, 115, 155, 205),
+                lifts(5L, 200, 300, 400)
+        ));
+        leaderboardEngine.rebuild();
+    }
+
+    @Test
+    void rebuild_LoadsEveryMemberFromTheRepository() {
+        assertEquals(5, leaderboardEngine.size());
+        verify(memberRepository, times(1)).findAllProjectedBy();
+    }
+
+    @Test
+    void top_ReturnsHighestScoresWithDenseRanks() {
+        List<LeaderboardEngine.RankedMember> top = leaderboardEngine.top(Lifts.BENCH, 3, 0);
+
+        assertThat(top).containsExactly(
+                new LeaderboardEngine.RankedMember(1L, "Member 1", 225, 1),
+                new LeaderboardEngine.RankedMember(3L, "Member 3", 225, 1),
+                new LeaderboardEngine.RankedMember(5L, "Member 5", 200, 2)
+        );
+    }
+
+    @Test
+    void top_ReturnsEveryMember_WhenLimitIsLargerThanTheLeaderboard() {
+        List<LeaderboardEngine.RankedMember> top = leaderboardEngine.top(Lifts.TOTAL, 10, 0);
+
+        // Totals are 945, 545, 865, 475, 900
+        assertThat(top).extracting(LeaderboardEngine.RankedMember::memberId).containsExactly(1L, 5L, 3L, 2L, 4L);
+        assertThat(top).extracting(LeaderboardEngine.RankedMember::rank).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(leaderboardEngine.top(Lifts.TOTAL, Integer.MAX_VALUE, 0)).hasSize(5);
+    }
+
+    @Test
+    void top_KeepsDenseRanks_WhenThePageStartsPartWayThroughATie() {
+        assertThat(leaderboardEngine.top(Lifts.BENCH, 2, 1)).containsExactly(
+                new LeaderboardEngine.RankedMember(3L, "Member 3", 225, 1),
+                new LeaderboardEngine.RankedMember(5L, "Member 5", 200, 2)
+        );
+        assertThat(leaderboardEngine.top(Lifts.BENCH, 5, 3)).containsExactly(
+                new LeaderboardEngine.RankedMember(2L, "Member 2", 135, 3),
+                new LeaderboardEngine.RankedMember(4L, "Member 4", 115, 4)
+        );
+        assertThat(leaderboardEngine.top(Lifts.BENCH, 5, 5)).isEmpty();
+    }
+
+    @Test
+    void top_MatchesASortedCopy_ForEveryPage() {
+        List<MemberLifts> members = new ArrayList<>();
+        for(long id = 1; id <= 2_000; id++) members.add(lifts(id, (int) (id * 7919 % 97), 0, 0));
+        when(memberRepository.findAllProjectedBy()).thenReturn(members);
+        leaderboardEngine.rebuild();
+
+        List<MemberLifts> sorted = new ArrayList<>(members);
+        sorted.sort(Comparator.comparingInt(MemberLifts::getBench).reversed().thenComparing(MemberLifts::getId));
+        List<LeaderboardEngine.RankedMember> expected = new ArrayList<>();
+        long rank = 0;
+        for(int i = 0; i < sorted.size(); i++) {
+            MemberLifts member = sorted.get(i);
+            if(i == 0 || sorted.get(i - 1).getBench() != member.getBench()) rank++;
+            expected.add(new LeaderboardEngine.RankedMember(member.getId(), member.getName(), member.getBench(), rank));
+        }
+
+        for(int offset = 0; offset < expected.size(); offset += 37) {
+            assertEquals(expected.subList(offset, Math.min(offset + 25, expected.size())),
+                    leaderboardEngine.top(Lifts.BENCH, 25, offset), "Page at offset " + offset);
+        }
+    }
+
+    @Test
+    void renameAll_ChangesTheNamesShown_WithoutMovingAnyone() {
+        leaderboardEngine.renameAll(List.of(5L, 99L), List.of("Alex Smith", "Nobody"));
+
+        assertEquals(new LeaderboardEngine.RankedMember(5L, "Alex Smith", 200, 2), leaderboardEngine.top(Lifts.BENCH, 1, 2).get(0));
+        assertEquals(5, leaderboardEngine.size());
+        assertTrue(leaderboardEngine.standingOf(99L, Lifts.BENCH).isEmpty());
+    }
+
+    @Test
+    void standingOf_GivesTiedScoresTheSameDenseRank() {
+        assertEquals(1, leaderboardEngine.standingOf(1L, Lifts.BENCH).orElseThrow().rank());
+        assertEquals(1, leaderboardEngine.standingOf(3L, Lifts.BENCH).orElseThrow().rank());
+        assertEquals(2, leaderboardEngine.standingOf(5L, Lifts.BENCH).orElseThrow().rank());
+        assertEquals(4, leaderboardEngine.standingOf(4L, Lifts.BENCH).orElseThrow().rank());
+    }
+
+    @Test
+    void rebuild_KeepsWritesAppliedWhileItWasLoading() {
+        MemberEntity memberEntity = member(4L, 300, 400, 500);
+        // The load reads the members from before these writes, which land while it's still running
+        when(memberRepository.findAllProjectedBy()).thenAnswer(invocation -> {
+            leaderboardEngine.upsert(memberEntity);
+            leaderboardEngine.remove(1L);
+            leaderboardEngine.upsert(member(6L, 100, 100, 100));
+            return List.of(
+                    lifts(1L, 225, 315, 405),
+                    lifts(2L, 135, 185, 225),
+                    lifts(3L, 225, 275, 365),
+                    lifts(4L, 115, 155, 205),
+                    lifts(5L, 200, 300, 400)
+            );
+        });
+
+        leaderboardEngine.rebuild();
+
+        assertEquals(5, leaderboardEngine.size());
+        assertEquals(1200, leaderboardEngine.standingOf(4L, Lifts.TOTAL).orElseThrow().score());
+        assertEquals(1, leaderboardEngine.standingOf(4L, Lifts.TOTAL).orElseThrow().rank());
+        assertTrue(leaderboardEngine.standingOf(1L, Lifts.TOTAL).isEmpty());
+        assertEquals(300, leaderboardEngine.standingOf(6L, Lifts.TOTAL).orElseThrow().score());
+        assertEquals(5, leaderboardEngine.standingFor(Lifts.BENCH, 0).totalMembers());
+
+        // Writes after the rebuild are no longer recorded, only applied
+        leaderboardEngine.remove(6L);
+        assertEquals(4, leaderboardEngine.size());
+    }
+
+    @Test
+    void standingOf_ReturnsRankAndPercentile_WhenMemberIsOnTheLeaderboard() {
+        LeaderboardEngine.Standing standing = leaderboardEngine.standingOf(5L, Lifts.TOTAL).orElseThrow();
+
+        // Totals are 945, 545, 865, 475, 900
+        assertEquals(900, standing.score());
+        assertEquals(2, standing.rank());
+        assertEquals(5, standing.totalMembers());
+        assertEquals(60.0, standing.percentile());
+        assertTrue(leaderboardEngine.standingOf(99L, Lifts.TOTAL).isEmpty());
+    }
+
+    @Test
+    void standingFor_PlacesScoresThatNoMemberHas() {
+        LeaderboardEngine.Standing standing = leaderboardEngine.standingFor(Lifts.TOTAL, 700);
+
+        assertEquals(4, standing.rank());
+        assertEquals(40.0, standing.percentile());
+        assertEquals(0.0, leaderboardEngine.standingFor(Lifts.TOTAL, 0).percentile());
+        assertEquals(1, leaderboardEngine.standingFor(Lifts.TOTAL, 5000).rank());
+    }
+
+    @Test
+    void upsert_MovesMember_WhenTheirLiftsChange() {
+        MemberEntity memberEntity = member(4L, 300, 400, 500);
+
+        leaderboardEngine.upsert(memberEntity);
+
+        assertEquals(5, leaderboardEngine.size());
+        assertEquals(1, leaderboardEngine.standingOf(4L, Lifts.TOTAL).orElseThrow().rank());
+        assertEquals(1, leaderboardEngine.standingOf(4L, Lifts.BENCH).orElseThrow().rank());
+        assertEquals(2, leaderboardEngine.standingOf(1L, Lifts.BENCH).orElseThrow().rank());
+    }
+
+    @Test
+    void remove_TakesMemberOffEveryLeaderboard() {
+        leaderboardEngine.remove(1L);
+        leaderboardEngine.remove(99L);
+
+        assertEquals(4, leaderboardEngine.size());
+        assertTrue(leaderboardEngine.standingOf(1L, Lifts.SQUAT).isEmpty());
+        assertEquals(new LeaderboardEngine.RankedMember(3L, "Member 3", 225, 1), leaderboardEngine.top(Lifts.BENCH, 1, 0).get(0));
+        assertEquals(4, leaderboardEngine.standingFor(Lifts.DEADLIFT, 0).totalMembers());
+    }
+
+    @Test
+    void upsertAndRemove_KeepLeaderboardsConsistent_WhenCalledConcurrently() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for(int thread = 0; thread < 8; thread++) {
+                long firstId = 100L + thread * 1000L;
+                futures.add(executorService.submit(() -> {
+                    for(long id = firstId; id < firstId + 500; id++) {
+                        leaderboardEngine.upsert(member(id, (int) (id % 300), (int) (id % 400), (int) (id % 500)));
+                        leaderboardEngine.standingFor(Lifts.TOTAL, 600);
+                        if(id % 2 == 0) leaderboardEngine.remove(id);
+                    }
+                }));
+            }
+            for(Future<?> future : futures) future.get();
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertEquals(5 + 8 * 250, leaderboardEngine.size());
+        for(Lifts lift : Lifts.values()) {
+            assertEquals(leaderboardEngine.size(), leaderboardEngine.standingFor(lift, 0).totalMembers());
+            assertThat(leaderboardEngine.top(lift, Integer.MAX_VALUE, 0)).hasSize(leaderboardEngine.size());
+        }
+    }
+
+    private static MemberEntity member(Long id, int bench, int squat, int deadlift) {
+        MemberEntity memberEntity = new MemberEntity();
+        memberEntity.setId(id);
+        memberEntity.setName("Member " + id);
+        memberEntity.setBench(bench);
+        memberEntity.setSquat(squat);
+        memberEntity.setDeadlift(deadlift);
+        return memberEntity;
+    }
+
+    private static MemberLifts lifts(Long id, int bench, int squat, int deadlift) {
+        return new MemberLifts() {
+            public Long getId() { return id; }
+            public String getName() { return "Member " + id; }
+            public int getBench() { return bench; }
+            public int getSquat() { return squat; }
+            public int getDeadlift() { return deadlift; }
+        };
+    }
+}
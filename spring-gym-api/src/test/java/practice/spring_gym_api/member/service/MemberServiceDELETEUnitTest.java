@@ -1,17 +1,23 @@
 package practice.spring_gym_api.member.service;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
+import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.service.impl.MemberServiceimpl;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
+import practice.spring_gym_api.service.count.RowCountCache;
 
 import java.util.*;
 
@@ -27,6 +33,24 @@ public class MemberServiceDELETEUnitTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private CoachRepository coachRepository;
+
+    @Mock
+    private LeaderboardEngine leaderboardEngine;
+
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MemberEntity memberEntity1;
     private MemberEntity memberEntity2;
     private CoachEntity coachEntity1;
@@ -50,6 +74,9 @@ public class MemberServiceDELETEUnitTest {
         verify(memberRepository, times(1)).findById(1L);
         verify(memberRepository, times(1)).save(memberEntity1);
         verify(memberRepository, times(1)).deleteById(1L);
+        verify(coachRepository, times(1)).recountClients(anyCollection());
+        verify(leaderboardEngine, times(1)).remove(1L);
+        verify(rowCountCache, times(1)).removed(RowCountCache.Table.MEMBERS, 1);
     }
 
     @Test
@@ -65,20 +92,33 @@ public class MemberServiceDELETEUnitTest {
 
     @Test
     void deleteMembersBelowATotal_SuccessfullyDeletesMembers() {
-        List<MemberEntity> list = List.of(memberEntity1, memberEntity2);
-        when(memberRepository.findAll()).thenReturn(list);
+        when(memberRepository.deleteChunkWithTotalAtMost(10000, 1000)).thenReturn(List.of(1L, 2L));
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+
+        int deleted = memberService.deleteMembersBelowATotal(10000);
+        assertEquals(2, deleted);
 
-        System.out.println(memberEntity1.getCoachedBy().getName());
-        memberService.deleteMembersBelowATotal(10000);
+        verify(memberRepository, times(1)).deleteChunkWithTotalAtMost(10000, 1000);
+        verify(leaderboardEngine, times(1)).removeAll(List.of(1L, 2L));
+        verify(rowCountCache, times(1)).removed(RowCountCache.Table.MEMBERS, 2);
+        verify(secondLevelCache, times(1)).evict(CoachEntity.class);
+        verifyNoMoreInteractions(memberRepository);
+        verifyNoInteractions(coachRepository);
+    }
 
-        assertTrue(memberEntity1.getCoachedBy() == null);
-        assertFalse(memberRepository.existsByEmail(memberEntity1.getEmail()));
-        assertFalse(memberRepository.existsByEmail(memberEntity2.getEmail()));
+    @Test
+    void deleteMembersBelowATotal_KeepsDeletingChunks_UntilAChunkComesBackShort() {
+        List<Long> fullChunk = new ArrayList<>();
+        for(long id = 1; id <= 1000; id++) fullChunk.add(id);
+        when(memberRepository.deleteChunkWithTotalAtMost(500, 1000)).thenReturn(fullChunk, List.of(1001L));
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
 
+        int deleted = memberService.deleteMembersBelowATotal(500);
+        assertEquals(1001, deleted);
 
-        verify(memberRepository, times(1)).findAll();
-        verify(memberRepository, times(1)).saveAll(list);
-        verify(memberRepository, times(1)).deleteAll(list);
+        verify(memberRepository, times(2)).deleteChunkWithTotalAtMost(500, 1000);
+        verify(secondLevelCache, times(2)).evict(CoachEntity.class);
+        verifyNoMoreInteractions(memberRepository);
     }
 
     @Test
@@ -1,15 +1,28 @@
 package practice.spring_gym_api.member.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import practice.spring_gym_api.dto.CursorPage;
+import practice.spring_gym_api.dto.LeaderboardEntry;
 import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberSummary;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.enums.Lifts;
+import practice.spring_gym_api.entity.enums.MemberSort;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
 import practice.spring_gym_api.repository.MemberRepository;
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ResultCache;
+import practice.spring_gym_api.service.flight.SingleFlight;
 import practice.spring_gym_api.service.impl.MemberServiceimpl;
 import practice.spring_gym_api.testdata.dto.MemberDTOTestData;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
@@ -31,6 +44,15 @@ public class MemberServiceGETUnitTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private LeaderboardEngine leaderboardEngine;
+
+    @Spy
+    private ResultCache resultCache = new ResultCache(new SimpleMeterRegistry());
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new ChangeVersions(), new SimpleMeterRegistry());
+
     private MemberEntity memberEntity1;
     private MemberEntity memberEntity2;
     private MemberDTO memberDTO1;
@@ -87,124 +109,282 @@ public class MemberServiceGETUnitTest {
 
     @Test
     void getMemberByHighestBench_SuccessfullyReturnsMember_WhenMembersAreAvalaible() {
-        when(memberRepository.findAll()).thenReturn(List.of(memberEntity1, memberEntity2));
+        when(memberRepository.findFirstByOrderByBenchDescIdAsc()).thenReturn(Optional.of(memberEntity1));
 
         MemberEntity memberReturned = memberService.getMemberByHighestBench();
         assertTrue(memberReturned.equals(memberEntity1));
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderByBenchDescIdAsc();
     }
 
     @Test
     void getMemberByHighestBench_ThrowsException_WhenNoMembersAreAvaliable() {
-        when(memberRepository.findAll()).thenReturn(new ArrayList<>());
+        when(memberRepository.findFirstByOrderByBenchDescIdAsc()).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> memberService.getMemberByHighestBench());
         assertEquals(noMembers, exception.getMessage());
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderByBenchDescIdAsc();
+    }
+
+    @Test
+    void getMemberByHighestBench_QueriesOnce_UntilMembersChange() {
+        when(memberRepository.findFirstByOrderByBenchDescIdAsc()).thenReturn(Optional.of(memberEntity1), Optional.of(memberEntity2));
+
+        assertEquals(memberEntity1, memberService.getMemberByHighestBench());
+        assertEquals(memberEntity1, memberService.getMemberByHighestBench());
+        verify(memberRepository, times(1)).findFirstByOrderByBenchDescIdAsc();
+
+        resultCache.onMembersChanged(new MembersChangedEvent());
+        assertEquals(memberEntity2, memberService.getMemberByHighestBench());
+        verify(memberRepository, times(2)).findFirstByOrderByBenchDescIdAsc();
     }
 
     @Test
     void getMemberByHighestSquat_SuccessfullyReturnsMember_WhenMembersAreAvalaible() {
-        when(memberRepository.findAll()).thenReturn(List.of(memberEntity1, memberEntity2));
+        when(memberRepository.findFirstByOrderBySquatDescIdAsc()).thenReturn(Optional.of(memberEntity1));
 
         MemberEntity memberReturned = memberService.getMemberByHighestSquat();
         assertTrue(memberReturned.equals(memberEntity1));
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderBySquatDescIdAsc();
     }
 
     @Test
     void getMemberByHighestSquat_ThrowsException_WhenNoMembersAreAvaliable() {
-        when(memberRepository.findAll()).thenReturn(new ArrayList<>());
+        when(memberRepository.findFirstByOrderBySquatDescIdAsc()).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> memberService.getMemberByHighestSquat());
         assertEquals(noMembers, exception.getMessage());
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderBySquatDescIdAsc();
     }
 
     @Test
     void getMemberByHighestDeadlift_SuccessfullyReturnsMember_WhenMembersAreAvalaible() {
-        when(memberRepository.findAll()).thenReturn(List.of(memberEntity1, memberEntity2));
+        when(memberRepository.findFirstByOrderByDeadliftDescIdAsc()).thenReturn(Optional.of(memberEntity1));
 
         MemberEntity memberReturned = memberService.getMemberByHighestDeadlift();
         assertTrue(memberReturned.equals(memberEntity1));
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderByDeadliftDescIdAsc();
     }
 
     @Test
     void getMemberByHighestDeadlift_ThrowsException_WhenNoMembersAreAvaliable(){
-        when(memberRepository.findAll()).thenReturn(new ArrayList<>());
+        when(memberRepository.findFirstByOrderByDeadliftDescIdAsc()).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> memberService.getMemberByHighestDeadlift());
         assertEquals(noMembers, exception.getMessage());
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderByDeadliftDescIdAsc();
     }
 
     @Test
     void getMemberByHighestTotal_SuccessfullyReturnsMember_WhenMembersAreAvalaible() {
-        when(memberRepository.findAll()).thenReturn(List.of(memberEntity1, memberEntity2));
+        when(memberRepository.findFirstByOrderByTotalDescIdAsc()).thenReturn(Optional.of(memberEntity1));
 
         MemberEntity memberReturned = memberService.getMemberByHighestTotal();
         assertTrue(memberReturned.equals(memberEntity1));
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderByTotalDescIdAsc();
     }
 
     @Test
     void getMemberByHighestTotal_ThrowsException_WhenNoMembersAreAvaliable() {
-        when(memberRepository.findAll()).thenReturn(new ArrayList<>());
+        when(memberRepository.findFirstByOrderByTotalDescIdAsc()).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> memberService.getMemberByHighestTotal());
         assertEquals(noMembers, exception.getMessage());
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findFirstByOrderByTotalDescIdAsc();
     }
 
     @Test
     void getAllMembersAboveATotal_SucessfullyReturnsMembers_WhenMembersAreAvaliable() {
-        when(memberRepository.findAll()).thenReturn(List.of(memberEntity1, memberEntity2));
+        when(memberRepository.findSummariesWithTotalAbove(200)).thenReturn(List.of(summaryOf(memberEntity1), summaryOf(memberEntity2)));
+
+        List<MemberDTO> membersReturned = memberService.getAllMembersAboveATotal(200);
+        assertThat(membersReturned).extracting(MemberDTO::getName).containsExactly(memberDTO1.getName(), memberDTO2.getName());
+        assertEquals(memberDTO1.getDateOfBirth(), membersReturned.get(0).getDateOfBirth());
+        verify(memberRepository, times(1)).findSummariesWithTotalAbove(200);
+        verify(memberRepository, never()).count();
+    }
+
+    @Test
+    void getAllMembersAboveATotal_ReturnsEmptyList_WhenNoMemberIsAboveTotal() {
+        when(memberRepository.findSummariesWithTotalAbove(5000)).thenReturn(new ArrayList<>());
+        when(memberRepository.count()).thenReturn(2L);
 
-        List<MemberEntity> membersReturned = memberService.getAllMembersAboveATotal(200);
-        assertThat(membersReturned).hasSize(2);
+        List<MemberDTO> membersReturned = memberService.getAllMembersAboveATotal(5000);
+        assertThat(membersReturned).isEmpty();
 
-        for(MemberEntity member : membersReturned) {
-            assertTrue(member.getTotal() > 200);
-        }
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findSummariesWithTotalAbove(5000);
+        verify(memberRepository, times(1)).count();
     }
 
     @Test
     void getAllMembersAboveATotal_ThrowsException_WhenMembersArentAvaliable() {
-        when(memberRepository.findAll()).thenReturn(new ArrayList<>());
+        when(memberRepository.findSummariesWithTotalAbove(200)).thenReturn(new ArrayList<>());
+        when(memberRepository.count()).thenReturn(0L);
 
-        var exception = assertThrows(NoSuchElementException.class, () -> memberService.getMemberByHighestTotal());
+        var exception = assertThrows(NoSuchElementException.class, () -> memberService.getAllMembersAboveATotal(200));
         assertEquals(noMembers, exception.getMessage());
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findSummariesWithTotalAbove(200);
+    }
+
+    @Test
+    void getLeaderboard_ReadsMatchingLiftFromLeaderboardEngine_WhenArgumentsAreValid() {
+        when(leaderboardEngine.top(Lifts.BENCH, 10, 0)).thenReturn(List.of(new LeaderboardEngine.RankedMember(1L, "John Doe", 225, 1)));
+        when(leaderboardEngine.top(Lifts.TOTAL, 5, 20)).thenReturn(List.of());
+
+        List<LeaderboardEntry> entries = memberService.getLeaderboard(Lifts.BENCH, 10, 0);
+        assertEquals(1, entries.size());
+        assertEquals("John Doe", entries.get(0).getName());
+        assertEquals(225, entries.get(0).getScore());
+        assertEquals(1, entries.get(0).getRank());
+        assertThat(memberService.getLeaderboard(Lifts.TOTAL, 5, 20)).isEmpty();
+
+        verify(leaderboardEngine, times(1)).top(Lifts.BENCH, 10, 0);
+        verify(leaderboardEngine, times(1)).top(Lifts.TOTAL, 5, 20);
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void getLeaderboard_ThrowsException_WhenLimitOrOffsetAreOutOfRange() {
+        var limitException = assertThrows(IllegalArgumentException.class, () -> memberService.getLeaderboard(Lifts.SQUAT, 0, 0));
+        assertEquals("Limit must be between 1 and 100", limitException.getMessage());
+
+        var offsetException = assertThrows(IllegalArgumentException.class, () -> memberService.getLeaderboard(Lifts.SQUAT, 10, -1));
+        assertEquals("Offset cannot be negative", offsetException.getMessage());
+
+        verifyNoInteractions(memberRepository, leaderboardEngine);
+    }
+
+    @Test
+    void getRankOfMember_ReturnsStandingFromLeaderboardEngine_WhenMemberExists() {
+        when(leaderboardEngine.standingOf(1L, Lifts.TOTAL)).thenReturn(Optional.of(new LeaderboardEngine.Standing(1000, 2, 5, 60.0)));
+
+        var standing = memberService.getRankOfMember(1L, Lifts.TOTAL);
+
+        assertEquals(Lifts.TOTAL, standing.getLift());
+        assertEquals(1000, standing.getScore());
+        assertEquals(2, standing.getRank());
+        assertEquals(5, standing.getTotalMembers());
+        assertEquals(60.0, standing.getPercentile());
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void getRankOfMember_ThrowsException_WhenMemberIsntOnTheLeaderboard() {
+        when(leaderboardEngine.standingOf(99L, Lifts.BENCH)).thenReturn(Optional.empty());
+
+        var exception = assertThrows(NoSuchElementException.class, () -> memberService.getRankOfMember(99L, Lifts.BENCH));
+        assertEquals("Member with an id of: 99 doesnt exist", exception.getMessage());
+    }
+
+    @Test
+    void getStandingOfScore_ThrowsException_WhenScoreIsNegative() {
+        var exception = assertThrows(IllegalArgumentException.class, () -> memberService.getStandingOfScore(Lifts.TOTAL, -1));
+        assertEquals("Score cannot be negative", exception.getMessage());
+
+        verifyNoInteractions(leaderboardEngine);
     }
 
     @Test
     void getAllAvaliableMembers_SuccessfullyGetsAllAvaliableMembers_WhenMembersAreAvaliable() {
-        when(memberRepository.findAll()).thenReturn(List.of(memberEntity1, memberEntity2));
+        memberEntity1.setId(1L);
+        memberEntity2.setId(2L);
+        when(memberRepository.findSummariesWithoutCoachAfter(0L, Limit.of(2))).thenReturn(List.of(summaryOf(memberEntity1), summaryOf(memberEntity2)));
 
-        List<MemberEntity> membersReturned = memberService.getAllAvaliableMembers();
-        assertThat(membersReturned).hasSize(0);
+        CursorPage<MemberDTO> firstPage = memberService.getAllAvaliableMembers(null, 1);
+        assertThat(firstPage.getItems()).extracting(MemberDTO::getName).containsExactly(memberDTO1.getName());
+        assertEquals(CursorPage.encodeCursor(1L), firstPage.getNextCursor());
 
-        verify(memberRepository, times(1)).findAll();
+        when(memberRepository.findSummariesWithoutCoachAfter(1L, Limit.of(2))).thenReturn(List.of(summaryOf(memberEntity2)));
+
+        CursorPage<MemberDTO> lastPage = memberService.getAllAvaliableMembers(firstPage.getNextCursor(), 1);
+        assertThat(lastPage.getItems()).extracting(MemberDTO::getName).containsExactly(memberDTO2.getName());
+        assertNull(lastPage.getNextCursor());
+
+        verify(memberRepository, times(1)).findSummariesWithoutCoachAfter(0L, Limit.of(2));
+        verify(memberRepository, times(1)).findSummariesWithoutCoachAfter(1L, Limit.of(2));
+        verifyNoMoreInteractions(memberRepository);
     }
 
     @Test
     void getAllAvaliableMembers_ThrowsException_WhenMembersArentAvaliable() {
-        when(memberRepository.findAll()).thenReturn(new ArrayList<>());
+        when(memberRepository.findSummariesWithoutCoachAfter(0L, Limit.of(21))).thenReturn(new ArrayList<>());
+        when(memberRepository.count()).thenReturn(0L);
 
-        var exception = assertThrows(NoSuchElementException.class, () -> memberService.getAllAvaliableMembers());
+        var exception = assertThrows(NoSuchElementException.class, () -> memberService.getAllAvaliableMembers(null, 20));
         assertEquals(noMembers, exception.getMessage());
 
-        verify(memberRepository, times(1)).findAll();
+        verify(memberRepository, times(1)).findSummariesWithoutCoachAfter(0L, Limit.of(21));
+        verify(memberRepository, times(1)).count();
+    }
+
+    @Test
+    void getAllMembers_SeeksPastTheLastRowOfThePage_WhenSortedByTotal() {
+        memberEntity1.setId(1L);
+        memberEntity2.setId(2L);
+        when(memberRepository.findSummariesByTotalAfter(Integer.MAX_VALUE, 0L, Limit.of(2))).thenReturn(List.of(summaryOf(memberEntity1), summaryOf(memberEntity2)));
+
+        CursorPage<MemberDTO> firstPage = memberService.getAllMembers(null, 1, MemberSort.TOTAL);
+        assertThat(firstPage.getItems()).extracting(MemberDTO::getName).containsExactly(memberDTO1.getName());
+        assertTrue(firstPage.hasNext());
+        assertEquals(CursorPage.encodeCursor("TOTAL", memberEntity1.getTotal(), 1L), firstPage.getNextCursor());
+
+        when(memberRepository.findSummariesByTotalAfter(memberEntity1.getTotal(), 1L, Limit.of(2))).thenReturn(List.of(summaryOf(memberEntity2)));
+
+        CursorPage<MemberDTO> lastPage = memberService.getAllMembers(firstPage.getNextCursor(), 1, MemberSort.TOTAL);
+        assertThat(lastPage.getItems()).extracting(MemberDTO::getName).containsExactly(memberDTO2.getName());
+        assertFalse(lastPage.hasNext());
+
+        verify(memberRepository, times(1)).findSummariesByTotalAfter(Integer.MAX_VALUE, 0L, Limit.of(2));
+        verify(memberRepository, times(1)).findSummariesByTotalAfter(memberEntity1.getTotal(), 1L, Limit.of(2));
+        verifyNoMoreInteractions(memberRepository);
+    }
+
+    @Test
+    void getAllMembers_ReturnsEmptyPage_WhenNoMembersAreRegistered() {
+        when(memberRepository.findSummariesByNameAfter("", 0L, Limit.of(21))).thenReturn(List.of());
+
+        CursorPage<MemberDTO> page = memberService.getAllMembers(null, 20, MemberSort.NAME);
+        assertThat(page.getItems()).isEmpty();
+        assertNull(page.getNextCursor());
+
+        verify(memberRepository, never()).count();
+    }
+
+    @Test
+    void getAllMembers_ThrowsException_WhenCursorBelongsToAnotherSort() {
+        String nameCursor = CursorPage.encodeCursor("NAME", "John Doe", 1L);
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> memberService.getAllMembers(nameCursor, 20, MemberSort.BENCH));
+        assertEquals("Cursor was issued for a different sort", exception.getMessage());
+
+        var invalidValueException = assertThrows(IllegalArgumentException.class,
+                () -> memberService.getAllMembers(CursorPage.encodeCursor("BENCH", "heavy", 1L), 20, MemberSort.BENCH));
+        assertEquals("Invalid cursor", invalidValueException.getMessage());
+
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void getAllAvaliableMembers_ThrowsException_WhenCursorOrLimitAreInvalid() {
+        var limitException = assertThrows(IllegalArgumentException.class, () -> memberService.getAllAvaliableMembers(null, 101));
+        assertEquals("Limit must be between 1 and 100", limitException.getMessage());
+
+        var cursorException = assertThrows(IllegalArgumentException.class, () -> memberService.getAllAvaliableMembers("not-a-cursor", 20));
+        assertEquals("Invalid cursor", cursorException.getMessage());
+
+        verifyNoInteractions(memberRepository);
+    }
+
+    private static MemberSummary summaryOf(MemberEntity memberEntity) {
+        return new MemberSummary(memberEntity.getId(), memberEntity.getName(), memberEntity.getDateOfBirth(),
+                memberEntity.getMembershipDate(), memberEntity.getBench(), memberEntity.getTotal());
     }
 }
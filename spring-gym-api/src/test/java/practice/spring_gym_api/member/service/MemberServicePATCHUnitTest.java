@@ -6,18 +6,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import practice.spring_gym_api.dto.MemberDTO;
+import practice.spring_gym_api.dto.MemberIdentityMismatch;
 import practice.spring_gym_api.dto.MemberMapper;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
 import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.service.impl.MemberServiceimpl;
 import practice.spring_gym_api.testdata.dto.MemberDTOTestData;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.service.count.RowCountCache;
 
 import java.util.*;
 
@@ -34,12 +40,24 @@ public class MemberServicePATCHUnitTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private CredentialCache credentialCache;
+
+    @Mock
+    private LeaderboardEngine leaderboardEngine;
+
     @Mock
     private CoachRepository coachRepository;
 
     @Mock
     private MemberMapper memberMapper;
 
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MemberEntity memberEntity1;
     private MemberEntity memberEntity2;
     private MemberRequestDTO memberEntity1RequestDTO;
@@ -104,7 +122,7 @@ public class MemberServicePATCHUnitTest {
     void replaceCoach_SuccessfullyReplacesCoach_WhenCredentialsAreValid() {
         CoachEntity coachEntity2 = CoachTestData.createSeedCoach2();
 
-        when(memberRepository.findById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
+        when(memberRepository.findWithCoachById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
         when(coachRepository.findById(2L)).thenReturn(Optional.ofNullable(coachEntity1));
         when(coachRepository.findById(3L)).thenReturn(Optional.ofNullable(coachEntity2));
 
@@ -116,33 +134,34 @@ public class MemberServicePATCHUnitTest {
         assertTrue(memberEntity1.getCoachedBy().equals(coachEntity2));
         assertThat(coachEntity2.getClients().contains(memberEntity1));
 
-        verify(memberRepository, times(1)).findById(1L);
+        verify(memberRepository, times(1)).findWithCoachById(1L);
         verify(coachRepository, times(1)).findById(2L);
         verify(coachRepository, times(1)).findById(3L);
         verify(memberRepository, times(1)).save(memberEntity1);
+        verify(coachRepository, times(1)).recountClients(anyCollection());
     }
 
     @Test
     void replaceCoach_ThrowsException_WhenMemberIdIsInvalid() {
-        when(memberRepository.findById(1L)).thenReturn(Optional.empty());
+        when(memberRepository.findWithCoachById(1L)).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> memberService.replaceCoach(1L, 2L ,3L));
         assertEquals(idMessage, exception.getMessage());
 
-        verify(memberRepository, times(1)).findById(1L);
+        verify(memberRepository, times(1)).findWithCoachById(1L);
         verifyNoMoreInteractions(memberRepository);
         verifyNoInteractions(coachRepository);
     }
 
     @Test
     void replaceCoach_ThrowsException_WhenCoachIdIsInvalid() {
-        when(memberRepository.findById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
+        when(memberRepository.findWithCoachById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
         when(coachRepository.findById(2L)).thenReturn(Optional.empty());
 
         var exception = assertThrows(NoSuchElementException.class, () -> memberService.replaceCoach(1L, 2L ,3L));
         assertEquals("Coach with an id of: " + 2L + " doesnt exist", exception.getMessage());
 
-        verify(memberRepository, times(1)).findById(1L);
+        verify(memberRepository, times(1)).findWithCoachById(1L);
         verifyNoMoreInteractions(memberRepository);
         verify(coachRepository, times(1)).findById(2L);
         verifyNoMoreInteractions(coachRepository);
@@ -157,6 +176,7 @@ public class MemberServicePATCHUnitTest {
 
         verify(memberRepository, times(1)).findById(1L);
         verify(memberRepository, times(1)).save(memberEntity1);
+        verify(coachRepository, times(1)).recountClients(anyCollection());
     }
 
     @Test
@@ -252,29 +272,58 @@ public class MemberServicePATCHUnitTest {
         verifyNoInteractions(memberRepository);
     }
 
+    @Test
+    void updateMultipleMembersNameByIdAndEmail_SuccessfullyUpdatesNames_WhenEveryPairMatches() {
+        ids.add(2L);
+        emails.add("@123.com");
+        names.add("b");
+        Long[] idArray = {1L, 2L};
+        String[] emailArray = {"@.com", "@123.com"};
+        when(memberRepository.findIdentityMismatches(idArray, emailArray)).thenReturn(List.of());
+
+        memberService.updateMultipleMembersNameByIdAndEmail(ids, names, emails);
+
+        verify(memberRepository, times(1)).findIdentityMismatches(idArray, emailArray);
+        verify(memberRepository, times(1)).updateNames(idArray, new String[]{"a", "b"});
+        verifyNoMoreInteractions(memberRepository);
+    }
+
     @Test
     void updateMultipleMembersNameByIdAndEmail_ThrowsException_WhenIdIsInvalid() {
-        when(memberRepository.findById(1L)).thenReturn(Optional.empty());
+        when(memberRepository.findIdentityMismatches(new Long[]{1L}, new String[]{"@.com"}))
+                .thenReturn(List.of(mismatch(0, false, true)));
 
         var exception = assertThrows(NoSuchElementException.class, () ->
                 memberService.updateMultipleMembersNameByIdAndEmail(ids, names, emails));
         assertEquals(idMessage, exception.getMessage());
 
-        verify(memberRepository, times(1)).findById(1L);
+        verify(memberRepository, times(1)).findIdentityMismatches(new Long[]{1L}, new String[]{"@.com"});
         verifyNoMoreInteractions(memberRepository);
     }
 
     @Test
     void updateMultipleMembersNameByIdAndEmail_ThrowsException_WhenEmailIsInvalid() {
-        when(memberRepository.findById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
-        when(memberRepository.existsByEmail(email)).thenReturn(false);
+        when(memberRepository.findIdentityMismatches(new Long[]{1L}, new String[]{email}))
+                .thenReturn(List.of(mismatch(0, true, false)));
 
         var exception = assertThrows(NoSuchElementException.class, () ->
                 memberService.updateMultipleMembersNameByIdAndEmail(ids, names, List.of(email)));
         assertEquals(emailDoesntExistMessage, exception.getMessage());
 
-        verify(memberRepository, times(1)).findById(1L);
-        verify(memberRepository, times(1)).existsByEmail(email);
+        verify(memberRepository, times(1)).findIdentityMismatches(new Long[]{1L}, new String[]{email});
+        verifyNoMoreInteractions(memberRepository);
+    }
+
+    @Test
+    void updateMultipleMembersNameByIdAndEmail_ThrowsException_WhenIdAndEmailBelongToDifferentMembers() {
+        when(memberRepository.findIdentityMismatches(new Long[]{1L}, new String[]{"@.com"}))
+                .thenReturn(List.of(mismatch(0, true, true)));
+
+        var exception = assertThrows(IllegalArgumentException.class, () ->
+                memberService.updateMultipleMembersNameByIdAndEmail(ids, names, emails));
+        assertEquals("Provided ID and email do not belong to the same member", exception.getMessage());
+
+        verify(memberRepository, times(1)).findIdentityMismatches(new Long[]{1L}, new String[]{"@.com"});
         verifyNoMoreInteractions(memberRepository);
     }
 
@@ -284,19 +333,12 @@ public class MemberServicePATCHUnitTest {
         emails.add("123@.com");
         names.add("bob");
 
-        when(memberRepository.findById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
-        when(memberRepository.existsByEmail(emails.get(0))).thenReturn(true);
-        when(memberRepository.existsByEmail(emails.get(1))).thenReturn(true);
-
         var exception = assertThrows(IllegalStateException.class, () ->
                 memberService.updateMultipleMembersNameByIdAndEmail(ids, names, emails));
         assertEquals("Duplicates detected inside of id list, each id must be unique",
                 exception.getMessage());
 
-        verify(memberRepository, times(2)).findById(1L);
-        verify(memberRepository, times(1)).existsByEmail(emails.get(0));
-        verify(memberRepository, times(1)).existsByEmail(emails.get(1));
-        verifyNoMoreInteractions(memberRepository);
+        verifyNoInteractions(memberRepository);
     }
 
     @Test
@@ -305,20 +347,12 @@ public class MemberServicePATCHUnitTest {
         emails.add("@.com");
         names.add("bob");
 
-        when(memberRepository.findById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
-        when(memberRepository.findById(2L)).thenReturn(Optional.ofNullable(memberEntity2));
-        when(memberRepository.existsByEmail(emails.get(0))).thenReturn(true);
-        when(memberRepository.existsByEmail(emails.get(1))).thenReturn(true);
-
         var exception = assertThrows(IllegalStateException.class, () ->
                 memberService.updateMultipleMembersNameByIdAndEmail(ids, names, emails));
         assertEquals("Duplicates detected inside of email list, each email must be unique",
                 exception.getMessage());
 
-        verify(memberRepository, times(1)).findById(1L);
-        verify(memberRepository, times(1)).findById(2L);
-        verify(memberRepository, times(2)).existsByEmail(emails.get(0));
-        verifyNoMoreInteractions(memberRepository);
+        verifyNoInteractions(memberRepository);
     }
 
     @Test
@@ -329,24 +363,31 @@ public class MemberServicePATCHUnitTest {
         names.add("");
         names.add("");
 
-        when(memberRepository.findById(1L)).thenReturn(Optional.ofNullable(memberEntity1));
-        when(memberRepository.findById(2L)).thenReturn(Optional.ofNullable(memberEntity2));
-        when(memberRepository.existsByEmail(emails.get(0))).thenReturn(true);
-        when(memberRepository.existsByEmail(emails.get(1))).thenReturn(true);
-        when(memberRepository.findAllById(ids)).thenReturn(List.of(memberEntity1, memberEntity2));
-
-        System.out.println(names);
         var exception = assertThrows(IllegalArgumentException.class, () ->
                 memberService.updateMultipleMembersNameByIdAndEmail(ids, names, emails));
         assertEquals("Name provided must be not-null and must not be an empty string",
                 exception.getMessage());
 
-        verify(memberRepository, times(1)).findById(1L);
-        verify(memberRepository, times(1)).findById(2L);
-        verify(memberRepository, times(1)).existsByEmail(emails.get(0));
-        verify(memberRepository, times(1)).existsByEmail(emails.get(1));
-        verify(memberRepository, times(1)).findAllById(ids);
-        verifyNoMoreInteractions(memberRepository);
+        verifyNoInteractions(memberRepository);
+    }
+
+    private static MemberIdentityMismatch mismatch(int position, boolean idExists, boolean emailExists) {
+        return new MemberIdentityMismatch() {
+            @Override
+            public int getPosition() {
+                return position;
+            }
+
+            @Override
+            public boolean getIdExists() {
+                return idExists;
+            }
+
+            @Override
+            public boolean getEmailExists() {
+                return emailExists;
+            }
+        };
     }
 
     @Test
@@ -361,6 +402,8 @@ public class MemberServicePATCHUnitTest {
         verify(memberRepository, times(1)).findById(1L);
         verify(memberRepository, times(1)).findMemberByEmail(email);
         verify(memberRepository, times(1)).save(memberEntity1);
+        verify(leaderboardEngine, times(1)).upsert(memberEntity1);
+        verify(eventPublisher, times(1)).publishEvent(new MembersChangedEvent());
     }
 
     @Test
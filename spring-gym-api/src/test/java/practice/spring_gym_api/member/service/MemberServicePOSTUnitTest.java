@@ -6,16 +6,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import practice.spring_gym_api.dto.BatchRegistrationResult;
 import practice.spring_gym_api.dto.MemberMapper;
 import practice.spring_gym_api.dto.request.MemberRequestDTO;
+import practice.spring_gym_api.event.MembersChangedEvent;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.service.impl.MemberServiceimpl;
+import practice.spring_gym_api.service.importer.MemberImporter;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
+import practice.spring_gym_api.service.count.RowCountCache;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -31,9 +38,21 @@ public class MemberServicePOSTUnitTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private LeaderboardEngine leaderboardEngine;
+
     @Mock
     private MemberMapper memberMapper;
 
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MemberImporter memberImporter;
+
     private MemberEntity memberEntity1;
     private MemberRequestDTO memberEntity1RequestDTO;
     private MemberEntity memberEntity2;
@@ -115,24 +134,83 @@ public class MemberServicePOSTUnitTest {
 
     @Test
     void registerNewMembers_SuccessfullySavesMembersToDB_IfCredentialsAreValid() {
-        when(memberRepository.existsByEmail(memberEntity1RequestDTO.getEmail())).thenReturn(false);
+        when(memberRepository.findEmailsIn(List.of(lowercase(email), lowercase(fakeMemberRequestDTO.getEmail())))).thenReturn(List.of());
         when(memberMapper.convertToMemberEntity(memberEntity1RequestDTO)).thenReturn(memberEntity1);
+        when(memberMapper.convertToMemberEntity(fakeMemberRequestDTO)).thenReturn(fakeMemberEntity);
 
-        memberService.registerNewMembers(List.of(memberEntity1RequestDTO));
+        BatchRegistrationResult result = memberService.registerNewMembers(List.of(memberEntity1RequestDTO, fakeMemberRequestDTO));
 
-        verify(memberRepository, times(1)).existsByEmail(memberEntity1RequestDTO.getEmail());
-        verify(memberRepository, times(1)).saveAll(List.of(memberEntity1));
+        assertEquals(2, result.getRegistered());
+        assertTrue(result.getRejected().isEmpty());
+        verify(memberRepository, times(1)).findEmailsIn(List.of(lowercase(email), lowercase(fakeMemberRequestDTO.getEmail())));
+        verify(memberRepository, times(1)).saveAll(List.of(memberEntity1, fakeMemberEntity));
+        verify(rowCountCache, times(1)).added(RowCountCache.Table.MEMBERS, 2);
+        verifyNoMoreInteractions(memberRepository);
     }
 
     @Test
-    void registerNewMembers_ThrowsExceptions_IfCredentialsArentValid() {
-        when(memberRepository.existsByEmail(memberEntity1RequestDTO.getEmail())).thenReturn(true);
+    void registerNewMembers_ReportsRejectedRows_IfCredentialsArentValid() {
+        MemberRequestDTO duplicateInBatch = new MemberRequestDTO(
+                "Ginger Green Jr", LocalDate.of(1990, 4, 12), "2024-10-10", fakeMemberRequestDTO.getEmail(),
+                Roles.ROLE_MEMBER, 100, 100, 100, 300
+        );
+        when(memberRepository.findEmailsIn(List.of(lowercase(email), lowercase(fakeMemberRequestDTO.getEmail())))).thenReturn(List.of(lowercase(email)));
+        when(memberMapper.convertToMemberEntity(fakeMemberRequestDTO)).thenReturn(fakeMemberEntity);
 
-        var exception = assertThrows(IllegalStateException.class, () ->
-                memberService.registerNewMembers(List.of(memberEntity1RequestDTO)));
-        assertEquals(emailExistsMessage, exception.getMessage());
+        BatchRegistrationResult result = memberService.registerNewMembers(List.of(memberEntity1RequestDTO, fakeMemberRequestDTO, duplicateInBatch));
 
-        verify(memberRepository, times(1)).existsByEmail(memberEntity1RequestDTO.getEmail());
-        verifyNoMoreInteractions(memberRepository);
+        assertEquals(1, result.getRegistered());
+        assertEquals(2, result.getRejected().size());
+        assertEquals(0, result.getRejected().get(0).getIndex());
+        assertEquals(emailExistsMessage, result.getRejected().get(0).getReason());
+        assertEquals(2, result.getRejected().get(1).getIndex());
+        assertEquals("Email appears more than once in this batch", result.getRejected().get(1).getReason());
+        verify(memberRepository, times(1)).saveAll(List.of(fakeMemberEntity));
+        verify(memberRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void registerNewMembers_RejectsEmailsThatDifferOnlyInCasing() {
+        MemberRequestDTO upperCaseOfRegistered = new MemberRequestDTO(
+                "John Doe Jr", LocalDate.of(1995, 3, 15), "2024-10-10", email.toUpperCase(Locale.ROOT),
+                Roles.ROLE_MEMBER, 100, 100, 100, 300
+        );
+        MemberRequestDTO upperCaseInBatch = new MemberRequestDTO(
+                "Ginger Green Jr", LocalDate.of(1990, 4, 12), "2024-10-10", fakeMemberRequestDTO.getEmail().toUpperCase(Locale.ROOT),
+                Roles.ROLE_MEMBER, 100, 100, 100, 300
+        );
+        // The database answers with the lowercased email, whatever casing it was registered in
+        when(memberRepository.findEmailsIn(List.of(lowercase(email), lowercase(fakeMemberRequestDTO.getEmail())))).thenReturn(List.of(lowercase(email)));
+        when(memberMapper.convertToMemberEntity(fakeMemberRequestDTO)).thenReturn(fakeMemberEntity);
+
+        BatchRegistrationResult result = memberService.registerNewMembers(List.of(upperCaseOfRegistered, fakeMemberRequestDTO, upperCaseInBatch));
+
+        assertEquals(1, result.getRegistered());
+        assertEquals(List.of(0, 2), result.getRejected().stream().map(BatchRegistrationResult.RejectedRow::getIndex).toList());
+        assertEquals("Email appears more than once in this batch", result.getRejected().get(1).getReason());
+        verify(memberRepository, times(1)).saveAll(List.of(fakeMemberEntity));
+    }
+
+    @Test
+    void importMembers_StillPublishesMembersChanged_WhenTheImportFailsPartWay() {
+        // Chunks committed before the failure stay committed
+        when(memberImporter.importNdjson(any())).thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThrows(IllegalStateException.class,
+                () -> memberService.importMembers(new ByteArrayInputStream(new byte[0]), "application/x-ndjson"));
+
+        verify(eventPublisher, times(1)).publishEvent(any(MembersChangedEvent.class));
+    }
+
+    @Test
+    void importMembers_PublishesNothing_WhenTheContentTypeIsntSupported() {
+        assertThrows(IllegalArgumentException.class,
+                () -> memberService.importMembers(new ByteArrayInputStream(new byte[0]), "application/json"));
+
+        verifyNoInteractions(memberImporter, eventPublisher);
+    }
+
+    private static String lowercase(String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,119 @@
+package practice.spring_gym_api.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import practice.spring_gym_api.entity.CoachEntity;
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.cache.ResultCache;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the statements each read endpoint sends, with open-session-in-view off.
+ * A list page must be a single select whatever it's sorted by, reading a member must not load its coach,
+ * and the collections of several coaches must be filled in batches rather than one select per coach.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FetchPlanIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CoachRepository coachRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private SerializedResponseCache responseCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // A cached highest total, above-total list or member body wouldn't send any statement
+        resultCache.invalidate(ResultCache.Group.MEMBERS);
+        responseCache.invalidate(ChangeVersions.Resource.MEMBERS);
+    }
+
+    @Test
+    void memberListEndpoints_SendOneQueryPerPage() throws Exception {
+        for(String sort : new String[]{"id", "name", "membership_date", "total", "bench"}) {
+            assertQueries(1, "/api/v1/gym-api/members?limit=2&sort=" + sort);
+        }
+        // Every seeded member has a coach, an empty first page also checks whether any member exists at all
+        assertQueries(2, "/api/v1/gym-api/members/no-coach?limit=2");
+        assertQueries(1, "/api/v1/gym-api/members/above/total/100");
+    }
+
+    @Test
+    void memberReads_DontLoadTheCoach() throws Exception {
+        Long memberId = memberRepository.findMemberByEmail("johnDoe@gmail.com").getId();
+
+        assertQueries(1, "/api/v1/gym-api/members/" + memberId);
+        // Until a member changes the serialized body is sent again as it is
+        assertQueries(0, "/api/v1/gym-api/members/" + memberId);
+        assertQueries(1, "/api/v1/gym-api/members/highest/total");
+    }
+
+    @Test
+    void getAllClientsByCoachId_SendsNoQueryPerClient() throws Exception {
+        Long coachId = coachRepository.findByCoachCode("EMP-990X-YTR8").getId();
+
+        // The coach's existence check, then the page of clients in one select
+        for(String sort : new String[]{"id", "name", "total"}) {
+            assertQueries(2, "/api/v1/gym-api/coaches/" + coachId + "/clients?limit=2&sort=" + sort);
+        }
+    }
+
+    @Test
+    void coachCollections_AreBatchFetched_WhenSeveralCoachesAreRead() {
+        // Workout plans already in the second-level cache wouldn't be selected at all
+        entityManagerFactory.getCache().evictAll();
+        List<CoachEntity> coaches = transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<CoachEntity> all = coachRepository.findAll();
+            all.forEach(coach -> {
+                coach.getClients().size();
+                coach.getWorkoutPlans().size();
+            });
+            return all;
+        });
+
+        assertTrue(coaches.size() > 1);
+        // The coaches, then every client set in one select and every workout plan list in another
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private void assertQueries(long expected, String uri) throws Exception {
+        statistics.clear();
+        mvc.perform(get(uri)).andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount(), uri + " sent the wrong number of statements");
+        assertEquals(0, statistics.getEntityStatistics(CoachEntity.class.getName()).getLoadCount(), uri + " loaded a coach");
+    }
+}
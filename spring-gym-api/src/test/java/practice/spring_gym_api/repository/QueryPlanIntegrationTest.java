@@ -0,0 +1,202 @@
+package practice.spring_gym_api.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every lookup and list query of the three repositories against tables filled to a realistic size
+ * and fails if Postgres plans a sequential scan for any of them.
+ * The SQL Hibernate sends is captured and explained as a generic plan, so the test follows whatever SQL
+ * Hibernate generates rather than a hand-written copy of it.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=practice.spring_gym_api.repository.QueryPlanIntegrationTest$CapturedSql")
+@Transactional
+public class QueryPlanIntegrationTest {
+
+    private static final int COACHES = 2_000;
+    private static final int WORKERS = 2_000;
+    private static final int MEMBERS = 100_000;
+
+    // Far above anything the seed data or the sequences hand out
+    private static final long FIRST_ID = 1_000_000;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CoachRepository coachRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records every statement Hibernate prepares on the current thread.
+     */
+    public static class CapturedSql implements StatementInspector {
+        private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+
+        static List<String> drain() {
+            List<String> statements = new ArrayList<>(STATEMENTS.get());
+            STATEMENTS.get().clear();
+            return statements;
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("""
+                INSERT INTO coaches (id, name, email, coach_code, date_of_birth, role, client_count)
+                SELECT ? + g, 'Coach ' || g, 'coach' || g || '@plan.test', 'PLAN-COACH-' || g, DATE '1980-01-01' + g, 'ROLE_COACH', g % 50
+                FROM generate_series(1, ?) AS g
+                """, FIRST_ID, COACHES);
+        jdbcTemplate.update("""
+                INSERT INTO workers (id, name, email, worker_code, date_of_birth, role)
+                SELECT ? + g, 'Worker ' || g, 'worker' || g || '@plan.test', 'PLAN-WORKER-' || g, DATE '1980-01-01' + g, 'ROLE_WORKER'
+                FROM generate_series(1, ?) AS g
+                """, FIRST_ID, WORKERS);
+        // One member in ten has no coach
+        jdbcTemplate.update("""
+                INSERT INTO members (id, name, email, date_of_birth, membership_date, role, coach_id, bench, squat, deadlift, total)
+                SELECT ? + g, 'Member ' || g, 'member' || g || '@plan.test', DATE '1990-01-01' + g % 5000, '2024-01-01', 'ROLE_MEMBER',
+                       CASE WHEN g % 10 = 0 THEN NULL ELSE ? + 1 + g % ? END,
+                       g % 300, g % 400, g % 500, g % 300 + g % 400 + g % 500
+                FROM generate_series(1, ?) AS g
+                """, FIRST_ID, FIRST_ID, COACHES, MEMBERS);
+        jdbcTemplate.execute("ANALYZE coaches, workers, members");
+        CapturedSql.drain();
+    }
+
+    @Test
+    void memberRepositoryQueries_UseIndexes() {
+        assertNoSeqScan("existsByEmail", () -> memberRepository.existsByEmail("member42@plan.test"));
+        assertNoSeqScan("findMemberByEmail", () -> memberRepository.findMemberByEmail("member42@plan.test"));
+        assertNoSeqScan("findByEmailInAnyCase", () -> memberRepository.findByEmailInAnyCase("Member42@plan.test"));
+        assertNoSeqScan("findEmailsIn", () -> memberRepository.findEmailsIn(List.of("member42@plan.test", "member43@plan.test")));
+        assertNoSeqScan("findFirstByOrderByBenchDescIdAsc", memberRepository::findFirstByOrderByBenchDescIdAsc);
+        assertNoSeqScan("findFirstByOrderBySquatDescIdAsc", memberRepository::findFirstByOrderBySquatDescIdAsc);
+        assertNoSeqScan("findFirstByOrderByDeadliftDescIdAsc", memberRepository::findFirstByOrderByDeadliftDescIdAsc);
+        assertNoSeqScan("findFirstByOrderByTotalDescIdAsc", memberRepository::findFirstByOrderByTotalDescIdAsc);
+        assertNoSeqScan("findSummariesWithTotalAbove", () -> memberRepository.findSummariesWithTotalAbove(1150), "1150");
+        assertNoSeqScan("findSummariesWithoutCoachAfter", () -> memberRepository.findSummariesWithoutCoachAfter(0L, Limit.of(100)));
+        assertNoSeqScan("findClientSummariesAfter", () -> memberRepository.findClientSummariesAfter(FIRST_ID + 42, 0L, Limit.of(21)));
+        assertNoSeqScan("findClientSummariesByNameAfter", () -> memberRepository.findClientSummariesByNameAfter(FIRST_ID + 42, "", 0L, Limit.of(21)));
+        assertNoSeqScan("findClientSummariesByTotalAfter", () -> memberRepository.findClientSummariesByTotalAfter(FIRST_ID + 42, Integer.MAX_VALUE, 0L, Limit.of(21)));
+        // Keyset pages are range scans too, so they're explained with a cursor from deep in the table
+        assertNoSeqScan("findSummariesAfter", () -> memberRepository.findSummariesAfter(FIRST_ID + 50_000, Limit.of(21)),
+                String.valueOf(FIRST_ID + 50_000), "21");
+        assertNoSeqScan("findSummariesByNameAfter", () -> memberRepository.findSummariesByNameAfter("Member 5", FIRST_ID + 5, Limit.of(21)),
+                "'Member 5'", "'Member 5'", String.valueOf(FIRST_ID + 5), "21");
+        assertNoSeqScan("findSummariesByMembershipDateAfter", () -> memberRepository.findSummariesByMembershipDateAfter("2024-01-01", FIRST_ID + 50_000, Limit.of(21)),
+                "'2024-01-01'", "'2024-01-01'", String.valueOf(FIRST_ID + 50_000), "21");
+        assertNoSeqScan("findSummariesByTotalAfter", () -> memberRepository.findSummariesByTotalAfter(600, FIRST_ID + 5, Limit.of(21)),
+                "600", "600", String.valueOf(FIRST_ID + 5), "21");
+        assertNoSeqScan("findSummariesByBenchAfter", () -> memberRepository.findSummariesByBenchAfter(150, FIRST_ID + 5, Limit.of(21)),
+                "150", "150", String.valueOf(FIRST_ID + 5), "21");
+    }
+
+    @Test
+    void coachRepositoryQueries_UseIndexes() {
+        // A natural id lookup of a coach the session already holds sends no SQL, so it goes first
+        assertNoSeqScan("findByEmail", () -> coachRepository.findByEmail("coach42@plan.test"));
+        assertNoSeqScan("findCoachByName", () -> coachRepository.findCoachByName("Coach 42"));
+        assertNoSeqScan("existsByName", () -> coachRepository.existsByName("Coach 42"));
+        assertNoSeqScan("existsByEmail", () -> coachRepository.existsByEmail("coach42@plan.test"));
+        assertNoSeqScan("findByCoachCode", () -> coachRepository.findByCoachCode("PLAN-COACH-42"));
+        assertNoSeqScan("findFirstByOrderByClientCountDescIdAsc", coachRepository::findFirstByOrderByClientCountDescIdAsc);
+        assertNoSeqScan("findFirstByOrderByClientCountAscIdAsc", coachRepository::findFirstByOrderByClientCountAscIdAsc);
+        assertNoSeqScan("findSummariesWithoutClientsAfter", () -> coachRepository.findSummariesWithoutClientsAfter(0L, Limit.of(100)));
+        assertNoSeqScan("findSummariesAfter", () -> coachRepository.findSummariesAfter(FIRST_ID + 1_000, Limit.of(21)),
+                String.valueOf(FIRST_ID + 1_000), "21");
+        assertNoSeqScan("findSummariesByNameAfter", () -> coachRepository.findSummariesByNameAfter("Coach 5", FIRST_ID + 5, Limit.of(21)),
+                "'Coach 5'", "'Coach 5'", String.valueOf(FIRST_ID + 5), "21");
+    }
+
+    @Test
+    void workerRepositoryQueries_UseIndexes() {
+        assertNoSeqScan("existsByEmail", () -> workerRepository.existsByEmail("worker42@plan.test"));
+        assertNoSeqScan("findByEmail", () -> workerRepository.findByEmail("worker42@plan.test"));
+        assertNoSeqScan("findByWorkerCode", () -> workerRepository.findByWorkerCode("PLAN-WORKER-42"));
+    }
+
+    @Test
+    void rankingQueries_ReadTheirOrderStraightFromAnIndex() {
+        assertNoSort("findFirstByOrderByBenchDescIdAsc", memberRepository::findFirstByOrderByBenchDescIdAsc);
+        assertNoSort("findFirstByOrderBySquatDescIdAsc", memberRepository::findFirstByOrderBySquatDescIdAsc);
+        assertNoSort("findFirstByOrderByDeadliftDescIdAsc", memberRepository::findFirstByOrderByDeadliftDescIdAsc);
+        assertNoSort("findFirstByOrderByTotalDescIdAsc", memberRepository::findFirstByOrderByTotalDescIdAsc);
+        assertNoSort("findFirstByOrderByClientCountDescIdAsc", coachRepository::findFirstByOrderByClientCountDescIdAsc);
+        assertNoSort("findFirstByOrderByClientCountAscIdAsc", coachRepository::findFirstByOrderByClientCountAscIdAsc);
+    }
+
+    private void assertNoSeqScan(String queryName, Runnable query, String... arguments) {
+        for(String plan : explain(queryName, query, arguments)) {
+            assertFalse(plan.contains("Seq Scan"), queryName + " plans a sequential scan:\n" + plan);
+        }
+    }
+
+    private void assertNoSort(String queryName, Runnable query) {
+        for(String plan : explain(queryName, query)) {
+            assertFalse(plan.contains("Seq Scan") || plan.contains("Sort"), queryName + " doesn't read its order from an index:\n" + plan);
+        }
+    }
+
+    /**
+     * Runs the query, then explains every statement it sent as a generic plan, the plan Postgres caches
+     * for a prepared statement whatever its parameters are.
+     * A range query can't be judged without its argument, so when arguments are given the query's own
+     * statement is explained with them instead.
+     *
+     * @return each statement followed by its plan
+     */
+    private List<String> explain(String queryName, Runnable query, String... arguments) {
+        query.run();
+        List<String> statements = CapturedSql.drain();
+        assertFalse(statements.isEmpty(), queryName + " didn't send any SQL");
+
+        List<String> plans = new ArrayList<>();
+
+        for(int i = 0; i < statements.size(); i++) {
+            String sql = statements.get(i);
+            // Hibernate binds with ?, a server-side PREPARE needs $1, $2...
+            StringBuilder numbered = new StringBuilder(sql.length() + 8);
+            int parameters = 0;
+            for(char c : sql.toCharArray()) {
+                if(c == '?') numbered.append('$').append(++parameters);
+                else numbered.append(c);
+            }
+
+            List<String> values = i == 0 && arguments.length > 0
+                    ? List.of(arguments)
+                    : Collections.nCopies(parameters, "NULL");
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = " + (i == 0 && arguments.length > 0 ? "force_custom_plan" : "force_generic_plan"));
+            jdbcTemplate.execute("PREPARE plan_check AS " + numbered);
+            String plan = String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE plan_check" + (values.isEmpty() ? "" : "(" + String.join(", ", values) + ")"), String.class));
+            jdbcTemplate.execute("DEALLOCATE plan_check");
+
+            plans.add(sql + "\n" + plan);
+        }
+        return plans;
+    }
+}
@@ -0,0 +1,203 @@
+package practice.spring_gym_api.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import practice.spring_gym_api.entity.CoachEntity;
+import practice.spring_gym_api.entity.MemberEntity;
+import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.service.CoachService;
+import practice.spring_gym_api.service.WorkerService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that coaches, workers, workout plans and the email/code lookups are read from the second-level cache
+ * once loaded, and that every kind of write the services make is seen by the next read.
+ * Writes are made on a coach, worker and member created for the test, which are removed afterwards.
+ */
+@SpringBootTest
+public class SecondLevelCacheIntegrationTest {
+
+    private static final String COACH_EMAIL = "cacheCoach@gmail.com";
+    private static final String WORKER_EMAIL = "cacheWorker@gmail.com";
+    private static final String MEMBER_EMAIL = "cacheMember@gmail.com";
+
+    @Autowired
+    private CoachRepository coachRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CoachService coachService;
+
+    @Autowired
+    private WorkerService workerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Cache cache;
+
+    @BeforeEach
+    void setup() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        // Unlike the JPA evictAll, this empties the natural id and query regions too
+        cache = sessionFactory.getCache();
+        cache.evictAllRegions();
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM members WHERE email = ?", MEMBER_EMAIL);
+        jdbcTemplate.update("DELETE FROM coach_entity_workout_plans WHERE coach_entity_id IN (SELECT id FROM coaches WHERE email LIKE 'cacheCoach%')");
+        jdbcTemplate.update("DELETE FROM coaches WHERE email LIKE 'cacheCoach%'");
+        jdbcTemplate.update("DELETE FROM workers WHERE email LIKE 'cacheWorker%'");
+        cache.evictAllRegions();
+    }
+
+    @Test
+    void coachesAndWorkoutPlans_AreReadFromTheCache_OnceLoaded() {
+        Long coachId = coachRepository.findByEmail("alexSmith@gmail.com").getId();
+        List<String> workoutPlans = coachService.getWorkoutPlansByCoachName("Alex Smith");
+
+        statistics.clear();
+        assertEquals(workoutPlans, coachService.getWorkoutPlansByCoachName("Alex Smith"));
+        // Only the lookup by name, the plans come from the cache
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("coach-workout-plans").getHitCount());
+
+        statistics.clear();
+        assertTrue(coachRepository.findById(coachId).isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("coaches").getHitCount());
+    }
+
+    @Test
+    void emailAndCodeLookups_AreReadFromTheCache_OnceLoaded() {
+        Long coachId = coachRepository.findByEmail("alexSmith@gmail.com").getId();
+        Long workerId = workerRepository.findByEmail("rachelThomas@gmail.com").getId();
+        coachRepository.findByCoachCode("EMP-990X-YTR8");
+        workerRepository.findByWorkerCode("WKR-8372-LKJD");
+
+        statistics.clear();
+        assertEquals(coachId, coachRepository.findByEmail("alexSmith@gmail.com").getId());
+        assertEquals(workerId, workerRepository.findByEmail("rachelThomas@gmail.com").getId());
+        assertEquals(coachId, coachRepository.findByCoachCode("EMP-990X-YTR8").getId());
+        assertEquals(workerId, workerRepository.findByWorkerCode("WKR-8372-LKJD").getId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getNaturalIdCacheHitCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void coachWrites_AreSeenByTheNextRead() {
+        CoachEntity coach = coachRepository.save(new CoachEntity("Cache Coach", LocalDate.of(1980, 1, 1), Roles.ROLE_COACH,
+                COACH_EMAIL, new ArrayList<>(List.of("FBEOD")), "CACHE-COACH-1"));
+        Long id = coach.getId();
+        memberRepository.save(new MemberEntity("Cache Member", LocalDate.of(1995, 1, 1), "2024-01-01", MEMBER_EMAIL,
+                Roles.ROLE_MEMBER, 100, 100, 100, 300));
+        warmCoach(id, COACH_EMAIL, "CACHE-COACH-1", "Cache Coach");
+
+        coachService.updateNameByIdAndEmail(id, "Cache Coach Renamed", COACH_EMAIL);
+        assertEquals("Cache Coach Renamed", coachRepository.findById(id).orElseThrow().getName());
+
+        coachService.updateWorkoutPlans(id, COACH_EMAIL, List.of("Push/Pull/Legs"));
+        assertEquals(List.of("Push/Pull/Legs"), coachService.getWorkoutPlansByCoachName("Cache Coach Renamed"));
+
+        coachService.updateCodeOfACoach(id, COACH_EMAIL, "CACHE-COACH-2");
+        assertNull(coachRepository.findByCoachCode("CACHE-COACH-1"));
+        assertEquals(id, coachRepository.findByCoachCode("CACHE-COACH-2").getId());
+
+        // client_count is only written by a bulk update, which must drop the cached coach
+        coachService.addClientsByIdAndEmail(id, COACH_EMAIL, List.of(MEMBER_EMAIL));
+        assertEquals(1, coachRepository.findById(id).orElseThrow().getClientCount());
+
+        CoachEntity renamed = coachRepository.findById(id).orElseThrow();
+        renamed.setEmail("cacheCoachRenamed@gmail.com");
+        coachRepository.save(renamed);
+        assertNull(coachRepository.findByEmail(COACH_EMAIL));
+        assertEquals(id, coachRepository.findByEmail("cacheCoachRenamed@gmail.com").getId());
+
+        coachService.deleteCoachById(id);
+        assertTrue(coachRepository.findById(id).isEmpty());
+        assertNull(coachRepository.findByEmail("cacheCoachRenamed@gmail.com"));
+        assertNull(coachRepository.findByCoachCode("CACHE-COACH-2"));
+    }
+
+    @Test
+    void workerWrites_AreSeenByTheNextRead() {
+        WorkerEntity worker = workerRepository.save(new WorkerEntity("Cache Worker", LocalDate.of(1985, 1, 1), Roles.ROLE_WORKER,
+                WORKER_EMAIL, "CACHE-WORKER-1"));
+        Long id = worker.getId();
+        workerRepository.findById(id);
+        workerRepository.findByEmail(WORKER_EMAIL);
+        workerRepository.findByWorkerCode("CACHE-WORKER-1");
+
+        workerService.updateWorkerCodeById(id, WORKER_EMAIL, "CACHE-WORKER-2");
+        assertEquals("CACHE-WORKER-2", workerRepository.findById(id).orElseThrow().getWorkerCode());
+        assertNull(workerRepository.findByWorkerCode("CACHE-WORKER-1"));
+        assertEquals(id, workerRepository.findByWorkerCode("CACHE-WORKER-2").getId());
+
+        WorkerEntity renamed = workerRepository.findById(id).orElseThrow();
+        renamed.setEmail("cacheWorkerRenamed@gmail.com");
+        workerRepository.save(renamed);
+        assertNull(workerRepository.findByEmail(WORKER_EMAIL));
+        assertEquals(id, workerRepository.findByEmail("cacheWorkerRenamed@gmail.com").getId());
+
+        workerService.deleteWorkerbyId(id);
+        assertTrue(workerRepository.findById(id).isEmpty());
+        assertNull(workerRepository.findByEmail("cacheWorkerRenamed@gmail.com"));
+        assertNull(workerRepository.findByWorkerCode("CACHE-WORKER-2"));
+    }
+
+    @Test
+    void regionHitsAndMisses_AreExposedAsMetrics() {
+        Long coachId = coachRepository.findByEmail("alexSmith@gmail.com").getId();
+        coachRepository.findById(coachId);
+
+        assertTrue(cacheRequests("coaches", "hit") >= 1);
+        assertTrue(cacheRequests("coach-emails", "miss") >= 1);
+    }
+
+    private void warmCoach(Long id, String email, String coachCode, String name) {
+        coachRepository.findById(id);
+        coachRepository.findByEmail(email);
+        coachRepository.findByCoachCode(coachCode);
+        coachService.getWorkoutPlansByCoachName(name);
+    }
+
+    private double cacheRequests(String region, String result) {
+        FunctionCounter counter = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", region).tag("result", result).functionCounter();
+        assertNotNull(counter, "No cache request counter for region " + region);
+        return counter.count();
+    }
+}
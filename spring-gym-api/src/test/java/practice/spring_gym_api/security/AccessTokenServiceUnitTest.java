@@ -0,0 +1,152 @@
+package practice.spring_gym_api.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import practice.spring_gym_api.entity.CoachEntity;
+import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+import practice.spring_gym_api.security.token.AccessTokenService;
+import practice.spring_gym_api.testdata.entity.CoachTestData;
+import practice.spring_gym_api.testdata.entity.WorkerTestData;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AccessTokenServiceUnitTest {
+
+    private static final String SECRET = "a-test-secret-that-is-at-least-32-bytes";
+
+    private CoachRepository coachRepository;
+    private WorkerRepository workerRepository;
+    private CoachEntity coachEntity1;
+    private CoachEntity coachEntity2;
+    private WorkerEntity workerEntity1;
+    private WorkerEntity workerEntity2;
+    private AccessTokenService accessTokenService;
+
+    @BeforeEach
+    void setup() {
+        coachEntity1 = CoachTestData.createSeedCoach1();
+        coachEntity2 = CoachTestData.createSeedCoach2();
+        workerEntity1 = WorkerTestData.createSeedWorker1();
+        workerEntity2 = WorkerTestData.createSeedWorker2();
+
+        coachRepository = mock(CoachRepository.class);
+        workerRepository = mock(WorkerRepository.class);
+        when(coachRepository.findById(coachEntity1.getId())).thenReturn(Optional.of(coachEntity1));
+        when(coachRepository.findById(coachEntity2.getId())).thenReturn(Optional.of(coachEntity2));
+        when(workerRepository.findById(workerEntity1.getId())).thenReturn(Optional.of(workerEntity1));
+        when(workerRepository.findById(workerEntity2.getId())).thenReturn(Optional.of(workerEntity2));
+
+        accessTokenService = new AccessTokenService(coachRepository, workerRepository, SECRET, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void verify_ReturnsTypeAndId_WhenTokenIsValid() {
+        String token = issue(coachEntity1);
+
+        AccessTokenService.VerifiedToken verifiedToken = accessTokenService.verify(token);
+        assertEquals(CredentialType.COACH, verifiedToken.type());
+        assertEquals(coachEntity1.getId(), verifiedToken.id());
+    }
+
+    @Test
+    void verify_AcceptsToken_WhenIssuedByAnotherInstanceOrBeforeARestart() {
+        String token = issue(workerEntity1);
+        AccessTokenService otherInstance = new AccessTokenService(coachRepository, workerRepository, SECRET, Duration.ofMinutes(15));
+
+        assertEquals(workerEntity1.getId(), otherInstance.verify(token).id());
+    }
+
+    @Test
+    void verify_ThrowsException_WhenPayloadIsTamperedWith() {
+        String token = issue(workerEntity1);
+        String otherToken = issue(workerEntity2);
+        String forged = otherToken.substring(0, otherToken.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        var exception = assertThrows(IllegalStateException.class, () -> accessTokenService.verify(forged));
+        assertEquals("Access token signature is invalid", exception.getMessage());
+    }
+
+    @Test
+    void verify_ThrowsException_WhenTokenWasSignedWithAnotherSecret() {
+        AccessTokenService otherService = new AccessTokenService(coachRepository, workerRepository, "another-secret-that-is-at-least-32-bytes", Duration.ofMinutes(15));
+        String token = otherService.issue(CredentialType.COACH, coachEntity1.getId(), coachEntity1.getCoachCode());
+
+        assertThrows(IllegalStateException.class, () -> accessTokenService.verify(token));
+    }
+
+    @Test
+    void verify_ThrowsException_WhenTokenHasExpired() {
+        AccessTokenService expiringService = new AccessTokenService(coachRepository, workerRepository, SECRET, Duration.ZERO);
+        String token = expiringService.issue(CredentialType.COACH, coachEntity1.getId(), coachEntity1.getCoachCode());
+
+        var exception = assertThrows(IllegalStateException.class, () -> expiringService.verify(token));
+        assertEquals("Access token has expired", exception.getMessage());
+    }
+
+    @Test
+    void verify_ThrowsException_WhenPrincipalWasRevoked() {
+        String oldToken = issue(coachEntity1);
+        String otherCoachToken = issue(coachEntity2);
+
+        coachEntity1.revokeAccessTokens();
+
+        var exception = assertThrows(IllegalStateException.class, () -> accessTokenService.verify(oldToken));
+        assertEquals("Access token has been revoked", exception.getMessage());
+        assertEquals(coachEntity2.getId(), accessTokenService.verify(otherCoachToken).id());
+        assertEquals(coachEntity1.getId(), accessTokenService.verify(issue(coachEntity1)).id());
+    }
+
+    @Test
+    void verify_ThrowsException_WhenPrincipalWasDeleted() {
+        String token = issue(workerEntity1);
+
+        when(workerRepository.findById(workerEntity1.getId())).thenReturn(Optional.empty());
+
+        var exception = assertThrows(IllegalStateException.class, () -> accessTokenService.verify(token));
+        assertEquals("Access token has been revoked", exception.getMessage());
+    }
+
+    @Test
+    void verify_ThrowsException_WhenTokenIsMalformed() {
+        assertThrows(IllegalStateException.class, () -> accessTokenService.verify("not-a-token"));
+        assertThrows(IllegalStateException.class, () -> accessTokenService.verify("###.###"));
+    }
+
+    @Test
+    void issue_ThrowsException_WhenCodeChangedSinceItWasChecked() {
+        // The code change has committed between the token request's code check and issuing the token
+        String checkedCode = coachEntity1.getCoachCode();
+        coachEntity1.setCoachCode("NEW-COACH-CODE");
+        coachEntity1.revokeAccessTokens();
+
+        var exception = assertThrows(IllegalStateException.class,
+                () -> accessTokenService.issue(CredentialType.COACH, coachEntity1.getId(), checkedCode));
+        assertEquals("Access token can't be issued, the code has changed since it was checked", exception.getMessage());
+    }
+
+    @Test
+    void issue_ThrowsException_WhenPrincipalDoesntExist() {
+        var exception = assertThrows(IllegalStateException.class, () -> accessTokenService.issue(CredentialType.WORKER, 999L, "WORKER-CODE"));
+        assertEquals("Access token can't be issued, worker with an id of: 999 doesnt exist", exception.getMessage());
+    }
+
+    @Test
+    void constructor_ThrowsException_WhenSecretIsTooShort() {
+        assertThrows(IllegalStateException.class, () -> new AccessTokenService(coachRepository, workerRepository, "short", Duration.ofMinutes(15)));
+    }
+
+    private String issue(CoachEntity coachEntity) {
+        return accessTokenService.issue(CredentialType.COACH, coachEntity.getId(), coachEntity.getCoachCode());
+    }
+
+    private String issue(WorkerEntity workerEntity) {
+        return accessTokenService.issue(CredentialType.WORKER, workerEntity.getId(), workerEntity.getWorkerCode());
+    }
+}
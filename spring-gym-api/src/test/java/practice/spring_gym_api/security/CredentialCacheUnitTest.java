@@ -0,0 +1,102 @@
+package practice.spring_gym_api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CredentialCacheUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CredentialCache credentialCache;
+    private AtomicInteger lookups;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        credentialCache = new CredentialCache(meterRegistry);
+        lookups = new AtomicInteger();
+    }
+
+    private Supplier<String> lookup(String failure) {
+        return () -> {
+            lookups.incrementAndGet();
+            return failure;
+        };
+    }
+
+    @Test
+    void verify_OnlyLooksUpOnce_WhenSamePairIsCheckedAgain() {
+        assertNull(credentialCache.verify(CredentialType.COACH, 1L, "CODE-1", lookup(null)));
+        assertNull(credentialCache.verify(CredentialType.COACH, 1L, "CODE-1", lookup(null)));
+
+        assertEquals(1, lookups.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "credentials").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "credentials").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void verify_CachesFailures_WhenPairIsInvalid() {
+        String failure = "Coach with an id of: 9 doesnt exist";
+        assertEquals(failure, credentialCache.verify(CredentialType.COACH, 9L, "CODE-1", lookup(failure)));
+        assertEquals(failure, credentialCache.verify(CredentialType.COACH, 9L, "CODE-1", lookup(failure)));
+
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void verify_KeepsCoachesAndWorkersApart_WhenIdAndCodeMatch() {
+        credentialCache.verify(CredentialType.COACH, 1L, "CODE-1", lookup(null));
+        String failure = "Worker with an id of: 1 doesnt exist";
+        assertEquals(failure, credentialCache.verify(CredentialType.WORKER, 1L, "CODE-1", lookup(failure)));
+
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void invalidateCoach_DropsEntriesWithTheIdOrEitherCode() {
+        credentialCache.verify(CredentialType.COACH, 1L, "OLD", lookup(null));
+        credentialCache.verify(CredentialType.COACH, 2L, "NEW", lookup("mismatch"));
+        credentialCache.verify(CredentialType.COACH, 3L, "OTHER", lookup(null));
+        credentialCache.verify(CredentialType.WORKER, 1L, "OLD", lookup(null));
+        lookups.set(0);
+
+        credentialCache.invalidateCoach(1L, "OLD", "NEW");
+
+        credentialCache.verify(CredentialType.COACH, 1L, "OLD", lookup("changed"));
+        credentialCache.verify(CredentialType.COACH, 2L, "NEW", lookup("mismatch"));
+        assertEquals(2, lookups.get());
+
+        credentialCache.verify(CredentialType.COACH, 3L, "OTHER", lookup(null));
+        credentialCache.verify(CredentialType.WORKER, 1L, "OLD", lookup(null));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void invalidateWorker_RunsAgain_WhenTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            credentialCache.invalidateWorker(1L, "OLD", "NEW");
+            // A request inside the transaction caches the uncommitted code
+            credentialCache.verify(CredentialType.WORKER, 1L, "NEW", lookup(null));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        String failure = "Worker with a worker code of: NEW doesnt exist";
+        assertEquals(failure, credentialCache.verify(CredentialType.WORKER, 1L, "NEW", lookup(failure)));
+        assertEquals(2, lookups.get());
+    }
+}
@@ -0,0 +1,194 @@
+package practice.spring_gym_api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.context.SecurityContextHolder;
+import practice.spring_gym_api.entity.WorkerEntity;
+import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.WorkerRepository;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.security.cache.CredentialCache.CredentialType;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
+import practice.spring_gym_api.security.provider.WorkerAuthProvider;
+import practice.spring_gym_api.security.token.AccessTokenService;
+import practice.spring_gym_api.security.token.CoachAuthToken;
+import practice.spring_gym_api.security.token.WorkerAuthToken;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RequestAuthFilterUnitTest {
+
+    private static final String SECRET = "a-test-secret-that-is-at-least-32-bytes";
+
+    private CoachRepository coachRepository;
+    private WorkerRepository workerRepository;
+    private AccessTokenService accessTokenService;
+    private RequestAuthFilter filter;
+
+    @BeforeEach
+    void setup() {
+        // Both pairs are already known to the cache, so no repository is asked about them
+        CredentialCache credentialCache = new CredentialCache(new SimpleMeterRegistry());
+        credentialCache.verify(CredentialType.COACH, 1L, "COACH-CODE", () -> null);
+        credentialCache.verify(CredentialType.WORKER, 1L, "WORKER-CODE", () -> null);
+        coachRepository = mock(CoachRepository.class);
+        workerRepository = mock(WorkerRepository.class);
+        accessTokenService = new AccessTokenService(coachRepository, workerRepository, SECRET, Duration.ofMinutes(15));
+        AuthenticationManager authenticationManager = new ProviderManager(new WorkerAuthProvider(workerRepository, credentialCache));
+        AuthenticationConfiguration authenticationConfiguration = new AuthenticationConfiguration() {
+            @Override
+            public AuthenticationManager getAuthenticationManager() {
+                return authenticationManager;
+            }
+        };
+
+        filter = new RequestAuthFilter(coachRepository, credentialCache, accessTokenService, authenticationConfiguration);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_LetsGetThrough_WithoutAnyCredentials() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter("GET", "/api/v1/gym-api/members/1", chain);
+
+        assertPassedOn(chain, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(coachRepository, workerRepository);
+    }
+
+    @Test
+    void doFilterInternal_RequiresACoach_WhenMethodIsPutOrPatch() throws Exception {
+        for(String method : List.of("PUT", "PATCH")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members/1/name", chain);
+
+            assertRejected(chain, response, 403, "Must include header 'x-coach-code'");
+        }
+    }
+
+    @Test
+    void doFilterInternal_AuthenticatesTheCoach_WhenMethodIsPutOrPatch() throws Exception {
+        for(String method : List.of("PUT", "PATCH")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members/1/name", chain,
+                    "x-coach-id", "1", "x-coach-code", "COACH-CODE");
+
+            assertPassedOn(chain, response);
+            CoachAuthToken coach = assertInstanceOf(CoachAuthToken.class, SecurityContextHolder.getContext().getAuthentication());
+            assertEquals(1L, coach.getCoachId());
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void doFilterInternal_TurnsAWorkerAway_WhenMethodIsPutOrPatch() throws Exception {
+        when(workerRepository.findById(1L)).thenReturn(Optional.of(new WorkerEntity(1L, "Worker", LocalDate.of(1990, 1, 1), Roles.ROLE_WORKER, "worker@gmail.com", "WORKER-CODE")));
+        String token = accessTokenService.issue(CredentialType.WORKER, 1L, "WORKER-CODE");
+
+        for(String method : List.of("PUT", "PATCH")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members/1/name", chain,
+                    "Authorization", "Bearer " + token);
+
+            assertRejected(chain, response, 401, "Authentication failed: Access token doesnt belong to a coach");
+        }
+    }
+
+    @Test
+    void doFilterInternal_RequiresAWorker_WhenMethodIsPostOrDelete() throws Exception {
+        for(String method : List.of("POST", "DELETE")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members", chain,
+                    "x-coach-id", "1", "x-coach-code", "COACH-CODE");
+
+            assertRejected(chain, response, 403, "Must include header 'x-worker-id'");
+        }
+    }
+
+    @Test
+    void doFilterInternal_AuthenticatesTheWorker_WhenMethodIsPostOrDelete() throws Exception {
+        for(String method : List.of("POST", "DELETE")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members", chain,
+                    "x-worker-id", "1", "x-worker-code", "WORKER-CODE");
+
+            assertPassedOn(chain, response);
+            WorkerAuthToken worker = assertInstanceOf(WorkerAuthToken.class, SecurityContextHolder.getContext().getAuthentication());
+            assertEquals(1L, worker.getWorkerId());
+            assertTrue(worker.isAuthenticated());
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void doFilterInternal_AuthenticatesTheCoach_WhenCoachPostsToTheTokenEndpoint() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter("POST", AccessTokenService.TOKEN_PATH, chain,
+                "x-coach-id", "1", "x-coach-code", "COACH-CODE");
+
+        assertPassedOn(chain, response);
+        assertInstanceOf(CoachAuthToken.class, SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilterInternal_LeavesOtherMethodsToTheAuthorizationRules() throws Exception {
+        for(String method : List.of("OPTIONS", "HEAD", "TRACE")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members", chain);
+
+            assertPassedOn(chain, response);
+            assertNull(SecurityContextHolder.getContext().getAuthentication());
+        }
+        verifyNoInteractions(coachRepository, workerRepository);
+    }
+
+    @Test
+    void doFilterInternal_TurnsEveryMethodAway_WhenValidHeaderIsntYes() throws Exception {
+        for(String method : List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = filter(method, "/api/v1/gym-api/members", chain,
+                    "x-valid", "no", "x-worker-id", "1", "x-worker-code", "WORKER-CODE");
+
+            assertRejected(chain, response, 403, "Invalid request");
+        }
+    }
+
+    private MockHttpServletResponse filter(String method, String uri, MockFilterChain chain, String... headers) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        for(int i = 0; i < headers.length; i += 2) request.addHeader(headers[i], headers[i + 1]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void assertPassedOn(MockFilterChain chain, MockHttpServletResponse response) {
+        assertNotNull(chain.getRequest(), "Request wasn't passed on to the next filter");
+        assertEquals(200, response.getStatus());
+    }
+
+    private static void assertRejected(MockFilterChain chain, MockHttpServletResponse response, int status, String message) throws Exception {
+        assertNull(chain.getRequest(), "Request was passed on to the next filter");
+        assertEquals(status, response.getStatus());
+        assertEquals(message, response.getContentAsString());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,85 @@
+package practice.spring_gym_api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.service.cache.ResultCache;
+import practice.spring_gym_api.service.cache.ResultCache.Query;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheUnitTest {
+
+    private ResultCache resultCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        resultCache = new ResultCache(new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void get_LoadsOnce_UntilItsGroupChanges() {
+        assertEquals(1, resultCache.get(Query.HIGHEST_BENCH, loads::incrementAndGet));
+        assertEquals(1, resultCache.get(Query.HIGHEST_BENCH, loads::incrementAndGet));
+
+        resultCache.onCoachesChanged(new CoachesChangedEvent());
+        assertEquals(1, resultCache.get(Query.HIGHEST_BENCH, loads::incrementAndGet));
+
+        resultCache.onMembersChanged(new MembersChangedEvent());
+        assertEquals(2, resultCache.get(Query.HIGHEST_BENCH, loads::incrementAndGet));
+    }
+
+    @Test
+    void get_KeepsAResultPerArgument() {
+        assertEquals(1, resultCache.get(Query.MEMBERS_ABOVE_TOTAL, 100, loads::incrementAndGet));
+        assertEquals(2, resultCache.get(Query.MEMBERS_ABOVE_TOTAL, 200, loads::incrementAndGet));
+        assertEquals(1, resultCache.get(Query.MEMBERS_ABOVE_TOTAL, 100, loads::incrementAndGet));
+    }
+
+    @Test
+    void get_DoesntServeALoad_ThatRacedAChange() {
+        // The write commits while the query is still running, so what it read may already be out of date
+        assertEquals(1, resultCache.get(Query.MOST_CLIENTS, () -> {
+            resultCache.onCoachesChanged(new CoachesChangedEvent());
+            return loads.incrementAndGet();
+        }));
+
+        assertEquals(2, resultCache.get(Query.MOST_CLIENTS, loads::incrementAndGet));
+        assertEquals(2, resultCache.get(Query.MOST_CLIENTS, loads::incrementAndGet));
+    }
+
+    @Test
+    void get_DoesntCacheFailures() {
+        assertThrows(NoSuchElementException.class, () -> resultCache.get(Query.LEAST_CLIENTS, () -> {
+            throw new NoSuchElementException("No coaches currently registered");
+        }));
+
+        assertEquals(1, resultCache.get(Query.LEAST_CLIENTS, loads::incrementAndGet));
+    }
+
+    @Test
+    void get_BypassesTheCache_InsideAReadWriteTransaction() {
+        assertEquals(1, resultCache.get(Query.HIGHEST_TOTAL, loads::incrementAndGet));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertEquals(2, resultCache.get(Query.HIGHEST_TOTAL, loads::incrementAndGet));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(1, resultCache.get(Query.HIGHEST_TOTAL, loads::incrementAndGet));
+    }
+}
@@ -0,0 +1,90 @@
+package practice.spring_gym_api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import practice.spring_gym_api.dto.TotalCount;
+import practice.spring_gym_api.repository.CoachRepository;
+import practice.spring_gym_api.repository.MemberRepository;
+import practice.spring_gym_api.service.count.RowCountCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RowCountCacheUnitTest {
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private CoachRepository coachRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RowCountCache rowCountCache;
+
+    @BeforeEach
+    void setUp() {
+        rowCountCache = new RowCountCache(memberRepository, coachRepository, jdbcTemplate);
+    }
+
+    @Test
+    void count_CountsOnceThenMovesTheCountWithEveryChange() {
+        when(memberRepository.count()).thenReturn(5L);
+
+        assertEquals(new TotalCount(5, true), rowCountCache.count(RowCountCache.Table.MEMBERS, true));
+        rowCountCache.added(RowCountCache.Table.MEMBERS, 3);
+        rowCountCache.removed(RowCountCache.Table.MEMBERS, 1);
+
+        assertEquals(new TotalCount(7, true), rowCountCache.count(RowCountCache.Table.MEMBERS, true));
+        assertEquals(new TotalCount(7, true), rowCountCache.count(RowCountCache.Table.MEMBERS, false));
+        verify(memberRepository, times(1)).count();
+        verifyNoInteractions(jdbcTemplate, coachRepository);
+    }
+
+    @Test
+    void count_ReturnsThePlannerEstimate_WhenNothingIsHeldAndAnEstimateIsEnough() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("coaches"))).thenReturn(1800L);
+
+        TotalCount totalCount = rowCountCache.count(RowCountCache.Table.COACHES, false);
+
+        assertEquals(new TotalCount(1800, false), totalCount);
+        assertEquals("estimated", totalCount.type());
+        verifyNoInteractions(coachRepository);
+    }
+
+    @Test
+    void count_CountsTheTable_WhenTheTableHasNeverBeenAnalyzed() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("coaches"))).thenReturn(-1L);
+        when(coachRepository.count()).thenReturn(4L);
+
+        assertEquals(new TotalCount(4, true), rowCountCache.count(RowCountCache.Table.COACHES, false));
+        verify(coachRepository, times(1)).count();
+    }
+
+    @Test
+    void removed_NeverTakesTheCountBelowZero() {
+        when(coachRepository.count()).thenReturn(1L);
+        rowCountCache.count(RowCountCache.Table.COACHES, true);
+
+        rowCountCache.removed(RowCountCache.Table.COACHES, 3);
+
+        assertEquals(0, rowCountCache.count(RowCountCache.Table.COACHES, true).value());
+    }
+
+    @Test
+    void added_IsIgnored_UntilTheTableHasBeenCounted() {
+        when(memberRepository.count()).thenReturn(10L);
+
+        rowCountCache.added(RowCountCache.Table.MEMBERS, 2);
+
+        assertEquals(new TotalCount(10, true), rowCountCache.count(RowCountCache.Table.MEMBERS, true));
+    }
+}
@@ -0,0 +1,89 @@
+package practice.spring_gym_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
+import practice.spring_gym_api.service.cache.SerializedResponseCache.Kind;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializedResponseCacheUnitTest {
+
+    private SerializedResponseCache responseCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new SerializedResponseCache(new ObjectMapper(), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_SerializesOnce_WhileTheVersionIsCurrent() {
+        byte[] first = responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+        byte[] second = responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+
+        assertEquals("{\"load\":1}", new String(first, StandardCharsets.UTF_8));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_RebuildsTheBody_OnceTheVersionMoves() {
+        responseCache.get(Kind.COACH, 1L, "v1", this::load);
+
+        assertEquals("{\"load\":2}", new String(responseCache.get(Kind.COACH, 1L, "v2", this::load), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_KeepsABodyPerKindAndId() {
+        responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+        responseCache.get(Kind.MEMBER, 2L, "v1", this::load);
+        responseCache.get(Kind.WORKER, 1L, "v1", this::load);
+        responseCache.get(Kind.WORKOUT_PLANS, "Alex Smith", "v1", () -> List.of("FBEOD"));
+
+        assertEquals("[\"FBEOD\"]", new String(responseCache.get(Kind.WORKOUT_PLANS, "Alex Smith", "v1", this::load), StandardCharsets.UTF_8));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void onChanged_DropsOnlyTheChangedResourcesBodies() {
+        responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+        responseCache.get(Kind.COACH, 1L, "v1", this::load);
+        responseCache.get(Kind.WORKOUT_PLANS, "Alex Smith", "v1", this::load);
+
+        responseCache.onCoachesChanged(new CoachesChangedEvent());
+        responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+        responseCache.get(Kind.COACH, 1L, "v1", this::load);
+        responseCache.get(Kind.WORKOUT_PLANS, "Alex Smith", "v1", this::load);
+        assertEquals(5, loads.get());
+
+        responseCache.onMembersChanged(new MembersChangedEvent());
+        responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void get_DoesntCacheAFailedLoad() {
+        assertThrows(NoSuchElementException.class, () -> responseCache.get(Kind.MEMBER, 1L, "v1", () -> {
+            throw new NoSuchElementException("Member with an id of: 1 doesnt exist");
+        }));
+
+        responseCache.get(Kind.MEMBER, 1L, "v1", this::load);
+        assertEquals(1, loads.get());
+    }
+
+    private Map<String, Integer> load() {
+        return Map.of("load", loads.incrementAndGet());
+    }
+}
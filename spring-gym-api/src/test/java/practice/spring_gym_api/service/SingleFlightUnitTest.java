@@ -0,0 +1,163 @@
+package practice.spring_gym_api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import practice.spring_gym_api.event.CoachesChangedEvent;
+import practice.spring_gym_api.event.MembersChangedEvent;
+import practice.spring_gym_api.service.cache.ChangeVersions;
+import practice.spring_gym_api.service.flight.SingleFlight;
+import practice.spring_gym_api.service.flight.SingleFlight.Flight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightUnitTest {
+
+    private static final int CALLERS = 8;
+
+    private ChangeVersions changeVersions;
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+    private ExecutorService executor;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        changeVersions = new ChangeVersions();
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(changeVersions, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+        runs = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void run_SharesOneRun_BetweenConcurrentIdenticalCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Integer> slowQuery = () -> {
+            await(release);
+            return runs.incrementAndGet();
+        };
+
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.run(Flight.HIGHEST_TOTAL, slowQuery)));
+        awaitCalls(Flight.HIGHEST_TOTAL, "led", 1);
+        for(int i = 1; i < CALLERS; i++) results.add(executor.submit(() -> singleFlight.run(Flight.HIGHEST_TOTAL, slowQuery)));
+        awaitCalls(Flight.HIGHEST_TOTAL, "coalesced", CALLERS - 1);
+        release.countDown();
+
+        for(Future<Integer> result : results) assertEquals(1, result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void run_PassesTheExceptionOn_ToEveryCallerThatSharedTheRun() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Integer> failingQuery = () -> {
+            await(release);
+            runs.incrementAndGet();
+            throw new NoSuchElementException("No coaches currently registered");
+        };
+
+        Future<Integer> leader = executor.submit(() -> singleFlight.run(Flight.MOST_CLIENTS, failingQuery));
+        awaitCalls(Flight.MOST_CLIENTS, "led", 1);
+        Future<Integer> follower = executor.submit(() -> singleFlight.run(Flight.MOST_CLIENTS, failingQuery));
+        awaitCalls(Flight.MOST_CLIENTS, "coalesced", 1);
+        release.countDown();
+
+        for(Future<Integer> result : List.of(leader, follower)) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(NoSuchElementException.class, e.getCause());
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void run_DoesntShare_BetweenCallsWithDifferentKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> above100 = executor.submit(() -> singleFlight.run(Flight.MEMBERS_ABOVE_TOTAL, () -> {
+            await(release);
+            return runs.incrementAndGet();
+        }, 100));
+        awaitCalls(Flight.MEMBERS_ABOVE_TOTAL, "led", 1);
+
+        // Neither a different argument nor a different flight joins the running call
+        assertEquals(1, singleFlight.run(Flight.MEMBERS_ABOVE_TOTAL, runs::incrementAndGet, 200));
+        assertEquals(2, singleFlight.run(Flight.HIGHEST_TOTAL, runs::incrementAndGet));
+        release.countDown();
+
+        assertEquals(3, above100.get(5, TimeUnit.SECONDS));
+        assertEquals(0, calls(Flight.MEMBERS_ABOVE_TOTAL, "coalesced"));
+    }
+
+    @Test
+    void run_DoesntJoinARunThatStartedBeforeAWriteCommitted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> beforeWrite = executor.submit(() -> singleFlight.run(Flight.HIGHEST_BENCH, () -> {
+            await(release);
+            return runs.incrementAndGet();
+        }));
+        awaitCalls(Flight.HIGHEST_BENCH, "led", 1);
+
+        // A coach write leaves the member flights alone
+        changeVersions.onCoachesChanged(new CoachesChangedEvent());
+        Future<Integer> afterCoachWrite = executor.submit(() -> singleFlight.run(Flight.HIGHEST_BENCH, runs::incrementAndGet));
+        awaitCalls(Flight.HIGHEST_BENCH, "coalesced", 1);
+
+        changeVersions.onMembersChanged(new MembersChangedEvent());
+        assertEquals(1, singleFlight.run(Flight.HIGHEST_BENCH, runs::incrementAndGet));
+        release.countDown();
+
+        assertEquals(2, beforeWrite.get(5, TimeUnit.SECONDS));
+        assertEquals(2, afterCoachWrite.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void run_RunsAgain_OnceTheSharedRunHasFinished() {
+        assertEquals(1, singleFlight.run(Flight.LEAST_CLIENTS, runs::incrementAndGet));
+        assertEquals(2, singleFlight.run(Flight.LEAST_CLIENTS, runs::incrementAndGet));
+
+        assertEquals(2, calls(Flight.LEAST_CLIENTS, "led"));
+        assertEquals(0, calls(Flight.LEAST_CLIENTS, "coalesced"));
+    }
+
+    private double calls(Flight flight, String result) {
+        return meterRegistry.get("singleflight.calls")
+                .tag("flight", flight.name().toLowerCase()).tag("result", result)
+                .counter().count();
+    }
+
+    private void awaitCalls(Flight flight, String result, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(calls(flight, result) < expected) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + expected + " " + result + " calls");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package practice.spring_gym_api.worker.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -14,12 +16,15 @@ import practice.spring_gym_api.controller.WorkerController;
 import practice.spring_gym_api.dto.WorkerDTO;
 import practice.spring_gym_api.dto.WorkerMapper;
 import practice.spring_gym_api.entity.WorkerEntity;
-import practice.spring_gym_api.security.filter.CoachAuthFilter;
-import practice.spring_gym_api.security.filter.ValidRequestFilter;
-import practice.spring_gym_api.security.filter.WorkerAuthFilter;
+import practice.spring_gym_api.security.filter.RequestAuthFilter;
 import practice.spring_gym_api.service.WorkerService;
+import practice.spring_gym_api.service.cache.SerializedResponseCache;
 import practice.spring_gym_api.testdata.dto.WorkerDTOTestData;
 import practice.spring_gym_api.testdata.entity.WorkerTestData;
+
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -28,9 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = WorkerController.class, excludeFilters = {
         @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
-                CoachAuthFilter.class,
-                ValidRequestFilter.class,
-                WorkerAuthFilter.class
+                RequestAuthFilter.class
         })
 })
 @AutoConfigureMockMvc
@@ -45,6 +48,12 @@ public class WorkerControllerGETUnitTest {
     @MockitoBean
     private WorkerMapper workerMapper;
 
+    @MockitoBean
+    private SerializedResponseCache responseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private WorkerEntity workerEntity1;
     private WorkerEntity workerEntity2;
     private WorkerDTO workerDTO1;
@@ -52,6 +61,9 @@ public class WorkerControllerGETUnitTest {
 
     @BeforeEach
     void setup() {
+        // Every body is built afresh, as if the cache always missed
+        when(responseCache.get(any(), any(), any(), any())).thenAnswer(invocation ->
+                objectMapper.writeValueAsBytes(invocation.<Supplier<?>>getArgument(3).get()));
         workerEntity1 = WorkerTestData.createSeedWorker1();
         workerEntity2 = WorkerTestData.createSeedWorker2();
         workerDTO1= WorkerDTOTestData.createdSeedWorkerDTO1();
@@ -77,6 +89,21 @@ public class WorkerControllerGETUnitTest {
         verify(workerMapper, times(1)).convertToWorkerDTO(workerEntity1);
     }
 
+    @Test
+    @WithMockUser(username = "testUser", roles = {"COACH"})
+    void getWorkerByID_ReturnsNotFoundInsteadOfNotModified_WhenWorkerDoesntExist() throws Exception {
+        when(workerService.getWorkersVersion()).thenReturn("run-20000-6");
+        when(workerService.existsById(999L)).thenReturn(false);
+        when(workerService.getWorkerById(999L)).thenThrow(new NoSuchElementException("Worker with an id of: 999 doesnt exist"));
+
+        mvc.perform(get("/api/v1/gym-api/workers/" + 999L).header(HttpHeaders.IF_NONE_MATCH, "\"run-20000-6\""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Worker with an id of: 999 doesnt exist"));
+
+        verify(workerService, times(1)).existsById(999L);
+        verifyNoInteractions(workerMapper);
+    }
+
     @Test
     @WithMockUser(username = "testUser", roles = {"COACH"})
     void getWorkerByCode_SuccessfullyReturnsWorkerDTO_WhenWorkerCodeIsValid() throws Exception {
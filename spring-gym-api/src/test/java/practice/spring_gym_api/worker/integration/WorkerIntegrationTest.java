@@ -19,11 +19,13 @@ import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.repository.WorkerRepository;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -192,6 +194,29 @@ public class WorkerIntegrationTest {
         assertTrue(newWorker != null);
     }
 
+    @Test
+    @Transactional
+    void registerNewWorker_RegistersSeveralWorkers_WhileTheyStillHaveThePlaceholderCode() throws Exception {
+        WorkerRequestDTO firstWorker = new WorkerRequestDTO("Jane Jordan", LocalDate.of(1988, 2, 3), Roles.ROLE_WORKER,
+                "janeJordan@gmail.com", "Placeholder worker code");
+        WorkerRequestDTO secondWorker = new WorkerRequestDTO("Kate King", LocalDate.of(1990, 3, 4), Roles.ROLE_WORKER,
+                "kateKing@gmail.com", "Placeholder worker code");
+        for(WorkerRequestDTO worker : List.of(firstWorker, secondWorker)) {
+            mvc.perform(post("/api/v1/gym-api/workers")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(worker))
+                            .header("x-worker-id", seedWorkerID)
+                            .header("x-worker-code", seedWorkerCode))
+                    .andExpect(status().isOk());
+        }
+
+        assertNotNull(workerRepository.findByEmail(firstWorker.getEmail()));
+        assertNotNull(workerRepository.findByEmail(secondWorker.getEmail()));
+        // A placeholder is shared, so it never identifies a worker
+        assertNull(workerRepository.findByWorkerCode("Placeholder worker code"));
+    }
+
     @Test
     @Transactional
     void registerNewWorker_ThrowsException_WHenCredentialsArentValid() throws Exception {
@@ -212,4 +237,19 @@ public class WorkerIntegrationTest {
         assertTrue(newWorker == null);
     }
 
+    @Test
+    @Transactional
+    void registerNewWorker_IsRejected_WhenWorkerCodeDoesntMatchWorkerId() throws Exception {
+        var result = mvc.perform(post("/api/v1/gym-api/workers")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(fakeWorkerRequestDTO))
+                        .header("x-worker-id", seedWorkerID)
+                        .header("x-worker-code", "WRONG-CODE"))
+                .andExpect(status().isUnauthorized())
+                .andReturn();
+
+        assertTrue(result.getResponse().getContentAsString().contains("Worker with a worker code of: WRONG-CODE doesnt exist"));
+        assertNull(workerRepository.findByEmail(fakeWorkerRequestDTO.getEmail()));
+    }
 }
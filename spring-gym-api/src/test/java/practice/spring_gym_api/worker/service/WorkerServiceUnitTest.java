@@ -6,12 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import practice.spring_gym_api.dto.WorkerMapper;
 import practice.spring_gym_api.dto.request.WorkerRequestDTO;
 import practice.spring_gym_api.entity.CoachEntity;
 import practice.spring_gym_api.entity.MemberEntity;
 import practice.spring_gym_api.entity.WorkerEntity;
 import practice.spring_gym_api.entity.enums.Roles;
+import practice.spring_gym_api.service.leaderboard.LeaderboardEngine;
 import practice.spring_gym_api.repository.CoachRepository;
 import practice.spring_gym_api.repository.MemberRepository;
 import practice.spring_gym_api.repository.WorkerRepository;
@@ -19,6 +21,8 @@ import practice.spring_gym_api.service.impl.WorkerServiceimpl;
 import practice.spring_gym_api.testdata.entity.CoachTestData;
 import practice.spring_gym_api.testdata.entity.MemberTestData;
 import practice.spring_gym_api.testdata.entity.WorkerTestData;
+import practice.spring_gym_api.security.cache.CredentialCache;
+import practice.spring_gym_api.service.count.RowCountCache;
 
 import java.time.LocalDate;
 import java.util.NoSuchElementException;
@@ -37,15 +41,27 @@ public class WorkerServiceUnitTest {
     @Mock
     WorkerRepository workerRepository;
 
+    @Mock
+    CredentialCache credentialCache;
+
     @Mock
     MemberRepository memberRepository;
 
+    @Mock
+    LeaderboardEngine leaderboardEngine;
+
     @Mock
     CoachRepository coachRepository;
 
     @Mock
     WorkerMapper workerMapper;
 
+    @Mock
+    RowCountCache rowCountCache;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     private WorkerEntity workerEntity1;
     private WorkerEntity workerEntity2;
     private CoachEntity coachEntity1;
@@ -207,6 +223,7 @@ public class WorkerServiceUnitTest {
 
         workerService.updateWorkerCodeById(1L, email, fakeWorker.getWorkerCode());
         assertEquals(workerEntity1.getWorkerCode(), fakeWorker.getWorkerCode());
+        assertEquals(1, workerEntity1.getKeyVersion());
 
         verify(workerRepository, times(1)).findById(1L);
         verify(workerRepository, times(1)).findByEmail(email);
@@ -298,6 +315,7 @@ public class WorkerServiceUnitTest {
 
         verify(workerRepository, times(1)).findById(1L);
         verify(workerRepository, times(1)).delete(workerEntity1);
+        verify(credentialCache, times(1)).invalidateWorker(1L, workerEntity1.getWorkerCode());
     }
 
     @Test